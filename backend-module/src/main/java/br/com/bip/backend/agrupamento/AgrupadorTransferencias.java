@@ -0,0 +1,209 @@
+package br.com.bip.backend.agrupamento;
+
+import br.com.bip.backend.limite.CapacidadeEsgotadaException;
+import br.com.bip.ejb.BeneficioEjbServiceLocal;
+import br.com.bip.ejb.exception.TransferenciaException;
+import br.com.bip.ejb.model.ModoConcorrencia;
+import br.com.bip.ejb.model.TransferenciaItem;
+import br.com.bip.ejb.model.TransferenciaResultado;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Group commit de transferências: as requisições entram em uma fila e uma única thread escritora
+ * as aplica em lotes com {@code transferBatch(itens, false)}. Cada lote é uma transação, com os
+ * locks de linha tomados uma vez em ordem de ID e a validação feita perna a perna, então centenas
+ * de transferências simultâneas pagam um commit em vez de centenas.
+ * <p>
+ * Cada chamador recebe o resultado da sua perna: a recusa de uma não afeta as demais. Se o lote
+ * inteiro falhar (ex: timeout de lock), cada pedido é repetido sozinho pelo caminho normal.
+ * Só entram transferências sem {@code Idempotency-Key} que pedem explicitamente o modo pessimista:
+ * o lote sempre roda pessimista, e sem modo vale o padrão do deployment ({@code bip.transferencia.modo},
+ * lido no container do EJB). As demais seguem direto para o EJB.
+ */
+@Component
+public class AgrupadorTransferencias {
+
+   static final String TAMANHO_LOTE = "bip.transferencia.agrupamento.lote";
+   static final String FILA = "bip.transferencia.agrupamento.fila";
+
+   private final BeneficioEjbServiceLocal ejb;
+   private final boolean habilitado;
+   private final long janelaNanos;
+   private final int tamanhoMaximo;
+   private final BlockingQueue<Pedido> fila;
+   private final DistributionSummary tamanhoLote;
+   private final Thread escritor;
+   private volatile boolean ativo = true;
+
+   public AgrupadorTransferencias(BeneficioEjbServiceLocal ejb,
+            @Value("${bip.transferencia.agrupamento.habilitado:false}") boolean habilitado,
+            @Value("${bip.transferencia.agrupamento.janela:2ms}") Duration janela,
+            @Value("${bip.transferencia.agrupamento.tamanho-maximo:200}") int tamanhoMaximo,
+            @Value("${bip.transferencia.agrupamento.fila:10000}") int capacidadeFila,
+            MeterRegistry registry) {
+      if (tamanhoMaximo < 1 || capacidadeFila < 1) {
+         throw new IllegalArgumentException("O tamanho do lote e a capacidade da fila devem ser positivos.");
+      }
+      this.ejb = ejb;
+      this.habilitado = habilitado;
+      this.janelaNanos = janela.toNanos();
+      this.tamanhoMaximo = tamanhoMaximo;
+      this.fila = new ArrayBlockingQueue<>(capacidadeFila);
+      this.tamanhoLote = DistributionSummary.builder(TAMANHO_LOTE)
+               .description("Transferências aplicadas por transação no group commit")
+               .register(registry);
+      Gauge.builder(FILA, fila, BlockingQueue::size)
+               .description("Transferências aguardando o próximo lote")
+               .register(registry);
+
+      if (habilitado) {
+         escritor = new Thread(this::executarLotes, "bip-agrupador-transferencias");
+         escritor.setDaemon(true);
+         escritor.start();
+      } else {
+         escritor = null;
+      }
+   }
+
+   /** Indica se a transferência pode ser agrupada (ver a documentação da classe). */
+   public boolean agrupavel(ModoConcorrencia modo, String chaveIdempotencia) {
+      return habilitado && chaveIdempotencia == null && modo == ModoConcorrencia.PESSIMISTA;
+   }
+
+   /**
+    * Enfileira a transferência e bloqueia até o lote que a contém ser confirmado. Propaga a
+    * {@link TransferenciaException} da perna, como uma chamada direta ao EJB.
+    */
+   public void transferir(Long fromId, Long toId, BigDecimal amount, ModoConcorrencia modo) {
+      Pedido pedido = new Pedido(new TransferenciaItem(fromId, toId, amount), modo);
+      if (!ativo || !fila.offer(pedido)) {
+         throw new CapacidadeEsgotadaException("Fila de transferências cheia; tente novamente em instantes.");
+      }
+      try {
+         pedido.resultado.join();
+      } catch (CompletionException e) {
+         if (e.getCause() instanceof RuntimeException causa) {
+            throw causa;
+         }
+         throw e;
+      }
+   }
+
+   @PreDestroy
+   public void encerrar() throws InterruptedException {
+      ativo = false;
+      if (escritor != null) {
+         escritor.join(TimeUnit.SECONDS.toMillis(30));
+      }
+      // Pedidos que chegaram depois da última volta do escritor não ficam presos
+      List<Pedido> restantes = new ArrayList<>();
+      fila.drainTo(restantes);
+      restantes.forEach(p -> p.resultado.completeExceptionally(
+               new CapacidadeEsgotadaException("Aplicação em desligamento; tente novamente.")));
+   }
+
+   private void executarLotes() {
+      List<Pedido> lote = new ArrayList<>(tamanhoMaximo);
+      while (ativo || !fila.isEmpty()) {
+         try {
+            Pedido primeiro = fila.poll(100, TimeUnit.MILLISECONDS);
+            if (primeiro == null) {
+               continue;
+            }
+            lote.add(primeiro);
+            // Espera até a janela fechar ou o lote encher, o que vier primeiro
+            long prazo = System.nanoTime() + janelaNanos;
+            while (lote.size() < tamanhoMaximo) {
+               fila.drainTo(lote, tamanhoMaximo - lote.size());
+               long resta = prazo - System.nanoTime();
+               if (lote.size() >= tamanhoMaximo || resta <= 0) {
+                  break;
+               }
+               Pedido proximo = fila.poll(resta, TimeUnit.NANOSECONDS);
+               if (proximo == null) {
+                  break;
+               }
+               lote.add(proximo);
+            }
+            aplicar(lote);
+         } catch (InterruptedException e) {
+            lote.forEach(p -> p.resultado.completeExceptionally(
+                     new TransferenciaException("Agrupador de transferências interrompido antes de aplicar o lote.")));
+            Thread.currentThread().interrupt();
+            return;
+         } finally {
+            lote.clear();
+         }
+      }
+   }
+
+   private void aplicar(List<Pedido> lote) {
+      tamanhoLote.record(lote.size());
+      try {
+         List<TransferenciaItem> itens = lote.stream().map(p -> p.item).collect(Collectors.toList());
+         List<TransferenciaResultado> resultados;
+         try {
+            resultados = ejb.transferBatch(itens, false);
+         } catch (CapacidadeEsgotadaException e) {
+            lote.forEach(p -> p.resultado.completeExceptionally(e));
+            return;
+         } catch (RuntimeException e) {
+            lote.forEach(this::aplicarIsolado);
+            return;
+         }
+         for (TransferenciaResultado resultado : resultados) {
+            Pedido pedido = lote.get(resultado.getIndice());
+            if (resultado.isSucesso()) {
+               pedido.resultado.complete(null);
+            } else {
+               pedido.resultado.completeExceptionally(new TransferenciaException(resultado.getMensagem()));
+            }
+         }
+      } catch (RuntimeException e) {
+         lote.forEach(p -> p.resultado.completeExceptionally(new TransferenciaException(e.getMessage(), e)));
+      } finally {
+         // Nenhum chamador pode ficar esperando por uma perna sem resultado
+         lote.forEach(p -> p.resultado.completeExceptionally(
+                  new TransferenciaException("Transferência sem resultado no lote.")));
+      }
+   }
+
+   private void aplicarIsolado(Pedido pedido) {
+      TransferenciaItem item = pedido.item;
+      try {
+         ejb.transfer(item.getFromId(), item.getToId(), item.getAmount(), pedido.modo, null);
+         pedido.resultado.complete(null);
+      } catch (TransferenciaException | CapacidadeEsgotadaException e) {
+         pedido.resultado.completeExceptionally(e);
+      } catch (RuntimeException e) {
+         pedido.resultado.completeExceptionally(new TransferenciaException(e.getMessage()));
+      }
+   }
+
+   private static final class Pedido {
+      private final TransferenciaItem item;
+      private final ModoConcorrencia modo;
+      private final CompletableFuture<Void> resultado = new CompletableFuture<>();
+
+      private Pedido(TransferenciaItem item, ModoConcorrencia modo) {
+         this.item = item;
+         this.modo = modo;
+      }
+   }
+}
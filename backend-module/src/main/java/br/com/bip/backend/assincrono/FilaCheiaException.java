@@ -0,0 +1,12 @@
+package br.com.bip.backend.assincrono;
+
+/**
+ * A fila de transferências assíncronas está cheia: o pedido não foi aceito e o cliente deve
+ * repetir mais tarde (HTTP 429 com {@code Retry-After}).
+ */
+public class FilaCheiaException extends RuntimeException {
+
+   public FilaCheiaException(String message) {
+      super(message);
+   }
+}
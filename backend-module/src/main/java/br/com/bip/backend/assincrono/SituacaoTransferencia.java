@@ -0,0 +1,10 @@
+package br.com.bip.backend.assincrono;
+
+/** Estado de uma transferência submetida em modo assíncrono. */
+public enum SituacaoTransferencia {
+   /** Na fila ou em execução. */
+   PENDENTE,
+   CONCLUIDA,
+   /** Não aplicada; o motivo vem em {@code mensagem}. */
+   RECUSADA
+}
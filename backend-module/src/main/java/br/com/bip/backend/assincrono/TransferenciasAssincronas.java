@@ -0,0 +1,191 @@
+package br.com.bip.backend.assincrono;
+
+import br.com.bip.backend.dto.TransferRequestDTO;
+import br.com.bip.backend.dto.TransferStatusDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Transferências aceitas com {@code 202 Accepted}: o pedido entra em uma fila limitada e um pool
+ * fixo de threads o executa pelo caminho normal (idempotência, group commit, limitador e EJB),
+ * sem prender a conexão HTTP durante os locks e o commit. Fila cheia recusa na entrada
+ * ({@link FilaCheiaException}, 429) em vez de acumular atraso.
+ * <p>
+ * Enquanto pendente, o estado fica em um mapa à parte, limitado pela fila e pelo pool e limpo na
+ * conclusão; só o resultado final vai para o cache limitado por tamanho, então uma transferência
+ * aceita nunca some da consulta antes de terminar. O resultado fica disponível por
+ * {@code bip.transferencia.assincrona.ttl} para consulta por ID e é publicado no stream SSE aos
+ * assinantes que informaram esse ID: o UUID devolvido no 202 é o que dá acesso ao resultado, na
+ * consulta e no stream. O estado é deste nó: a consulta precisa chegar ao nó que aceitou a
+ * transferência.
+ */
+@Component
+public class TransferenciasAssincronas {
+
+   static final String FILA = "bip.transferencia.assincrona.fila";
+   static final String EVENTO = "transferencia";
+
+   /** IDs por assinatura do stream; mais do que isso, consulte por ID ou abra outra assinatura. */
+   public static final int MAX_IDS_ASSINATURA = 100;
+
+   /** Sem eventos por este tempo o stream é encerrado; o EventSource do navegador reconecta sozinho. */
+   private static final long TIMEOUT_ASSINATURA = Duration.ofMinutes(30).toMillis();
+
+   private final ThreadPoolExecutor executor;
+   private final Map<String, TransferStatusDTO> pendentes = new ConcurrentHashMap<>();
+   private final Cache<String, TransferStatusDTO> resultados;
+   private final List<Assinatura> assinantes = new CopyOnWriteArrayList<>();
+
+   private record Assinatura(SseEmitter emitter, Set<String> ids) {
+   }
+
+   public TransferenciasAssincronas(
+            @Value("${bip.transferencia.assincrona.threads:8}") int threads,
+            @Value("${bip.transferencia.assincrona.fila:1000}") int capacidadeFila,
+            @Value("${bip.transferencia.assincrona.resultados-maximo:100000}") long resultadosMaximo,
+            @Value("${bip.transferencia.assincrona.ttl:10m}") Duration ttl,
+            MeterRegistry registry) {
+      if (threads < 1 || capacidadeFila < 1) {
+         throw new IllegalArgumentException("O número de threads e a capacidade da fila devem ser positivos.");
+      }
+      AtomicInteger sequencia = new AtomicInteger();
+      this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+               new ArrayBlockingQueue<>(capacidadeFila), tarefa -> {
+                  Thread thread = new Thread(tarefa, "bip-transferencia-assincrona-" + sequencia.incrementAndGet());
+                  thread.setDaemon(true);
+                  return thread;
+               }, new ThreadPoolExecutor.AbortPolicy());
+      this.resultados = Caffeine.newBuilder()
+               .maximumSize(resultadosMaximo)
+               .expireAfterWrite(ttl)
+               .build();
+      Gauge.builder(FILA, executor.getQueue(), BlockingQueue::size)
+               .description("Transferências assíncronas aguardando execução")
+               .register(registry);
+   }
+
+   /**
+    * Enfileira a transferência e retorna o seu estado inicial ({@code PENDENTE}). {@code execucao}
+    * roda em uma thread do pool; uma exceção dela recusa a transferência com a sua mensagem.
+    */
+   public TransferStatusDTO submeter(TransferRequestDTO requestDTO, Consumer<TransferRequestDTO> execucao) {
+      String id = UUID.randomUUID().toString();
+      TransferStatusDTO pendente = new TransferStatusDTO(id, SituacaoTransferencia.PENDENTE, requestDTO, null);
+      // Registrado antes de enfileirar: a consulta nunca vê um ID aceito sem estado
+      pendentes.put(id, pendente);
+      try {
+         executor.execute(() -> executar(id, requestDTO, execucao));
+      } catch (RejectedExecutionException e) {
+         pendentes.remove(id);
+         throw new FilaCheiaException("Fila de transferências assíncronas cheia; tente novamente em instantes.");
+      }
+      return pendente;
+   }
+
+   /** Estado atual da transferência; lança EntityNotFoundException se o ID é desconhecido ou expirou. */
+   public TransferStatusDTO status(String id) {
+      TransferStatusDTO status = pendentes.get(id);
+      if (status == null) {
+         status = resultados.getIfPresent(id);
+      }
+      if (status == null) {
+         throw new EntityNotFoundException("Transferência não encontrada com ID: " + id);
+      }
+      return status;
+   }
+
+   /**
+    * Stream SSE com um evento {@code transferencia} a cada conclusão ou recusa das transferências
+    * informadas. As que já terminaram são enviadas logo na assinatura.
+    */
+   public SseEmitter assinar(Collection<String> ids) {
+      Set<String> filtro = ids == null ? Set.of() : ids.stream()
+               .filter(id -> id != null && !id.isBlank())
+               .map(String::trim)
+               .collect(Collectors.toUnmodifiableSet());
+      if (filtro.isEmpty() || filtro.size() > MAX_IDS_ASSINATURA) {
+         throw new IllegalArgumentException("Informe entre 1 e " + MAX_IDS_ASSINATURA + " IDs de transferência.");
+      }
+      SseEmitter emitter = new SseEmitter(TIMEOUT_ASSINATURA);
+      Assinatura assinatura = new Assinatura(emitter, filtro);
+      emitter.onCompletion(() -> assinantes.remove(assinatura));
+      emitter.onTimeout(() -> assinantes.remove(assinatura));
+      emitter.onError(e -> assinantes.remove(assinatura));
+      // Registrada antes de reenviar os finais: uma conclusão no meio pode chegar duas vezes, nunca nenhuma
+      assinantes.add(assinatura);
+      for (String id : filtro) {
+         TransferStatusDTO concluida = resultados.getIfPresent(id);
+         if (concluida != null && !enviar(assinatura, concluida)) {
+            break;
+         }
+      }
+      return emitter;
+   }
+
+   @PreDestroy
+   public void encerrar() throws InterruptedException {
+      executor.shutdown();
+      if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+         executor.shutdownNow();
+      }
+      assinantes.forEach(assinatura -> assinatura.emitter().complete());
+   }
+
+   private void executar(String id, TransferRequestDTO requestDTO, Consumer<TransferRequestDTO> execucao) {
+      TransferStatusDTO status;
+      try {
+         execucao.accept(requestDTO);
+         status = new TransferStatusDTO(id, SituacaoTransferencia.CONCLUIDA, requestDTO, null);
+      } catch (RuntimeException e) {
+         status = new TransferStatusDTO(id, SituacaoTransferencia.RECUSADA, requestDTO, e.getMessage());
+      }
+      // O final entra no cache antes de o pendente sair: a consulta nunca fica sem estado
+      resultados.put(id, status);
+      pendentes.remove(id);
+      publicar(status);
+   }
+
+   private void publicar(TransferStatusDTO status) {
+      for (Assinatura assinatura : assinantes) {
+         if (assinatura.ids().contains(status.getId())) {
+            enviar(assinatura, status);
+         }
+      }
+   }
+
+   private boolean enviar(Assinatura assinatura, TransferStatusDTO status) {
+      try {
+         assinatura.emitter().send(SseEmitter.event().name(EVENTO).id(status.getId()).data(status));
+         return true;
+      } catch (IOException | IllegalStateException e) {
+         // Cliente desconectado: o callback de erro também remove, mas não há por que esperar
+         assinantes.remove(assinatura);
+         return false;
+      }
+   }
+}
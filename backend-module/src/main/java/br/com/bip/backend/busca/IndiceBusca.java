@@ -0,0 +1,291 @@
+package br.com.bip.backend.busca;
+
+import br.com.bip.backend.eventos.OuvinteAlteracoes;
+import br.com.bip.backend.limite.CapacidadeEsgotadaException;
+import br.com.bip.ejb.BeneficioEjbServiceLocal;
+import br.com.bip.ejb.entity.Beneficio;
+import br.com.bip.ejb.model.BeneficioProjecao;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Índice invertido em memória sobre NOME e DESCRICAO para {@code GET /busca}. Os termos são
+ * normalizados sem acentos ({@link Termos}) e ficam ordenados, então cada termo da consulta é
+ * buscado como prefixo por uma faixa do mapa ("aux edu" encontra "Auxílio Educação"). Todos os
+ * termos precisam casar; termo exato vale mais que prefixo e nome vale mais que descrição.
+ * <p>
+ * O índice é montado por uma leitura paginada da tabela (projeções só com id, nome, descrição e
+ * versão) após a subida, e refeito a cada {@code bip.busca.reconstrucao} para incorporar escritas
+ * de outros nós. Entre as reconstruções, criações, edições e exclusões deste nó são aplicadas na
+ * hora ({@link OuvinteAlteracoes}); durante uma reconstrução elas também vão para um diário
+ * reaplicado no índice novo antes da troca, e a versão impede que a leitura mais antiga as desfaça.
+ */
+@Component
+public class IndiceBusca implements OuvinteAlteracoes {
+
+   private static final Set<String> CAMPOS_LEITURA = Set.of("id", "nome", "descricao", "version");
+   private static final Duration NOVA_TENTATIVA = Duration.ofSeconds(5);
+
+   private static final int NOME_EXATO = 8;
+   private static final int NOME_PREFIXO = 4;
+   private static final int DESCRICAO_EXATO = 2;
+   private static final int DESCRICAO_PREFIXO = 1;
+
+   private final BeneficioEjbServiceLocal leitor;
+   private final Duration intervaloReconstrucao;
+   private final ScheduledExecutorService thread;
+   private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+   // Protegidos por lock
+   private Indice indice;
+   private List<Consumer<Indice>> diario;
+
+   public IndiceBusca(@Qualifier("beneficioEjbServiceSequenciado") BeneficioEjbServiceLocal leitor,
+            @Value("${bip.busca.reconstrucao:10m}") Duration intervaloReconstrucao) {
+      this.leitor = leitor;
+      this.intervaloReconstrucao = intervaloReconstrucao;
+      this.thread = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+         Thread t = new Thread(tarefa, "bip-indice-busca");
+         t.setDaemon(true);
+         return t;
+      });
+   }
+
+   @EventListener(ApplicationReadyEvent.class)
+   public void iniciar() {
+      thread.execute(this::reconstruirAgendado);
+   }
+
+   @PreDestroy
+   public void encerrar() {
+      thread.shutdownNow();
+   }
+
+   /**
+    * IDs da página de resultados, do mais relevante ao menos (empate: menor ID), e o total de
+    * resultados. Lança {@link CapacidadeEsgotadaException} enquanto o índice não foi montado.
+    */
+   public Resultado buscar(String consulta, int offset, int limit) {
+      Set<String> termos = Termos.de(consulta);
+      lock.readLock().lock();
+      try {
+         if (indice == null) {
+            throw new CapacidadeEsgotadaException("Índice de busca em construção; tente novamente em instantes.");
+         }
+         if (termos.isEmpty()) {
+            return new Resultado(List.of(), 0);
+         }
+         Map<Long, Integer> pontuacao = null;
+         for (String termo : termos) {
+            Map<Long, Integer> doTermo = indice.pontuar(termo);
+            pontuacao = pontuacao == null ? doTermo : intersecao(pontuacao, doTermo);
+            if (pontuacao.isEmpty()) {
+               break;
+            }
+         }
+         List<Map.Entry<Long, Integer>> ordenados = new ArrayList<>(pontuacao.entrySet());
+         ordenados.sort(Map.Entry.<Long, Integer>comparingByValue(Comparator.reverseOrder())
+                  .thenComparing(Map.Entry.comparingByKey()));
+         List<Long> ids = ordenados.stream()
+                  .skip(offset)
+                  .limit(limit)
+                  .map(Map.Entry::getKey)
+                  .toList();
+         return new Resultado(ids, ordenados.size());
+      } finally {
+         lock.readLock().unlock();
+      }
+   }
+
+   /** Lê a tabela inteira em um índice novo e o troca pelo atual. */
+   public void reconstruir() {
+      modificar(atual -> diario = new ArrayList<>());
+      Indice novo = new Indice();
+      try {
+         Long afterId = null;
+         List<BeneficioProjecao> pagina;
+         do {
+            pagina = leitor.findPageProjected(afterId, BeneficioEjbServiceLocal.MAX_PAGE_SIZE, null, null, CAMPOS_LEITURA);
+            for (BeneficioProjecao projecao : pagina) {
+               novo.indexar(projecao.getId(), projecao.getVersion(), projecao.getNome(), projecao.getDescricao());
+            }
+            if (!pagina.isEmpty()) {
+               afterId = pagina.get(pagina.size() - 1).getId();
+            }
+         } while (pagina.size() == BeneficioEjbServiceLocal.MAX_PAGE_SIZE);
+         novo.marcarCompleto();
+      } finally {
+         modificar(atual -> {
+            if (diario != null && novo.completo()) {
+               diario.forEach(operacao -> operacao.accept(novo));
+               indice = novo;
+            }
+            diario = null;
+         });
+      }
+   }
+
+   @Override
+   public void alterado(Beneficio beneficio, boolean completo) {
+      if (completo && beneficio != null && beneficio.getId() != null) {
+         aplicar(indice -> indice.indexar(beneficio.getId(), beneficio.getVersion(), beneficio.getNome(),
+                  beneficio.getDescricao()));
+      }
+   }
+
+   @Override
+   public void removido(Long id) {
+      if (id != null) {
+         aplicar(indice -> indice.remover(id));
+      }
+   }
+
+   private void aplicar(Consumer<Indice> operacao) {
+      modificar(atual -> {
+         if (indice != null) {
+            operacao.accept(indice);
+         }
+         if (diario != null) {
+            diario.add(operacao);
+         }
+      });
+   }
+
+   private void modificar(Consumer<Indice> alteracao) {
+      lock.writeLock().lock();
+      try {
+         alteracao.accept(indice);
+      } finally {
+         lock.writeLock().unlock();
+      }
+   }
+
+   private void reconstruirAgendado() {
+      boolean montado;
+      try {
+         reconstruir();
+         montado = true;
+      } catch (RuntimeException e) {
+         // EJB indisponível (ex: ainda subindo): tenta de novo em breve se o índice não existe
+         montado = false;
+      }
+      lock.readLock().lock();
+      Duration espera;
+      try {
+         espera = montado || indice != null ? intervaloReconstrucao : NOVA_TENTATIVA;
+      } finally {
+         lock.readLock().unlock();
+      }
+      if (!thread.isShutdown()) {
+         thread.schedule(this::reconstruirAgendado, espera.toMillis(), TimeUnit.MILLISECONDS);
+      }
+   }
+
+   private static Map<Long, Integer> intersecao(Map<Long, Integer> acumulado, Map<Long, Integer> doTermo) {
+      Map<Long, Integer> resultado = new HashMap<>();
+      acumulado.forEach((id, pontos) -> {
+         Integer outros = doTermo.get(id);
+         if (outros != null) {
+            resultado.put(id, pontos + outros);
+         }
+      });
+      return resultado;
+   }
+
+   /** Página de resultados: IDs em ordem de relevância e o total de benefícios encontrados. */
+   public record Resultado(List<Long> ids, int total) {
+   }
+
+   /** Estrutura do índice; não é thread-safe (acesso sob o lock de {@link IndiceBusca}). */
+   static final class Indice {
+
+      private static final int NOME = 1;
+      private static final int DESCRICAO = 2;
+
+      /** Termo → (ID → campos em que aparece). */
+      private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+      private final Map<Long, Documento> documentos = new HashMap<>();
+      private boolean completo;
+
+      void indexar(Long id, Long version, String nome, String descricao) {
+         Documento atual = documentos.get(id);
+         if (atual != null) {
+            if (version != null && atual.version != null && version < atual.version) {
+               return;
+            }
+            remover(id);
+         }
+         Map<String, Integer> campos = new HashMap<>();
+         Termos.de(nome).forEach(termo -> campos.merge(termo, NOME, (a, b) -> a | b));
+         Termos.de(descricao).forEach(termo -> campos.merge(termo, DESCRICAO, (a, b) -> a | b));
+         campos.forEach((termo, flags) -> postings.computeIfAbsent(termo, t -> new HashMap<>()).put(id, flags));
+         documentos.put(id, new Documento(version, campos.keySet()));
+      }
+
+      void remover(Long id) {
+         Documento documento = documentos.remove(id);
+         if (documento == null) {
+            return;
+         }
+         for (String termo : documento.termos) {
+            Map<Long, Integer> ids = postings.get(termo);
+            if (ids != null) {
+               ids.remove(id);
+               if (ids.isEmpty()) {
+                  postings.remove(termo);
+               }
+            }
+         }
+      }
+
+      /** Melhor pontuação de cada benefício para um termo da consulta, exato ou como prefixo. */
+      Map<Long, Integer> pontuar(String termo) {
+         Map<Long, Integer> pontuacao = new HashMap<>();
+         for (Map.Entry<String, Map<Long, Integer>> entrada
+                  : postings.subMap(termo, true, termo + Character.MAX_VALUE, false).entrySet()) {
+            boolean exato = entrada.getKey().equals(termo);
+            entrada.getValue().forEach((id, campos) -> {
+               int pontos = 0;
+               if ((campos & NOME) != 0) {
+                  pontos = exato ? NOME_EXATO : NOME_PREFIXO;
+               }
+               if ((campos & DESCRICAO) != 0) {
+                  pontos = Math.max(pontos, exato ? DESCRICAO_EXATO : DESCRICAO_PREFIXO);
+               }
+               pontuacao.merge(id, pontos, Math::max);
+            });
+         }
+         return pontuacao;
+      }
+
+      void marcarCompleto() {
+         completo = true;
+      }
+
+      boolean completo() {
+         return completo;
+      }
+
+      private record Documento(Long version, Set<String> termos) {
+      }
+   }
+}
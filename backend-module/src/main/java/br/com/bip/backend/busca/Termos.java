@@ -0,0 +1,32 @@
+package br.com.bip.backend.busca;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/** Normalização dos textos indexados e das consultas: sem acentos, minúsculas, só letras e dígitos. */
+final class Termos {
+
+   private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+   private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+   private Termos() {
+   }
+
+   /** "Auxílio-Educação 2024" vira [auxilio, educacao, 2024]. */
+   static Set<String> de(String texto) {
+      Set<String> termos = new LinkedHashSet<>();
+      if (texto == null || texto.isBlank()) {
+         return termos;
+      }
+      String semAcentos = DIACRITICOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+      for (String termo : SEPARADORES.split(semAcentos.toLowerCase(Locale.ROOT))) {
+         if (!termo.isEmpty()) {
+            termos.add(termo);
+         }
+      }
+      return termos;
+   }
+}
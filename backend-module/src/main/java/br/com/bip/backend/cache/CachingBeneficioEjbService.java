@@ -0,0 +1,278 @@
+package br.com.bip.backend.cache;
+
+import br.com.bip.backend.dto.CacheEstatisticaDTO;
+import br.com.bip.ejb.BeneficioEjbServiceLocal;
+import br.com.bip.ejb.entity.Beneficio;
+import br.com.bip.ejb.model.BeneficioEstatisticas;
+import br.com.bip.ejb.model.BeneficioProjecao;
+import br.com.bip.ejb.model.ConciliacaoFaixa;
+import br.com.bip.ejb.model.ConciliacaoTotais;
+import br.com.bip.ejb.model.ModoConcorrencia;
+import br.com.bip.ejb.model.TransferenciaEstatistica;
+import br.com.bip.ejb.model.TransferenciaItem;
+import br.com.bip.ejb.model.TransferenciaResultado;
+import br.com.bip.ejb.model.TransferenciaTelemetria;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Cache read-through na frente do EJB para {@code findById} e {@code findAll}, limitado por
+ * tamanho e TTL. As escritas feitas por este proxy invalidam as entradas afetadas depois que a
+ * transação do EJB confirma (a chamada só retorna após o commit).
+ * <p>
+ * Uma leitura só é gravada no cache se nenhuma invalidação ocorreu durante a ida ao banco
+ * (contador {@code geracao}) e se a versão lida não é mais antiga que a já cacheada (coluna
+ * VERSION), então uma leitura lenta nunca sobrescreve o resultado de uma escrita confirmada.
+ * Alterações feitas fora deste proxy (outro nó, projetor do livro-razão) ficam visíveis no
+ * máximo após o TTL, por isso o cache serve leituras e nunca pré-condições de escrita: o
+ * {@code If-Match} é conferido pelo UPDATE condicional do EJB ou por uma leitura abaixo do
+ * cache. As instâncias cacheadas são compartilhadas e não devem ser alteradas.
+ */
+public class CachingBeneficioEjbService implements BeneficioEjbServiceLocal {
+
+   private static final String TODOS = "findAll";
+
+   private final BeneficioEjbServiceLocal delegate;
+   private final Cache<Long, Beneficio> porId;
+   private final Cache<String, List<Beneficio>> listas;
+   private final AtomicLong geracao = new AtomicLong();
+
+   public CachingBeneficioEjbService(BeneficioEjbServiceLocal delegate, long tamanhoMaximo, Duration ttl) {
+      this.delegate = delegate;
+      this.porId = Caffeine.newBuilder()
+               .maximumSize(tamanhoMaximo)
+               .expireAfterWrite(ttl)
+               .recordStats()
+               .build();
+      this.listas = Caffeine.newBuilder()
+               .maximumSize(1)
+               .expireAfterWrite(ttl)
+               .recordStats()
+               .build();
+   }
+
+   // --- Leituras ---
+
+   @Override
+   public Beneficio findById(Long id) {
+      Beneficio cacheado = porId.getIfPresent(id);
+      if (cacheado != null) {
+         return cacheado;
+      }
+      long inicio = geracao.get();
+      Beneficio lido = delegate.findById(id);
+      if (lido != null) {
+         guardar(lido, inicio);
+      }
+      return lido;
+   }
+
+   @Override
+   public List<Beneficio> findAll() {
+      List<Beneficio> cacheados = listas.getIfPresent(TODOS);
+      if (cacheados != null) {
+         return cacheados;
+      }
+      long inicio = geracao.get();
+      List<Beneficio> lidos = List.copyOf(delegate.findAll());
+      listas.asMap().compute(TODOS, (chave, atual) -> geracao.get() == inicio ? lidos : atual);
+      for (Beneficio beneficio : lidos) {
+         guardar(beneficio, inicio);
+      }
+      return lidos;
+   }
+
+   @Override
+   public List<Beneficio> findPage(Long afterId, int limit, Boolean ativo, String nome) {
+      return delegate.findPage(afterId, limit, ativo, nome);
+   }
+
+   @Override
+   public List<BeneficioProjecao> findPageProjected(Long afterId, int limit, Boolean ativo, String nome,
+            Set<String> campos) {
+      return delegate.findPageProjected(afterId, limit, ativo, nome, campos);
+   }
+
+   @Override
+   public String tableVersion() {
+      return delegate.tableVersion();
+   }
+
+   @Override
+   public BeneficioEstatisticas statistics(boolean resumo) {
+      return delegate.statistics(resumo);
+   }
+
+   @Override
+   public List<TransferenciaEstatistica> transferStatistics() {
+      return delegate.transferStatistics();
+   }
+
+   @Override
+   public TransferenciaTelemetria transferTelemetry() {
+      return delegate.transferTelemetry();
+   }
+
+   @Override
+   public ConciliacaoFaixa reconcileRange(long fromId, long toId) {
+      return delegate.reconcileRange(fromId, toId);
+   }
+
+   @Override
+   public ConciliacaoTotais reconciliationTotals(boolean apurar) {
+      return delegate.reconciliationTotals(apurar);
+   }
+
+   // --- Escritas (invalidam após o commit do EJB) ---
+
+   @Override
+   public Beneficio create(Beneficio beneficio) {
+      Beneficio criado = delegate.create(beneficio);
+      invalidar();
+      return criado;
+   }
+
+   @Override
+   public List<Beneficio> createAll(List<Beneficio> beneficios) {
+      try {
+         return delegate.createAll(beneficios);
+      } finally {
+         invalidar();
+      }
+   }
+
+   @Override
+   public Beneficio update(Beneficio beneficio) {
+      try {
+         return delegate.update(beneficio);
+      } finally {
+         invalidar(beneficio.getId());
+      }
+   }
+
+   @Override
+   public void deleteById(Long id) {
+      try {
+         delegate.deleteById(id);
+      } finally {
+         invalidar(id);
+      }
+   }
+
+   @Override
+   public void transfer(Long fromId, Long toId, BigDecimal amount) {
+      try {
+         delegate.transfer(fromId, toId, amount);
+      } finally {
+         invalidar(fromId, toId);
+      }
+   }
+
+   @Override
+   public void transfer(Long fromId, Long toId, BigDecimal amount, ModoConcorrencia modo) {
+      try {
+         delegate.transfer(fromId, toId, amount, modo);
+      } finally {
+         invalidar(fromId, toId);
+      }
+   }
+
+   @Override
+   public void transfer(Long fromId, Long toId, BigDecimal amount, ModoConcorrencia modo, String chaveIdempotencia) {
+      try {
+         delegate.transfer(fromId, toId, amount, modo, chaveIdempotencia);
+      } finally {
+         invalidar(fromId, toId);
+      }
+   }
+
+   @Override
+   public List<TransferenciaResultado> transferBatch(List<TransferenciaItem> itens, boolean tudoOuNada) {
+      try {
+         return delegate.transferBatch(itens, tudoOuNada);
+      } finally {
+         if (itens != null) {
+            invalidar(itens.stream()
+                     .flatMap(item -> Stream.of(item.getFromId(), item.getToId()))
+                     .toArray(Long[]::new));
+         }
+      }
+   }
+
+   @Override
+   public int projectLedger(int limite) {
+      try {
+         return delegate.projectLedger(limite);
+      } finally {
+         geracao.incrementAndGet();
+         porId.invalidateAll();
+         listas.invalidateAll();
+      }
+   }
+
+   @Override
+   public Beneficio configureStriping(Long id, int particoes) {
+      try {
+         return delegate.configureStriping(id, particoes);
+      } finally {
+         invalidar(id);
+      }
+   }
+
+   @Override
+   public int purgeIdempotencyKeys() {
+      return delegate.purgeIdempotencyKeys();
+   }
+
+   // --- Métricas ---
+
+   public CacheEstatisticaDTO estatisticas() {
+      CacheStats stats = porId.stats();
+      CacheEstatisticaDTO dto = new CacheEstatisticaDTO();
+      dto.setAcertos(stats.hitCount());
+      dto.setFalhas(stats.missCount());
+      dto.setRemocoes(stats.evictionCount());
+      dto.setTaxaAcerto(stats.hitRate());
+      dto.setTamanho(porId.estimatedSize());
+      return dto;
+   }
+
+   /**
+    * Grava a leitura se nenhuma invalidação ocorreu desde {@code inicio} e se não há versão mais
+    * nova no cache. O {@code compute} é atômico por chave em relação ao {@code remove} da
+    * invalidação, que sempre incrementa a geração antes de remover.
+    */
+   private void guardar(Beneficio lido, long inicio) {
+      porId.asMap().compute(lido.getId(), (id, atual) -> {
+         if (geracao.get() != inicio) {
+            return atual;
+         }
+         if (atual != null && versao(atual) > versao(lido)) {
+            return atual;
+         }
+         return lido;
+      });
+   }
+
+   private void invalidar(Long... ids) {
+      geracao.incrementAndGet();
+      for (Long id : ids) {
+         if (id != null) {
+            porId.invalidate(id);
+         }
+      }
+      listas.invalidateAll();
+   }
+
+   private static long versao(Beneficio beneficio) {
+      return beneficio.getVersion() != null ? beneficio.getVersion() : -1L;
+   }
+}
@@ -0,0 +1,65 @@
+package br.com.bip.backend.cbor;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Valores monetários ({@link BigDecimal}) como inteiro de centavos: 650.00 vira 65000. No CBOR
+ * o inteiro ocupa de 1 a 9 bytes, sem a fração decimal (tag 4) nem texto a converter. Valores
+ * com mais de duas casas (ex: percentis) são arredondados (HALF_EVEN).
+ */
+public class CentavosModule extends SimpleModule {
+
+   static final int ESCALA = 2;
+
+   public CentavosModule() {
+      super("CentavosModule");
+      addSerializer(BigDecimal.class, new Serializador());
+      addDeserializer(BigDecimal.class, new Desserializador());
+   }
+
+   static final class Serializador extends StdScalarSerializer<BigDecimal> {
+
+      Serializador() {
+         super(BigDecimal.class);
+      }
+
+      @Override
+      public void serialize(BigDecimal valor, JsonGenerator gerador, SerializerProvider provider) throws IOException {
+         gerador.writeNumber(valor.setScale(ESCALA, RoundingMode.HALF_EVEN).unscaledValue().longValueExact());
+      }
+   }
+
+   static final class Desserializador extends StdScalarDeserializer<BigDecimal> {
+
+      Desserializador() {
+         super(BigDecimal.class);
+      }
+
+      @Override
+      public BigDecimal deserialize(JsonParser parser, DeserializationContext contexto) throws IOException {
+         JsonToken token = parser.currentToken();
+         if (token == JsonToken.VALUE_NUMBER_INT) {
+            return BigDecimal.valueOf(parser.getLongValue(), ESCALA);
+         }
+         // Clientes que ainda enviam decimal (fração CBOR ou texto) continuam aceitos
+         if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getDecimalValue();
+         }
+         if (token == JsonToken.VALUE_STRING) {
+            return new BigDecimal(parser.getText().trim());
+         }
+         return (BigDecimal) contexto.handleUnexpectedToken(BigDecimal.class, parser);
+      }
+   }
+}
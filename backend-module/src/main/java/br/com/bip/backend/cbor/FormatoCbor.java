@@ -0,0 +1,47 @@
+package br.com.bip.backend.cbor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Formato binário opcional da API: CBOR (RFC 8949) com a mesma estrutura dos DTOs em JSON e
+ * dinheiro em centavos ({@link CentavosModule}). JSON continua o padrão.
+ */
+public final class FormatoCbor {
+
+   private FormatoCbor() {
+   }
+
+   /** ObjectMapper CBOR com as configurações do builder informado e valores em centavos. */
+   public static ObjectMapper criarObjectMapper(Jackson2ObjectMapperBuilder builder) {
+      ObjectMapper objectMapper = builder.factory(new CBORFactory()).build();
+      objectMapper.registerModule(new CentavosModule());
+      return objectMapper;
+   }
+
+   /**
+    * Se a negociação de conteúdo escolheria CBOR para o {@code Accept} informado: o tipo de
+    * maior qualidade que aceita JSON ou CBOR decide, e curingas ficam com JSON.
+    */
+   public static boolean preferido(String accept) {
+      if (accept == null || accept.isBlank()) {
+         return false;
+      }
+      List<MediaType> tipos = MediaType.parseMediaTypes(accept);
+      tipos.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+      for (MediaType tipo : tipos) {
+         if (tipo.includes(MediaType.APPLICATION_JSON)) {
+            return false;
+         }
+         if (tipo.includes(MediaType.APPLICATION_CBOR)) {
+            return true;
+         }
+      }
+      return false;
+   }
+}
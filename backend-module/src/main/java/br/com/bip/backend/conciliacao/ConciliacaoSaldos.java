@@ -0,0 +1,298 @@
+package br.com.bip.backend.conciliacao;
+
+import br.com.bip.backend.dto.ConciliacaoDTO;
+import br.com.bip.backend.limite.CapacidadeEsgotadaException;
+import br.com.bip.ejb.BeneficioEjbServiceLocal;
+import br.com.bip.ejb.model.ConciliacaoFaixa;
+import br.com.bip.ejb.model.ConciliacaoTotais;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Confere periodicamente se as transferências conservaram a soma dos saldos. A tabela é lida em
+ * faixas fixas de {@code bip.conciliacao.faixa} IDs, sem lock, por tarefas fork-join em um pool de
+ * {@code bip.conciliacao.paralelismo} threads; cada faixa é uma chamada curta de leitura ao EJB e
+ * ocupa uma vaga de leitura do limitador, nunca de transferência. A soma das faixas é comparada com
+ * o total esperado de BENEFICIO_RESUMO (mantido por create/update/delete, não por transferências).
+ * <p>
+ * As faixas são lidas em momentos diferentes, então uma transferência entre contas de faixas
+ * distintas pode ser contada duas vezes ou nenhuma. Por isso uma diferença só é reportada depois de
+ * confirmada pela soma lida em um único comando; se ela some, a execução conta como transitória.
+ * Por faixa também se guarda a assinatura (contas, IDs, versões, checksum dos saldos): entre duas
+ * execuções, mesma identidade com outro checksum indica saldo alterado fora do EJB.
+ */
+@Slf4j
+@Component
+public class ConciliacaoSaldos {
+
+   static final String EXECUCOES = "bip.conciliacao.execucoes";
+   static final String DURACAO = "bip.conciliacao.duracao";
+   static final String DIVERGENCIA = "bip.conciliacao.divergencia";
+   static final String TRANSITORIAS = "bip.conciliacao.transitorias";
+   static final String INCONSISTENTES = "bip.conciliacao.contas.inconsistentes";
+   static final String ALTERADAS = "bip.conciliacao.faixas.alteradas";
+
+   private static final int MAX_INCONSISTENTES = 1000;
+
+   private final BeneficioEjbServiceLocal leitor;
+   private final int faixa;
+   private final Duration intervalo;
+   private final MeterRegistry registry;
+   private final Timer duracao;
+   private final ForkJoinPool pool;
+   private final ScheduledExecutorService thread;
+   private final ReentrantLock emAndamento = new ReentrantLock();
+
+   private volatile ConciliacaoDTO ultima;
+
+   // Assinaturas da execução anterior, por índice de faixa; protegido por emAndamento
+   private NavigableMap<Long, Assinatura> assinaturas = new TreeMap<>();
+
+   public ConciliacaoSaldos(@Qualifier("beneficioEjbServiceSequenciado") BeneficioEjbServiceLocal leitor,
+            @Value("${bip.conciliacao.faixa:1000}") int faixa,
+            @Value("${bip.conciliacao.paralelismo:2}") int paralelismo,
+            @Value("${bip.conciliacao.intervalo:5m}") Duration intervalo,
+            MeterRegistry registry) {
+      if (faixa < 1 || faixa > BeneficioEjbServiceLocal.MAX_FAIXA_CONCILIACAO) {
+         throw new IllegalArgumentException("bip.conciliacao.faixa deve estar entre 1 e "
+                  + BeneficioEjbServiceLocal.MAX_FAIXA_CONCILIACAO + ".");
+      }
+      this.leitor = leitor;
+      this.faixa = faixa;
+      this.intervalo = intervalo;
+      this.registry = registry;
+      this.duracao = Timer.builder(DURACAO)
+               .description("Duração de cada conciliação de saldos")
+               .register(registry);
+      this.pool = new ForkJoinPool(Math.max(1, paralelismo), p -> {
+         ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+         t.setName("bip-conciliacao-" + t.getPoolIndex());
+         return t;
+      }, null, false);
+      this.thread = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+         Thread t = new Thread(tarefa, "bip-conciliacao");
+         t.setDaemon(true);
+         return t;
+      });
+      Gauge.builder(DIVERGENCIA, this, c -> c.valorUltima(dto -> dto.getDivergencia() == null
+                        ? Double.NaN : dto.getDivergencia().doubleValue()))
+               .description("Total esperado menos a soma real dos saldos na última conciliação")
+               .register(registry);
+      Gauge.builder(INCONSISTENTES, this, c -> c.valorUltima(dto -> dto.getContasInconsistentes().size()))
+               .description("Contas com saldo negativo ou partições inconsistentes na última conciliação")
+               .register(registry);
+      Gauge.builder(ALTERADAS, this, c -> c.valorUltima(dto -> dto.getFaixasAlteradasSemVersao().size()))
+               .description("Faixas com saldo alterado sem mudança de versão na última conciliação")
+               .register(registry);
+   }
+
+   /** Primeira execução um intervalo após a subida; {@code bip.conciliacao.intervalo=0} desliga o agendamento. */
+   @EventListener(ApplicationReadyEvent.class)
+   public void iniciar() {
+      if (!intervalo.isZero() && !intervalo.isNegative()) {
+         thread.scheduleWithFixedDelay(this::conciliarAgendado, intervalo.toMillis(), intervalo.toMillis(),
+                  TimeUnit.MILLISECONDS);
+      }
+   }
+
+   @PreDestroy
+   public void encerrar() {
+      thread.shutdownNow();
+      pool.shutdownNow();
+   }
+
+   /** Resultado da última conciliação concluída; {@code null} se nenhuma terminou ainda. */
+   public ConciliacaoDTO ultima() {
+      return ultima;
+   }
+
+   /**
+    * Executa uma conciliação completa e a devolve. Lança {@link CapacidadeEsgotadaException} se
+    * outra já está em andamento.
+    */
+   public ConciliacaoDTO conciliar() {
+      if (!emAndamento.tryLock()) {
+         throw new CapacidadeEsgotadaException("Conciliação já em andamento; tente novamente em instantes.");
+      }
+      try {
+         Instant iniciadaEm = Instant.now();
+         long inicio = System.nanoTime();
+         ConciliacaoTotais controle = leitor.reconciliationTotals(false);
+         Parcial varredura = controle.getMenorId() == null ? new Parcial()
+                  : pool.invoke(new Varredura(controle.getMenorId() / faixa, controle.getMaiorId() / faixa + 1));
+
+         ConciliacaoDTO dto = new ConciliacaoDTO();
+         dto.setIniciadaEm(iniciadaEm);
+         dto.setContas(varredura.contas);
+         dto.setFaixas(varredura.assinaturas.size());
+         dto.setSaldoVarrido(varredura.saldo);
+         dto.setContasInconsistentes(varredura.inconsistentes);
+         dto.setFaixasAlteradasSemVersao(alteradasSemVersao(varredura.assinaturas));
+         assinaturas = varredura.assinaturas;
+         comparar(dto, controle.getEsperado(), varredura.saldo);
+
+         long nanos = System.nanoTime() - inicio;
+         dto.setDuracaoMs(TimeUnit.NANOSECONDS.toMillis(nanos));
+         duracao.record(nanos, TimeUnit.NANOSECONDS);
+         registry.counter(EXECUCOES, "resultado", dto.getSituacao().name().toLowerCase()).increment();
+         ultima = dto;
+         return dto;
+      } catch (RuntimeException e) {
+         registry.counter(EXECUCOES, "resultado", "erro").increment();
+         throw e;
+      } finally {
+         emAndamento.unlock();
+      }
+   }
+
+   /** Sem diferença na varredura, confere; com diferença, só a leitura em um único comando decide. */
+   private void comparar(ConciliacaoDTO dto, BigDecimal esperado, BigDecimal varrido) {
+      if (esperado == null) {
+         dto.setSituacao(SituacaoConciliacao.SEM_CONTROLE);
+         return;
+      }
+      if (esperado.compareTo(varrido) == 0) {
+         dto.setEsperado(esperado);
+         dto.setDivergencia(BigDecimal.ZERO.setScale(2));
+         dto.setSituacao(SituacaoConciliacao.OK);
+         return;
+      }
+      ConciliacaoTotais confirmacao = leitor.reconciliationTotals(true);
+      dto.setEsperado(confirmacao.getEsperado());
+      dto.setApurado(confirmacao.getApurado());
+      if (confirmacao.getEsperado() == null) {
+         dto.setSituacao(SituacaoConciliacao.SEM_CONTROLE);
+         return;
+      }
+      BigDecimal divergencia = confirmacao.getEsperado().subtract(confirmacao.getApurado());
+      dto.setDivergencia(divergencia);
+      if (divergencia.signum() == 0) {
+         registry.counter(TRANSITORIAS).increment();
+         dto.setSituacao(SituacaoConciliacao.OK);
+      } else {
+         dto.setSituacao(SituacaoConciliacao.DIVERGENTE);
+      }
+   }
+
+   private List<String> alteradasSemVersao(Map<Long, Assinatura> atuais) {
+      List<String> alteradas = new ArrayList<>();
+      atuais.forEach((indice, atual) -> {
+         Assinatura anterior = assinaturas.get(indice);
+         if (anterior != null && anterior.mesmaIdentidade(atual) && anterior.checksum() != atual.checksum()) {
+            alteradas.add(indice * faixa + "-" + (indice * faixa + faixa - 1));
+         }
+      });
+      return alteradas;
+   }
+
+   private double valorUltima(ToDoubleFunction<ConciliacaoDTO> valor) {
+      ConciliacaoDTO dto = ultima;
+      return dto == null ? Double.NaN : valor.applyAsDouble(dto);
+   }
+
+   /**
+    * Execução agendada: uma falha não pode cancelar as próximas, então é registrada e a conciliação
+    * tenta de novo no próximo intervalo. Falhas da varredura já contam como {@code resultado=erro} em
+    * {@link #conciliar()}; uma execução manual em andamento conta como {@code resultado=ignorada}.
+    */
+   void conciliarAgendado() {
+      try {
+         conciliar();
+      } catch (CapacidadeEsgotadaException e) {
+         registry.counter(EXECUCOES, "resultado", "ignorada").increment();
+         log.info("Conciliação agendada ignorada: outra execução está em andamento.");
+      } catch (RuntimeException e) {
+         log.warn("Conciliação agendada falhou; nova tentativa em {}.", intervalo, e);
+      }
+   }
+
+   /** Faixas [inicio, fim) por índice; divide ao meio até uma faixa, que é uma chamada ao EJB. */
+   private final class Varredura extends RecursiveTask<Parcial> {
+
+      private final long inicio;
+      private final long fim;
+
+      Varredura(long inicio, long fim) {
+         this.inicio = inicio;
+         this.fim = fim;
+      }
+
+      @Override
+      protected Parcial compute() {
+         if (fim - inicio == 1) {
+            long primeiroId = inicio * faixa;
+            return new Parcial().somar(inicio, leitor.reconcileRange(primeiroId, primeiroId + faixa - 1));
+         }
+         long meio = (inicio + fim) >>> 1;
+         Varredura esquerda = new Varredura(inicio, meio);
+         esquerda.fork();
+         Parcial direita = new Varredura(meio, fim).compute();
+         return esquerda.join().juntar(direita);
+      }
+   }
+
+   /** Totais acumulados de um conjunto de faixas. */
+   private static final class Parcial {
+
+      private long contas;
+      private BigDecimal saldo = BigDecimal.ZERO.setScale(2);
+      private final List<Long> inconsistentes = new ArrayList<>();
+      private final NavigableMap<Long, Assinatura> assinaturas = new TreeMap<>();
+
+      Parcial somar(long indice, ConciliacaoFaixa lida) {
+         contas += lida.getContas();
+         saldo = saldo.add(lida.getSaldo());
+         adicionarInconsistentes(lida.getInconsistentes());
+         if (lida.getContas() > 0) {
+            assinaturas.put(indice, new Assinatura(lida.getContas(), lida.getSomaIds(), lida.getSomaVersoes(),
+                     lida.getChecksum()));
+         }
+         return this;
+      }
+
+      Parcial juntar(Parcial outra) {
+         contas += outra.contas;
+         saldo = saldo.add(outra.saldo);
+         adicionarInconsistentes(outra.inconsistentes);
+         assinaturas.putAll(outra.assinaturas);
+         return this;
+      }
+
+      private void adicionarInconsistentes(List<Long> ids) {
+         int vagas = MAX_INCONSISTENTES - inconsistentes.size();
+         inconsistentes.addAll(ids.size() <= vagas ? ids : ids.subList(0, Math.max(0, vagas)));
+      }
+   }
+
+   private record Assinatura(long contas, long somaIds, long somaVersoes, long checksum) {
+
+      boolean mesmaIdentidade(Assinatura outra) {
+         return contas == outra.contas && somaIds == outra.somaIds && somaVersoes == outra.somaVersoes;
+      }
+   }
+}
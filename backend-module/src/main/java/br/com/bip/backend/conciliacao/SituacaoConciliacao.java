@@ -0,0 +1,11 @@
+package br.com.bip.backend.conciliacao;
+
+/** Resultado de uma conciliação de saldos. */
+public enum SituacaoConciliacao {
+   /** A soma dos saldos confere com o total esperado. */
+   OK,
+   /** A diferença persistiu na leitura em um único comando; o valor vem em {@code divergencia}. */
+   DIVERGENTE,
+   /** Resumo incremental desligado: sem total esperado, só as verificações por conta e por faixa. */
+   SEM_CONTROLE
+}
@@ -0,0 +1,84 @@
+package br.com.bip.backend.condicional;
+
+import java.math.BigDecimal;
+
+/**
+ * ETags fortes dos benefícios. O de uma conta é a sua VERSION; nas contas particionadas, os
+ * créditos alteram só as partições, então o saldo total entra no ETag junto com a versão. O das
+ * listagens é a versão da tabela ({@code tableVersion}).
+ */
+public final class Etags {
+
+   private static final String QUALQUER = "*";
+
+   /** Sufixo do ETag da representação CBOR; o JSON fica com o ETag sem sufixo. */
+   private static final String SUFIXO_CBOR = "+cbor";
+
+   private Etags() {
+   }
+
+   public static String deBeneficio(Long version, int particoes, BigDecimal saldoTotal) {
+      if (particoes == 0 || saldoTotal == null) {
+         return '"' + String.valueOf(version) + '"';
+      }
+      return "\"" + version + "-" + saldoTotal.toPlainString() + '"';
+   }
+
+   public static String daColecao(String versaoTabela) {
+      return "\"t" + versaoTabela + '"';
+   }
+
+   public static String emCbor(String etag) {
+      return etag.substring(0, etag.length() - 1) + SUFIXO_CBOR + '"';
+   }
+
+   /**
+    * Versão esperada em um {@code If-Match} com um único ETag forte de conta não particionada;
+    * {@code null} para {@code *}, listas e ETags de contas particionadas, que exigem comparar com
+    * o estado atual.
+    */
+   public static Long versaoEsperada(String ifMatch) {
+      if (ifMatch == null) {
+         return null;
+      }
+      String etag = semFormato(ifMatch.trim());
+      if (etag.length() < 3 || etag.charAt(0) != '"' || etag.charAt(etag.length() - 1) != '"') {
+         return null;
+      }
+      String valor = etag.substring(1, etag.length() - 1);
+      if (!valor.chars().allMatch(Character::isDigit)) {
+         return null;
+      }
+      try {
+         return Long.valueOf(valor);
+      } catch (NumberFormatException e) {
+         return null;
+      }
+   }
+
+   /** {@code If-Match: *}: basta a conta existir, o que o próprio UPDATE confere. */
+   public static boolean qualquer(String ifMatch) {
+      return ifMatch != null && QUALQUER.equals(ifMatch.trim());
+   }
+
+   /**
+    * Comparação forte de {@code If-Match} (RFC 9110): ETags fracos nunca correspondem. Os ETags
+    * JSON e CBOR do mesmo estado são equivalentes para a gravação.
+    */
+   public static boolean correspondeIfMatch(String ifMatch, String etagAtual) {
+      for (String candidato : ifMatch.split(",")) {
+         String etag = semFormato(candidato.trim());
+         if (etag.equals(QUALQUER) || etag.equals(etagAtual)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   private static String semFormato(String etag) {
+      if (!etag.endsWith(SUFIXO_CBOR + '"')) {
+         return etag;
+      }
+      return etag.substring(0, etag.length() - SUFIXO_CBOR.length() - 1) + '"';
+   }
+}
@@ -0,0 +1,20 @@
+package br.com.bip.backend.config;
+
+import br.com.bip.backend.cbor.FormatoCbor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+@Configuration
+public class CborConfig {
+
+   /**
+    * Substitui o conversor CBOR padrão do Spring (que usaria BigDecimal como fração decimal) e
+    * mantém a sua posição, depois do JSON: sem {@code Accept: application/cbor} a resposta é JSON.
+    */
+   @Bean
+   public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+      return new MappingJackson2CborHttpMessageConverter(FormatoCbor.criarObjectMapper(builder));
+   }
+}
@@ -1,21 +1,131 @@
 package br.com.bip.backend.config;
 
+import br.com.bip.backend.cache.CachingBeneficioEjbService;
+import br.com.bip.backend.eventos.OuvinteAlteracoes;
+import br.com.bip.backend.eventos.PublicandoBeneficioEjbService;
+import br.com.bip.backend.jndi.ReferenciaEjbService;
+import br.com.bip.backend.limite.LimitandoBeneficioEjbService;
+import br.com.bip.backend.metrics.MedindoBeneficioEjbService;
+import br.com.bip.backend.metrics.TransferenciaMeterBinder;
+import br.com.bip.backend.sequenciamento.SequenciandoBeneficioEjbService;
 import br.com.bip.ejb.BeneficioEjbServiceLocal;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.jndi.JndiObjectFactoryBean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jndi.JndiLookupFailureException;
+import org.springframework.jndi.JndiTemplate;
+
+import javax.naming.NamingException;
+import java.time.Duration;
+import java.util.List;
 
 @Configuration
 public class EjbJndiConfig {
 
+   static final String JNDI_PADRAO =
+            "java:global/ear-module-1.0.0/br.com.bip-ejb-module-1.0.0/BeneficioEjbService!br.com.bip.ejb.BeneficioEjbServiceLocal";
+
+   /**
+    * Base da cadeia de decoradores. Com um bean {@code beneficioEjbServiceEmbarcado} no contexto
+    * (testes e benchmarks com o EJB instanciado no mesmo processo) ele é usado direto, sem JNDI;
+    * no servidor, a referência JNDI é resolvida na primeira chamada e guardada.
+    */
+   @Bean
+   public BeneficioEjbServiceLocal beneficioEjbService(
+            @Qualifier("beneficioEjbServiceEmbarcado") ObjectProvider<BeneficioEjbServiceLocal> embarcado,
+            @Value("${bip.ejb.jndi:" + JNDI_PADRAO + "}") String nomeJndi,
+            MeterRegistry registry) {
+      BeneficioEjbServiceLocal local = embarcado.getIfAvailable();
+      if (local != null) {
+         return local;
+      }
+      JndiTemplate jndi = new JndiTemplate();
+      return new ReferenciaEjbService(() -> {
+         try {
+            return jndi.lookup(nomeJndi, BeneficioEjbServiceLocal.class);
+         } catch (NamingException e) {
+            throw new JndiLookupFailureException("EJB não encontrado em " + nomeJndi, e);
+         }
+      }, registry);
+   }
+
+   /** {@code /actuator/health}: refaz o lookup do EJB (sem ir ao banco) e renova a referência guardada. */
+   @Bean
+   public HealthIndicator ejbHealthIndicator(@Qualifier("beneficioEjbService") BeneficioEjbServiceLocal ejb) {
+      return () -> {
+         if (ejb instanceof ReferenciaEjbService referencia) {
+            try {
+               referencia.verificar();
+            } catch (RuntimeException e) {
+               return Health.down(e).build();
+            }
+         }
+         return Health.up().build();
+      };
+   }
+
+   /** Timers por operação em volta da referência ao EJB (tempo real das idas ao EJB). */
+   @Bean
+   public MedindoBeneficioEjbService beneficioEjbServiceMedido(
+            @Qualifier("beneficioEjbService") BeneficioEjbServiceLocal ejb, MeterRegistry registry) {
+      return new MedindoBeneficioEjbService(ejb, registry);
+   }
+
+   /** Contadores acumulados no EJB (recusas, retentativas, espera por lock), lidos no scrape. */
+   @Bean
+   public TransferenciaMeterBinder transferenciaMeterBinder(@Qualifier("beneficioEjbService") BeneficioEjbServiceLocal ejb) {
+      return new TransferenciaMeterBinder(ejb);
+   }
+
+   /**
+    * Vagas por tipo de operação entre o cache e o EJB; mantém as chamadas simultâneas abaixo do
+    * pool de conexões do banco mesmo com threads virtuais atendendo as requisições.
+    */
+   @Bean
+   public LimitandoBeneficioEjbService beneficioEjbServiceLimitado(
+            @Qualifier("beneficioEjbServiceMedido") BeneficioEjbServiceLocal ejb,
+            @Value("${bip.limite.leitura:32}") int leitura,
+            @Value("${bip.limite.escrita:16}") int escrita,
+            @Value("${bip.limite.transferencia:16}") int transferencia,
+            @Value("${bip.limite.espera:200ms}") Duration espera,
+            MeterRegistry registry) {
+      return new LimitandoBeneficioEjbService(ejb, leitura, escrita, transferencia, espera, registry);
+   }
+
+   /**
+    * Faixas por conta na frente do limitador: transferências conflitantes esperam aqui, em
+    * memória, sem ocupar vaga no limitador nem conexão do banco. Desligado, repassa direto.
+    */
+   @Bean
+   public BeneficioEjbServiceLocal beneficioEjbServiceSequenciado(
+            @Qualifier("beneficioEjbServiceLimitado") BeneficioEjbServiceLocal ejb,
+            @Value("${bip.transferencia.sequenciador.habilitado:false}") boolean habilitado,
+            @Value("${bip.transferencia.sequenciador.faixas:16}") int faixas,
+            @Value("${bip.transferencia.sequenciador.espera:2s}") Duration espera,
+            MeterRegistry registry) {
+      return habilitado ? new SequenciandoBeneficioEjbService(ejb, faixas, espera, registry) : ejb;
+   }
+
+   /** Avisa o feed de alterações e o índice de busca das escritas confirmadas, logo abaixo do cache. */
+   @Bean
+   public PublicandoBeneficioEjbService beneficioEjbServicePublicado(
+            @Qualifier("beneficioEjbServiceSequenciado") BeneficioEjbServiceLocal ejb, List<OuvinteAlteracoes> ouvintes) {
+      return new PublicandoBeneficioEjbService(ejb, ouvintes);
+   }
+
+   /** Proxy com cache de leituras; é o que o restante da aplicação recebe por injeção. */
    @Bean
-   public JndiObjectFactoryBean beneficioEjbService() {
-      JndiObjectFactoryBean jndi = new JndiObjectFactoryBean();
-      jndi.setJndiName(
-               "java:global/ear-module-1.0.0/br.com.bip-ejb-module-1.0.0/BeneficioEjbService!br.com.bip.ejb.BeneficioEjbServiceLocal"
-      );
-      jndi.setProxyInterface(BeneficioEjbServiceLocal.class);
-      jndi.setLookupOnStartup(false); // inicialização lazy para evitar falha
-      return jndi;
+   @Primary
+   public CachingBeneficioEjbService beneficioEjbServiceCache(
+            @Qualifier("beneficioEjbServicePublicado") BeneficioEjbServiceLocal ejb,
+            @Value("${bip.cache.beneficio.tamanho-maximo:10000}") long tamanhoMaximo,
+            @Value("${bip.cache.beneficio.ttl:10s}") Duration ttl) {
+      return new CachingBeneficioEjbService(ejb, tamanhoMaximo, ttl);
    }
 }
@@ -1,53 +1,242 @@
 package br.com.bip.backend.controller;
 
+import br.com.bip.backend.assincrono.TransferenciasAssincronas;
+import br.com.bip.backend.cbor.FormatoCbor;
+import br.com.bip.backend.eventos.FeedAlteracoes;
+import br.com.bip.backend.condicional.Etags;
+import br.com.bip.backend.dto.BeneficioBuscaDTO;
+import br.com.bip.backend.dto.BeneficioEstatisticasDTO;
+import br.com.bip.backend.dto.BeneficioLoteRequestDTO;
+import br.com.bip.backend.dto.BeneficioPageDTO;
 import br.com.bip.backend.dto.BeneficioRequestDTO;
 import br.com.bip.backend.dto.BeneficioResponseDTO;
+import br.com.bip.backend.dto.TransferEstatisticaDTO;
+import br.com.bip.backend.dto.TransferLoteRequestDTO;
+import br.com.bip.backend.dto.TransferLoteResponseDTO;
+import br.com.bip.backend.dto.ImportacaoResumoDTO;
 import br.com.bip.backend.dto.TransferRequestDTO;
+import br.com.bip.backend.dto.TransferStatusDTO;
+import br.com.bip.backend.importacao.FormatoImportacao;
+import br.com.bip.backend.importacao.ImportadorBeneficios;
 import br.com.bip.backend.service.BeneficioService;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 @RestController
 @RequestMapping("/api/v1/beneficios")
 public class BeneficioController {
 
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final String FILTRO_CAMPOS = "campos";
+    private static final String PREFER = "Prefer";
+    private static final String PREFERENCE_APPLIED = "Preference-Applied";
+    private static final String RESPOND_ASYNC = "respond-async";
+
     private final BeneficioService beneficioService;
 
-    public BeneficioController(BeneficioService beneficioService) {
+    private final ImportadorBeneficios importadorBeneficios;
+
+    private final TransferenciasAssincronas transferenciasAssincronas;
+
+    private final FeedAlteracoes feedAlteracoes;
+
+    private final ObjectMapper objectMapper;
+
+    /** Cópia do ObjectMapper em que o DTO de resposta serializa só os campos pedidos em {@code fields}. */
+    private final ObjectMapper objectMapperCampos;
+
+    /** Equivalente CBOR de {@link #objectMapperCampos}; {@code null} sem o conversor CBOR registrado. */
+    private final ObjectMapper objectMapperCamposCbor;
+
+    public BeneficioController(BeneficioService beneficioService, ImportadorBeneficios importadorBeneficios,
+             TransferenciasAssincronas transferenciasAssincronas, FeedAlteracoes feedAlteracoes,
+             ObjectMapper objectMapper, ObjectProvider<MappingJackson2CborHttpMessageConverter> conversorCbor) {
         this.beneficioService = beneficioService;
+        this.importadorBeneficios = importadorBeneficios;
+        this.transferenciasAssincronas = transferenciasAssincronas;
+        this.feedAlteracoes = feedAlteracoes;
+        // O ObjectMapper não deve fechar o stream da resposta a cada linha escrita
+        this.objectMapper = objectMapper.copy().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.objectMapperCampos = this.objectMapper.copy().addMixIn(BeneficioResponseDTO.class, CamposSelecionados.class);
+        MappingJackson2CborHttpMessageConverter cbor = conversorCbor.getIfAvailable();
+        this.objectMapperCamposCbor = cbor == null ? null
+                 : cbor.getObjectMapper().copy().addMixIn(BeneficioResponseDTO.class, CamposSelecionados.class);
     }
 
-    @Operation(summary = "Lista todos os benefícios", description = "Retorna uma lista com todos os benefícios cadastrados.")
+    @Operation(summary = "Lista todos os benefícios",
+             description = "Retorna uma lista com os benefícios cadastrados, limitada aos primeiros 1000 registros. Use /pagina ou /stream para volumes maiores.")
     @ApiResponses(value = {
-             @ApiResponse(responseCode = "200", description = "Lista de benefícios retornada com sucesso")
+             @ApiResponse(responseCode = "200", description = "Lista de benefícios retornada com sucesso"),
+             @ApiResponse(responseCode = "304", description = "Nada mudou desde o ETag informado em If-None-Match", content = @Content)
     })
     @GetMapping
-    public ResponseEntity<List<BeneficioResponseDTO>> list() {
+    public ResponseEntity<List<BeneficioResponseDTO>> list(WebRequest request) {
+        // O ETag é lido antes da lista: se a tabela mudar entre os dois, o próximo If-None-Match não casa
+        String etag = etagNegociado(request, beneficioService.etagColecao());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         List<BeneficioResponseDTO> beneficios = beneficioService.findAll();
-        return ResponseEntity.ok(beneficios);
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(beneficios);
+    }
+
+    @Operation(summary = "Lista benefícios paginados por cursor",
+             description = "Paginação keyset: informe o proximoAfterId da página anterior para obter a seguinte. Filtros opcionais por ativo e nome; fields limita as colunas lidas e devolvidas.")
+    @ApiResponses(value = {
+             @ApiResponse(responseCode = "200", description = "Página de benefícios retornada com sucesso",
+                      content = @Content(schema = @Schema(implementation = BeneficioPageDTO.class))),
+             @ApiResponse(responseCode = "400", description = "Parâmetros de paginação ou campos inválidos", content = @Content)
+    })
+    @GetMapping("/pagina")
+    public ResponseEntity<?> listPage(
+             @Parameter(description = "Cursor: retorna registros com ID maior que este valor", example = "0")
+             @RequestParam(required = false) Long afterId,
+             @Parameter(description = "Quantidade máxima de registros na página (máx. 500)", example = "50")
+             @RequestParam(required = false) Integer limit,
+             @Parameter(description = "Filtra por benefícios ativos/inativos")
+             @RequestParam(required = false) Boolean ativo,
+             @Parameter(description = "Filtra por parte do nome (sem diferenciar maiúsculas)")
+             @RequestParam(required = false) String nome,
+             @Parameter(description = "Campos a devolver, separados por vírgula (id, nome, descricao, valor, ativo, version, particoes); o id vem sempre", example = "id,nome,valor")
+             @RequestParam(required = false) String fields,
+             @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) throws IOException {
+        Set<String> campos = campos(fields);
+        BeneficioPageDTO pagina = beneficioService.findPage(afterId, limit, ativo, nome, campos);
+        if (campos == null) {
+            return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(pagina);
+        }
+        if (objectMapperCamposCbor != null && FormatoCbor.preferido(accept)) {
+            return ResponseEntity.ok()
+                     .contentType(MediaType.APPLICATION_CBOR)
+                     .varyBy(HttpHeaders.ACCEPT)
+                     .body(objectMapperCamposCbor.writer(filtroCampos(campos)).writeValueAsBytes(pagina));
+        }
+        return ResponseEntity.ok()
+                 .contentType(MediaType.APPLICATION_JSON)
+                 .varyBy(HttpHeaders.ACCEPT)
+                 .body(escritor(campos).writeValueAsBytes(pagina));
+    }
+
+    @Operation(summary = "Exporta benefícios em streaming (NDJSON)",
+             description = "Escreve um benefício por linha à medida que as páginas são lidas do banco, com memória constante.")
+    @ApiResponses(value = {
+             @ApiResponse(responseCode = "200", description = "Stream NDJSON de benefícios")
+    })
+    @GetMapping(value = "/stream", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> stream(
+             @Parameter(description = "Filtra por benefícios ativos/inativos")
+             @RequestParam(required = false) Boolean ativo,
+             @Parameter(description = "Filtra por parte do nome (sem diferenciar maiúsculas)")
+             @RequestParam(required = false) String nome,
+             @Parameter(description = "Campos a devolver, separados por vírgula; o id vem sempre", example = "id,nome,valor")
+             @RequestParam(required = false) String fields) {
+        Set<String> campos = campos(fields);
+        ObjectWriter escritor = escritor(campos);
+        StreamingResponseBody body = outputStream -> {
+            beneficioService.streamAll(ativo, nome, campos, dto -> {
+                try {
+                    escreverLinha(outputStream, escritor, dto);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            outputStream.flush();
+        };
+        return ResponseEntity.ok()
+                 .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                 .body(body);
+    }
+
+    @Operation(summary = "Busca benefícios por nome e descrição",
+             description = "Cada termo da consulta casa com palavras do nome ou da descrição que comecem com ele, sem diferenciar maiúsculas nem acentos; todos os termos precisam casar. Resultados por relevância (nome antes de descrição, palavra inteira antes de prefixo). Servida por um índice em memória, refeito periodicamente.")
+    @ApiResponses(value = {
+             @ApiResponse(responseCode = "200", description = "Página de resultados"),
+             @ApiResponse(responseCode = "400", description = "Offset ou limite inválido", content = @Content),
+             @ApiResponse(responseCode = "503", description = "Índice de busca ainda em construção", content = @Content)
+    })
+    @GetMapping("/busca")
+    public ResponseEntity<BeneficioBuscaDTO> buscar(
+             @Parameter(description = "Termos ou prefixos a procurar", example = "aux edu")
+             @RequestParam String q,
+             @Parameter(description = "Quantidade de resultados a pular", example = "0")
+             @RequestParam(required = false) Integer offset,
+             @Parameter(description = "Quantidade máxima de resultados na página (máx. 100)", example = "50")
+             @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(beneficioService.buscar(q, offset, limit));
+    }
+
+    @Operation(summary = "Feed de alterações (server-sent events)",
+             description = "Um evento beneficio por conta alterada (id, valor, ativo, version; nome e descricao em criações e edições; removido em exclusões), agrupado por intervalo. Reconexões com Last-Event-ID retomam do buffer; se não for possível, chega um evento reinicio e a lista deve ser recarregada.")
+    @GetMapping(value = "/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter eventos(
+             @Parameter(description = "ID do último evento recebido (enviado pelo EventSource ao reconectar)")
+             @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return feedAlteracoes.assinar(lastEventId);
+    }
+
+    @Operation(summary = "Estatísticas dos saldos",
+             description = "Quantidade, ativos/inativos, soma, mínimo, máximo e percentis (p50/p90/p99) dos saldos, calculados por agregação no banco. Com resumo=true e o resumo incremental ativo, retorna apenas contagens e soma em O(1).")
+    @ApiResponses(value = {
+             @ApiResponse(responseCode = "200", description = "Estatísticas retornadas com sucesso")
+    })
+    @GetMapping("/estatisticas")
+    public ResponseEntity<BeneficioEstatisticasDTO> estatisticas(
+             @Parameter(description = "Lê apenas o resumo incremental (contagens e soma), se ativo no servidor")
+             @RequestParam(defaultValue = "false") boolean resumo) {
+        return ResponseEntity.ok(beneficioService.estatisticas(resumo));
     }
 
     @Operation(summary = "Busca um benefício por ID", description = "Retorna um benefício específico baseado no seu ID.")
     @ApiResponses(value = {
              @ApiResponse(responseCode = "200", description = "Benefício encontrado"),
+             @ApiResponse(responseCode = "304", description = "Benefício não mudou desde o ETag informado em If-None-Match", content = @Content),
              @ApiResponse(responseCode = "500", description = "Benefício não encontrado com o ID informado", content = @Content),
              @ApiResponse(responseCode = "404", description = "Benefício não encontrado com o ID informado", content = @Content)
     })
     @GetMapping("/{id}")
     public ResponseEntity<BeneficioResponseDTO> getById(
              @Parameter(description = "ID do benefício a ser buscado", required = true, example = "1")
-             @PathVariable Long id) {
+             @PathVariable Long id,
+             WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                 && request.checkNotModified(etagNegociado(request, beneficioService.etag(id)))) {
+            return null;
+        }
         BeneficioResponseDTO beneficio = beneficioService.findById(id);
-        return ResponseEntity.ok(beneficio);
+        return ResponseEntity.ok().eTag(etagNegociado(request, etag(beneficio))).varyBy(HttpHeaders.ACCEPT).body(beneficio);
     }
 
     @Operation(summary = "Cria um novo benefício", description = "Cadastra um novo benefício no sistema.")
@@ -67,15 +256,68 @@ public class BeneficioController {
         return new ResponseEntity<>(novoBeneficio, HttpStatus.CREATED);
     }
 
+    @Operation(summary = "Cria benefícios em lote",
+             description = "Cadastra até 5000 benefícios em uma única transação, com IDs reservados em blocos e INSERTs em batch JDBC. Qualquer falha reverte o lote. Para arquivos maiores use /importacao.")
+    @ApiResponses(value = {
+             @ApiResponse(responseCode = "201", description = "Benefícios criados com sucesso"),
+             @ApiResponse(responseCode = "400", description = "Lote vazio, acima do limite ou com benefícios inválidos", content = @Content)
+    })
+    @PostMapping("/lote")
+    public ResponseEntity<List<BeneficioResponseDTO>> createBatch(
+             @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                      description = "Benefícios a criar",
+                      required = true,
+                      content = @Content(schema = @Schema(implementation = BeneficioLoteRequestDTO.class))
+             )
+             @Valid @RequestBody BeneficioLoteRequestDTO requestDTO) {
+        return new ResponseEntity<>(beneficioService.criarLote(requestDTO), HttpStatus.CREATED);
+    }
+
+    @Operation(summary = "Importa benefícios em streaming (CSV ou NDJSON)",
+             description = "Lê o arquivo linha a linha e grava em lotes (bip.importacao.lote-commit), cada lote em uma transação. A resposta é NDJSON: uma linha de progresso por lote, com as linhas rejeitadas e o motivo, e o resumo na última linha. CSV: colunas nome,descricao,valor[,ativo], cabeçalho opcional.")
+    @ApiResponses(value = {
+             @ApiResponse(responseCode = "200", description = "Stream NDJSON com o progresso por lote e o resumo"),
+             @ApiResponse(responseCode = "415", description = "Content-Type diferente de text/csv ou application/x-ndjson", content = @Content)
+    })
+    @PostMapping(value = "/importacao", consumes = {"text/csv", NDJSON_VALUE}, produces = NDJSON_VALUE)
+    public void importar(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        FormatoImportacao formato = FormatoImportacao.doTipo(contentType);
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(NDJSON_VALUE);
+        OutputStream saida = response.getOutputStream();
+        ImportacaoResumoDTO resumo = importadorBeneficios.importar(
+                 new InputStreamReader(request.getInputStream(), charset), formato, lote -> {
+                     try {
+                         escreverLinha(saida, lote);
+                         saida.flush();
+                     } catch (IOException e) {
+                         throw new UncheckedIOException(e);
+                     }
+                 });
+        escreverLinha(saida, resumo);
+        saida.flush();
+    }
+
     @Operation(summary = "Atualiza um benefício existente", description = "Atualiza os dados de um benefício baseado no seu ID.")
     @ApiResponses(value = {
              @ApiResponse(responseCode = "200", description = "Benefício atualizado com sucesso"),
-             @ApiResponse(responseCode = "404", description = "Benefício não encontrado com o ID informado", content = @Content)
+             @ApiResponse(responseCode = "404", description = "Benefício não encontrado com o ID informado", content = @Content),
+             @ApiResponse(responseCode = "412", description = "O benefício mudou desde o ETag informado em If-Match", content = @Content)
     })
     @PutMapping("/{id}")
-    public ResponseEntity<BeneficioResponseDTO> update(@PathVariable Long id, @Valid @RequestBody BeneficioRequestDTO requestDTO) {
-        BeneficioResponseDTO beneficioAtualizado = beneficioService.update(id, requestDTO);
-        return ResponseEntity.ok(beneficioAtualizado);
+    public ResponseEntity<BeneficioResponseDTO> update(@PathVariable Long id,
+             @Parameter(description = "ETag obtido no GET; a alteração só é gravada se o benefício não mudou desde então")
+             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+             @Valid @RequestBody BeneficioRequestDTO requestDTO,
+             WebRequest request) {
+        BeneficioResponseDTO beneficioAtualizado = beneficioService.update(id, requestDTO, ifMatch);
+        return ResponseEntity.ok()
+                 .eTag(etagNegociado(request, etag(beneficioAtualizado)))
+                 .varyBy(HttpHeaders.ACCEPT)
+                 .body(beneficioAtualizado);
     }
 
     @Operation(summary = "Exclui um benefício por ID", description = "Remove um benefício do sistema baseado no seu ID")
@@ -91,20 +333,159 @@ public class BeneficioController {
         return ResponseEntity.noContent().build();
     }
 
-    @Operation(summary = "Transfere valores entre benefícios", description = "Realiza a transferência de saldo de um benefício para outro")
+    @Operation(summary = "Configura o particionamento do saldo",
+             description = "Divide o saldo de uma conta muito creditada em N partições: créditos concorrentes bloqueiam partições distintas e débitos consolidam as partições. quantidade=0 desativa.")
+    @ApiResponses(value = {
+             @ApiResponse(responseCode = "200", description = "Particionamento aplicado"),
+             @ApiResponse(responseCode = "400", description = "Quantidade de partições inválida", content = @Content),
+             @ApiResponse(responseCode = "404", description = "Benefício não encontrado com o ID informado", content = @Content)
+    })
+    @PutMapping("/{id}/particoes")
+    public ResponseEntity<BeneficioResponseDTO> configurarParticoes(
+             @Parameter(description = "ID do benefício", required = true, example = "1")
+             @PathVariable Long id,
+             @Parameter(description = "Quantidade de partições (0 a 64)", example = "8")
+             @RequestParam int quantidade) {
+        return ResponseEntity.ok(beneficioService.configurarParticoes(id, quantidade));
+    }
+
+    @Operation(summary = "Transfere valores entre benefícios",
+             description = "Realiza a transferência de saldo de um benefício para outro. Com o header Idempotency-Key, repetições da mesma requisição retornam o resultado original sem transferir de novo. O campo opcional modo (PESSIMISTA/OTIMISTA/ASSINCRONO) escolhe a estratégia de concorrência; em ASSINCRONO o crédito no destino é aplicado em segundo plano. Com Prefer: respond-async a requisição retorna 202 assim que a transferência entra na fila; o resultado sai em /transferir/{id} (header Location) e em /transferir/eventos.")
     @ApiResponses(value = {
              @ApiResponse(responseCode = "200", description = "Transferência realizada com sucesso"),
-             @ApiResponse(responseCode = "400", description = "Erro na validação da transferência (ex: saldo insuficiente)", content = @Content)
+             @ApiResponse(responseCode = "202", description = "Transferência aceita para execução assíncrona",
+                      content = @Content(schema = @Schema(implementation = TransferStatusDTO.class))),
+             @ApiResponse(responseCode = "400", description = "Erro na validação da transferência (ex: saldo insuficiente)", content = @Content),
+             @ApiResponse(responseCode = "429", description = "Fila de transferências assíncronas cheia; repita após Retry-After", content = @Content)
     })
     @PostMapping("/transferir")
-    public ResponseEntity<Void> transferir(
+    public ResponseEntity<TransferStatusDTO> transferir(
              @io.swagger.v3.oas.annotations.parameters.RequestBody(
                       description = "Dados da transferência (ID de origem, ID de destino, valor do saldo para transferir)",
                       required = true,
                       content = @Content(schema = @Schema(implementation = TransferRequestDTO.class))
              )
-             @Valid @RequestBody TransferRequestDTO requestDTO) {
+             @Valid @RequestBody TransferRequestDTO requestDTO,
+             @Parameter(description = "Chave para repetir a requisição com segurança: a mesma chave não é reaplicada")
+             @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+             @Parameter(description = "respond-async: retorna 202 sem aguardar a execução")
+             @RequestHeader(value = PREFER, required = false) String prefer) {
+        if (idempotencyKey != null) {
+            requestDTO.setChaveIdempotencia(idempotencyKey);
+        }
+        if (prefer != null && prefer.toLowerCase(Locale.ROOT).contains(RESPOND_ASYNC)) {
+            TransferStatusDTO status = transferenciasAssincronas.submeter(requestDTO, beneficioService::transferir);
+            return ResponseEntity.accepted()
+                     .location(URI.create("/api/v1/beneficios/transferir/" + status.getId()))
+                     .header(PREFERENCE_APPLIED, RESPOND_ASYNC)
+                     .body(status);
+        }
         beneficioService.transferir(requestDTO);
         return ResponseEntity.ok().build();
     }
+
+    @Operation(summary = "Consulta uma transferência assíncrona",
+             description = "Estado (PENDENTE, CONCLUIDA ou RECUSADA) de uma transferência aceita com Prefer: respond-async. O resultado fica disponível por tempo limitado.")
+    @ApiResponses(value = {
+             @ApiResponse(responseCode = "200", description = "Estado da transferência"),
+             @ApiResponse(responseCode = "404", description = "ID desconhecido ou resultado expirado", content = @Content)
+    })
+    @GetMapping("/transferir/{id}")
+    public ResponseEntity<TransferStatusDTO> statusTransferencia(
+             @Parameter(description = "ID retornado no 202", required = true)
+             @PathVariable String id) {
+        return ResponseEntity.ok(transferenciasAssincronas.status(id));
+    }
+
+    @Operation(summary = "Stream de conclusões das transferências assíncronas",
+             description = "Server-sent events: um evento transferencia (TransferStatusDTO) a cada conclusão ou recusa das transferências informadas em ids (os IDs retornados no 202, até 100). As que já terminaram são enviadas na assinatura.")
+    @ApiResponses(value = {
+             @ApiResponse(responseCode = "200", description = "Stream aberto"),
+             @ApiResponse(responseCode = "400", description = "Nenhum ID ou mais de 100 IDs", content = @Content)
+    })
+    @GetMapping(value = "/transferir/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter eventosTransferencia(
+             @Parameter(description = "IDs das transferências acompanhadas, separados por vírgula", required = true)
+             @RequestParam("ids") List<String> ids) {
+        return transferenciasAssincronas.assinar(ids);
+    }
+
+    @Operation(summary = "Estatísticas de concorrência das transferências",
+             description = "Execuções, retentativas e desistências acumuladas por estratégia (PESSIMISTA/OTIMISTA/ASSINCRONO), para comparar as estratégias sob a contenção real.")
+    @ApiResponses(value = {
+             @ApiResponse(responseCode = "200", description = "Estatísticas retornadas com sucesso")
+    })
+    @GetMapping("/transferir/estatisticas")
+    public ResponseEntity<List<TransferEstatisticaDTO>> estatisticasTransferencia() {
+        return ResponseEntity.ok(beneficioService.estatisticasTransferencia());
+    }
+
+    @Operation(summary = "Transfere valores em lote",
+             description = "Executa várias transferências em uma única transação. Com tudoOuNada=true (padrão) qualquer falha reverte o lote; com false, cada transferência é reportada individualmente.")
+    @ApiResponses(value = {
+             @ApiResponse(responseCode = "200", description = "Lote processado; consulte os resultados por transferência"),
+             @ApiResponse(responseCode = "400", description = "Lote inválido ou falha em modo tudo-ou-nada", content = @Content)
+    })
+    @PostMapping("/transferir/lote")
+    public ResponseEntity<TransferLoteResponseDTO> transferirLote(
+             @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                      description = "Lista de transferências e modo de execução",
+                      required = true,
+                      content = @Content(schema = @Schema(implementation = TransferLoteRequestDTO.class))
+             )
+             @Valid @RequestBody TransferLoteRequestDTO requestDTO) {
+        TransferLoteResponseDTO resultado = beneficioService.transferirLote(requestDTO);
+        return ResponseEntity.ok(resultado);
+    }
+
+    private static String etag(BeneficioResponseDTO beneficio) {
+        return Etags.deBeneficio(beneficio.getVersion(), beneficio.getParticoes(), beneficio.getValor());
+    }
+
+    /** ETags fortes identificam a representação: a resposta em CBOR tem o seu próprio ETag. */
+    private static String etagNegociado(WebRequest request, String etag) {
+        return FormatoCbor.preferido(request.getHeader(HttpHeaders.ACCEPT)) ? Etags.emCbor(etag) : etag;
+    }
+
+    /** Escreve um objeto JSON seguido de quebra de linha (NDJSON). */
+    private void escreverLinha(OutputStream saida, Object valor) throws IOException {
+        escreverLinha(saida, objectMapper.writer(), valor);
+    }
+
+    private static void escreverLinha(OutputStream saida, ObjectWriter escritor, Object valor) throws IOException {
+        escritor.writeValue(saida, valor);
+        saida.write('\n');
+    }
+
+    /** Lista {@code fields} da query string; {@code null} (todos os campos) quando ausente. */
+    private static Set<String> campos(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> campos = new LinkedHashSet<>();
+        campos.add("id");
+        for (String campo : fields.split(",")) {
+            if (!campo.isBlank()) {
+                campos.add(campo.trim());
+            }
+        }
+        return campos;
+    }
+
+    private ObjectWriter escritor(Set<String> campos) {
+        if (campos == null) {
+            return objectMapper.writer();
+        }
+        return objectMapperCampos.writer(filtroCampos(campos));
+    }
+
+    private static SimpleFilterProvider filtroCampos(Set<String> campos) {
+        return new SimpleFilterProvider()
+                 .addFilter(FILTRO_CAMPOS, SimpleBeanPropertyFilter.filterOutAllExcept(campos));
+    }
+
+    /** Mix-in que liga o filtro de campos ao DTO de resposta apenas em {@link #objectMapperCampos}. */
+    @JsonFilter(FILTRO_CAMPOS)
+    private abstract static class CamposSelecionados {
+    }
 }
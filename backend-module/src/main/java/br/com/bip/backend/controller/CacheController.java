@@ -0,0 +1,32 @@
+package br.com.bip.backend.controller;
+
+import br.com.bip.backend.cache.CachingBeneficioEjbService;
+import br.com.bip.backend.dto.CacheEstatisticaDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/cache")
+public class CacheController {
+
+    private final CachingBeneficioEjbService cache;
+
+    public CacheController(CachingBeneficioEjbService cache) {
+        this.cache = cache;
+    }
+
+    @Operation(summary = "Estatísticas do cache de benefícios",
+             description = "Acertos, falhas, remoções por tamanho/TTL e taxa de acerto do cache de findById.")
+    @ApiResponses(value = {
+             @ApiResponse(responseCode = "200", description = "Estatísticas retornadas com sucesso")
+    })
+    @GetMapping("/beneficios")
+    public ResponseEntity<CacheEstatisticaDTO> estatisticas() {
+        return ResponseEntity.ok(cache.estatisticas());
+    }
+}
@@ -0,0 +1,46 @@
+package br.com.bip.backend.controller;
+
+import br.com.bip.backend.conciliacao.ConciliacaoSaldos;
+import br.com.bip.backend.dto.ConciliacaoDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/conciliacao")
+public class ConciliacaoController {
+
+    private final ConciliacaoSaldos conciliacao;
+
+    public ConciliacaoController(ConciliacaoSaldos conciliacao) {
+        this.conciliacao = conciliacao;
+    }
+
+    @Operation(summary = "Última conciliação de saldos",
+             description = "Resultado da última conciliação agendada ou manual: total esperado, soma varrida, divergência e contas inconsistentes.")
+    @ApiResponses(value = {
+             @ApiResponse(responseCode = "200", description = "Resultado retornado com sucesso"),
+             @ApiResponse(responseCode = "204", description = "Nenhuma conciliação concluída desde a subida")
+    })
+    @GetMapping
+    public ResponseEntity<ConciliacaoDTO> ultima() {
+        ConciliacaoDTO ultima = conciliacao.ultima();
+        return ultima == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(ultima);
+    }
+
+    @Operation(summary = "Executar a conciliação de saldos agora",
+             description = "Varre a tabela em faixas, sem bloquear transferências, e retorna o resultado.")
+    @ApiResponses(value = {
+             @ApiResponse(responseCode = "200", description = "Conciliação concluída"),
+             @ApiResponse(responseCode = "503", description = "Outra conciliação em andamento ou sem vaga de leitura")
+    })
+    @PostMapping
+    public ResponseEntity<ConciliacaoDTO> conciliar() {
+        return ResponseEntity.ok(conciliacao.conciliar());
+    }
+}
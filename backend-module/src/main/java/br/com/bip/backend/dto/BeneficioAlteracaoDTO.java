@@ -0,0 +1,34 @@
+package br.com.bip.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * Delta de um benefício no feed {@code GET /eventos}. {@code nome} e {@code descricao} só vêm
+ * quando podem ter mudado (criação e edição); numa exclusão vêm apenas {@code id} e
+ * {@code removido}.
+ */
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BeneficioAlteracaoDTO {
+
+   private Long id;
+
+   private BigDecimal valor;
+
+   private Boolean ativo;
+
+   private Long version;
+
+   private String nome;
+
+   private String descricao;
+
+   /** {@code true} quando o benefício foi excluído; omitido nos demais casos. */
+   private Boolean removido;
+
+}
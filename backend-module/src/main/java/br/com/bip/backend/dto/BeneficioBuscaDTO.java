@@ -0,0 +1,29 @@
+package br.com.bip.backend.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class BeneficioBuscaDTO {
+
+   public BeneficioBuscaDTO(){}
+
+   public BeneficioBuscaDTO(List<BeneficioResponseDTO> itens, int total, Integer proximoOffset) {
+      this.itens = itens;
+      this.total = total;
+      this.proximoOffset = proximoOffset;
+   }
+
+   /** Resultados em ordem de relevância. */
+   private List<BeneficioResponseDTO> itens;
+
+   /** Quantidade de benefícios que atendem a consulta, em todas as páginas. */
+   private int total;
+
+   /** Offset da próxima página; {@code null} quando não há mais resultados. */
+   private Integer proximoOffset;
+
+}
@@ -0,0 +1,33 @@
+package br.com.bip.backend.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+public class BeneficioEstatisticasDTO {
+
+   private long quantidade;
+
+   private long ativos;
+
+   private long inativos;
+
+   private BigDecimal soma;
+
+   private BigDecimal minimo;
+
+   private BigDecimal maximo;
+
+   private BigDecimal percentil50;
+
+   private BigDecimal percentil90;
+
+   private BigDecimal percentil99;
+
+   /** {@code true} quando veio do resumo incremental: mínimo, máximo e percentis ficam nulos. */
+   private boolean resumo;
+
+}
@@ -0,0 +1,26 @@
+package br.com.bip.backend.dto;
+
+import br.com.bip.ejb.BeneficioEjbServiceLocal;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class BeneficioLoteRequestDTO {
+
+   public BeneficioLoteRequestDTO(){}
+
+   public BeneficioLoteRequestDTO(List<BeneficioRequestDTO> beneficios) {
+      this.beneficios = beneficios;
+   }
+
+   @NotEmpty(message = "O lote deve conter ao menos um benefício")
+   @Size(max = BeneficioEjbServiceLocal.MAX_LOTE_CRIACAO, message = "O lote excede o limite de benefícios por requisição; use /importacao")
+   private List<@Valid BeneficioRequestDTO> beneficios;
+
+}
@@ -0,0 +1,24 @@
+package br.com.bip.backend.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class BeneficioPageDTO {
+
+   public BeneficioPageDTO(){}
+
+   public BeneficioPageDTO(List<BeneficioResponseDTO> itens, Long proximoAfterId) {
+      this.itens = itens;
+      this.proximoAfterId = proximoAfterId;
+   }
+
+   private List<BeneficioResponseDTO> itens;
+
+   /** Cursor para a próxima página; {@code null} quando não há mais registros. */
+   private Long proximoAfterId;
+
+}
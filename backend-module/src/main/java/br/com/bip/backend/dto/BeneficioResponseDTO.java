@@ -25,4 +25,10 @@ public class BeneficioResponseDTO {
 
    private Boolean ativo = true;
 
+   /** Versão da conta (coluna VERSION); base do ETag de {@code GET /{id}}. */
+   private Long version;
+
+   /** Quantidade de partições do saldo (0 = conta não particionada). */
+   private int particoes;
+
 }
@@ -0,0 +1,20 @@
+package br.com.bip.backend.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class CacheEstatisticaDTO {
+
+   private long acertos;
+
+   private long falhas;
+
+   private long remocoes;
+
+   private double taxaAcerto;
+
+   private long tamanho;
+
+}
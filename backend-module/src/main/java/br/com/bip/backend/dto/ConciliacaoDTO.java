@@ -0,0 +1,44 @@
+package br.com.bip.backend.dto;
+
+import br.com.bip.backend.conciliacao.SituacaoConciliacao;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+@Getter
+@Setter
+public class ConciliacaoDTO {
+
+   private SituacaoConciliacao situacao;
+
+   private Instant iniciadaEm;
+
+   private long duracaoMs;
+
+   private long contas;
+
+   /** Faixas de IDs com ao menos uma conta. */
+   private int faixas;
+
+   /** Soma das faixas lidas, cada uma em um momento; sob carga pode diferir por transferências em andamento. */
+   private BigDecimal saldoVarrido;
+
+   /** Total mantido no resumo incremental; {@code null} em SEM_CONTROLE. */
+   private BigDecimal esperado;
+
+   /** Soma real lida em um único comando; só preenchida quando a varredura não conferiu. */
+   private BigDecimal apurado;
+
+   /** Esperado menos apurado; zero quando confere ou quando a diferença da varredura era transitória. */
+   private BigDecimal divergencia;
+
+   /** Faixas de IDs ("inicio-fim") com saldo alterado sem mudança de versão desde a conciliação anterior. */
+   private List<String> faixasAlteradasSemVersao;
+
+   /** Contas com saldo negativo ou partições diferentes de PARTICOES (até 100 por faixa). */
+   private List<Long> contasInconsistentes;
+
+}
@@ -0,0 +1,22 @@
+package br.com.bip.backend.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class ImportacaoErroDTO {
+
+   public ImportacaoErroDTO(){}
+
+   public ImportacaoErroDTO(long linha, String mensagem) {
+      this.linha = linha;
+      this.mensagem = mensagem;
+   }
+
+   /** Linha do arquivo (a partir de 1, contando o cabeçalho do CSV). */
+   private long linha;
+
+   private String mensagem;
+
+}
@@ -0,0 +1,27 @@
+package br.com.bip.backend.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Progresso de um lote da importação em streaming; cada lote é uma transação no EJB. */
+@Getter
+@Setter
+public class ImportacaoLoteDTO {
+
+   private int lote;
+
+   private long linhaInicial;
+
+   private long linhaFinal;
+
+   private int importados;
+
+   /** Total importado até este lote, inclusive. */
+   private long importadosAcumulados;
+
+   private List<ImportacaoErroDTO> erros = new ArrayList<>();
+
+}
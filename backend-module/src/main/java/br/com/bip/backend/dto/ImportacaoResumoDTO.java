@@ -0,0 +1,19 @@
+package br.com.bip.backend.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/** Última linha da resposta da importação em streaming. */
+@Getter
+@Setter
+public class ImportacaoResumoDTO {
+
+   private long linhas;
+
+   private long importados;
+
+   private long rejeitados;
+
+   private int lotes;
+
+}
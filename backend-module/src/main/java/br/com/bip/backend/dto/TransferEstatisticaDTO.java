@@ -0,0 +1,21 @@
+package br.com.bip.backend.dto;
+
+import br.com.bip.ejb.model.ModoConcorrencia;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class TransferEstatisticaDTO {
+
+   private ModoConcorrencia modo;
+
+   private long execucoes;
+
+   private long retentativas;
+
+   private long desistencias;
+
+   private double taxaRetentativa;
+
+}
@@ -0,0 +1,27 @@
+package br.com.bip.backend.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class TransferLoteRequestDTO {
+
+   public TransferLoteRequestDTO(){}
+
+   public TransferLoteRequestDTO(List<TransferRequestDTO> transferencias, Boolean tudoOuNada) {
+      this.transferencias = transferencias;
+      this.tudoOuNada = tudoOuNada;
+   }
+
+   @NotEmpty(message = "O lote deve conter ao menos uma transferência")
+   private List<@Valid TransferRequestDTO> transferencias;
+
+   /** Quando verdadeiro (padrão), qualquer falha reverte o lote inteiro. */
+   private Boolean tudoOuNada = true;
+
+}
@@ -0,0 +1,20 @@
+package br.com.bip.backend.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class TransferLoteResponseDTO {
+
+   private int total;
+
+   private int sucessos;
+
+   private int falhas;
+
+   private List<TransferResultadoDTO> resultados;
+
+}
@@ -1,7 +1,9 @@
 package br.com.bip.backend.dto;
 
+import br.com.bip.ejb.model.ModoConcorrencia;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -29,4 +31,11 @@ public class TransferRequestDTO {
    @DecimalMin(value = "0.01", message = "O valor da transferência deve ser positivo")
    private BigDecimal valor;
 
+   /** Estratégia de concorrência desta transferência; ausente usa o padrão do deployment. Ignorado em lotes. */
+   private ModoConcorrencia modo;
+
+   /** Chave de idempotência (header {@code Idempotency-Key}); repetições com a mesma chave não são reaplicadas. */
+   @Size(max = 100, message = "A chave de idempotência deve ter no máximo 100 caracteres")
+   private String chaveIdempotencia;
+
 }
@@ -0,0 +1,24 @@
+package br.com.bip.backend.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class TransferResultadoDTO {
+
+   public TransferResultadoDTO(){}
+
+   public TransferResultadoDTO(int indice, boolean sucesso, String mensagem) {
+      this.indice = indice;
+      this.sucesso = sucesso;
+      this.mensagem = mensagem;
+   }
+
+   private int indice;
+
+   private boolean sucesso;
+
+   private String mensagem;
+
+}
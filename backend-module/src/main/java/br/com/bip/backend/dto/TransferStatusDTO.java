@@ -0,0 +1,37 @@
+package br.com.bip.backend.dto;
+
+import br.com.bip.backend.assincrono.SituacaoTransferencia;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+public class TransferStatusDTO {
+
+   public TransferStatusDTO(){}
+
+   public TransferStatusDTO(String id, SituacaoTransferencia situacao, TransferRequestDTO transferencia, String mensagem) {
+      this.id = id;
+      this.situacao = situacao;
+      this.idBeneficioOrigem = transferencia.getIdBeneficioOrigem();
+      this.idBeneficioDestino = transferencia.getIdBeneficioDestino();
+      this.valor = transferencia.getValor();
+      this.mensagem = mensagem;
+   }
+
+   private String id;
+
+   private SituacaoTransferencia situacao;
+
+   private Long idBeneficioOrigem;
+
+   private Long idBeneficioDestino;
+
+   private BigDecimal valor;
+
+   /** Motivo da recusa; {@code null} enquanto pendente ou quando concluída. */
+   private String mensagem;
+
+}
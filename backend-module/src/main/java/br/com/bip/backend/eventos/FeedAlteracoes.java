@@ -0,0 +1,271 @@
+package br.com.bip.backend.eventos;
+
+import br.com.bip.backend.dto.BeneficioAlteracaoDTO;
+import br.com.bip.ejb.BeneficioEjbServiceLocal;
+import br.com.bip.ejb.entity.Beneficio;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feed de alterações dos benefícios em server-sent events ({@code GET /eventos}). As escritas
+ * confirmadas que passam por {@link PublicandoBeneficioEjbService} marcam as contas alteradas;
+ * a cada {@code bip.eventos.intervalo} uma única thread publica um delta por conta marcada, então
+ * uma conta muito movimentada gera um evento por intervalo e não um por transferência. Depois
+ * de transferências a conta é relida abaixo do cache, e criação e edição publicam o estado que o
+ * EJB devolveu.
+ * <p>
+ * Os últimos {@code bip.eventos.buffer} eventos ficam em memória para a retomada por
+ * {@code Last-Event-ID}. Se o ID é de outra execução do servidor ou já saiu do buffer, o
+ * assinante recebe {@code reinicio} e deve recarregar a lista. Sem assinantes as contas marcadas
+ * não são relidas: o intervalo vira uma lacuna e retomadas anteriores a ela também recebem
+ * {@code reinicio}. Buffer e assinantes pertencem à thread do feed, sem locks.
+ */
+@Component
+public class FeedAlteracoes implements OuvinteAlteracoes {
+
+   static final String EVENTO = "beneficio";
+   static final String REINICIO = "reinicio";
+
+   /** Sem eventos por este tempo o stream é encerrado; o EventSource reconecta com Last-Event-ID. */
+   private static final long TIMEOUT_ASSINATURA = Duration.ofMinutes(30).toMillis();
+
+   private final BeneficioEjbServiceLocal leitor;
+   private final int capacidade;
+   /** Identifica esta execução: sequências de outra execução não podem ser retomadas. */
+   private final String epoca = Long.toString(System.currentTimeMillis(), 36);
+   private final Map<Long, Pendente> pendentes = new ConcurrentHashMap<>();
+   private final ScheduledExecutorService thread;
+
+   // Estado da thread do feed
+   private final Deque<Evento> buffer = new ArrayDeque<>();
+   private final List<SseEmitter> assinantes = new ArrayList<>();
+   private long sequencia;
+   private long primeiraRetomavel = 1;
+
+   public FeedAlteracoes(@Qualifier("beneficioEjbServiceSequenciado") BeneficioEjbServiceLocal leitor,
+            @Value("${bip.eventos.buffer:10000}") int capacidade,
+            @Value("${bip.eventos.intervalo:200ms}") Duration intervalo) {
+      if (capacidade < 1) {
+         throw new IllegalArgumentException("A capacidade do buffer de eventos deve ser positiva.");
+      }
+      this.leitor = leitor;
+      this.capacidade = capacidade;
+      this.thread = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+         Thread t = new Thread(tarefa, "bip-feed-alteracoes");
+         t.setDaemon(true);
+         return t;
+      });
+      long periodo = intervalo.toNanos();
+      thread.scheduleWithFixedDelay(this::publicarPendentes, periodo, periodo, TimeUnit.NANOSECONDS);
+   }
+
+   @Override
+   public void alterado(Beneficio beneficio, boolean completo) {
+      if (beneficio != null && beneficio.getId() != null) {
+         marcar(beneficio.getId(), new Pendente(delta(beneficio), completo));
+      }
+   }
+
+   /** A conta é relida na publicação. */
+   @Override
+   public void saldoAlterado(Long id) {
+      if (id != null) {
+         marcar(id, new Pendente(null, false));
+      }
+   }
+
+   @Override
+   public void removido(Long id) {
+      if (id != null) {
+         BeneficioAlteracaoDTO delta = new BeneficioAlteracaoDTO();
+         delta.setId(id);
+         delta.setRemovido(true);
+         marcar(id, new Pendente(delta, false));
+      }
+   }
+
+   /**
+    * Stream de deltas. Com {@code ultimoId} (header {@code Last-Event-ID}) os eventos seguintes
+    * ainda no buffer são reenviados antes dos novos.
+    */
+   public SseEmitter assinar(String ultimoId) {
+      SseEmitter emitter = new SseEmitter(TIMEOUT_ASSINATURA);
+      assinar(emitter, ultimoId);
+      return emitter;
+   }
+
+   void assinar(SseEmitter emitter, String ultimoId) {
+      Runnable remover = () -> thread.execute(() -> assinantes.remove(emitter));
+      emitter.onCompletion(remover);
+      emitter.onTimeout(remover);
+      emitter.onError(e -> remover.run());
+      thread.execute(() -> registrar(emitter, ultimoId));
+   }
+
+   @PreDestroy
+   public void encerrar() throws InterruptedException {
+      thread.execute(() -> assinantes.forEach(SseEmitter::complete));
+      thread.shutdown();
+      thread.awaitTermination(5, TimeUnit.SECONDS);
+   }
+
+   /** Publica as alterações marcadas sem esperar o intervalo (testes). */
+   void publicarAgora() throws Exception {
+      thread.submit(this::publicarPendentes).get();
+   }
+
+   private void marcar(Long id, Pendente pendente) {
+      pendentes.merge(id, pendente, Pendente::combinar);
+   }
+
+   private void registrar(SseEmitter emitter, String ultimoId) {
+      Long ultima = sequenciaRetomada(ultimoId);
+      try {
+         if (ultimoId != null && ultima == null) {
+            emitter.send(SseEmitter.event().name(REINICIO).id(idEvento(sequencia)).data(""));
+         } else if (ultima != null) {
+            for (Evento evento : buffer) {
+               if (evento.sequencia > ultima) {
+                  enviar(emitter, evento);
+               }
+            }
+         }
+         assinantes.add(emitter);
+      } catch (IOException | IllegalStateException e) {
+         emitter.completeWithError(e);
+      }
+   }
+
+   /** Sequência a partir da qual é possível retomar sem lacuna; {@code null} se não for. */
+   private Long sequenciaRetomada(String ultimoId) {
+      if (ultimoId == null) {
+         return null;
+      }
+      int separador = ultimoId.lastIndexOf('-');
+      if (separador < 0 || !ultimoId.substring(0, separador).equals(epoca)) {
+         return null;
+      }
+      try {
+         long ultima = Long.parseLong(ultimoId.substring(separador + 1));
+         return ultima + 1 >= primeiraRetomavel && ultima <= sequencia ? ultima : null;
+      } catch (NumberFormatException e) {
+         return null;
+      }
+   }
+
+   private void publicarPendentes() {
+      if (pendentes.isEmpty()) {
+         return;
+      }
+      if (assinantes.isEmpty()) {
+         pendentes.clear();
+         sequencia++;
+         primeiraRetomavel = sequencia + 1;
+         return;
+      }
+      for (Long id : new ArrayList<>(pendentes.keySet())) {
+         Pendente pendente = pendentes.remove(id);
+         if (pendente == null) {
+            continue;
+         }
+         BeneficioAlteracaoDTO delta;
+         try {
+            delta = pendente.estado != null ? pendente.estado : reler(id);
+         } catch (RuntimeException e) {
+            // Leitura recusada (ex: limitador cheio): a conta volta para a próxima rodada
+            marcar(id, pendente);
+            continue;
+         }
+         if (!pendente.completo && delta.getRemovido() == null) {
+            delta.setNome(null);
+            delta.setDescricao(null);
+         }
+         publicar(delta);
+      }
+   }
+
+   private BeneficioAlteracaoDTO reler(Long id) {
+      Beneficio beneficio = leitor.findById(id);
+      if (beneficio != null) {
+         return delta(beneficio);
+      }
+      BeneficioAlteracaoDTO delta = new BeneficioAlteracaoDTO();
+      delta.setId(id);
+      delta.setRemovido(true);
+      return delta;
+   }
+
+   private void publicar(BeneficioAlteracaoDTO delta) {
+      Evento evento = new Evento(++sequencia, delta);
+      buffer.addLast(evento);
+      if (buffer.size() > capacidade) {
+         primeiraRetomavel = buffer.removeFirst().sequencia + 1;
+      }
+      assinantes.removeIf(emitter -> {
+         try {
+            enviar(emitter, evento);
+            return false;
+         } catch (IOException | IllegalStateException e) {
+            return true;
+         }
+      });
+   }
+
+   private void enviar(SseEmitter emitter, Evento evento) throws IOException {
+      emitter.send(SseEmitter.event().name(EVENTO).id(idEvento(evento.sequencia)).data(evento.delta));
+   }
+
+   private String idEvento(long sequencia) {
+      return epoca + "-" + sequencia;
+   }
+
+   private static BeneficioAlteracaoDTO delta(Beneficio beneficio) {
+      BeneficioAlteracaoDTO delta = new BeneficioAlteracaoDTO();
+      delta.setId(beneficio.getId());
+      delta.setValor(beneficio.getSaldoTotal());
+      delta.setAtivo(beneficio.isAtivo());
+      delta.setVersion(beneficio.getVersion());
+      delta.setNome(beneficio.getNome());
+      delta.setDescricao(beneficio.getDescricao());
+      return delta;
+   }
+
+   /** Alteração ainda não publicada; {@code estado} nulo indica que a conta deve ser relida. */
+   private record Pendente(BeneficioAlteracaoDTO estado, boolean completo) {
+
+      /** Exclusão prevalece; uma releitura pendente cobre qualquer estado mais antigo. */
+      static Pendente combinar(Pendente anterior, Pendente novo) {
+         if (removido(anterior)) {
+            return anterior;
+         }
+         if (removido(novo)) {
+            return novo;
+         }
+         boolean completo = anterior.completo || novo.completo;
+         BeneficioAlteracaoDTO estado = anterior.estado == null || novo.estado == null ? null : novo.estado;
+         return new Pendente(estado, completo);
+      }
+
+      private static boolean removido(Pendente pendente) {
+         return pendente.estado != null && Boolean.TRUE.equals(pendente.estado.getRemovido());
+      }
+   }
+
+   private record Evento(long sequencia, BeneficioAlteracaoDTO delta) {
+   }
+}
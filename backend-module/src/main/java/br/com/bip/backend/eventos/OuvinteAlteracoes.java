@@ -0,0 +1,19 @@
+package br.com.bip.backend.eventos;
+
+import br.com.bip.ejb.entity.Beneficio;
+
+/**
+ * Recebe de {@link PublicandoBeneficioEjbService} as escritas já confirmadas pelo EJB. Chamado na
+ * thread da requisição: implementações só devem registrar a alteração, sem I/O.
+ */
+public interface OuvinteAlteracoes {
+
+   /** Estado devolvido pelo EJB; {@code completo} indica que nome e descrição podem ter mudado. */
+   void alterado(Beneficio beneficio, boolean completo);
+
+   /** Saldo alterado por transferência; o estado novo não é conhecido aqui. */
+   default void saldoAlterado(Long id) {
+   }
+
+   void removido(Long id);
+}
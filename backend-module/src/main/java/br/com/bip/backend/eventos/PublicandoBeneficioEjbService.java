@@ -0,0 +1,188 @@
+package br.com.bip.backend.eventos;
+
+import br.com.bip.ejb.BeneficioEjbServiceLocal;
+import br.com.bip.ejb.entity.Beneficio;
+import br.com.bip.ejb.model.BeneficioEstatisticas;
+import br.com.bip.ejb.model.BeneficioProjecao;
+import br.com.bip.ejb.model.ConciliacaoFaixa;
+import br.com.bip.ejb.model.ConciliacaoTotais;
+import br.com.bip.ejb.model.ModoConcorrencia;
+import br.com.bip.ejb.model.TransferenciaEstatistica;
+import br.com.bip.ejb.model.TransferenciaItem;
+import br.com.bip.ejb.model.TransferenciaResultado;
+import br.com.bip.ejb.model.TransferenciaTelemetria;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Repassa as escritas ao EJB e, quando retornam sem erro (transação confirmada), avisa os
+ * {@link OuvinteAlteracoes} (feed de alterações, índice de busca). Fica entre o cache e o
+ * sequenciador: vê as mesmas escritas que invalidam o cache, e os ouvintes podem reler as contas
+ * abaixo dele. Escritas que não passam por este nó (outro nó, projeção do livro-razão pelo timer
+ * do EJB) não são vistas.
+ * <p>
+ * Também conta as escritas publicadas por este nó e as soma à {@link #tableVersion()} do EJB, que
+ * não vê UPDATEs de contas existentes. O contador é local, sem escrita compartilhada no caminho das
+ * transferências; o ID da instância no valor impede que dois nós gerem o mesmo ETag para estados
+ * diferentes. Um PUT feito em outro nó só aparece no ETag das listagens deste quando outra escrita
+ * o mudar.
+ */
+public class PublicandoBeneficioEjbService implements BeneficioEjbServiceLocal {
+
+   private final BeneficioEjbServiceLocal delegate;
+   private final List<OuvinteAlteracoes> ouvintes;
+   private final String instancia = UUID.randomUUID().toString().substring(0, 8);
+   private final AtomicLong alteracoes = new AtomicLong();
+
+   public PublicandoBeneficioEjbService(BeneficioEjbServiceLocal delegate, List<OuvinteAlteracoes> ouvintes) {
+      this.delegate = delegate;
+      this.ouvintes = List.copyOf(ouvintes);
+   }
+
+   // --- Escritas (publicadas após o commit do EJB) ---
+
+   @Override
+   public Beneficio create(Beneficio beneficio) {
+      Beneficio criado = delegate.create(beneficio);
+      alterado(criado, true);
+      return criado;
+   }
+
+   @Override
+   public List<Beneficio> createAll(List<Beneficio> beneficios) {
+      List<Beneficio> criados = delegate.createAll(beneficios);
+      criados.forEach(criado -> alterado(criado, true));
+      return criados;
+   }
+
+   @Override
+   public Beneficio update(Beneficio beneficio) {
+      Beneficio atualizado = delegate.update(beneficio);
+      alterado(atualizado, true);
+      return atualizado;
+   }
+
+   @Override
+   public void deleteById(Long id) {
+      delegate.deleteById(id);
+      alteracoes.incrementAndGet();
+      ouvintes.forEach(ouvinte -> ouvinte.removido(id));
+   }
+
+   @Override
+   public void transfer(Long fromId, Long toId, BigDecimal amount) {
+      delegate.transfer(fromId, toId, amount);
+      transferido(fromId, toId);
+   }
+
+   @Override
+   public void transfer(Long fromId, Long toId, BigDecimal amount, ModoConcorrencia modo) {
+      delegate.transfer(fromId, toId, amount, modo);
+      transferido(fromId, toId);
+   }
+
+   @Override
+   public void transfer(Long fromId, Long toId, BigDecimal amount, ModoConcorrencia modo, String chaveIdempotencia) {
+      delegate.transfer(fromId, toId, amount, modo, chaveIdempotencia);
+      transferido(fromId, toId);
+   }
+
+   @Override
+   public List<TransferenciaResultado> transferBatch(List<TransferenciaItem> itens, boolean tudoOuNada) {
+      List<TransferenciaResultado> resultados = delegate.transferBatch(itens, tudoOuNada);
+      for (TransferenciaResultado resultado : resultados) {
+         if (resultado.isSucesso()) {
+            TransferenciaItem item = itens.get(resultado.getIndice());
+            transferido(item.getFromId(), item.getToId());
+         }
+      }
+      return resultados;
+   }
+
+   @Override
+   public int projectLedger(int limite) {
+      return delegate.projectLedger(limite);
+   }
+
+   @Override
+   public Beneficio configureStriping(Long id, int particoes) {
+      Beneficio configurado = delegate.configureStriping(id, particoes);
+      alterado(configurado, false);
+      return configurado;
+   }
+
+   @Override
+   public int purgeIdempotencyKeys() {
+      return delegate.purgeIdempotencyKeys();
+   }
+
+   // --- Leituras (repassadas) ---
+
+   @Override
+   public List<Beneficio> findAll() {
+      return delegate.findAll();
+   }
+
+   @Override
+   public List<Beneficio> findPage(Long afterId, int limit, Boolean ativo, String nome) {
+      return delegate.findPage(afterId, limit, ativo, nome);
+   }
+
+   @Override
+   public List<BeneficioProjecao> findPageProjected(Long afterId, int limit, Boolean ativo, String nome,
+            Set<String> campos) {
+      return delegate.findPageProjected(afterId, limit, ativo, nome, campos);
+   }
+
+   @Override
+   public Beneficio findById(Long id) {
+      return delegate.findById(id);
+   }
+
+   @Override
+   public String tableVersion() {
+      return delegate.tableVersion() + "-" + instancia + "." + alteracoes.get();
+   }
+
+   @Override
+   public BeneficioEstatisticas statistics(boolean resumo) {
+      return delegate.statistics(resumo);
+   }
+
+   @Override
+   public List<TransferenciaEstatistica> transferStatistics() {
+      return delegate.transferStatistics();
+   }
+
+   @Override
+   public TransferenciaTelemetria transferTelemetry() {
+      return delegate.transferTelemetry();
+   }
+
+   @Override
+   public ConciliacaoFaixa reconcileRange(long fromId, long toId) {
+      return delegate.reconcileRange(fromId, toId);
+   }
+
+   @Override
+   public ConciliacaoTotais reconciliationTotals(boolean apurar) {
+      return delegate.reconciliationTotals(apurar);
+   }
+
+   private void alterado(Beneficio beneficio, boolean completo) {
+      alteracoes.incrementAndGet();
+      ouvintes.forEach(ouvinte -> ouvinte.alterado(beneficio, completo));
+   }
+
+   private void transferido(Long fromId, Long toId) {
+      alteracoes.incrementAndGet();
+      for (OuvinteAlteracoes ouvinte : ouvintes) {
+         ouvinte.saldoAlterado(fromId);
+         ouvinte.saldoAlterado(toId);
+      }
+   }
+}
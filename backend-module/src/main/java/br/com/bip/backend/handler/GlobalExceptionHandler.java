@@ -1,7 +1,11 @@
 package br.com.bip.backend.handler;
 
+import br.com.bip.backend.assincrono.FilaCheiaException;
+import br.com.bip.backend.limite.CapacidadeEsgotadaException;
 import br.com.bip.ejb.exception.TransferenciaException;
+import br.com.bip.ejb.exception.VersaoDivergenteException;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -43,6 +47,44 @@ public class GlobalExceptionHandler {
       return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
    }
 
+   /** Sem versão atual a conta não existe: 404, não 412. */
+   @ExceptionHandler(VersaoDivergenteException.class)
+   public ResponseEntity<Map<String, Object>> handleVersaoDivergente(
+            VersaoDivergenteException ex, WebRequest request) {
+
+      HttpStatus status = ex.getVersaoAtual() == null ? HttpStatus.NOT_FOUND : HttpStatus.PRECONDITION_FAILED;
+      Map<String, Object> body = createErrorBody(status, ex.getMessage(), request.getDescription(false));
+      return new ResponseEntity<>(body, status);
+   }
+
+   @ExceptionHandler(CapacidadeEsgotadaException.class)
+   public ResponseEntity<Map<String, Object>> handleCapacidadeEsgotada(
+            CapacidadeEsgotadaException ex, WebRequest request) {
+
+      Map<String, Object> body = createErrorBody(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), request.getDescription(false));
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+               .header(HttpHeaders.RETRY_AFTER, "1")
+               .body(body);
+   }
+
+   @ExceptionHandler(FilaCheiaException.class)
+   public ResponseEntity<Map<String, Object>> handleFilaCheia(
+            FilaCheiaException ex, WebRequest request) {
+
+      Map<String, Object> body = createErrorBody(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage(), request.getDescription(false));
+      return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+               .header(HttpHeaders.RETRY_AFTER, "1")
+               .body(body);
+   }
+
+   @ExceptionHandler(IllegalArgumentException.class)
+   public ResponseEntity<Map<String, Object>> handleIllegalArgument(
+            IllegalArgumentException ex, WebRequest request) {
+
+      Map<String, Object> body = createErrorBody(HttpStatus.BAD_REQUEST, ex.getMessage(), request.getDescription(false));
+      return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+   }
+
    @ExceptionHandler(MethodArgumentNotValidException.class)
    public ResponseEntity<Map<String, Object>> handleValidationExceptions(
             MethodArgumentNotValidException ex, WebRequest request) {
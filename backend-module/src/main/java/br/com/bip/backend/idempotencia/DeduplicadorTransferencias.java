@@ -0,0 +1,92 @@
+package br.com.bip.backend.idempotencia;
+
+import br.com.bip.ejb.exception.TransferenciaException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Frente em memória da deduplicação por {@code Idempotency-Key}: repetições de uma transferência
+ * já confirmada neste nó retornam sem chamar o EJB, e repetições simultâneas aguardam a primeira
+ * execução em vez de disputar o banco. A garantia entre nós é a tabela TRANSFERENCIA_IDEMPOTENCIA
+ * do EJB; aqui só se evita a ida até ela.
+ */
+@Component
+public class DeduplicadorTransferencias {
+
+   private final Cache<String, String> confirmadas;
+   private final ConcurrentMap<String, EmAndamento> emAndamento = new ConcurrentHashMap<>();
+
+   public DeduplicadorTransferencias(
+            @Value("${bip.idempotencia.tamanho-maximo:100000}") long tamanhoMaximo,
+            @Value("${bip.idempotencia.ttl:10m}") Duration ttl) {
+      this.confirmadas = Caffeine.newBuilder()
+               .maximumSize(tamanhoMaximo)
+               .expireAfterWrite(ttl)
+               .build();
+   }
+
+   /**
+    * Executa {@code transferencia} uma única vez por chave. {@code assinatura} identifica os
+    * parâmetros da transferência, para recusar a reutilização da chave em outra operação.
+    */
+   public void executar(String chave, String assinatura, Runnable transferencia) {
+      String confirmada = confirmadas.getIfPresent(chave);
+      if (confirmada != null) {
+         conferir(chave, confirmada, assinatura);
+         return;
+      }
+
+      EmAndamento nova = new EmAndamento(assinatura);
+      EmAndamento atual = emAndamento.putIfAbsent(chave, nova);
+      if (atual != null) {
+         conferir(chave, atual.assinatura, assinatura);
+         aguardar(atual.resultado);
+         return;
+      }
+
+      try {
+         transferencia.run();
+         confirmadas.put(chave, assinatura);
+         nova.resultado.complete(null);
+      } catch (RuntimeException e) {
+         nova.resultado.completeExceptionally(e);
+         throw e;
+      } finally {
+         emAndamento.remove(chave, nova);
+      }
+   }
+
+   private static void conferir(String chave, String registrada, String assinatura) {
+      if (!registrada.equals(assinatura)) {
+         throw new TransferenciaException("A chave de idempotência '" + chave + "' já foi usada em outra transferência.");
+      }
+   }
+
+   private static void aguardar(CompletableFuture<Void> resultado) {
+      try {
+         resultado.join();
+      } catch (CompletionException e) {
+         if (e.getCause() instanceof RuntimeException causa) {
+            throw causa;
+         }
+         throw e;
+      }
+   }
+
+   private static final class EmAndamento {
+      private final String assinatura;
+      private final CompletableFuture<Void> resultado = new CompletableFuture<>();
+
+      private EmAndamento(String assinatura) {
+         this.assinatura = assinatura;
+      }
+   }
+}
@@ -0,0 +1,28 @@
+package br.com.bip.backend.importacao;
+
+import org.springframework.http.MediaType;
+
+/** Formatos aceitos pela importação em streaming; um benefício por linha. */
+public enum FormatoImportacao {
+
+   /** Colunas {@code nome,descricao,valor[,ativo]}; cabeçalho opcional. */
+   CSV("text/csv"),
+
+   /** Um {@code BeneficioRequestDTO} em JSON por linha. */
+   NDJSON("application/x-ndjson");
+
+   private final MediaType tipo;
+
+   FormatoImportacao(String tipo) {
+      this.tipo = MediaType.parseMediaType(tipo);
+   }
+
+   public static FormatoImportacao doTipo(MediaType contentType) {
+      for (FormatoImportacao formato : values()) {
+         if (formato.tipo.isCompatibleWith(contentType)) {
+            return formato;
+         }
+      }
+      throw new IllegalArgumentException("Formato de importação não suportado: " + contentType + ". Use text/csv ou application/x-ndjson.");
+   }
+}
@@ -0,0 +1,224 @@
+package br.com.bip.backend.importacao;
+
+import br.com.bip.backend.dto.BeneficioRequestDTO;
+import br.com.bip.backend.dto.ImportacaoErroDTO;
+import br.com.bip.backend.dto.ImportacaoLoteDTO;
+import br.com.bip.backend.dto.ImportacaoResumoDTO;
+import br.com.bip.ejb.BeneficioEjbServiceLocal;
+import br.com.bip.ejb.entity.Beneficio;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Importação de benefícios em streaming: o arquivo é lido linha a linha e gravado em lotes de
+ * {@code bip.importacao.lote-commit} benefícios, cada lote em uma transação do EJB
+ * ({@link BeneficioEjbServiceLocal#createAll}). Só o lote corrente fica em memória.
+ * <p>
+ * Linhas inválidas são reportadas e puladas sem afetar as demais; uma falha na gravação
+ * rejeita apenas o lote em que ocorreu. O progresso é entregue ao consumidor a cada lote.
+ */
+@Component
+public class ImportadorBeneficios {
+
+   private final BeneficioEjbServiceLocal beneficioEjbService;
+   private final ObjectMapper objectMapper;
+   private final Validator validator;
+   private final int loteCommit;
+
+   public ImportadorBeneficios(BeneficioEjbServiceLocal beneficioEjbService, ObjectMapper objectMapper, Validator validator,
+            @Value("${bip.importacao.lote-commit:1000}") int loteCommit) {
+      this.beneficioEjbService = beneficioEjbService;
+      this.objectMapper = objectMapper;
+      this.validator = validator;
+      this.loteCommit = Math.max(1, Math.min(loteCommit, BeneficioEjbServiceLocal.MAX_LOTE_CRIACAO));
+   }
+
+   public ImportacaoResumoDTO importar(Reader leitor, FormatoImportacao formato, Consumer<ImportacaoLoteDTO> progresso)
+            throws IOException {
+      Execucao execucao = new Execucao(progresso);
+      BufferedReader linhas = new BufferedReader(leitor);
+      long numero = 0;
+      String linha;
+      while ((linha = linhas.readLine()) != null) {
+         numero++;
+         if (numero == 1 && linha.startsWith("\uFEFF")) {
+            linha = linha.substring(1);
+         }
+         if (linha.isBlank() || (numero == 1 && formato == FormatoImportacao.CSV && isCabecalho(linha))) {
+            continue;
+         }
+         try {
+            execucao.adicionar(paraEntidade(ler(linha, formato)));
+         } catch (IllegalArgumentException e) {
+            execucao.rejeitar(numero, e.getMessage());
+         }
+         if (execucao.pendentes.size() + execucao.erros.size() >= loteCommit) {
+            execucao.gravar(numero);
+         }
+      }
+      if (!execucao.pendentes.isEmpty() || !execucao.erros.isEmpty()) {
+         execucao.gravar(numero);
+      }
+      return execucao.resumo(numero);
+   }
+
+   private BeneficioRequestDTO ler(String linha, FormatoImportacao formato) {
+      BeneficioRequestDTO dto = formato == FormatoImportacao.CSV ? lerCsv(linha) : lerJson(linha);
+      Set<ConstraintViolation<BeneficioRequestDTO>> violacoes = validator.validate(dto);
+      if (!violacoes.isEmpty()) {
+         throw new IllegalArgumentException(violacoes.stream()
+                  .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                  .sorted()
+                  .collect(Collectors.joining(", ")));
+      }
+      return dto;
+   }
+
+   private BeneficioRequestDTO lerJson(String linha) {
+      try {
+         return objectMapper.readValue(linha, BeneficioRequestDTO.class);
+      } catch (JsonProcessingException e) {
+         throw new IllegalArgumentException("JSON inválido: " + e.getOriginalMessage());
+      }
+   }
+
+   private static BeneficioRequestDTO lerCsv(String linha) {
+      List<String> campos = dividirCsv(linha);
+      if (campos.size() < 3 || campos.size() > 4) {
+         throw new IllegalArgumentException("Esperadas as colunas nome,descricao,valor[,ativo]; encontradas " + campos.size() + ".");
+      }
+      BeneficioRequestDTO dto = new BeneficioRequestDTO();
+      dto.setNome(campos.get(0).trim());
+      dto.setDescricao(campos.get(1).isBlank() ? null : campos.get(1).trim());
+      String valor = campos.get(2).trim();
+      try {
+         dto.setValor(valor.isEmpty() ? null : new BigDecimal(valor));
+      } catch (NumberFormatException e) {
+         throw new IllegalArgumentException("Valor inválido: '" + valor + "'.");
+      }
+      if (campos.size() == 4 && !campos.get(3).isBlank()) {
+         String ativo = campos.get(3).trim();
+         if (!ativo.equalsIgnoreCase("true") && !ativo.equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException("Ativo inválido: '" + ativo + "' (use true ou false).");
+         }
+         dto.setAtivo(Boolean.parseBoolean(ativo));
+      }
+      return dto;
+   }
+
+   /** Divide uma linha CSV (RFC 4180, sem quebras de linha dentro de campos). */
+   static List<String> dividirCsv(String linha) {
+      List<String> campos = new ArrayList<>();
+      StringBuilder campo = new StringBuilder();
+      boolean entreAspas = false;
+      for (int i = 0; i < linha.length(); i++) {
+         char c = linha.charAt(i);
+         if (entreAspas) {
+            if (c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+               campo.append('"');
+               i++;
+            } else if (c == '"') {
+               entreAspas = false;
+            } else {
+               campo.append(c);
+            }
+         } else if (c == '"') {
+            entreAspas = true;
+         } else if (c == ',') {
+            campos.add(campo.toString());
+            campo.setLength(0);
+         } else {
+            campo.append(c);
+         }
+      }
+      if (entreAspas) {
+         throw new IllegalArgumentException("Aspas não fechadas.");
+      }
+      campos.add(campo.toString());
+      return campos;
+   }
+
+   private static boolean isCabecalho(String linha) {
+      return linha.trim().toLowerCase().startsWith("nome,");
+   }
+
+   private static Beneficio paraEntidade(BeneficioRequestDTO dto) {
+      Beneficio beneficio = new Beneficio();
+      beneficio.setNome(dto.getNome());
+      beneficio.setDescricao(dto.getDescricao());
+      beneficio.setValor(dto.getValor());
+      beneficio.setAtivo(dto.getAtivo() == null || dto.getAtivo());
+      return beneficio;
+   }
+
+   /** Estado de uma importação: o lote pendente e os totais. */
+   private final class Execucao {
+      private final Consumer<ImportacaoLoteDTO> progresso;
+      private final List<Beneficio> pendentes = new ArrayList<>();
+      private final List<ImportacaoErroDTO> erros = new ArrayList<>();
+      private long linhaInicial = 1;
+      private int lotes;
+      private long importados;
+      private long rejeitados;
+
+      private Execucao(Consumer<ImportacaoLoteDTO> progresso) {
+         this.progresso = progresso;
+      }
+
+      private void adicionar(Beneficio beneficio) {
+         pendentes.add(beneficio);
+      }
+
+      private void rejeitar(long linha, String mensagem) {
+         erros.add(new ImportacaoErroDTO(linha, mensagem));
+         rejeitados++;
+      }
+
+      private void gravar(long linhaFinal) {
+         ImportacaoLoteDTO lote = new ImportacaoLoteDTO();
+         lote.setLote(++lotes);
+         lote.setLinhaInicial(linhaInicial);
+         lote.setLinhaFinal(linhaFinal);
+         if (!pendentes.isEmpty()) {
+            try {
+               beneficioEjbService.createAll(new ArrayList<>(pendentes));
+               lote.setImportados(pendentes.size());
+               importados += pendentes.size();
+            } catch (RuntimeException e) {
+               erros.add(new ImportacaoErroDTO(linhaInicial, "Lote " + lotes + " rejeitado (linhas " + linhaInicial
+                        + " a " + linhaFinal + "): " + e.getMessage()));
+               rejeitados += pendentes.size();
+            }
+         }
+         lote.setImportadosAcumulados(importados);
+         lote.setErros(new ArrayList<>(erros));
+         pendentes.clear();
+         erros.clear();
+         linhaInicial = linhaFinal + 1;
+         progresso.accept(lote);
+      }
+
+      private ImportacaoResumoDTO resumo(long linhas) {
+         ImportacaoResumoDTO resumo = new ImportacaoResumoDTO();
+         resumo.setLinhas(linhas);
+         resumo.setImportados(importados);
+         resumo.setRejeitados(rejeitados);
+         resumo.setLotes(lotes);
+         return resumo;
+      }
+   }
+}
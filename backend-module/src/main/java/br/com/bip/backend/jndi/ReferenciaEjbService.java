@@ -0,0 +1,208 @@
+package br.com.bip.backend.jndi;
+
+import br.com.bip.ejb.BeneficioEjbServiceLocal;
+import br.com.bip.ejb.entity.Beneficio;
+import br.com.bip.ejb.model.BeneficioEstatisticas;
+import br.com.bip.ejb.model.BeneficioProjecao;
+import br.com.bip.ejb.model.ConciliacaoFaixa;
+import br.com.bip.ejb.model.ConciliacaoTotais;
+import br.com.bip.ejb.model.ModoConcorrencia;
+import br.com.bip.ejb.model.TransferenciaEstatistica;
+import br.com.bip.ejb.model.TransferenciaItem;
+import br.com.bip.ejb.model.TransferenciaResultado;
+import br.com.bip.ejb.model.TransferenciaTelemetria;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.ejb.NoSuchEJBException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Referência ao EJB local resolvida uma vez e guardada em campo volátil: a chamada lê o campo e
+ * vai direto ao proxy do container, sem lookup nem lock (o {@code JndiObjectFactoryBean} lazy
+ * sincroniza cada chamada no {@code getTarget()} e nunca refaz o lookup).
+ * <p>
+ * Se o container responde {@link NoSuchEJBException} (EJB reimplantado, proxy antigo), a
+ * referência é descartada e a chamada repetida uma vez com um lookup novo; a chamada original
+ * não chegou a executar. {@link #verificar()} refaz o lookup para o health check.
+ */
+public class ReferenciaEjbService implements BeneficioEjbServiceLocal {
+
+   static final String RECONEXOES = "bip.ejb.reconexoes";
+
+   private final Supplier<BeneficioEjbServiceLocal> lookup;
+   private final Counter reconexoes;
+
+   private volatile BeneficioEjbServiceLocal alvo;
+
+   public ReferenciaEjbService(Supplier<BeneficioEjbServiceLocal> lookup, MeterRegistry registry) {
+      this.lookup = lookup;
+      this.reconexoes = Counter.builder(RECONEXOES)
+               .description("Lookups refeitos após o proxy do EJB deixar de ser válido")
+               .register(registry);
+   }
+
+   /**
+    * Refaz o lookup e troca a referência guardada. Falhas descartam a referência (a próxima
+    * chamada tenta de novo) e são propagadas.
+    */
+   public void verificar() {
+      try {
+         alvo = lookup.get();
+      } catch (RuntimeException e) {
+         alvo = null;
+         throw e;
+      }
+   }
+
+   @Override
+   public List<Beneficio> findAll() {
+      return chamar(BeneficioEjbServiceLocal::findAll);
+   }
+
+   @Override
+   public List<Beneficio> findPage(Long afterId, int limit, Boolean ativo, String nome) {
+      return chamar(ejb -> ejb.findPage(afterId, limit, ativo, nome));
+   }
+
+   @Override
+   public List<BeneficioProjecao> findPageProjected(Long afterId, int limit, Boolean ativo, String nome,
+            Set<String> campos) {
+      return chamar(ejb -> ejb.findPageProjected(afterId, limit, ativo, nome, campos));
+   }
+
+   @Override
+   public Beneficio findById(Long id) {
+      return chamar(ejb -> ejb.findById(id));
+   }
+
+   @Override
+   public String tableVersion() {
+      return chamar(BeneficioEjbServiceLocal::tableVersion);
+   }
+
+   @Override
+   public BeneficioEstatisticas statistics(boolean resumo) {
+      return chamar(ejb -> ejb.statistics(resumo));
+   }
+
+   @Override
+   public Beneficio create(Beneficio beneficio) {
+      return chamar(ejb -> ejb.create(beneficio));
+   }
+
+   @Override
+   public List<Beneficio> createAll(List<Beneficio> beneficios) {
+      return chamar(ejb -> ejb.createAll(beneficios));
+   }
+
+   @Override
+   public Beneficio update(Beneficio beneficio) {
+      return chamar(ejb -> ejb.update(beneficio));
+   }
+
+   @Override
+   public void deleteById(Long id) {
+      chamar(ejb -> {
+         ejb.deleteById(id);
+         return null;
+      });
+   }
+
+   @Override
+   public Beneficio configureStriping(Long id, int particoes) {
+      return chamar(ejb -> ejb.configureStriping(id, particoes));
+   }
+
+   @Override
+   public void transfer(Long fromId, Long toId, BigDecimal amount) {
+      chamar(ejb -> {
+         ejb.transfer(fromId, toId, amount);
+         return null;
+      });
+   }
+
+   @Override
+   public void transfer(Long fromId, Long toId, BigDecimal amount, ModoConcorrencia modo) {
+      chamar(ejb -> {
+         ejb.transfer(fromId, toId, amount, modo);
+         return null;
+      });
+   }
+
+   @Override
+   public void transfer(Long fromId, Long toId, BigDecimal amount, ModoConcorrencia modo, String chaveIdempotencia) {
+      chamar(ejb -> {
+         ejb.transfer(fromId, toId, amount, modo, chaveIdempotencia);
+         return null;
+      });
+   }
+
+   @Override
+   public List<TransferenciaResultado> transferBatch(List<TransferenciaItem> itens, boolean tudoOuNada) {
+      return chamar(ejb -> ejb.transferBatch(itens, tudoOuNada));
+   }
+
+   @Override
+   public int projectLedger(int limite) {
+      return chamar(ejb -> ejb.projectLedger(limite));
+   }
+
+   @Override
+   public int purgeIdempotencyKeys() {
+      return chamar(BeneficioEjbServiceLocal::purgeIdempotencyKeys);
+   }
+
+   @Override
+   public List<TransferenciaEstatistica> transferStatistics() {
+      return chamar(BeneficioEjbServiceLocal::transferStatistics);
+   }
+
+   @Override
+   public TransferenciaTelemetria transferTelemetry() {
+      return chamar(BeneficioEjbServiceLocal::transferTelemetry);
+   }
+
+   @Override
+   public ConciliacaoFaixa reconcileRange(long fromId, long toId) {
+      return chamar(ejb -> ejb.reconcileRange(fromId, toId));
+   }
+
+   @Override
+   public ConciliacaoTotais reconciliationTotals(boolean apurar) {
+      return chamar(ejb -> ejb.reconciliationTotals(apurar));
+   }
+
+   private <T> T chamar(Function<BeneficioEjbServiceLocal, T> chamada) {
+      BeneficioEjbServiceLocal ejb = resolver();
+      try {
+         return chamada.apply(ejb);
+      } catch (NoSuchEJBException e) {
+         synchronized (this) {
+            if (alvo == ejb) {
+               alvo = null;
+            }
+         }
+         reconexoes.increment();
+         return chamada.apply(resolver());
+      }
+   }
+
+   private BeneficioEjbServiceLocal resolver() {
+      BeneficioEjbServiceLocal ejb = alvo;
+      if (ejb == null) {
+         synchronized (this) {
+            ejb = alvo;
+            if (ejb == null) {
+               ejb = lookup.get();
+               alvo = ejb;
+            }
+         }
+      }
+      return ejb;
+   }
+}
@@ -0,0 +1,12 @@
+package br.com.bip.backend.limite;
+
+/**
+ * A operação não obteve vaga no limitador de concorrência dentro da espera configurada;
+ * o cliente deve repetir a requisição mais tarde (HTTP 503 com {@code Retry-After}).
+ */
+public class CapacidadeEsgotadaException extends RuntimeException {
+
+   public CapacidadeEsgotadaException(String message) {
+      super(message);
+   }
+}
@@ -0,0 +1,215 @@
+package br.com.bip.backend.limite;
+
+import br.com.bip.ejb.BeneficioEjbServiceLocal;
+import br.com.bip.ejb.entity.Beneficio;
+import br.com.bip.ejb.model.BeneficioEstatisticas;
+import br.com.bip.ejb.model.BeneficioProjecao;
+import br.com.bip.ejb.model.ConciliacaoFaixa;
+import br.com.bip.ejb.model.ConciliacaoTotais;
+import br.com.bip.ejb.model.ModoConcorrencia;
+import br.com.bip.ejb.model.TransferenciaEstatistica;
+import br.com.bip.ejb.model.TransferenciaItem;
+import br.com.bip.ejb.model.TransferenciaResultado;
+import br.com.bip.ejb.model.TransferenciaTelemetria;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Limita as chamadas simultâneas ao EJB por tipo de operação (leitura, escrita, transferência)
+ * com um {@link Semaphore} cada. Com threads virtuais o número de requisições em andamento deixa
+ * de ser limitado pelo pool do Tomcat; sem este limite elas disputariam as conexões do pool do
+ * banco e os locks de linha, e a latência de todas subiria junto.
+ * <p>
+ * Quem não obtém vaga em {@code espera} recebe {@link CapacidadeEsgotadaException}. Fica atrás
+ * do cache de leitura, então acertos do cache não ocupam vagas.
+ */
+public class LimitandoBeneficioEjbService implements BeneficioEjbServiceLocal {
+
+   static final String DISPONIVEIS = "bip.limite.disponiveis";
+   static final String RECUSAS = "bip.limite.recusas";
+
+   private final BeneficioEjbServiceLocal delegate;
+   private final long esperaNanos;
+   private final Limite leitura;
+   private final Limite escrita;
+   private final Limite transferencia;
+
+   public LimitandoBeneficioEjbService(BeneficioEjbServiceLocal delegate, int leitura, int escrita, int transferencia,
+            Duration espera, MeterRegistry registry) {
+      this.delegate = delegate;
+      this.esperaNanos = espera.toNanos();
+      this.leitura = new Limite("leitura", leitura, registry);
+      this.escrita = new Limite("escrita", escrita, registry);
+      this.transferencia = new Limite("transferencia", transferencia, registry);
+   }
+
+   @Override
+   public List<Beneficio> findAll() {
+      return executar(leitura, delegate::findAll);
+   }
+
+   @Override
+   public List<Beneficio> findPage(Long afterId, int limit, Boolean ativo, String nome) {
+      return executar(leitura, () -> delegate.findPage(afterId, limit, ativo, nome));
+   }
+
+   @Override
+   public List<BeneficioProjecao> findPageProjected(Long afterId, int limit, Boolean ativo, String nome,
+            Set<String> campos) {
+      return executar(leitura, () -> delegate.findPageProjected(afterId, limit, ativo, nome, campos));
+   }
+
+   @Override
+   public Beneficio findById(Long id) {
+      return executar(leitura, () -> delegate.findById(id));
+   }
+
+   @Override
+   public String tableVersion() {
+      return executar(leitura, delegate::tableVersion);
+   }
+
+   @Override
+   public BeneficioEstatisticas statistics(boolean resumo) {
+      return executar(leitura, () -> delegate.statistics(resumo));
+   }
+
+   @Override
+   public Beneficio create(Beneficio beneficio) {
+      return executar(escrita, () -> delegate.create(beneficio));
+   }
+
+   @Override
+   public List<Beneficio> createAll(List<Beneficio> beneficios) {
+      return executar(escrita, () -> delegate.createAll(beneficios));
+   }
+
+   @Override
+   public Beneficio update(Beneficio beneficio) {
+      return executar(escrita, () -> delegate.update(beneficio));
+   }
+
+   @Override
+   public void deleteById(Long id) {
+      executar(escrita, () -> {
+         delegate.deleteById(id);
+         return null;
+      });
+   }
+
+   @Override
+   public Beneficio configureStriping(Long id, int particoes) {
+      return executar(escrita, () -> delegate.configureStriping(id, particoes));
+   }
+
+   @Override
+   public void transfer(Long fromId, Long toId, BigDecimal amount) {
+      executar(transferencia, () -> {
+         delegate.transfer(fromId, toId, amount);
+         return null;
+      });
+   }
+
+   @Override
+   public void transfer(Long fromId, Long toId, BigDecimal amount, ModoConcorrencia modo) {
+      executar(transferencia, () -> {
+         delegate.transfer(fromId, toId, amount, modo);
+         return null;
+      });
+   }
+
+   @Override
+   public void transfer(Long fromId, Long toId, BigDecimal amount, ModoConcorrencia modo, String chaveIdempotencia) {
+      executar(transferencia, () -> {
+         delegate.transfer(fromId, toId, amount, modo, chaveIdempotencia);
+         return null;
+      });
+   }
+
+   @Override
+   public List<TransferenciaResultado> transferBatch(List<TransferenciaItem> itens, boolean tudoOuNada) {
+      return executar(transferencia, () -> delegate.transferBatch(itens, tudoOuNada));
+   }
+
+   // Manutenção e métricas não passam pelo limite: são raras e não podem ser recusadas sob carga
+
+   @Override
+   public int projectLedger(int limite) {
+      return delegate.projectLedger(limite);
+   }
+
+   @Override
+   public int purgeIdempotencyKeys() {
+      return delegate.purgeIdempotencyKeys();
+   }
+
+   @Override
+   public List<TransferenciaEstatistica> transferStatistics() {
+      return delegate.transferStatistics();
+   }
+
+   @Override
+   public TransferenciaTelemetria transferTelemetry() {
+      return delegate.transferTelemetry();
+   }
+
+   @Override
+   public ConciliacaoFaixa reconcileRange(long fromId, long toId) {
+      return executar(leitura, () -> delegate.reconcileRange(fromId, toId));
+   }
+
+   @Override
+   public ConciliacaoTotais reconciliationTotals(boolean apurar) {
+      return executar(leitura, () -> delegate.reconciliationTotals(apurar));
+   }
+
+   private <T> T executar(Limite limite, Supplier<T> chamada) {
+      boolean obtido;
+      try {
+         obtido = limite.vagas.tryAcquire(esperaNanos, TimeUnit.NANOSECONDS);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CapacidadeEsgotadaException("Requisição interrompida aguardando vaga para " + limite.nome + ".");
+      }
+      if (!obtido) {
+         limite.recusas.increment();
+         throw new CapacidadeEsgotadaException("Capacidade de " + limite.nome + " esgotada; tente novamente em instantes.");
+      }
+      try {
+         return chamada.get();
+      } finally {
+         limite.vagas.release();
+      }
+   }
+
+   private static final class Limite {
+      private final String nome;
+      private final Semaphore vagas;
+      private final Counter recusas;
+
+      private Limite(String nome, int maximo, MeterRegistry registry) {
+         if (maximo < 1) {
+            throw new IllegalArgumentException("O limite de " + nome + " deve ser positivo.");
+         }
+         this.nome = nome;
+         this.vagas = new Semaphore(maximo);
+         this.recusas = Counter.builder(RECUSAS)
+                  .description("Chamadas recusadas por falta de vaga no limitador")
+                  .tag("operacao", nome)
+                  .register(registry);
+         Gauge.builder(DISPONIVEIS, vagas, Semaphore::availablePermits)
+                  .description("Vagas livres no limitador de concorrência")
+                  .tag("operacao", nome)
+                  .register(registry);
+      }
+   }
+}
@@ -0,0 +1,220 @@
+package br.com.bip.backend.metrics;
+
+import br.com.bip.ejb.BeneficioEjbServiceLocal;
+import br.com.bip.ejb.entity.Beneficio;
+import br.com.bip.ejb.model.BeneficioEstatisticas;
+import br.com.bip.ejb.model.BeneficioProjecao;
+import br.com.bip.ejb.model.ConciliacaoFaixa;
+import br.com.bip.ejb.model.ConciliacaoTotais;
+import br.com.bip.ejb.model.ModoConcorrencia;
+import br.com.bip.ejb.model.TransferenciaEstatistica;
+import br.com.bip.ejb.model.TransferenciaItem;
+import br.com.bip.ejb.model.TransferenciaResultado;
+import br.com.bip.ejb.model.TransferenciaTelemetria;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Mede cada chamada ao EJB (proxy JNDI + transação + banco) com um {@link Timer} por operação
+ * ({@code bip.ejb.chamadas}, tag {@code operacao}) e mantém o gauge de chamadas em andamento.
+ * Os timers são criados uma vez na construção, então o caminho quente não consulta o registro.
+ * O tempo do controller está em {@code http.server.requests}; a diferença entre os dois é o
+ * custo do serviço, do cache e da serialização.
+ */
+public class MedindoBeneficioEjbService implements BeneficioEjbServiceLocal {
+
+   static final String TIMER = "bip.ejb.chamadas";
+   static final String EM_ANDAMENTO = "bip.ejb.chamadas.em-andamento";
+
+   private final BeneficioEjbServiceLocal delegate;
+   private final AtomicInteger emAndamento = new AtomicInteger();
+
+   private final Timer list;
+   private final Timer page;
+   private final Timer pageProjection;
+   private final Timer get;
+   private final Timer tableVersion;
+   private final Timer statistics;
+   private final Timer create;
+   private final Timer createBatch;
+   private final Timer update;
+   private final Timer delete;
+   private final Timer transfer;
+   private final Timer transferBatch;
+   private final Timer projectLedger;
+   private final Timer configureStriping;
+   private final Timer purgeIdempotencyKeys;
+   private final Timer reconcileRange;
+   private final Timer reconciliationTotals;
+
+   public MedindoBeneficioEjbService(BeneficioEjbServiceLocal delegate, MeterRegistry registry) {
+      this.delegate = delegate;
+      this.list = timer(registry, "list");
+      this.page = timer(registry, "page");
+      this.pageProjection = timer(registry, "page-projection");
+      this.get = timer(registry, "get");
+      this.tableVersion = timer(registry, "table-version");
+      this.statistics = timer(registry, "statistics");
+      this.create = timer(registry, "create");
+      this.createBatch = timer(registry, "create-batch");
+      this.update = timer(registry, "update");
+      this.delete = timer(registry, "delete");
+      this.transfer = timer(registry, "transfer");
+      this.transferBatch = timer(registry, "transfer-batch");
+      this.projectLedger = timer(registry, "project-ledger");
+      this.configureStriping = timer(registry, "configure-striping");
+      this.purgeIdempotencyKeys = timer(registry, "purge-idempotency-keys");
+      this.reconcileRange = timer(registry, "reconcile-range");
+      this.reconciliationTotals = timer(registry, "reconciliation-totals");
+      Gauge.builder(EM_ANDAMENTO, emAndamento, AtomicInteger::get)
+               .description("Chamadas ao EJB em andamento")
+               .register(registry);
+   }
+
+   @Override
+   public List<Beneficio> findAll() {
+      return medir(list, delegate::findAll);
+   }
+
+   @Override
+   public List<Beneficio> findPage(Long afterId, int limit, Boolean ativo, String nome) {
+      return medir(page, () -> delegate.findPage(afterId, limit, ativo, nome));
+   }
+
+   @Override
+   public List<BeneficioProjecao> findPageProjected(Long afterId, int limit, Boolean ativo, String nome,
+            Set<String> campos) {
+      return medir(pageProjection, () -> delegate.findPageProjected(afterId, limit, ativo, nome, campos));
+   }
+
+   @Override
+   public Beneficio findById(Long id) {
+      return medir(get, () -> delegate.findById(id));
+   }
+
+   @Override
+   public Beneficio create(Beneficio beneficio) {
+      return medir(create, () -> delegate.create(beneficio));
+   }
+
+   @Override
+   public List<Beneficio> createAll(List<Beneficio> beneficios) {
+      return medir(createBatch, () -> delegate.createAll(beneficios));
+   }
+
+   @Override
+   public Beneficio update(Beneficio beneficio) {
+      return medir(update, () -> delegate.update(beneficio));
+   }
+
+   @Override
+   public void deleteById(Long id) {
+      medir(delete, () -> {
+         delegate.deleteById(id);
+         return null;
+      });
+   }
+
+   @Override
+   public void transfer(Long fromId, Long toId, BigDecimal amount) {
+      medir(transfer, () -> {
+         delegate.transfer(fromId, toId, amount);
+         return null;
+      });
+   }
+
+   @Override
+   public void transfer(Long fromId, Long toId, BigDecimal amount, ModoConcorrencia modo) {
+      medir(transfer, () -> {
+         delegate.transfer(fromId, toId, amount, modo);
+         return null;
+      });
+   }
+
+   @Override
+   public void transfer(Long fromId, Long toId, BigDecimal amount, ModoConcorrencia modo, String chaveIdempotencia) {
+      medir(transfer, () -> {
+         delegate.transfer(fromId, toId, amount, modo, chaveIdempotencia);
+         return null;
+      });
+   }
+
+   @Override
+   public List<TransferenciaResultado> transferBatch(List<TransferenciaItem> itens, boolean tudoOuNada) {
+      return medir(transferBatch, () -> delegate.transferBatch(itens, tudoOuNada));
+   }
+
+   @Override
+   public int projectLedger(int limite) {
+      return medir(projectLedger, () -> delegate.projectLedger(limite));
+   }
+
+   @Override
+   public Beneficio configureStriping(Long id, int particoes) {
+      return medir(configureStriping, () -> delegate.configureStriping(id, particoes));
+   }
+
+   @Override
+   public int purgeIdempotencyKeys() {
+      return medir(purgeIdempotencyKeys, delegate::purgeIdempotencyKeys);
+   }
+
+   // Leituras de métricas não são medidas, para o scrape não aparecer nos próprios números
+
+   @Override
+   public String tableVersion() {
+      return medir(tableVersion, delegate::tableVersion);
+   }
+
+   @Override
+   public BeneficioEstatisticas statistics(boolean resumo) {
+      return medir(statistics, () -> delegate.statistics(resumo));
+   }
+
+   @Override
+   public List<TransferenciaEstatistica> transferStatistics() {
+      return delegate.transferStatistics();
+   }
+
+   @Override
+   public TransferenciaTelemetria transferTelemetry() {
+      return delegate.transferTelemetry();
+   }
+
+   @Override
+   public ConciliacaoFaixa reconcileRange(long fromId, long toId) {
+      return medir(reconcileRange, () -> delegate.reconcileRange(fromId, toId));
+   }
+
+   @Override
+   public ConciliacaoTotais reconciliationTotals(boolean apurar) {
+      return medir(reconciliationTotals, () -> delegate.reconciliationTotals(apurar));
+   }
+
+   private <T> T medir(Timer timer, Supplier<T> chamada) {
+      emAndamento.incrementAndGet();
+      long inicio = System.nanoTime();
+      try {
+         return chamada.get();
+      } finally {
+         timer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+         emAndamento.decrementAndGet();
+      }
+   }
+
+   private static Timer timer(MeterRegistry registry, String operacao) {
+      return Timer.builder(TIMER)
+               .description("Duração das chamadas ao EJB, incluindo o proxy JNDI e a transação")
+               .tag("operacao", operacao)
+               .publishPercentileHistogram()
+               .register(registry);
+   }
+}
@@ -0,0 +1,110 @@
+package br.com.bip.backend.metrics;
+
+import br.com.bip.ejb.BeneficioEjbServiceLocal;
+import br.com.bip.ejb.model.ModoConcorrencia;
+import br.com.bip.ejb.model.MotivoRecusa;
+import br.com.bip.ejb.model.TransferenciaEstatistica;
+import br.com.bip.ejb.model.TransferenciaTelemetria;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publica os contadores que o EJB acumula em {@code TransferenciaMetricas}: execuções,
+ * retentativas e desistências por modo, recusas por motivo e espera pelos locks de linha.
+ * Os valores são lidos do EJB no scrape, em uma única chamada reaproveitada por até
+ * {@link #VALIDADE_NANOS}; se o EJB não está disponível, o último valor lido é mantido.
+ */
+public class TransferenciaMeterBinder implements MeterBinder {
+
+   static final long VALIDADE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+   private final BeneficioEjbServiceLocal ejb;
+   private volatile Leitura ultima;
+
+   public TransferenciaMeterBinder(BeneficioEjbServiceLocal ejb) {
+      this.ejb = ejb;
+      this.ultima = new Leitura(List.of(), new TransferenciaTelemetria(Map.of(), 0, 0, 0),
+               System.nanoTime() - VALIDADE_NANOS);
+   }
+
+   @Override
+   public void bindTo(MeterRegistry registry) {
+      for (ModoConcorrencia modo : ModoConcorrencia.values()) {
+         contador(registry, "bip.transferencia.execucoes", "modo", modo.name(),
+                  b -> estatistica(modo).getExecucoes());
+         contador(registry, "bip.transferencia.retentativas", "modo", modo.name(),
+                  b -> estatistica(modo).getRetentativas());
+         contador(registry, "bip.transferencia.desistencias", "modo", modo.name(),
+                  b -> estatistica(modo).getDesistencias());
+      }
+      for (MotivoRecusa motivo : MotivoRecusa.values()) {
+         contador(registry, "bip.transferencia.recusas", "motivo", motivo.name(),
+                  b -> telemetria().getRecusas().getOrDefault(motivo, 0L));
+      }
+      FunctionTimer.builder("bip.transferencia.lock.espera", this,
+                        b -> telemetria().getEsperasLock(),
+                        b -> telemetria().getEsperaLockTotalNanos(),
+                        TimeUnit.NANOSECONDS)
+               .description("Espera pelo lock pessimista das contas (SELECT ... FOR UPDATE)")
+               .register(registry);
+      Gauge.builder("bip.transferencia.lock.espera.max", this,
+                        b -> telemetria().getEsperaLockMaxNanos() / (double) TimeUnit.SECONDS.toNanos(1))
+               .description("Maior espera por lock desde a subida do EJB")
+               .baseUnit("seconds")
+               .register(registry);
+   }
+
+   private void contador(MeterRegistry registry, String nome, String tag, String valor,
+            ToDoubleFunction<TransferenciaMeterBinder> funcao) {
+      FunctionCounter.builder(nome, this, funcao)
+               .tag(tag, valor)
+               .register(registry);
+   }
+
+   private TransferenciaEstatistica estatistica(ModoConcorrencia modo) {
+      return ler().estatisticas.stream()
+               .filter(e -> e.getModo() == modo)
+               .findFirst()
+               .orElse(new TransferenciaEstatistica(modo, 0, 0, 0));
+   }
+
+   private TransferenciaTelemetria telemetria() {
+      return ler().telemetria;
+   }
+
+   private Leitura ler() {
+      Leitura atual = ultima;
+      long agora = System.nanoTime();
+      if (agora - atual.lidaEm < VALIDADE_NANOS) {
+         return atual;
+      }
+      try {
+         atual = new Leitura(ejb.transferStatistics(), ejb.transferTelemetry(), agora);
+      } catch (RuntimeException e) {
+         // EJB indisponível (deploy em andamento): mantém os últimos valores até a próxima janela
+         atual = new Leitura(atual.estatisticas, atual.telemetria, agora);
+      }
+      ultima = atual;
+      return atual;
+   }
+
+   private static final class Leitura {
+      private final List<TransferenciaEstatistica> estatisticas;
+      private final TransferenciaTelemetria telemetria;
+      private final long lidaEm;
+
+      private Leitura(List<TransferenciaEstatistica> estatisticas, TransferenciaTelemetria telemetria, long lidaEm) {
+         this.estatisticas = estatisticas;
+         this.telemetria = telemetria;
+         this.lidaEm = lidaEm;
+      }
+   }
+}
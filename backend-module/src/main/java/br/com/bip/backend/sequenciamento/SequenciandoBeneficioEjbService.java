@@ -0,0 +1,224 @@
+package br.com.bip.backend.sequenciamento;
+
+import br.com.bip.backend.limite.CapacidadeEsgotadaException;
+import br.com.bip.ejb.BeneficioEjbServiceLocal;
+import br.com.bip.ejb.entity.Beneficio;
+import br.com.bip.ejb.model.BeneficioEstatisticas;
+import br.com.bip.ejb.model.BeneficioProjecao;
+import br.com.bip.ejb.model.ConciliacaoFaixa;
+import br.com.bip.ejb.model.ConciliacaoTotais;
+import br.com.bip.ejb.model.ModoConcorrencia;
+import br.com.bip.ejb.model.TransferenciaEstatistica;
+import br.com.bip.ejb.model.TransferenciaItem;
+import br.com.bip.ejb.model.TransferenciaResultado;
+import br.com.bip.ejb.model.TransferenciaTelemetria;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sequencia as transferências por conta antes de chegarem ao banco. Cada conta cai em uma de
+ * {@code faixas} faixas (hash do ID) e uma transferência só segue com a faixa da origem e a do
+ * destino em mãos, tomadas sempre em ordem crescente de faixa (sem espera circular). Assim
+ * transferências conflitantes esperam na fila da faixa, em memória, e não com uma conexão aberta
+ * esperando o {@code SELECT ... FOR UPDATE}; no máximo {@code faixas} transferências usam o
+ * banco ao mesmo tempo.
+ * <p>
+ * No modo ASSINCRONO o destino não é bloqueado no banco, então só a faixa da origem é tomada.
+ * Os lotes ({@code transferBatch}) e as demais operações passam direto: o lote já bloqueia
+ * suas contas em ordem de ID. O sequenciamento vale para este nó; entre nós quem garante a
+ * exclusão continua sendo o lock de linha.
+ */
+public class SequenciandoBeneficioEjbService implements BeneficioEjbServiceLocal {
+
+   static final String ESPERA = "bip.transferencia.sequenciador.espera";
+   static final String RECUSAS = "bip.transferencia.sequenciador.recusas";
+
+   private final BeneficioEjbServiceLocal delegate;
+   private final ReentrantLock[] faixas;
+   private final long esperaMaximaNanos;
+   private final Timer espera;
+   private final Counter recusas;
+
+   public SequenciandoBeneficioEjbService(BeneficioEjbServiceLocal delegate, int faixas, Duration esperaMaxima,
+            MeterRegistry registry) {
+      if (faixas < 1) {
+         throw new IllegalArgumentException("A quantidade de faixas deve ser positiva.");
+      }
+      this.delegate = delegate;
+      this.faixas = new ReentrantLock[faixas];
+      for (int i = 0; i < faixas; i++) {
+         // Justas: a ordem de chegada por conta é preservada
+         this.faixas[i] = new ReentrantLock(true);
+      }
+      this.esperaMaximaNanos = esperaMaxima.toNanos();
+      this.espera = Timer.builder(ESPERA)
+               .description("Espera pelas faixas das contas antes da transferência")
+               .register(registry);
+      this.recusas = Counter.builder(RECUSAS)
+               .description("Transferências recusadas por esperar demais pela faixa")
+               .register(registry);
+   }
+
+   @Override
+   public void transfer(Long fromId, Long toId, BigDecimal amount) {
+      sequenciar(fromId, toId, () -> delegate.transfer(fromId, toId, amount));
+   }
+
+   @Override
+   public void transfer(Long fromId, Long toId, BigDecimal amount, ModoConcorrencia modo) {
+      sequenciar(fromId, destinoBloqueado(toId, modo), () -> delegate.transfer(fromId, toId, amount, modo));
+   }
+
+   @Override
+   public void transfer(Long fromId, Long toId, BigDecimal amount, ModoConcorrencia modo, String chaveIdempotencia) {
+      sequenciar(fromId, destinoBloqueado(toId, modo),
+               () -> delegate.transfer(fromId, toId, amount, modo, chaveIdempotencia));
+   }
+
+   @Override
+   public List<Beneficio> findAll() {
+      return delegate.findAll();
+   }
+
+   @Override
+   public List<Beneficio> findPage(Long afterId, int limit, Boolean ativo, String nome) {
+      return delegate.findPage(afterId, limit, ativo, nome);
+   }
+
+   @Override
+   public List<BeneficioProjecao> findPageProjected(Long afterId, int limit, Boolean ativo, String nome,
+            Set<String> campos) {
+      return delegate.findPageProjected(afterId, limit, ativo, nome, campos);
+   }
+
+   @Override
+   public Beneficio findById(Long id) {
+      return delegate.findById(id);
+   }
+
+   @Override
+   public String tableVersion() {
+      return delegate.tableVersion();
+   }
+
+   @Override
+   public BeneficioEstatisticas statistics(boolean resumo) {
+      return delegate.statistics(resumo);
+   }
+
+   @Override
+   public Beneficio create(Beneficio beneficio) {
+      return delegate.create(beneficio);
+   }
+
+   @Override
+   public List<Beneficio> createAll(List<Beneficio> beneficios) {
+      return delegate.createAll(beneficios);
+   }
+
+   @Override
+   public Beneficio update(Beneficio beneficio) {
+      return delegate.update(beneficio);
+   }
+
+   @Override
+   public void deleteById(Long id) {
+      delegate.deleteById(id);
+   }
+
+   @Override
+   public List<TransferenciaResultado> transferBatch(List<TransferenciaItem> itens, boolean tudoOuNada) {
+      return delegate.transferBatch(itens, tudoOuNada);
+   }
+
+   @Override
+   public int projectLedger(int limite) {
+      return delegate.projectLedger(limite);
+   }
+
+   @Override
+   public Beneficio configureStriping(Long id, int particoes) {
+      return delegate.configureStriping(id, particoes);
+   }
+
+   @Override
+   public int purgeIdempotencyKeys() {
+      return delegate.purgeIdempotencyKeys();
+   }
+
+   @Override
+   public List<TransferenciaEstatistica> transferStatistics() {
+      return delegate.transferStatistics();
+   }
+
+   @Override
+   public TransferenciaTelemetria transferTelemetry() {
+      return delegate.transferTelemetry();
+   }
+
+   @Override
+   public ConciliacaoFaixa reconcileRange(long fromId, long toId) {
+      return delegate.reconcileRange(fromId, toId);
+   }
+
+   @Override
+   public ConciliacaoTotais reconciliationTotals(boolean apurar) {
+      return delegate.reconciliationTotals(apurar);
+   }
+
+   /** Faixa da conta; o multiplicador espalha IDs sequenciais entre as faixas. */
+   int faixa(Long id) {
+      return Math.floorMod(Long.hashCode(id * 0x9E3779B97F4A7C15L), faixas.length);
+   }
+
+   private static Long destinoBloqueado(Long toId, ModoConcorrencia modo) {
+      return modo == ModoConcorrencia.ASSINCRONO ? null : toId;
+   }
+
+   private void sequenciar(Long fromId, Long toId, Runnable transferencia) {
+      // IDs nulos não têm faixa; o validador do EJB recusa a transferência
+      int a = fromId == null ? -1 : faixa(fromId);
+      int b = toId == null ? -1 : faixa(toId);
+      int primeira = Math.min(a, b);
+      int segunda = Math.max(a, b);
+      if (primeira < 0 || primeira == segunda) {
+         // Uma faixa só: mesma faixa nas duas contas, ou uma delas sem faixa
+         primeira = segunda;
+         segunda = -1;
+      }
+
+      long inicio = System.nanoTime();
+      ReentrantLock l1 = primeira < 0 ? null : faixas[primeira];
+      ReentrantLock l2 = segunda < 0 ? null : faixas[segunda];
+      boolean obteve1 = false;
+      boolean obteve2 = false;
+      try {
+         obteve1 = l1 == null || l1.tryLock(esperaMaximaNanos - (System.nanoTime() - inicio), TimeUnit.NANOSECONDS);
+         obteve2 = obteve1 && (l2 == null || l2.tryLock(esperaMaximaNanos - (System.nanoTime() - inicio), TimeUnit.NANOSECONDS));
+         if (!obteve2) {
+            recusas.increment();
+            throw new CapacidadeEsgotadaException("Muitas transferências simultâneas nas mesmas contas; tente novamente em instantes.");
+         }
+         espera.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+         transferencia.run();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CapacidadeEsgotadaException("Transferência interrompida aguardando a vez das contas.");
+      } finally {
+         if (obteve2 && l2 != null) {
+            l2.unlock();
+         }
+         if (obteve1 && l1 != null) {
+            l1.unlock();
+         }
+      }
+   }
+}
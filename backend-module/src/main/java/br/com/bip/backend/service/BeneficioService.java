@@ -1,22 +1,62 @@
 package br.com.bip.backend.service;
 
+import br.com.bip.backend.dto.BeneficioBuscaDTO;
+import br.com.bip.backend.dto.BeneficioEstatisticasDTO;
+import br.com.bip.backend.dto.BeneficioLoteRequestDTO;
+import br.com.bip.backend.dto.BeneficioPageDTO;
 import br.com.bip.backend.dto.BeneficioRequestDTO;
 import br.com.bip.backend.dto.BeneficioResponseDTO;
+import br.com.bip.backend.dto.TransferEstatisticaDTO;
+import br.com.bip.backend.dto.TransferLoteRequestDTO;
+import br.com.bip.backend.dto.TransferLoteResponseDTO;
 import br.com.bip.backend.dto.TransferRequestDTO;
 
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface BeneficioService {
 
    List<BeneficioResponseDTO> findAll();
 
+   /** {@code campos} restringe as colunas lidas (ver {@code BeneficioProjecao.CAMPOS}); {@code null} lê todas. */
+   BeneficioPageDTO findPage(Long afterId, Integer limit, Boolean ativo, String nome, Set<String> campos);
+
+   void streamAll(Boolean ativo, String nome, Set<String> campos, Consumer<BeneficioResponseDTO> consumer);
+
    BeneficioResponseDTO findById(Long id);
 
+   /** Busca por termos (ou prefixos) de nome e descrição, sem acentos, ordenada por relevância. */
+   BeneficioBuscaDTO buscar(String consulta, Integer offset, Integer limit);
+
+   /** ETag atual da conta, sem montar o DTO; lança EntityNotFoundException se ela não existe. */
+   String etag(Long id);
+
+   /** ETag das listagens, derivado da versão da tabela ({@code tableVersion}). */
+   String etagColecao();
+
+   /** Agregados dos saldos calculados no banco; {@code resumo} lê só o resumo incremental, se ativo. */
+   BeneficioEstatisticasDTO estatisticas(boolean resumo);
+
    BeneficioResponseDTO create(BeneficioRequestDTO requestDTO);
 
-   BeneficioResponseDTO update(Long id, BeneficioRequestDTO requestDTO);
+   /** Cria todos os benefícios do lote em uma única transação (tudo ou nada). */
+   List<BeneficioResponseDTO> criarLote(BeneficioLoteRequestDTO requestDTO);
+
+   /**
+    * Com {@code ifMatch} de um único ETag de conta não particionada, a versão é conferida pelo EJB na
+    * própria gravação, sem leitura prévia; nos demais casos a conta é lida e comparada antes.
+    */
+   BeneficioResponseDTO update(Long id, BeneficioRequestDTO requestDTO, String ifMatch);
 
    void deleteById(Long id);
 
+   /** Particiona o saldo de uma conta muito creditada; 0 volta ao saldo único. */
+   BeneficioResponseDTO configurarParticoes(Long id, int quantidade);
+
    void transferir(TransferRequestDTO requestDTO);
+
+   TransferLoteResponseDTO transferirLote(TransferLoteRequestDTO requestDTO);
+
+   List<TransferEstatisticaDTO> estatisticasTransferencia();
 }
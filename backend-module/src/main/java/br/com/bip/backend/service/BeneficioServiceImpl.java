@@ -1,39 +1,112 @@
 package br.com.bip.backend.service;
 
+import br.com.bip.backend.agrupamento.AgrupadorTransferencias;
+import br.com.bip.backend.busca.IndiceBusca;
+import br.com.bip.backend.condicional.Etags;
+import br.com.bip.backend.dto.BeneficioBuscaDTO;
+import br.com.bip.backend.dto.BeneficioEstatisticasDTO;
+import br.com.bip.backend.dto.BeneficioLoteRequestDTO;
+import br.com.bip.backend.dto.BeneficioPageDTO;
 import br.com.bip.backend.dto.BeneficioRequestDTO;
 import br.com.bip.backend.dto.BeneficioResponseDTO;
+import br.com.bip.backend.dto.TransferEstatisticaDTO;
+import br.com.bip.backend.dto.TransferLoteRequestDTO;
+import br.com.bip.backend.dto.TransferLoteResponseDTO;
 import br.com.bip.backend.dto.TransferRequestDTO;
+import br.com.bip.backend.dto.TransferResultadoDTO;
+import br.com.bip.backend.idempotencia.DeduplicadorTransferencias;
+import br.com.bip.backend.limite.CapacidadeEsgotadaException;
 import br.com.bip.ejb.BeneficioEjbServiceLocal;
 import br.com.bip.ejb.entity.Beneficio;
+import br.com.bip.ejb.model.BeneficioEstatisticas;
+import br.com.bip.ejb.model.BeneficioProjecao;
 import br.com.bip.ejb.exception.TransferenciaException;
+import br.com.bip.ejb.exception.VersaoDivergenteException;
+import br.com.bip.ejb.model.TransferenciaEstatistica;
+import br.com.bip.ejb.model.TransferenciaItem;
+import br.com.bip.ejb.model.TransferenciaResultado;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+/**
+ * Sem transação própria: cada chamada ao EJB é uma transação do container (REQUIRED). Assim o
+ * cache, o feed de alterações e o índice de busca só veem escritas já confirmadas, e nenhuma
+ * transação fica aberta enquanto a chamada espera no sequenciador ou no limitador.
+ */
 @Service
-@Transactional
 public class BeneficioServiceImpl implements BeneficioService {
 
+   /** Tamanho padrão de página quando o cliente não informa {@code limit}. */
+   static final int DEFAULT_PAGE_SIZE = 50;
+
+   /** Páginas usadas internamente pela listagem completa e pelo modo streaming. */
+   static final int STREAM_PAGE_SIZE = 500;
+
+   /** Teto de registros devolvidos pelo endpoint legado de listagem. */
+   static final int LIST_HARD_CAP = 1000;
+
+   /** Teto de resultados por página da busca textual. */
+   static final int BUSCA_MAX_PAGE_SIZE = 100;
+
    private final BeneficioEjbServiceLocal beneficioEjbService;
+   /** Abaixo do cache: estado atual para conferir pré-condições de escrita. */
+   private final BeneficioEjbServiceLocal leitor;
+   private final DeduplicadorTransferencias deduplicador;
+   private final AgrupadorTransferencias agrupador;
+   private final IndiceBusca indiceBusca;
 
-   public BeneficioServiceImpl(BeneficioEjbServiceLocal ejb) {
+   public BeneficioServiceImpl(BeneficioEjbServiceLocal ejb,
+            @Qualifier("beneficioEjbServiceSequenciado") BeneficioEjbServiceLocal leitor,
+            DeduplicadorTransferencias deduplicador, AgrupadorTransferencias agrupador, IndiceBusca indiceBusca) {
       this.beneficioEjbService = ejb;
+      this.leitor = leitor;
+      this.deduplicador = deduplicador;
+      this.agrupador = agrupador;
+      this.indiceBusca = indiceBusca;
    }
 
    @Override
-   @Transactional(readOnly = true)
    public List<BeneficioResponseDTO> findAll() {
-      List<Beneficio> entidades = beneficioEjbService.findAll();
-      return entidades.stream()
+      List<BeneficioResponseDTO> beneficios = new ArrayList<>();
+      forEachPage(null, null, null, LIST_HARD_CAP, beneficios::add);
+      return beneficios;
+   }
+
+   @Override
+   public BeneficioPageDTO findPage(Long afterId, Integer limit, Boolean ativo, String nome, Set<String> campos) {
+      int tamanho = limit == null ? DEFAULT_PAGE_SIZE : limit;
+      if (tamanho <= 0) {
+         throw new IllegalArgumentException("O limite da página deve ser positivo.");
+      }
+      tamanho = Math.min(tamanho, BeneficioEjbServiceLocal.MAX_PAGE_SIZE);
+
+      // Busca um registro a mais para saber se existe próxima página
+      List<BeneficioProjecao> projecoes = beneficioEjbService.findPageProjected(afterId, tamanho + 1, ativo, nome,
+               validarCampos(campos));
+      boolean temMais = projecoes.size() > tamanho;
+      List<BeneficioResponseDTO> itens = projecoes.stream()
+               .limit(tamanho)
                .map(this::toResponseDTO)
                .collect(Collectors.toList());
+
+      Long proximoAfterId = temMais ? itens.get(itens.size() - 1).getId() : null;
+      return new BeneficioPageDTO(itens, proximoAfterId);
+   }
+
+   @Override
+   public void streamAll(Boolean ativo, String nome, Set<String> campos, Consumer<BeneficioResponseDTO> consumer) {
+      forEachPage(ativo, nome, validarCampos(campos), Integer.MAX_VALUE, consumer);
    }
 
    @Override
-   @Transactional(readOnly = true)
    public BeneficioResponseDTO findById(Long id) {
       Beneficio beneficio = beneficioEjbService.findById(id);
 
@@ -43,6 +116,59 @@ public class BeneficioServiceImpl implements BeneficioService {
       return toResponseDTO(beneficio);
    }
 
+   @Override
+   public BeneficioBuscaDTO buscar(String consulta, Integer offset, Integer limit) {
+      int inicio = offset == null ? 0 : offset;
+      int tamanho = limit == null ? DEFAULT_PAGE_SIZE : limit;
+      if (inicio < 0 || tamanho <= 0) {
+         throw new IllegalArgumentException("O offset não pode ser negativo e o limite deve ser positivo.");
+      }
+      tamanho = Math.min(tamanho, BUSCA_MAX_PAGE_SIZE);
+
+      IndiceBusca.Resultado resultado = indiceBusca.buscar(consulta, inicio, tamanho);
+      // Os IDs vêm do índice; os dados, do cache de leitura. Removidos entre um e outro ficam de fora.
+      List<BeneficioResponseDTO> itens = new ArrayList<>(resultado.ids().size());
+      for (Long id : resultado.ids()) {
+         Beneficio beneficio = beneficioEjbService.findById(id);
+         if (beneficio != null) {
+            itens.add(toResponseDTO(beneficio));
+         }
+      }
+      int proximo = inicio + resultado.ids().size();
+      return new BeneficioBuscaDTO(itens, resultado.total(), proximo < resultado.total() ? proximo : null);
+   }
+
+   @Override
+   public String etag(Long id) {
+      Beneficio beneficio = beneficioEjbService.findById(id);
+      if (beneficio == null) {
+         throw new EntityNotFoundException("Benefício não encontrado com ID: " + id);
+      }
+      return etag(beneficio);
+   }
+
+   @Override
+   public String etagColecao() {
+      return Etags.daColecao(beneficioEjbService.tableVersion());
+   }
+
+   @Override
+   public BeneficioEstatisticasDTO estatisticas(boolean resumo) {
+      BeneficioEstatisticas estatisticas = beneficioEjbService.statistics(resumo);
+      BeneficioEstatisticasDTO dto = new BeneficioEstatisticasDTO();
+      dto.setQuantidade(estatisticas.getQuantidade());
+      dto.setAtivos(estatisticas.getAtivos());
+      dto.setInativos(estatisticas.getInativos());
+      dto.setSoma(estatisticas.getSoma());
+      dto.setMinimo(estatisticas.getMinimo());
+      dto.setMaximo(estatisticas.getMaximo());
+      dto.setPercentil50(estatisticas.getPercentil50());
+      dto.setPercentil90(estatisticas.getPercentil90());
+      dto.setPercentil99(estatisticas.getPercentil99());
+      dto.setResumo(estatisticas.isResumo());
+      return dto;
+   }
+
    @Override
    public BeneficioResponseDTO create(BeneficioRequestDTO requestDTO) {
       Beneficio novaEntidade = toEntity(requestDTO);
@@ -51,19 +177,47 @@ public class BeneficioServiceImpl implements BeneficioService {
    }
 
    @Override
-   public BeneficioResponseDTO update(Long id, BeneficioRequestDTO requestDTO) {
-      Beneficio entidadeExistente = beneficioEjbService.findById(id);
-      if (entidadeExistente == null) {
-         throw new EntityNotFoundException("Benefício não encontrado com ID: " + id);
+   public List<BeneficioResponseDTO> criarLote(BeneficioLoteRequestDTO requestDTO) {
+      List<Beneficio> entidades = requestDTO.getBeneficios().stream()
+               .map(this::toEntity)
+               .collect(Collectors.toList());
+      return beneficioEjbService.createAll(entidades).stream()
+               .map(this::toResponseDTO)
+               .collect(Collectors.toList());
+   }
+
+   /**
+    * Sem {@code If-Match} (ou com {@code *}) a última escrita vence e nada é lido antes do UPDATE.
+    * Um ETag de versão vira a condição do UPDATE no EJB; listas e ETags de contas particionadas
+    * são comparados com o estado atual, lido abaixo do cache (que pode estar até um TTL atrás
+    * do banco), e a versão lida segue como condição.
+    */
+   @Override
+   public BeneficioResponseDTO update(Long id, BeneficioRequestDTO requestDTO, String ifMatch) {
+      Long versao = Etags.versaoEsperada(ifMatch);
+      if (versao == null && ifMatch != null && !Etags.qualquer(ifMatch)) {
+         Beneficio entidadeExistente = leitor.findById(id);
+         if (entidadeExistente == null) {
+            throw new EntityNotFoundException("Benefício não encontrado com ID: " + id);
+         }
+         if (!Etags.correspondeIfMatch(ifMatch, etag(entidadeExistente))) {
+            throw new VersaoDivergenteException(id, null, entidadeExistente.getVersion());
+         }
+         versao = entidadeExistente.getVersion();
       }
 
       Beneficio entidadeParaAtualizar = toEntity(requestDTO);
       entidadeParaAtualizar.setId(id);
-      entidadeParaAtualizar.setVersion(entidadeExistente.getVersion());
-
-      Beneficio entidadeAtualizada = beneficioEjbService.update(entidadeParaAtualizar);
+      entidadeParaAtualizar.setVersion(versao);
 
-      return toResponseDTO(entidadeAtualizada);
+      try {
+         return toResponseDTO(beneficioEjbService.update(entidadeParaAtualizar));
+      } catch (VersaoDivergenteException e) {
+         if (e.getVersaoAtual() == null) {
+            throw new EntityNotFoundException("Benefício não encontrado com ID: " + id);
+         }
+         throw e;
+      }
    }
 
    @Override
@@ -76,27 +230,157 @@ public class BeneficioServiceImpl implements BeneficioService {
       beneficioEjbService.deleteById(id);
    }
 
+   @Override
+   public BeneficioResponseDTO configurarParticoes(Long id, int quantidade) {
+      if (quantidade < 0 || quantidade > BeneficioEjbServiceLocal.MAX_PARTICOES) {
+         throw new IllegalArgumentException("A quantidade de partições deve estar entre 0 e " + BeneficioEjbServiceLocal.MAX_PARTICOES + ".");
+      }
+      Beneficio beneficio = beneficioEjbService.configureStriping(id, quantidade);
+      if (beneficio == null) {
+         throw new EntityNotFoundException("Benefício não encontrado com ID: " + id);
+      }
+      return toResponseDTO(beneficio);
+   }
+
    @Override
    public void transferir(TransferRequestDTO requestDTO) {
+      String chave = requestDTO.getChaveIdempotencia();
+      if (chave == null) {
+         executarTransferencia(requestDTO);
+         return;
+      }
+      String assinatura = requestDTO.getIdBeneficioOrigem() + ":" + requestDTO.getIdBeneficioDestino() + ":"
+               + (requestDTO.getValor() == null ? null : requestDTO.getValor().stripTrailingZeros().toPlainString());
+      deduplicador.executar(chave, assinatura, () -> executarTransferencia(requestDTO));
+   }
+
+   @Override
+   public TransferLoteResponseDTO transferirLote(TransferLoteRequestDTO requestDTO) {
+      List<TransferenciaItem> itens = requestDTO.getTransferencias().stream()
+               .map(t -> new TransferenciaItem(t.getIdBeneficioOrigem(), t.getIdBeneficioDestino(), t.getValor()))
+               .collect(Collectors.toList());
+      boolean tudoOuNada = !Boolean.FALSE.equals(requestDTO.getTudoOuNada());
+
+      List<TransferenciaResultado> resultados;
+      try {
+         resultados = beneficioEjbService.transferBatch(itens, tudoOuNada);
+      } catch (CapacidadeEsgotadaException e) {
+         throw e;
+      } catch (Exception e) {
+         throw new TransferenciaException(e.getMessage());
+      }
+
+      TransferLoteResponseDTO response = new TransferLoteResponseDTO();
+      response.setResultados(resultados.stream()
+               .map(r -> new TransferResultadoDTO(r.getIndice(), r.isSucesso(), r.getMensagem()))
+               .collect(Collectors.toList()));
+      response.setTotal(resultados.size());
+      response.setSucessos((int) resultados.stream().filter(TransferenciaResultado::isSucesso).count());
+      response.setFalhas(response.getTotal() - response.getSucessos());
+      return response;
+   }
+
+   @Override
+   public List<TransferEstatisticaDTO> estatisticasTransferencia() {
+      return beneficioEjbService.transferStatistics().stream()
+               .map(this::toEstatisticaDTO)
+               .collect(Collectors.toList());
+   }
+
+   private void executarTransferencia(TransferRequestDTO requestDTO) {
+      if (agrupador.agrupavel(requestDTO.getModo(), requestDTO.getChaveIdempotencia())) {
+         agrupador.transferir(requestDTO.getIdBeneficioOrigem(), requestDTO.getIdBeneficioDestino(),
+                  requestDTO.getValor(), requestDTO.getModo());
+         return;
+      }
       try {
          beneficioEjbService.transfer(
                   requestDTO.getIdBeneficioOrigem(),
                   requestDTO.getIdBeneficioDestino(),
-                  requestDTO.getValor()
+                  requestDTO.getValor(),
+                  requestDTO.getModo(),
+                  requestDTO.getChaveIdempotencia()
          );
+      } catch (CapacidadeEsgotadaException e) {
+         // Sobrecarga não é erro de negócio: segue como 503 para o cliente repetir
+         throw e;
       } catch (Exception e) {
          throw new TransferenciaException(e.getMessage());
       }
    }
 
+   /**
+    * Percorre a tabela página a página (keyset), entregando cada registro ao consumidor
+    * assim que a página é lida. Apenas uma página fica em memória por vez, como projeções
+    * somente leitura (sem entidades gerenciadas).
+    */
+   private void forEachPage(Boolean ativo, String nome, Set<String> campos, int maxRegistros,
+            Consumer<BeneficioResponseDTO> consumer) {
+      Long afterId = null;
+      int entregues = 0;
+      while (entregues < maxRegistros) {
+         int tamanho = Math.min(STREAM_PAGE_SIZE, maxRegistros - entregues);
+         List<BeneficioProjecao> pagina = beneficioEjbService.findPageProjected(afterId, tamanho, ativo, nome, campos);
+         for (BeneficioProjecao projecao : pagina) {
+            consumer.accept(toResponseDTO(projecao));
+         }
+         entregues += pagina.size();
+         if (pagina.size() < tamanho) {
+            return;
+         }
+         afterId = pagina.get(pagina.size() - 1).getId();
+      }
+   }
+
+   /** {@code null} mantém todos os campos; o ID é sempre incluído por ser o cursor da paginação. */
+   private static Set<String> validarCampos(Set<String> campos) {
+      if (campos == null || campos.isEmpty()) {
+         return null;
+      }
+      if (!BeneficioProjecao.CAMPOS.containsAll(campos)) {
+         throw new IllegalArgumentException("Campos inválidos; aceitos: " + String.join(", ", BeneficioProjecao.CAMPOS) + ".");
+      }
+      Set<String> selecionados = new LinkedHashSet<>(campos);
+      selecionados.add("id");
+      return selecionados;
+   }
+
+   private static String etag(Beneficio beneficio) {
+      return Etags.deBeneficio(beneficio.getVersion(), beneficio.getParticoes(), beneficio.getSaldoTotal());
+   }
+
+   private BeneficioResponseDTO toResponseDTO(BeneficioProjecao projecao) {
+      BeneficioResponseDTO dto = new BeneficioResponseDTO();
+      dto.setId(projecao.getId());
+      dto.setNome(projecao.getNome());
+      dto.setDescricao(projecao.getDescricao());
+      dto.setValor(projecao.getValor());
+      dto.setAtivo(projecao.isAtivo());
+      dto.setVersion(projecao.getVersion());
+      dto.setParticoes(projecao.getParticoes());
+      return dto;
+   }
+
    private BeneficioResponseDTO toResponseDTO(Beneficio beneficio) {
       if (beneficio == null) return null;
       BeneficioResponseDTO dto = new BeneficioResponseDTO();
       dto.setId(beneficio.getId());
       dto.setNome(beneficio.getNome());
       dto.setDescricao(beneficio.getDescricao());
-      dto.setValor(beneficio.getValor());
+      dto.setValor(beneficio.getSaldoTotal());
       dto.setAtivo(beneficio.isAtivo());
+      dto.setVersion(beneficio.getVersion());
+      dto.setParticoes(beneficio.getParticoes());
+      return dto;
+   }
+
+   private TransferEstatisticaDTO toEstatisticaDTO(TransferenciaEstatistica estatistica) {
+      TransferEstatisticaDTO dto = new TransferEstatisticaDTO();
+      dto.setModo(estatistica.getModo());
+      dto.setExecucoes(estatistica.getExecucoes());
+      dto.setRetentativas(estatistica.getRetentativas());
+      dto.setDesistencias(estatistica.getDesistencias());
+      dto.setTaxaRetentativa(estatistica.getTaxaRetentativa());
       return dto;
    }
 
@@ -0,0 +1,106 @@
+package br.com.bip.backend.agrupamento;
+
+import br.com.bip.ejb.BeneficioEjbServiceLocal;
+import br.com.bip.ejb.exception.TransferenciaException;
+import br.com.bip.ejb.model.ModoConcorrencia;
+import br.com.bip.ejb.model.TransferenciaItem;
+import br.com.bip.ejb.model.TransferenciaResultado;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AgrupadorTransferenciasTest {
+
+   @Mock
+   private BeneficioEjbServiceLocal ejbMock;
+
+   private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+   private AgrupadorTransferencias agrupador;
+
+   @AfterEach
+   void tearDown() throws InterruptedException {
+      if (agrupador != null) {
+         agrupador.encerrar();
+      }
+   }
+
+   private CompletableFuture<Void> transferirEmOutraThread(long origem) {
+      return CompletableFuture.runAsync(() -> agrupador.transferir(origem, 9L, BigDecimal.ONE, null));
+   }
+
+   @Test
+   void transferir_ShouldCoalesceConcurrentCallsIntoOneBatch_AndIsolateEachResult() throws Exception {
+      agrupador = new AgrupadorTransferencias(ejbMock, true, Duration.ofMillis(300), 10, 100, registry);
+      // A perna com origem 2 é recusada; as demais confirmam no mesmo lote
+      when(ejbMock.transferBatch(anyList(), eq(false))).thenAnswer(inv -> {
+         List<TransferenciaItem> itens = inv.getArgument(0);
+         List<TransferenciaResultado> resultados = new ArrayList<>();
+         for (int i = 0; i < itens.size(); i++) {
+            resultados.add(itens.get(i).getFromId() == 2L
+                     ? TransferenciaResultado.falha(i, "Saldo insuficiente")
+                     : TransferenciaResultado.ok(i));
+         }
+         return resultados;
+      });
+
+      CompletableFuture<Void> primeira = transferirEmOutraThread(1L);
+      CompletableFuture<Void> recusada = transferirEmOutraThread(2L);
+      CompletableFuture<Void> terceira = transferirEmOutraThread(3L);
+
+      primeira.get(5, TimeUnit.SECONDS);
+      terceira.get(5, TimeUnit.SECONDS);
+      Exception ex = assertThrows(Exception.class, () -> recusada.get(5, TimeUnit.SECONDS));
+      assertInstanceOf(TransferenciaException.class, ex.getCause());
+      assertEquals("Saldo insuficiente", ex.getCause().getMessage());
+
+      verify(ejbMock, times(1)).transferBatch(anyList(), eq(false));
+      verify(ejbMock, never()).transfer(any(), any(), any(), any(), any());
+      assertEquals(3.0, registry.get(AgrupadorTransferencias.TAMANHO_LOTE).summary().totalAmount());
+   }
+
+   @Test
+   void transferir_ShouldRetryEachRequestAlone_WhenWholeBatchFails() {
+      agrupador = new AgrupadorTransferencias(ejbMock, true, Duration.ofMillis(1), 10, 100, registry);
+      when(ejbMock.transferBatch(anyList(), eq(false)))
+               .thenThrow(new TransferenciaException("Não foi possível obter o lock das contas"));
+      doThrow(new TransferenciaException("Benefício de origem não encontrado"))
+               .when(ejbMock).transfer(4L, 9L, BigDecimal.ONE, null, null);
+
+      TransferenciaException ex = assertThrows(TransferenciaException.class,
+               () -> agrupador.transferir(4L, 9L, BigDecimal.ONE, null));
+
+      assertEquals("Benefício de origem não encontrado", ex.getMessage());
+      verify(ejbMock).transfer(4L, 9L, BigDecimal.ONE, null, null);
+   }
+
+   @Test
+   void agrupavel_ShouldAcceptOnlyExplicitlyPessimisticTransfersWithoutIdempotencyKey() {
+      agrupador = new AgrupadorTransferencias(ejbMock, true, Duration.ofMillis(1), 10, 100, registry);
+      AgrupadorTransferencias desabilitado =
+               new AgrupadorTransferencias(ejbMock, false, Duration.ofMillis(1), 10, 100, new SimpleMeterRegistry());
+
+      assertTrue(agrupador.agrupavel(ModoConcorrencia.PESSIMISTA, null));
+      // Sem modo vale o padrão do deployment, que pode ser OTIMISTA ou ASSINCRONO
+      assertFalse(agrupador.agrupavel(null, null));
+      assertFalse(agrupador.agrupavel(ModoConcorrencia.OTIMISTA, null));
+      assertFalse(agrupador.agrupavel(ModoConcorrencia.PESSIMISTA, "chave-1"));
+      assertFalse(desabilitado.agrupavel(ModoConcorrencia.PESSIMISTA, null));
+   }
+}
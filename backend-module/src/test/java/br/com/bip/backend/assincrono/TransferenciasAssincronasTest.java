@@ -0,0 +1,205 @@
+package br.com.bip.backend.assincrono;
+
+import br.com.bip.backend.dto.TransferRequestDTO;
+import br.com.bip.backend.dto.TransferStatusDTO;
+import br.com.bip.ejb.exception.TransferenciaException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class TransferenciasAssincronasTest {
+
+   private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+   private TransferenciasAssincronas transferencias;
+
+   @AfterEach
+   void tearDown() throws InterruptedException {
+      transferencias.encerrar();
+   }
+
+   /** Expõe o stream por HTTP para ler os eventos escritos na resposta. */
+   @RestController
+   static class Eventos {
+      private final TransferenciasAssincronas transferencias;
+
+      Eventos(TransferenciasAssincronas transferencias) {
+         this.transferencias = transferencias;
+      }
+
+      @GetMapping("/eventos")
+      public SseEmitter eventos(@RequestParam("ids") List<String> ids) {
+         return transferencias.assinar(ids);
+      }
+   }
+
+   private static Consumer<TransferRequestDTO> aguardando(CountDownLatch liberar) {
+      return dto -> {
+         try {
+            liberar.await();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+      };
+   }
+
+   /** Espera a linha {@code data:} do evento, escrita depois da linha {@code id:}. */
+   private static String aguardarEvento(MvcResult stream, String id) throws Exception {
+      long prazo = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      String eventos = stream.getResponse().getContentAsString();
+      while (!eventos.contains("\"id\":\"" + id + '"') && System.nanoTime() < prazo) {
+         Thread.sleep(10);
+         eventos = stream.getResponse().getContentAsString();
+      }
+      return eventos;
+   }
+
+   private static TransferRequestDTO pedido() {
+      return new TransferRequestDTO(1L, 2L, new BigDecimal("10.00"));
+   }
+
+   private TransferStatusDTO aguardarFim(String id) throws InterruptedException {
+      long prazo = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      TransferStatusDTO status = transferencias.status(id);
+      while (status.getSituacao() == SituacaoTransferencia.PENDENTE && System.nanoTime() < prazo) {
+         Thread.sleep(10);
+         status = transferencias.status(id);
+      }
+      return status;
+   }
+
+   @Test
+   void submeter_ShouldReturnPending_ThenRecordOutcome() throws Exception {
+      transferencias = new TransferenciasAssincronas(2, 10, 100, Duration.ofMinutes(1), registry);
+      CountDownLatch liberar = new CountDownLatch(1);
+
+      TransferStatusDTO aceita = transferencias.submeter(pedido(), dto -> {
+         try {
+            liberar.await();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+      });
+      TransferStatusDTO recusada = transferencias.submeter(pedido(), dto -> {
+         throw new TransferenciaException("Saldo insuficiente");
+      });
+
+      assertEquals(SituacaoTransferencia.PENDENTE, aceita.getSituacao());
+      assertEquals(SituacaoTransferencia.PENDENTE, transferencias.status(aceita.getId()).getSituacao());
+      liberar.countDown();
+
+      assertEquals(SituacaoTransferencia.CONCLUIDA, aguardarFim(aceita.getId()).getSituacao());
+      TransferStatusDTO falha = aguardarFim(recusada.getId());
+      assertEquals(SituacaoTransferencia.RECUSADA, falha.getSituacao());
+      assertEquals("Saldo insuficiente", falha.getMensagem());
+      assertEquals(new BigDecimal("10.00"), falha.getValor());
+   }
+
+   @Test
+   void submeter_ShouldRejectWithoutQueueing_WhenQueueIsFull() {
+      transferencias = new TransferenciasAssincronas(1, 1, 100, Duration.ofMinutes(1), registry);
+      CountDownLatch liberar = new CountDownLatch(1);
+      CountDownLatch emExecucao = new CountDownLatch(1);
+
+      transferencias.submeter(pedido(), dto -> {
+         emExecucao.countDown();
+         try {
+            liberar.await();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+      });
+      try {
+         assertTrue(emExecucao.await(5, TimeUnit.SECONDS));
+         transferencias.submeter(pedido(), dto -> { });
+
+         assertThrows(FilaCheiaException.class, () -> transferencias.submeter(pedido(), dto -> { }));
+         assertEquals(1.0, registry.get(TransferenciasAssincronas.FILA).gauge().value());
+      } catch (InterruptedException e) {
+         fail(e);
+      } finally {
+         liberar.countDown();
+      }
+   }
+
+   @Test
+   void status_ShouldThrowNotFound_ForUnknownId() {
+      transferencias = new TransferenciasAssincronas(1, 1, 100, Duration.ofMinutes(1), registry);
+
+      assertThrows(EntityNotFoundException.class, () -> transferencias.status("desconhecida"));
+   }
+
+   @Test
+   void status_ShouldKeepPendingTransfers_WhenFinishedResultsAreEvicted() throws Exception {
+      // Cache de resultados com uma entrada: só resultados finais podem ser descartados
+      transferencias = new TransferenciasAssincronas(1, 10, 1, Duration.ofMinutes(1), registry);
+      CountDownLatch liberar = new CountDownLatch(1);
+
+      List<String> ids = new ArrayList<>();
+      for (int i = 0; i < 5; i++) {
+         ids.add(transferencias.submeter(pedido(), aguardando(liberar)).getId());
+      }
+      for (String id : ids) {
+         assertEquals(SituacaoTransferencia.PENDENTE, transferencias.status(id).getSituacao());
+      }
+      liberar.countDown();
+   }
+
+   @Test
+   void assinar_ShouldOnlyStreamTheTransfersTheSubscriberAskedFor() throws Exception {
+      // Uma thread: a alheia termina e é publicada antes da minha
+      transferencias = new TransferenciasAssincronas(1, 10, 100, Duration.ofMinutes(1), registry);
+      CountDownLatch liberar = new CountDownLatch(1);
+      TransferStatusDTO alheia = transferencias.submeter(pedido(), aguardando(liberar));
+      TransferStatusDTO minha = transferencias.submeter(pedido(), dto -> { });
+      MockMvc mvc = MockMvcBuilders.standaloneSetup(new Eventos(transferencias)).build();
+
+      MvcResult stream = mvc.perform(get("/eventos").param("ids", minha.getId()))
+               .andExpect(request().asyncStarted())
+               .andReturn();
+      liberar.countDown();
+
+      String eventos = aguardarEvento(stream, minha.getId());
+      assertTrue(eventos.contains("id:" + minha.getId()));
+      assertTrue(eventos.contains("CONCLUIDA"));
+      assertFalse(eventos.contains(alheia.getId()));
+
+      // Quem assina depois da conclusão recebe o resultado na assinatura
+      MvcResult atrasado = mvc.perform(get("/eventos").param("ids", alheia.getId() + ",desconhecida"))
+               .andExpect(request().asyncStarted())
+               .andReturn();
+      assertTrue(aguardarEvento(atrasado, alheia.getId()).contains("id:" + alheia.getId()));
+   }
+
+   @Test
+   void assinar_ShouldRequireBetweenOneAndMaxIds() {
+      transferencias = new TransferenciasAssincronas(1, 1, 100, Duration.ofMinutes(1), registry);
+      List<String> demais = new ArrayList<>();
+      for (int i = 0; i <= TransferenciasAssincronas.MAX_IDS_ASSINATURA; i++) {
+         demais.add("t" + i);
+      }
+
+      assertThrows(IllegalArgumentException.class, () -> transferencias.assinar(List.of(" ")));
+      assertThrows(IllegalArgumentException.class, () -> transferencias.assinar(demais));
+   }
+}
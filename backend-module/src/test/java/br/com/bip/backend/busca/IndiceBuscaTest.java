@@ -0,0 +1,128 @@
+package br.com.bip.backend.busca;
+
+import br.com.bip.backend.limite.CapacidadeEsgotadaException;
+import br.com.bip.ejb.BeneficioEjbServiceLocal;
+import br.com.bip.ejb.entity.Beneficio;
+import br.com.bip.ejb.model.BeneficioProjecao;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IndiceBuscaTest {
+
+   @Mock
+   private BeneficioEjbServiceLocal ejbMock;
+
+   private IndiceBusca indice;
+
+   @BeforeEach
+   void setUp() {
+      indice = new IndiceBusca(ejbMock, Duration.ofHours(1));
+   }
+
+   @AfterEach
+   void tearDown() {
+      indice.encerrar();
+   }
+
+   private static BeneficioProjecao projecao(Long id, long version, String nome, String descricao) {
+      return new BeneficioProjecao(id, nome, descricao, null, false, version, 0);
+   }
+
+   private static Beneficio beneficio(Long id, long version, String nome, String descricao) {
+      Beneficio beneficio = new Beneficio();
+      beneficio.setId(id);
+      beneficio.setVersion(version);
+      beneficio.setNome(nome);
+      beneficio.setDescricao(descricao);
+      beneficio.setValor(BigDecimal.TEN);
+      beneficio.setAtivo(true);
+      return beneficio;
+   }
+
+   private void tabela(BeneficioProjecao... linhas) {
+      when(ejbMock.findPageProjected(isNull(), anyInt(), isNull(), isNull(), any())).thenReturn(List.of(linhas));
+   }
+
+   @Test
+   void buscar_ShouldMatchAccentFreePrefixesOfAllTerms_RankingNameFirst() {
+      tabela(projecao(1L, 0, "Vale Refeição", "Crédito mensal para alimentação"),
+               projecao(2L, 0, "Auxílio Educação", "Mensalidade escolar"),
+               projecao(3L, 0, "Plano de saúde", "Inclui auxílio odontológico e educação física"),
+               projecao(4L, 0, "Auxílio Creche", null));
+      indice.reconstruir();
+
+      assertEquals(List.of(2L, 3L), indice.buscar("AUX edu", 0, 10).ids());
+      assertEquals(List.of(1L), indice.buscar("refeicao", 0, 10).ids());
+      assertEquals(List.of(1L, 2L), indice.buscar("mensal", 0, 10).ids(), "palavra inteira vale mais que prefixo");
+      assertEquals(0, indice.buscar("auxilio inexistente", 0, 10).total());
+
+      IndiceBusca.Resultado pagina = indice.buscar("aux", 1, 1);
+      assertEquals(3, pagina.total());
+      assertEquals(List.of(4L), pagina.ids());
+   }
+
+   @Test
+   void alteracoes_ShouldUpdateAndRemoveEntries() {
+      tabela(projecao(1L, 0, "Vale Refeição", null));
+      indice.reconstruir();
+
+      indice.alterado(beneficio(1L, 1, "Vale Alimentação", null), true);
+      indice.alterado(beneficio(2L, 0, "Vale Transporte", null), true);
+      assertEquals(List.of(), indice.buscar("refeicao", 0, 10).ids());
+      assertEquals(List.of(1L, 2L), indice.buscar("vale", 0, 10).ids());
+
+      indice.removido(1L);
+      assertEquals(List.of(2L), indice.buscar("vale", 0, 10).ids());
+   }
+
+   @Test
+   void reconstruir_ShouldReplayChangesMadeDuringTheScan_WithoutRegressingVersions() {
+      when(ejbMock.findPageProjected(isNull(), anyInt(), isNull(), isNull(), any())).thenAnswer(invocacao -> {
+         // Escritas concorrentes à leitura: a conta 1 foi lida antes da edição, a 2 depois de excluída
+         indice.alterado(beneficio(1L, 5, "Vale Cultura", null), true);
+         indice.removido(2L);
+         indice.alterado(beneficio(3L, 0, "Vale Transporte", null), true);
+         return List.of(projecao(1L, 4, "Vale Refeição", null), projecao(2L, 0, "Vale Gás", null));
+      });
+      indice.reconstruir();
+
+      assertEquals(List.of(1L, 3L), indice.buscar("vale", 0, 10).ids());
+      assertEquals(List.of(1L), indice.buscar("cultura", 0, 10).ids());
+      assertEquals(0, indice.buscar("refeicao", 0, 10).total());
+   }
+
+   @Test
+   void reconstruir_ShouldReadAllPages_AndKeepServingWhenAScanFails() {
+      List<BeneficioProjecao> cheia = java.util.stream.LongStream.rangeClosed(1, BeneficioEjbServiceLocal.MAX_PAGE_SIZE)
+               .mapToObj(id -> projecao(id, 0, "Conta " + id, null))
+               .toList();
+      when(ejbMock.findPageProjected(isNull(), anyInt(), isNull(), isNull(), any())).thenReturn(cheia);
+      when(ejbMock.findPageProjected(eq((long) BeneficioEjbServiceLocal.MAX_PAGE_SIZE), anyInt(), isNull(), isNull(), any()))
+               .thenReturn(List.of(projecao(1000L, 0, "Conta final", null)));
+
+      assertThrows(CapacidadeEsgotadaException.class, () -> indice.buscar("conta", 0, 10));
+      indice.reconstruir();
+      assertEquals(BeneficioEjbServiceLocal.MAX_PAGE_SIZE + 1, indice.buscar("conta", 0, 10).total());
+
+      when(ejbMock.findPageProjected(isNull(), anyInt(), isNull(), isNull(), any()))
+               .thenThrow(new IllegalStateException("banco indisponível"));
+      assertThrows(IllegalStateException.class, indice::reconstruir);
+      assertEquals(List.of(1000L), indice.buscar("final", 0, 10).ids());
+   }
+}
@@ -0,0 +1,171 @@
+package br.com.bip.backend.cache;
+
+import br.com.bip.backend.dto.CacheEstatisticaDTO;
+import br.com.bip.ejb.BeneficioEjbServiceLocal;
+import br.com.bip.ejb.entity.Beneficio;
+import br.com.bip.ejb.model.TransferenciaItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingBeneficioEjbServiceTest {
+
+   @Mock
+   private BeneficioEjbServiceLocal ejbMock;
+
+   private CachingBeneficioEjbService cache;
+
+   @BeforeEach
+   void setUp() {
+      cache = new CachingBeneficioEjbService(ejbMock, 100, Duration.ofMinutes(1));
+   }
+
+   private static Beneficio beneficio(Long id, long version, String valor) {
+      Beneficio beneficio = new Beneficio();
+      beneficio.setId(id);
+      beneficio.setVersion(version);
+      beneficio.setValor(new BigDecimal(valor));
+      return beneficio;
+   }
+
+   @Test
+   void findById_ShouldHitCache_OnSecondRead() {
+      when(ejbMock.findById(1L)).thenReturn(beneficio(1L, 0, "100.00"));
+
+      cache.findById(1L);
+      Beneficio segunda = cache.findById(1L);
+
+      assertEquals(new BigDecimal("100.00"), segunda.getValor());
+      verify(ejbMock, times(1)).findById(1L);
+      CacheEstatisticaDTO stats = cache.estatisticas();
+      assertEquals(1, stats.getAcertos());
+      assertEquals(1, stats.getFalhas());
+   }
+
+   @Test
+   void transfer_ShouldInvalidateBothAccounts() {
+      when(ejbMock.findById(1L)).thenReturn(beneficio(1L, 0, "100.00"), beneficio(1L, 1, "90.00"));
+      when(ejbMock.findById(2L)).thenReturn(beneficio(2L, 0, "0.00"), beneficio(2L, 1, "10.00"));
+      cache.findById(1L);
+      cache.findById(2L);
+
+      cache.transfer(1L, 2L, new BigDecimal("10.00"), null);
+
+      assertEquals(new BigDecimal("90.00"), cache.findById(1L).getValor());
+      assertEquals(new BigDecimal("10.00"), cache.findById(2L).getValor());
+   }
+
+   @Test
+   void writes_ShouldInvalidate_EvenWhenEjbFails() {
+      when(ejbMock.findById(1L)).thenReturn(beneficio(1L, 0, "100.00"));
+      doThrow(new RuntimeException("falha")).when(ejbMock).transferBatch(any(), anyBoolean());
+      cache.findById(1L);
+
+      assertThrows(RuntimeException.class, () -> cache.transferBatch(
+               List.of(new TransferenciaItem(1L, 2L, BigDecimal.ONE)), true));
+      cache.findById(1L);
+
+      verify(ejbMock, times(2)).findById(1L);
+   }
+
+   @Test
+   void findById_ShouldNotCacheRead_ThatRacedWithInvalidation() {
+      // A leitura começa antes do commit da transferência e termina depois da invalidação
+      when(ejbMock.findById(1L)).thenAnswer(inv -> {
+         cache.deleteById(9L);
+         return beneficio(1L, 0, "100.00");
+      }).thenReturn(beneficio(1L, 1, "90.00"));
+
+      assertEquals(new BigDecimal("100.00"), cache.findById(1L).getValor());
+      assertEquals(new BigDecimal("90.00"), cache.findById(1L).getValor());
+   }
+
+   @Test
+   void findAll_ShouldBeCached_UntilAnyWrite() {
+      when(ejbMock.findAll()).thenReturn(List.of(beneficio(1L, 0, "100.00")));
+
+      cache.findAll();
+      cache.findAll();
+      cache.create(beneficio(null, 0, "1.00"));
+      cache.findAll();
+
+      verify(ejbMock, times(2)).findAll();
+   }
+
+   /**
+    * Leitores concorrentes nunca podem observar uma versão anterior à da última transferência
+    * confirmada antes do início da leitura.
+    */
+   @Test
+   void findById_ShouldNeverReturnBalanceOlderThanLastCommittedTransfer() throws Exception {
+      BeneficioEjbServiceLocal banco = mock(BeneficioEjbServiceLocal.class, withSettings().stubOnly());
+      AtomicReference<Beneficio> linha = new AtomicReference<>(beneficio(1L, 0, "100000.00"));
+      doAnswer(inv -> {
+         synchronized (linha) {
+            Beneficio atual = linha.get();
+            linha.set(beneficio(1L, atual.getVersion() + 1, atual.getValor().subtract(BigDecimal.ONE).toPlainString()));
+         }
+         return null;
+      }).when(banco).transfer(anyLong(), anyLong(), any(), any());
+      when(banco.findById(1L)).thenAnswer(inv -> {
+         Beneficio lido = linha.get();
+         Thread.yield(); // alarga a janela entre a leitura e a gravação no cache
+         return lido;
+      });
+      CachingBeneficioEjbService cacheConcorrente = new CachingBeneficioEjbService(banco, 100, Duration.ofMinutes(1));
+
+      AtomicLong ultimaConfirmada = new AtomicLong();
+      ConcurrentLinkedQueue<String> violacoes = new ConcurrentLinkedQueue<>();
+      ExecutorService executor = Executors.newFixedThreadPool(8);
+      CountDownLatch largada = new CountDownLatch(1);
+
+      for (int t = 0; t < 2; t++) {
+         executor.submit(() -> {
+            largada.await();
+            for (int i = 0; i < 2000; i++) {
+               cacheConcorrente.transfer(1L, 2L, BigDecimal.ONE, null);
+               ultimaConfirmada.accumulateAndGet(linha.get().getVersion(), Math::max);
+            }
+            return null;
+         });
+      }
+      for (int t = 0; t < 6; t++) {
+         executor.submit(() -> {
+            largada.await();
+            for (int i = 0; i < 20000; i++) {
+               long minima = ultimaConfirmada.get();
+               long lida = cacheConcorrente.findById(1L).getVersion();
+               if (lida < minima) {
+                  violacoes.add("lida " + lida + " < confirmada " + minima);
+               }
+            }
+            return null;
+         });
+      }
+
+      largada.countDown();
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+      assertTrue(violacoes.isEmpty(), () -> "Leitura obsoleta: " + violacoes.peek());
+      assertTrue(cacheConcorrente.estatisticas().getAcertos() > 0);
+   }
+}
@@ -0,0 +1,45 @@
+package br.com.bip.backend.cbor;
+
+import br.com.bip.backend.dto.TransferRequestDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FormatoCborTest {
+
+   private final ObjectMapper cbor = FormatoCbor.criarObjectMapper(Jackson2ObjectMapperBuilder.json());
+
+   @Test
+   void criarObjectMapper_ShouldWriteMoneyAsCents_AndReadItBack() throws Exception {
+      TransferRequestDTO transferencia = new TransferRequestDTO(1L, 2L, new BigDecimal("1234.5"));
+
+      byte[] bytes = cbor.writeValueAsBytes(transferencia);
+
+      assertEquals(123450L, cbor.readTree(bytes).get("valor").longValue());
+      assertEquals(new BigDecimal("1234.50"), cbor.readValue(bytes, TransferRequestDTO.class).getValor());
+   }
+
+   @Test
+   void criarObjectMapper_ShouldStillReadDecimalValues() throws Exception {
+      // Cliente CBOR sem o módulo: BigDecimal vai como fração decimal (tag 4)
+      byte[] bytes = new ObjectMapper(new CBORFactory())
+               .writeValueAsBytes(Map.of("idBeneficioOrigem", 1, "idBeneficioDestino", 2, "valor", new BigDecimal("9.99")));
+
+      assertEquals(new BigDecimal("9.99"), cbor.readValue(bytes, TransferRequestDTO.class).getValor());
+   }
+
+   @Test
+   void preferido_ShouldKeepJsonAsDefault() {
+      assertTrue(FormatoCbor.preferido("application/cbor"));
+      assertTrue(FormatoCbor.preferido("application/json;q=0.5, application/cbor"));
+      assertFalse(FormatoCbor.preferido("*/*"));
+      assertFalse(FormatoCbor.preferido("application/json, application/cbor"));
+      assertFalse(FormatoCbor.preferido(null));
+   }
+}
@@ -0,0 +1,169 @@
+package br.com.bip.backend.conciliacao;
+
+import br.com.bip.backend.dto.ConciliacaoDTO;
+import br.com.bip.ejb.BeneficioEjbServiceLocal;
+import br.com.bip.ejb.model.ConciliacaoFaixa;
+import br.com.bip.ejb.model.ConciliacaoTotais;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConciliacaoSaldosTest {
+
+   private static final int FAIXA = 100;
+
+   @Mock
+   private BeneficioEjbServiceLocal leitor;
+
+   /** Saldo e versão por conta, lidos pelo {@code reconcileRange} simulado. */
+   private final Map<Long, long[]> contas = new TreeMap<>();
+   private final List<Long> faixasLidas = new ArrayList<>();
+   private SimpleMeterRegistry registry;
+   private ConciliacaoSaldos conciliacao;
+
+   @BeforeEach
+   void setUp() {
+      registry = new SimpleMeterRegistry();
+      conciliacao = new ConciliacaoSaldos(leitor, FAIXA, 4, Duration.ZERO, registry);
+      for (long id = 100; id <= 2500; id += 100) {
+         contas.put(id, new long[] {1000, 0});
+         contas.put(id + 7, new long[] {500, 0});
+      }
+      lenient().when(leitor.reconcileRange(anyLong(), anyLong())).thenAnswer(chamada -> {
+         long de = chamada.getArgument(0);
+         long ate = chamada.getArgument(1);
+         synchronized (faixasLidas) {
+            faixasLidas.add(de);
+         }
+         long quantidade = 0, somaIds = 0, somaVersoes = 0, checksum = 0, centavos = 0;
+         for (Map.Entry<Long, long[]> conta : contas.entrySet()) {
+            if (conta.getKey() >= de && conta.getKey() <= ate) {
+               quantidade++;
+               somaIds += conta.getKey();
+               somaVersoes += conta.getValue()[1];
+               checksum += conta.getKey() * 31 + conta.getValue()[0];
+               centavos += conta.getValue()[0];
+            }
+         }
+         return new ConciliacaoFaixa(de, ate, quantidade, BigDecimal.valueOf(centavos, 2), somaIds, somaVersoes,
+                  checksum, List.of());
+      });
+   }
+
+   @AfterEach
+   void tearDown() {
+      conciliacao.encerrar();
+   }
+
+   private void controle(String esperado) {
+      when(leitor.reconciliationTotals(false)).thenReturn(new ConciliacaoTotais(
+               esperado == null ? null : new BigDecimal(esperado), null, 100L, 2507L));
+   }
+
+   @Test
+   void conciliar_ShouldReadEveryRangeOnce_AndMatchTheExpectedTotal() {
+      controle("375.00");
+
+      ConciliacaoDTO resultado = conciliacao.conciliar();
+
+      assertEquals(SituacaoConciliacao.OK, resultado.getSituacao());
+      assertEquals(50, resultado.getContas());
+      assertEquals(25, resultado.getFaixas());
+      assertEquals(0, new BigDecimal("375.00").compareTo(resultado.getSaldoVarrido()));
+      assertEquals(0, resultado.getDivergencia().signum());
+      assertEquals(25, faixasLidas.size());
+      assertEquals(25, faixasLidas.stream().distinct().count(), "nenhuma faixa lida duas vezes");
+      verify(leitor, never()).reconciliationTotals(true);
+      assertSame(resultado, conciliacao.ultima());
+      assertEquals(1.0, registry.counter(ConciliacaoSaldos.EXECUCOES, "resultado", "ok").count());
+   }
+
+   @Test
+   void conciliar_ShouldTreatScanDifferenceAsTransient_WhenTheSingleStatementTotalsMatch() {
+      // A varredura viu uma transferência pela metade: a soma em um comando confere
+      controle("370.00");
+      when(leitor.reconciliationTotals(true)).thenReturn(new ConciliacaoTotais(
+               new BigDecimal("370.00"), new BigDecimal("370.00"), 100L, 2507L));
+
+      ConciliacaoDTO resultado = conciliacao.conciliar();
+
+      assertEquals(SituacaoConciliacao.OK, resultado.getSituacao());
+      assertEquals(0, resultado.getDivergencia().signum());
+      assertEquals(1.0, registry.counter(ConciliacaoSaldos.TRANSITORIAS).count());
+   }
+
+   @Test
+   void conciliar_ShouldReportConfirmedDrift_InTheResultAndMetrics() {
+      controle("380.00");
+      when(leitor.reconciliationTotals(true)).thenReturn(new ConciliacaoTotais(
+               new BigDecimal("380.00"), new BigDecimal("375.00"), 100L, 2507L));
+
+      ConciliacaoDTO resultado = conciliacao.conciliar();
+
+      assertEquals(SituacaoConciliacao.DIVERGENTE, resultado.getSituacao());
+      assertEquals(new BigDecimal("5.00"), resultado.getDivergencia());
+      assertEquals(5.0, registry.get(ConciliacaoSaldos.DIVERGENCIA).gauge().value());
+      assertEquals(1.0, registry.counter(ConciliacaoSaldos.EXECUCOES, "resultado", "divergente").count());
+   }
+
+   @Test
+   void conciliar_ShouldFlagRangesWhoseBalancesChangedWithoutVersion() {
+      controle(null);
+      conciliacao.conciliar();
+
+      contas.get(1207L)[0] = 900;           // alterado por fora: versão igual
+      contas.get(300L)[0] = 1100;           // alterado pelo EJB: versão nova
+      contas.get(300L)[1] = 1;
+
+      ConciliacaoDTO resultado = conciliacao.conciliar();
+
+      assertEquals(SituacaoConciliacao.SEM_CONTROLE, resultado.getSituacao());
+      assertNull(resultado.getDivergencia());
+      assertEquals(List.of("1200-1299"), resultado.getFaixasAlteradasSemVersao());
+      assertEquals(1.0, registry.get(ConciliacaoSaldos.ALTERADAS).gauge().value());
+      verify(leitor, never()).reconciliationTotals(true);
+   }
+
+   @Test
+   void conciliar_ShouldSkipTheScan_WhenThereAreNoAccounts() {
+      when(leitor.reconciliationTotals(false)).thenReturn(new ConciliacaoTotais(
+               BigDecimal.ZERO.setScale(2), null, null, null));
+
+      ConciliacaoDTO resultado = conciliacao.conciliar();
+
+      assertEquals(SituacaoConciliacao.OK, resultado.getSituacao());
+      assertEquals(0, resultado.getContas());
+      verify(leitor, never()).reconcileRange(anyLong(), anyLong());
+   }
+
+   @Test
+   void conciliarAgendado_ShouldCountFailures_AndKeepTheScheduleAlive() {
+      when(leitor.reconciliationTotals(false)).thenThrow(new IllegalStateException("EJB indisponível"));
+
+      assertDoesNotThrow(() -> conciliacao.conciliarAgendado());
+      assertDoesNotThrow(() -> conciliacao.conciliarAgendado());
+
+      assertEquals(2.0, registry.counter(ConciliacaoSaldos.EXECUCOES, "resultado", "erro").count());
+      assertNull(conciliacao.ultima());
+
+      doReturn(new ConciliacaoTotais(new BigDecimal("375.00"), null, 100L, 2507L)).when(leitor).reconciliationTotals(false);
+      conciliacao.conciliarAgendado();
+      assertEquals(SituacaoConciliacao.OK, conciliacao.ultima().getSituacao());
+   }
+}
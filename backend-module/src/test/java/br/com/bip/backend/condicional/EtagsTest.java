@@ -0,0 +1,40 @@
+package br.com.bip.backend.condicional;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EtagsTest {
+
+   @Test
+   void deBeneficio_ShouldUseVersionOnly_WhenNotPartitioned() {
+      assertEquals("\"7\"", Etags.deBeneficio(7L, 0, new BigDecimal("10.00")));
+      assertEquals("\"7-10.00\"", Etags.deBeneficio(7L, 4, new BigDecimal("10.00")));
+   }
+
+   @Test
+   void versaoEsperada_ShouldAcceptOnlySingleStrongVersionTag() {
+      assertEquals(7L, Etags.versaoEsperada(" \"7\" "));
+      assertNull(Etags.versaoEsperada("W/\"7\""));
+      assertNull(Etags.versaoEsperada("*"));
+      assertNull(Etags.versaoEsperada("\"7\", \"8\""));
+      assertNull(Etags.versaoEsperada("\"7-10.00\""));
+      assertNull(Etags.versaoEsperada(null));
+   }
+
+   @Test
+   void correspondeIfMatch_ShouldUseStrongComparison() {
+      assertTrue(Etags.correspondeIfMatch("\"6\", \"7-10.00\"", "\"7-10.00\""));
+      assertTrue(Etags.correspondeIfMatch("*", "\"7\""));
+      assertFalse(Etags.correspondeIfMatch("W/\"7\"", "\"7\""));
+   }
+
+   @Test
+   void cborEtag_ShouldDifferFromJson_ButMatchTheSameVersionOnWrite() {
+      assertEquals("\"7+cbor\"", Etags.emCbor("\"7\""));
+      assertEquals(7L, Etags.versaoEsperada("\"7+cbor\""));
+      assertTrue(Etags.correspondeIfMatch("\"7-10.00+cbor\"", "\"7-10.00\""));
+   }
+}
@@ -1,39 +1,74 @@
 package br.com.bip.backend.controller;
 
+import br.com.bip.backend.assincrono.FilaCheiaException;
+import br.com.bip.backend.assincrono.SituacaoTransferencia;
+import br.com.bip.backend.assincrono.TransferenciasAssincronas;
+import br.com.bip.backend.cbor.FormatoCbor;
+import br.com.bip.backend.eventos.FeedAlteracoes;
+import br.com.bip.backend.config.CborConfig;
+import br.com.bip.backend.dto.BeneficioBuscaDTO;
+import br.com.bip.backend.dto.BeneficioEstatisticasDTO;
+import br.com.bip.backend.dto.BeneficioLoteRequestDTO;
+import br.com.bip.backend.dto.BeneficioPageDTO;
 import br.com.bip.backend.dto.BeneficioRequestDTO;
 import br.com.bip.backend.dto.BeneficioResponseDTO;
+import br.com.bip.backend.dto.ImportacaoLoteDTO;
+import br.com.bip.backend.dto.ImportacaoResumoDTO;
+import br.com.bip.backend.dto.TransferEstatisticaDTO;
+import br.com.bip.backend.dto.TransferLoteRequestDTO;
+import br.com.bip.backend.dto.TransferLoteResponseDTO;
 import br.com.bip.backend.dto.TransferRequestDTO;
+import br.com.bip.backend.dto.TransferResultadoDTO;
+import br.com.bip.backend.dto.TransferStatusDTO;
+import br.com.bip.backend.importacao.FormatoImportacao;
+import br.com.bip.backend.importacao.ImportadorBeneficios;
 import br.com.bip.backend.service.BeneficioService;
 import br.com.bip.ejb.exception.TransferenciaException;
+import br.com.bip.ejb.model.ModoConcorrencia;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(BeneficioController.class)
@@ -45,11 +80,20 @@ public class BeneficioControllerTest {
    @MockBean
    private BeneficioService beneficioService;
 
+   @MockBean
+   private ImportadorBeneficios importadorBeneficios;
+
+   @MockBean
+   private TransferenciasAssincronas transferenciasAssincronas;
+
+   @MockBean
+   private FeedAlteracoes feedAlteracoes;
+
    @Autowired
    private ObjectMapper objectMapper;
 
    @Configuration
-   @Import(BeneficioController.class)
+   @Import({BeneficioController.class, CborConfig.class})
    static class TestConfig {
 
       @ControllerAdvice
@@ -68,6 +112,11 @@ public class BeneficioControllerTest {
             return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
          }
 
+         @ExceptionHandler(FilaCheiaException.class)
+         public ResponseEntity<Map<String, String>> handleFilaCheia(FilaCheiaException ex) {
+            return new ResponseEntity<>(Map.of("error", ex.getMessage()), HttpStatus.TOO_MANY_REQUESTS);
+         }
+
          @ExceptionHandler(MethodArgumentNotValidException.class)
          public ResponseEntity<Map<String, String>> handleValidationExceptions(MethodArgumentNotValidException ex) {
             Map<String, String> errors = new HashMap<>();
@@ -81,12 +130,15 @@ public class BeneficioControllerTest {
       }
    }
 
+   private final ObjectMapper cborMapper = FormatoCbor.criarObjectMapper(Jackson2ObjectMapperBuilder.json());
+
    private BeneficioResponseDTO createBeneficioResponseDTO(Long id, String nome) {
       BeneficioResponseDTO dto = new BeneficioResponseDTO();
       dto.setId(id);
       dto.setNome(nome);
       dto.setValor(new BigDecimal("100.00"));
       dto.setAtivo(true);
+      dto.setVersion(3L);
       return dto;
    }
 
@@ -102,16 +154,48 @@ public class BeneficioControllerTest {
    @Test
    void list_ShouldReturnListOfBeneficios() throws Exception {
       BeneficioResponseDTO dto = createBeneficioResponseDTO(1L, "Vale Refeição");
+      when(beneficioService.etagColecao()).thenReturn("\"t1\"");
       when(beneficioService.findAll()).thenReturn(List.of(dto));
 
       mockMvc.perform(get("/api/v1/beneficios"))
                .andExpect(status().isOk())
+               .andExpect(header().string(HttpHeaders.ETAG, "\"t1\""))
                .andExpect(jsonPath("$[0].id", is(1)))
                .andExpect(jsonPath("$[0].nome", is("Vale Refeição")));
    }
 
+   @Test
+   void list_ShouldReturnNotModified_WithoutReadingRows_WhenTableDidNotChange() throws Exception {
+      when(beneficioService.etagColecao()).thenReturn("\"t26\"");
+
+      mockMvc.perform(get("/api/v1/beneficios").header(HttpHeaders.IF_NONE_MATCH, "\"t26\""))
+               .andExpect(status().isNotModified())
+               .andExpect(header().string(HttpHeaders.ETAG, "\"t26\""));
+
+      verify(beneficioService, never()).findAll();
+   }
+
+   @Test
+   void list_ShouldNegotiateCbor_WithMoneyInCents_AndItsOwnEtag() throws Exception {
+      when(beneficioService.etagColecao()).thenReturn("\"t1\"");
+      when(beneficioService.findAll()).thenReturn(List.of(createBeneficioResponseDTO(1L, "Vale Refeição")));
+
+      byte[] body = mockMvc.perform(get("/api/v1/beneficios").accept(MediaType.APPLICATION_CBOR))
+               .andExpect(status().isOk())
+               .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+               .andExpect(header().string(HttpHeaders.ETAG, "\"t1+cbor\""))
+               .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+               .andReturn().getResponse().getContentAsByteArray();
+
+      JsonNode item = cborMapper.readTree(body).get(0);
+      assertEquals("Vale Refeição", item.get("nome").asText());
+      assertTrue(item.get("valor").canConvertToLong());
+      assertEquals(10000L, item.get("valor").asLong());
+   }
+
    @Test
    void list_ShouldReturnEmptyList() throws Exception {
+      when(beneficioService.etagColecao()).thenReturn("\"t0\"");
       when(beneficioService.findAll()).thenReturn(Collections.emptyList());
 
       mockMvc.perform(get("/api/v1/beneficios"))
@@ -119,6 +203,86 @@ public class BeneficioControllerTest {
                .andExpect(jsonPath("$").isEmpty());
    }
 
+   @Test
+   void listPage_ShouldReturnPageWithCursor() throws Exception {
+      BeneficioPageDTO pagina = new BeneficioPageDTO(List.of(createBeneficioResponseDTO(5L, "Vale Cultura")), 5L);
+      when(beneficioService.findPage(4L, 1, true, "vale", null)).thenReturn(pagina);
+
+      mockMvc.perform(get("/api/v1/beneficios/pagina")
+                        .param("afterId", "4")
+                        .param("limit", "1")
+                        .param("ativo", "true")
+                        .param("nome", "vale"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.itens[0].id", is(5)))
+               .andExpect(jsonPath("$.proximoAfterId", is(5)));
+   }
+
+   @Test
+   void listPage_ShouldSerializeOnlyRequestedFields() throws Exception {
+      BeneficioPageDTO pagina = new BeneficioPageDTO(List.of(createBeneficioResponseDTO(5L, "Vale Cultura")), null);
+      when(beneficioService.findPage(null, null, null, null, Set.of("id", "nome", "valor"))).thenReturn(pagina);
+
+      mockMvc.perform(get("/api/v1/beneficios/pagina").param("fields", "nome, valor"))
+               .andExpect(status().isOk())
+               .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+               .andExpect(jsonPath("$.itens[0].id", is(5)))
+               .andExpect(jsonPath("$.itens[0].nome", is("Vale Cultura")))
+               .andExpect(jsonPath("$.itens[0].valor").exists())
+               .andExpect(jsonPath("$.itens[0].descricao").doesNotExist())
+               .andExpect(jsonPath("$.itens[0].ativo").doesNotExist())
+               .andExpect(jsonPath("$.proximoAfterId").value(nullValue()));
+   }
+
+   @Test
+   void stream_ShouldWriteOneJsonObjectPerLine() throws Exception {
+      doAnswer(invocation -> {
+         Consumer<BeneficioResponseDTO> consumer = invocation.getArgument(3);
+         consumer.accept(createBeneficioResponseDTO(1L, "A"));
+         consumer.accept(createBeneficioResponseDTO(2L, "B"));
+         return null;
+      }).when(beneficioService).streamAll(isNull(), isNull(), isNull(), any());
+
+      MvcResult result = mockMvc.perform(get("/api/v1/beneficios/stream"))
+               .andExpect(request().asyncStarted())
+               .andReturn();
+
+      String body = mockMvc.perform(asyncDispatch(result))
+               .andExpect(status().isOk())
+               .andExpect(content().contentType("application/x-ndjson"))
+               .andReturn().getResponse().getContentAsString();
+
+      String[] linhas = body.split("\n");
+      assertEquals(2, linhas.length);
+      assertEquals(2, objectMapper.readTree(linhas[1]).get("id").asInt());
+   }
+
+   @Test
+   void buscar_ShouldReturnRankedPage() throws Exception {
+      when(beneficioService.buscar("aux edu", null, 20))
+               .thenReturn(new BeneficioBuscaDTO(List.of(createBeneficioResponseDTO(1L, "Auxílio Educação")), 21, 20));
+
+      mockMvc.perform(get("/api/v1/beneficios/busca")
+                        .param("q", "aux edu")
+                        .param("limit", "20"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.itens[0].id").value(1))
+               .andExpect(jsonPath("$.total").value(21))
+               .andExpect(jsonPath("$.proximoOffset").value(20));
+   }
+
+   @Test
+   void eventos_ShouldOpenSseStream_ResumingFromLastEventId() throws Exception {
+      when(feedAlteracoes.assinar("k1-42")).thenReturn(new SseEmitter());
+
+      mockMvc.perform(get("/api/v1/beneficios/eventos")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("Last-Event-ID", "k1-42"))
+               .andExpect(request().asyncStarted());
+
+      verify(feedAlteracoes).assinar("k1-42");
+   }
+
    @Test
    void getById_ShouldReturnBeneficio_WhenIdExists() throws Exception {
       BeneficioResponseDTO dto = createBeneficioResponseDTO(1L, "Vale Refeição");
@@ -126,8 +290,36 @@ public class BeneficioControllerTest {
 
       mockMvc.perform(get("/api/v1/beneficios/{id}", 1L))
                .andExpect(status().isOk())
+               .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
                .andExpect(jsonPath("$.id", is(1)))
-               .andExpect(jsonPath("$.nome", is("Vale Refeição")));
+               .andExpect(jsonPath("$.nome", is("Vale Refeição")))
+               .andExpect(jsonPath("$.version", is(3)));
+      verify(beneficioService, never()).etag(any());
+   }
+
+   @Test
+   void getById_ShouldReturnNotModified_WithoutMapping_WhenVersionMatches() throws Exception {
+      when(beneficioService.etag(1L)).thenReturn("\"3\"");
+
+      mockMvc.perform(get("/api/v1/beneficios/{id}", 1L).header(HttpHeaders.IF_NONE_MATCH, "\"2\", \"3\""))
+               .andExpect(status().isNotModified())
+               .andExpect(content().string(""));
+
+      verify(beneficioService, never()).findById(any());
+   }
+
+   @Test
+   void update_ShouldForwardIfMatch_AndReturnNewEtag() throws Exception {
+      BeneficioResponseDTO atualizado = createBeneficioResponseDTO(1L, "Novo");
+      atualizado.setVersion(4L);
+      when(beneficioService.update(eq(1L), any(BeneficioRequestDTO.class), eq("\"3\""))).thenReturn(atualizado);
+
+      mockMvc.perform(put("/api/v1/beneficios/{id}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBeneficioRequestDTO("Novo"))))
+               .andExpect(status().isOk())
+               .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
    }
 
    @Test
@@ -172,7 +364,7 @@ public class BeneficioControllerTest {
       BeneficioRequestDTO requestDTO = createBeneficioRequestDTO("Nome Atualizado");
       BeneficioResponseDTO responseDTO = createBeneficioResponseDTO(id, "Nome Atualizado");
 
-      when(beneficioService.update(eq(id), any(BeneficioRequestDTO.class))).thenReturn(responseDTO);
+      when(beneficioService.update(eq(id), any(BeneficioRequestDTO.class), isNull())).thenReturn(responseDTO);
 
       mockMvc.perform(put("/api/v1/beneficios/{id}", id)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -188,7 +380,7 @@ public class BeneficioControllerTest {
       BeneficioRequestDTO requestDTO = createBeneficioRequestDTO("Nome Atualizado");
       String errorMsg = "Benefício não encontrado com ID: " + id;
 
-      when(beneficioService.update(eq(id), any(BeneficioRequestDTO.class)))
+      when(beneficioService.update(eq(id), any(BeneficioRequestDTO.class), isNull()))
                .thenThrow(new EntityNotFoundException(errorMsg));
 
       mockMvc.perform(put("/api/v1/beneficios/{id}", id)
@@ -245,6 +437,124 @@ public class BeneficioControllerTest {
                .andExpect(status().isOk());
    }
 
+   @Test
+   void createBatch_ShouldReturnCreated_WithAllBeneficios() throws Exception {
+      BeneficioLoteRequestDTO loteDTO = new BeneficioLoteRequestDTO(List.of(
+               createBeneficioRequestDTO("A"), createBeneficioRequestDTO("B")));
+      when(beneficioService.criarLote(any(BeneficioLoteRequestDTO.class))).thenReturn(List.of(
+               createBeneficioResponseDTO(101L, "A"), createBeneficioResponseDTO(102L, "B")));
+
+      mockMvc.perform(post("/api/v1/beneficios/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loteDTO)))
+               .andExpect(status().isCreated())
+               .andExpect(jsonPath("$[1].id", is(102)));
+   }
+
+   @Test
+   void createBatch_ShouldReturnBadRequest_WhenAnItemIsInvalid() throws Exception {
+      BeneficioLoteRequestDTO loteDTO = new BeneficioLoteRequestDTO(List.of(createBeneficioRequestDTO("")));
+
+      mockMvc.perform(post("/api/v1/beneficios/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loteDTO)))
+               .andExpect(status().isBadRequest());
+
+      verify(beneficioService, never()).criarLote(any());
+   }
+
+   @Test
+   void importar_ShouldStreamProgressPerChunk_ThenSummary() throws Exception {
+      when(importadorBeneficios.importar(any(), eq(FormatoImportacao.CSV), any())).thenAnswer(inv -> {
+         ImportacaoLoteDTO lote = new ImportacaoLoteDTO();
+         lote.setLote(1);
+         lote.setImportados(2);
+         Consumer<ImportacaoLoteDTO> progresso = inv.getArgument(2);
+         progresso.accept(lote);
+         ImportacaoResumoDTO resumo = new ImportacaoResumoDTO();
+         resumo.setImportados(2);
+         resumo.setLotes(1);
+         return resumo;
+      });
+
+      String body = mockMvc.perform(post("/api/v1/beneficios/importacao")
+                        .contentType("text/csv")
+                        .content("nome,descricao,valor\nA,,10.00\nB,,20.00\n"))
+               .andExpect(status().isOk())
+               .andExpect(content().contentType("application/x-ndjson"))
+               .andReturn().getResponse().getContentAsString();
+
+      String[] linhas = body.split("\n");
+      assertEquals(2, linhas.length);
+      assertEquals(1, objectMapper.readTree(linhas[0]).get("lote").asInt());
+      assertEquals(2, objectMapper.readTree(linhas[1]).get("importados").asInt());
+   }
+
+   @Test
+   void importar_ShouldRejectUnsupportedContentType() throws Exception {
+      mockMvc.perform(post("/api/v1/beneficios/importacao")
+                        .contentType(MediaType.APPLICATION_XML)
+                        .content("<beneficios/>"))
+               .andExpect(status().isUnsupportedMediaType());
+   }
+
+   @Test
+   void transferir_ShouldCopyIdempotencyKeyHeaderIntoRequest() throws Exception {
+      TransferRequestDTO requestDTO = new TransferRequestDTO(1L, 2L, new BigDecimal("50.00"));
+      requestDTO.setChaveIdempotencia("corpo");
+
+      mockMvc.perform(post("/api/v1/beneficios/transferir")
+                        .header("Idempotency-Key", "pedido-42")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDTO)))
+               .andExpect(status().isOk());
+
+      verify(beneficioService).transferir(argThat(dto -> "pedido-42".equals(dto.getChaveIdempotencia())));
+   }
+
+   @Test
+   void transferir_ShouldReturnAccepted_WithoutWaiting_WhenAsyncIsPreferred() throws Exception {
+      TransferRequestDTO requestDTO = new TransferRequestDTO(1L, 2L, new BigDecimal("50.00"));
+      when(transferenciasAssincronas.submeter(any(TransferRequestDTO.class), any()))
+               .thenReturn(new TransferStatusDTO("abc", SituacaoTransferencia.PENDENTE, requestDTO, null));
+
+      mockMvc.perform(post("/api/v1/beneficios/transferir")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDTO)))
+               .andExpect(status().isAccepted())
+               .andExpect(header().string(HttpHeaders.LOCATION, "/api/v1/beneficios/transferir/abc"))
+               .andExpect(header().string("Preference-Applied", "respond-async"))
+               .andExpect(jsonPath("$.id", is("abc")))
+               .andExpect(jsonPath("$.situacao", is("PENDENTE")));
+
+      verify(beneficioService, never()).transferir(any());
+   }
+
+   @Test
+   void transferir_ShouldReturnTooManyRequests_WhenAsyncQueueIsFull() throws Exception {
+      when(transferenciasAssincronas.submeter(any(TransferRequestDTO.class), any()))
+               .thenThrow(new FilaCheiaException("Fila cheia"));
+
+      mockMvc.perform(post("/api/v1/beneficios/transferir")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TransferRequestDTO(1L, 2L, BigDecimal.TEN))))
+               .andExpect(status().isTooManyRequests());
+   }
+
+   @Test
+   void statusTransferencia_ShouldReturnOutcome_AndNotBeShadowedByStatisticsRoute() throws Exception {
+      TransferStatusDTO status = new TransferStatusDTO("abc", SituacaoTransferencia.RECUSADA,
+               new TransferRequestDTO(1L, 2L, BigDecimal.TEN), "Saldo insuficiente");
+      when(transferenciasAssincronas.status("abc")).thenReturn(status);
+
+      mockMvc.perform(get("/api/v1/beneficios/transferir/{id}", "abc"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.situacao", is("RECUSADA")))
+               .andExpect(jsonPath("$.mensagem", is("Saldo insuficiente")));
+   }
+
    @Test
    void transferir_ShouldReturnBadRequest_WhenTransferFails() throws Exception {
       TransferRequestDTO requestDTO = new TransferRequestDTO();
@@ -275,5 +585,113 @@ public class BeneficioControllerTest {
                         .content(objectMapper.writeValueAsString(requestDTO)))
                .andExpect(status().isBadRequest());
    }
-}
 
+   @Test
+   void configurarParticoes_ShouldReturnUpdatedBeneficio() throws Exception {
+      BeneficioResponseDTO dto = new BeneficioResponseDTO();
+      dto.setId(1L);
+      dto.setParticoes(8);
+      when(beneficioService.configurarParticoes(1L, 8)).thenReturn(dto);
+
+      mockMvc.perform(put("/api/v1/beneficios/1/particoes").param("quantidade", "8"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.particoes", is(8)));
+   }
+
+   @Test
+   void estatisticasTransferencia_ShouldReturnStatsPerMode() throws Exception {
+      TransferEstatisticaDTO dto = new TransferEstatisticaDTO();
+      dto.setModo(ModoConcorrencia.OTIMISTA);
+      dto.setExecucoes(4);
+      dto.setRetentativas(2);
+      dto.setTaxaRetentativa(0.5);
+      when(beneficioService.estatisticasTransferencia()).thenReturn(List.of(dto));
+
+      mockMvc.perform(get("/api/v1/beneficios/transferir/estatisticas"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$[0].modo", is("OTIMISTA")))
+               .andExpect(jsonPath("$[0].taxaRetentativa", is(0.5)));
+   }
+
+   @Test
+   void estatisticas_ShouldNotBeShadowedByIdRoute_AndForwardSummaryFlag() throws Exception {
+      BeneficioEstatisticasDTO dto = new BeneficioEstatisticasDTO();
+      dto.setQuantidade(3);
+      dto.setAtivos(2);
+      dto.setInativos(1);
+      dto.setSoma(new BigDecimal("600.00"));
+      dto.setResumo(true);
+      when(beneficioService.estatisticas(true)).thenReturn(dto);
+
+      mockMvc.perform(get("/api/v1/beneficios/estatisticas").param("resumo", "true"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.quantidade", is(3)))
+               .andExpect(jsonPath("$.soma", is(600.00)))
+               .andExpect(jsonPath("$.resumo", is(true)));
+      verify(beneficioService, never()).findById(any());
+   }
+
+   @Test
+   void transferirLote_ShouldReturnPerLegResults() throws Exception {
+      TransferLoteRequestDTO requestDTO = new TransferLoteRequestDTO(List.of(
+               new TransferRequestDTO(1L, 2L, new BigDecimal("10.00")),
+               new TransferRequestDTO(2L, 1L, new BigDecimal("5.00"))), false);
+
+      TransferLoteResponseDTO responseDTO = new TransferLoteResponseDTO();
+      responseDTO.setTotal(2);
+      responseDTO.setSucessos(2);
+      responseDTO.setResultados(List.of(new TransferResultadoDTO(0, true, null), new TransferResultadoDTO(1, true, null)));
+      when(beneficioService.transferirLote(any(TransferLoteRequestDTO.class))).thenReturn(responseDTO);
+
+      mockMvc.perform(post("/api/v1/beneficios/transferir/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDTO)))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.sucessos", is(2)))
+               .andExpect(jsonPath("$.resultados[1].indice", is(1)));
+   }
+
+   @Test
+   void transferirLote_ShouldAcceptCborBody_WithValuesInCents() throws Exception {
+      TransferLoteRequestDTO requestDTO = new TransferLoteRequestDTO(List.of(
+               new TransferRequestDTO(1L, 2L, new BigDecimal("10.50"))), true);
+      TransferLoteResponseDTO responseDTO = new TransferLoteResponseDTO();
+      responseDTO.setTotal(1);
+      responseDTO.setSucessos(1);
+      when(beneficioService.transferirLote(any(TransferLoteRequestDTO.class))).thenReturn(responseDTO);
+
+      byte[] body = mockMvc.perform(post("/api/v1/beneficios/transferir/lote")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(requestDTO)))
+               .andExpect(status().isOk())
+               .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+               .andReturn().getResponse().getContentAsByteArray();
+
+      ArgumentCaptor<TransferLoteRequestDTO> captor = ArgumentCaptor.forClass(TransferLoteRequestDTO.class);
+      verify(beneficioService).transferirLote(captor.capture());
+      assertEquals(new BigDecimal("10.50"), captor.getValue().getTransferencias().get(0).getValor());
+      assertEquals(1, cborMapper.readTree(body).get("sucessos").asInt());
+   }
+
+   @Test
+   void transferirLote_ShouldReturnBadRequest_WhenLegIsInvalid() throws Exception {
+      TransferLoteRequestDTO requestDTO = new TransferLoteRequestDTO(List.of(
+               new TransferRequestDTO(1L, null, new BigDecimal("10.00"))), true);
+
+      mockMvc.perform(post("/api/v1/beneficios/transferir/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDTO)))
+               .andExpect(status().isBadRequest());
+
+      verify(beneficioService, never()).transferirLote(any());
+   }
+
+   @Test
+   void transferirLote_ShouldReturnBadRequest_WhenBatchIsEmpty() throws Exception {
+      mockMvc.perform(post("/api/v1/beneficios/transferir/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"transferencias\": []}"))
+               .andExpect(status().isBadRequest());
+   }
+}
@@ -0,0 +1,46 @@
+package br.com.bip.backend.controller;
+
+import br.com.bip.backend.cache.CachingBeneficioEjbService;
+import br.com.bip.backend.dto.CacheEstatisticaDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(CacheController.class)
+public class CacheControllerTest {
+
+   @Autowired
+   private MockMvc mockMvc;
+
+   @MockBean
+   private CachingBeneficioEjbService cache;
+
+   @Configuration
+   @Import(CacheController.class)
+   static class TestConfig {
+   }
+
+   @Test
+   void estatisticas_ShouldReturnCacheCounters() throws Exception {
+      CacheEstatisticaDTO dto = new CacheEstatisticaDTO();
+      dto.setAcertos(49);
+      dto.setFalhas(1);
+      dto.setTaxaAcerto(0.98);
+      when(cache.estatisticas()).thenReturn(dto);
+
+      mockMvc.perform(get("/api/v1/cache/beneficios"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.acertos", is(49)))
+               .andExpect(jsonPath("$.taxaAcerto", is(0.98)));
+   }
+}
@@ -0,0 +1,58 @@
+package br.com.bip.backend.controller;
+
+import br.com.bip.backend.conciliacao.ConciliacaoSaldos;
+import br.com.bip.backend.conciliacao.SituacaoConciliacao;
+import br.com.bip.backend.dto.ConciliacaoDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ConciliacaoController.class)
+public class ConciliacaoControllerTest {
+
+   @Autowired
+   private MockMvc mockMvc;
+
+   @MockBean
+   private ConciliacaoSaldos conciliacao;
+
+   @Configuration
+   @Import(ConciliacaoController.class)
+   static class TestConfig {
+   }
+
+   @Test
+   void ultima_ShouldReturnNoContent_UntilTheFirstRunFinishes() throws Exception {
+      mockMvc.perform(get("/api/v1/conciliacao"))
+               .andExpect(status().isNoContent());
+   }
+
+   @Test
+   void conciliar_ShouldRunNowAndReturnTheDrift() throws Exception {
+      ConciliacaoDTO dto = new ConciliacaoDTO();
+      dto.setSituacao(SituacaoConciliacao.DIVERGENTE);
+      dto.setDivergencia(new BigDecimal("5.00"));
+      dto.setContasInconsistentes(List.of(7L));
+      when(conciliacao.conciliar()).thenReturn(dto);
+
+      mockMvc.perform(post("/api/v1/conciliacao"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.situacao", is("DIVERGENTE")))
+               .andExpect(jsonPath("$.divergencia", is(5.00)))
+               .andExpect(jsonPath("$.contasInconsistentes[0]", is(7)));
+   }
+}
@@ -0,0 +1,208 @@
+package br.com.bip.backend.eventos;
+
+import br.com.bip.backend.dto.BeneficioAlteracaoDTO;
+import br.com.bip.ejb.BeneficioEjbServiceLocal;
+import br.com.bip.ejb.entity.Beneficio;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FeedAlteracoesTest {
+
+   @Mock
+   private BeneficioEjbServiceLocal ejbMock;
+
+   private FeedAlteracoes feed;
+   private PublicandoBeneficioEjbService publicando;
+
+   @BeforeEach
+   void setUp() {
+      // Intervalo longo: a publicação só acontece quando o teste chama publicarAgora()
+      feed = new FeedAlteracoes(ejbMock, 3, Duration.ofHours(1));
+      publicando = new PublicandoBeneficioEjbService(ejbMock, List.of(feed));
+   }
+
+   @AfterEach
+   void tearDown() throws InterruptedException {
+      feed.encerrar();
+   }
+
+   private static Beneficio beneficio(Long id, long version, String valor) {
+      Beneficio beneficio = new Beneficio();
+      beneficio.setId(id);
+      beneficio.setNome("Conta " + id);
+      beneficio.setVersion(version);
+      beneficio.setValor(new BigDecimal(valor));
+      beneficio.setAtivo(true);
+      return beneficio;
+   }
+
+   private EmitterCapturado assinar(String ultimoId) {
+      EmitterCapturado emitter = new EmitterCapturado();
+      feed.assinar(emitter, ultimoId);
+      return emitter;
+   }
+
+   @Test
+   void transfer_ShouldPublishOneRereadDeltaPerAccount_PerInterval() throws Exception {
+      EmitterCapturado emitter = assinar(null);
+      when(ejbMock.findById(1L)).thenReturn(beneficio(1L, 4, "70.00"));
+      when(ejbMock.findById(2L)).thenReturn(beneficio(2L, 9, "130.00"));
+
+      publicando.transfer(1L, 2L, new BigDecimal("10.00"));
+      publicando.transfer(1L, 2L, new BigDecimal("20.00"));
+      feed.publicarAgora();
+
+      assertEquals(2, emitter.recebidos.size());
+      BeneficioAlteracaoDTO origem = emitter.delta(0);
+      assertEquals(1L, origem.getId());
+      assertEquals(new BigDecimal("70.00"), origem.getValor());
+      assertEquals(4L, origem.getVersion());
+      assertNull(origem.getNome(), "transferências não repetem nome e descrição");
+      verify(ejbMock, times(1)).findById(1L);
+   }
+
+   @Test
+   void update_ShouldPublishReturnedState_WithName_AndDeleteShouldWin() throws Exception {
+      EmitterCapturado emitter = assinar(null);
+      Beneficio editado = beneficio(3L, 2, "50.00");
+      when(ejbMock.update(editado)).thenReturn(editado);
+
+      publicando.update(editado);
+      publicando.transfer(5L, 6L, BigDecimal.ONE);
+      publicando.deleteById(5L);
+      when(ejbMock.findById(6L)).thenReturn(beneficio(6L, 1, "1.00"));
+      feed.publicarAgora();
+
+      assertEquals("Conta 3", emitter.deltaDe(3L).getNome());
+      assertEquals(Boolean.TRUE, emitter.deltaDe(5L).getRemovido());
+      verify(ejbMock, never()).findById(3L);
+      verify(ejbMock, never()).findById(5L);
+   }
+
+   @Test
+   void assinar_ShouldReplayFromLastEventId_OrAskForReload() throws Exception {
+      EmitterCapturado primeiro = assinar(null);
+      for (long id = 1; id <= 5; id++) {
+         publicando.deleteById(id);
+         feed.publicarAgora();
+      }
+      String segundoId = primeiro.recebidos.get(1).id;
+      String ultimoId = primeiro.recebidos.get(4).id;
+
+      // Buffer de 3 eventos (3º a 5º): quem parou no 2º retoma sem lacuna
+      EmitterCapturado retomado = assinar(segundoId);
+      // Quem parou no 1º perdeu o 2º; outra execução do servidor também exige recarga
+      EmitterCapturado antigo = assinar(primeiro.recebidos.get(0).id);
+      EmitterCapturado outraExecucao = assinar("xyz-1");
+      EmitterCapturado emDia = assinar(ultimoId);
+      feed.publicarAgora();
+
+      assertEquals(List.of(3L, 4L, 5L), retomado.recebidos.stream().map(r -> ((BeneficioAlteracaoDTO) r.dados).getId()).toList());
+      assertEquals(FeedAlteracoes.REINICIO, antigo.recebidos.get(0).nome);
+      assertEquals(FeedAlteracoes.REINICIO, outraExecucao.recebidos.get(0).nome);
+      assertTrue(emDia.recebidos.isEmpty());
+   }
+
+   @Test
+   void publicar_ShouldSkipRereads_WithoutSubscribers_AndTreatTheGapAsReload() throws Exception {
+      EmitterCapturado primeiro = assinar(null);
+      publicando.deleteById(1L);
+      feed.publicarAgora();
+      String ultimoId = primeiro.recebidos.get(0).id;
+      primeiro.desconectar();
+
+      publicando.transfer(7L, 8L, BigDecimal.ONE);
+      feed.publicarAgora();
+
+      verify(ejbMock, never()).findById(anyLong());
+      EmitterCapturado retomado = assinar(ultimoId);
+      feed.publicarAgora();
+      assertEquals(FeedAlteracoes.REINICIO, retomado.recebidos.get(0).nome);
+   }
+
+   /** Emitter que guarda os eventos em vez de escrevê-los em uma resposta HTTP. */
+   @Test
+   void tableVersion_ShouldAddTheWritesOfThisNode_ToTheEjbVersion() {
+      Beneficio editado = beneficio(1L, 2, "10.00");
+      when(ejbMock.tableVersion()).thenReturn("1-1-0-0");
+      when(ejbMock.update(editado)).thenReturn(editado);
+
+      String antes = publicando.tableVersion();
+      publicando.update(editado);
+      String depois = publicando.tableVersion();
+
+      assertNotEquals(antes, depois, "UPDATE não muda a versão do EJB, só o contador local");
+      assertTrue(depois.startsWith("1-1-0-0-"));
+      assertNotEquals(antes, new PublicandoBeneficioEjbService(ejbMock, List.of()).tableVersion());
+   }
+
+   private static final class EmitterCapturado extends SseEmitter {
+
+      private final List<Recebido> recebidos = new CopyOnWriteArrayList<>();
+      private Runnable aoConcluir;
+
+      @Override
+      public synchronized void onCompletion(Runnable callback) {
+         super.onCompletion(callback);
+         this.aoConcluir = callback;
+      }
+
+      /** Como o fim da conexão HTTP: dispara o callback de conclusão registrado pelo feed. */
+      void desconectar() {
+         aoConcluir.run();
+      }
+
+      @Override
+      public void send(SseEventBuilder builder) throws IOException {
+         StringBuilder texto = new StringBuilder();
+         Object dados = null;
+         for (ResponseBodyEmitter.DataWithMediaType parte : builder.build()) {
+            if (parte.getData() instanceof String trecho) {
+               texto.append(trecho);
+            } else {
+               dados = parte.getData();
+            }
+         }
+         String nome = null;
+         String id = null;
+         for (String linha : texto.toString().split("\n")) {
+            if (linha.startsWith("event:")) {
+               nome = linha.substring("event:".length());
+            } else if (linha.startsWith("id:")) {
+               id = linha.substring("id:".length());
+            }
+         }
+         recebidos.add(new Recebido(nome, id, dados));
+      }
+
+      BeneficioAlteracaoDTO delta(int indice) {
+         return (BeneficioAlteracaoDTO) recebidos.get(indice).dados;
+      }
+
+      BeneficioAlteracaoDTO deltaDe(Long id) {
+         return recebidos.stream()
+                  .map(r -> (BeneficioAlteracaoDTO) r.dados)
+                  .filter(d -> d.getId().equals(id))
+                  .findFirst().orElseThrow();
+      }
+   }
+
+   private record Recebido(String nome, String id, Object dados) {
+   }
+}
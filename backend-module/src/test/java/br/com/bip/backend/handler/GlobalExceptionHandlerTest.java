@@ -0,0 +1,38 @@
+package br.com.bip.backend.handler;
+
+import br.com.bip.ejb.exception.VersaoDivergenteException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GlobalExceptionHandlerTest {
+
+   private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+   private final ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest("PUT", "/api/v1/beneficios/9"));
+
+   @Test
+   void versaoDivergente_ShouldBePreconditionFailed_WhenRowExists() {
+      ResponseEntity<Map<String, Object>> resposta = handler.handleVersaoDivergente(
+               new VersaoDivergenteException(9L, 3L, 4L), request);
+
+      assertEquals(HttpStatus.PRECONDITION_FAILED, resposta.getStatusCode());
+      assertEquals(412, resposta.getBody().get("status"));
+   }
+
+   @Test
+   void versaoDivergente_ShouldBeNotFound_WhenRowIsMissing() {
+      ResponseEntity<Map<String, Object>> resposta = handler.handleVersaoDivergente(
+               new VersaoDivergenteException(9L, 3L, null), request);
+
+      assertEquals(HttpStatus.NOT_FOUND, resposta.getStatusCode());
+      assertEquals(404, resposta.getBody().get("status"));
+      assertEquals("/api/v1/beneficios/9", resposta.getBody().get("path"));
+   }
+}
@@ -0,0 +1,96 @@
+package br.com.bip.backend.idempotencia;
+
+import br.com.bip.ejb.exception.TransferenciaException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeduplicadorTransferenciasTest {
+
+   private DeduplicadorTransferencias deduplicador;
+
+   @BeforeEach
+   void setUp() {
+      deduplicador = new DeduplicadorTransferencias(100, Duration.ofMinutes(1));
+   }
+
+   @Test
+   void executar_ShouldRunOnce_ForRepeatedKey() {
+      AtomicInteger execucoes = new AtomicInteger();
+
+      deduplicador.executar("k", "1:2:10", execucoes::incrementAndGet);
+      deduplicador.executar("k", "1:2:10", execucoes::incrementAndGet);
+
+      assertEquals(1, execucoes.get());
+   }
+
+   @Test
+   void executar_ShouldRejectKeyReusedWithOtherSignature() {
+      deduplicador.executar("k", "1:2:10", () -> { });
+
+      assertThrows(TransferenciaException.class, () -> deduplicador.executar("k", "1:2:99", () -> { }));
+   }
+
+   @Test
+   void executar_ShouldAllowRetry_WhenFirstAttemptFails() {
+      AtomicInteger execucoes = new AtomicInteger();
+
+      assertThrows(TransferenciaException.class, () -> deduplicador.executar("k", "1:2:10", () -> {
+         execucoes.incrementAndGet();
+         throw new TransferenciaException("Saldo insuficiente");
+      }));
+      deduplicador.executar("k", "1:2:10", execucoes::incrementAndGet);
+
+      assertEquals(2, execucoes.get());
+   }
+
+   @Test
+   void executar_ShouldMakeConcurrentDuplicatesWaitForFirstExecution() throws Exception {
+      int threads = 8;
+      AtomicInteger execucoes = new AtomicInteger();
+      CountDownLatch largada = new CountDownLatch(1);
+      CountDownLatch emExecucao = new CountDownLatch(1);
+      ExecutorService pool = Executors.newFixedThreadPool(threads);
+      try {
+         List<Future<?>> futuros = new ArrayList<>();
+         for (int i = 0; i < threads; i++) {
+            futuros.add(pool.submit(() -> {
+               largada.await();
+               deduplicador.executar("k", "1:2:10", () -> {
+                  execucoes.incrementAndGet();
+                  emExecucao.countDown();
+                  dormir();
+               });
+               return null;
+            }));
+         }
+         largada.countDown();
+         for (Future<?> futuro : futuros) {
+            futuro.get(10, TimeUnit.SECONDS);
+         }
+      } finally {
+         pool.shutdownNow();
+      }
+
+      assertEquals(1, execucoes.get());
+   }
+
+   private static void dormir() {
+      try {
+         Thread.sleep(50);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+   }
+}
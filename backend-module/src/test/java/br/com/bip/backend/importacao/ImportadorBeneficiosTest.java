@@ -0,0 +1,111 @@
+package br.com.bip.backend.importacao;
+
+import br.com.bip.backend.dto.ImportacaoLoteDTO;
+import br.com.bip.backend.dto.ImportacaoResumoDTO;
+import br.com.bip.ejb.BeneficioEjbServiceLocal;
+import br.com.bip.ejb.entity.Beneficio;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImportadorBeneficiosTest {
+
+   @Mock
+   private BeneficioEjbServiceLocal ejbMock;
+
+   @Captor
+   private ArgumentCaptor<List<Beneficio>> lotes;
+
+   private ImportadorBeneficios importador;
+   private final List<ImportacaoLoteDTO> progresso = new ArrayList<>();
+
+   @BeforeEach
+   void setUp() {
+      importador = new ImportadorBeneficios(ejbMock, new ObjectMapper(),
+               Validation.buildDefaultValidatorFactory().getValidator(), 2);
+   }
+
+   @Test
+   void importar_ShouldCommitInChunks_AndReportProgress() throws Exception {
+      when(ejbMock.createAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+      String csv = "nome,descricao,valor,ativo\n"
+               + "A,Desc A,10.00,true\n"
+               + "\"B, com vírgula\",\"Diz \"\"oi\"\"\",20.50,false\n"
+               + "C,,30\n";
+
+      ImportacaoResumoDTO resumo = importador.importar(new StringReader(csv), FormatoImportacao.CSV, progresso::add);
+
+      assertEquals(3, resumo.getImportados());
+      assertEquals(0, resumo.getRejeitados());
+      assertEquals(2, resumo.getLotes());
+      assertEquals(List.of(2, 1), progresso.stream().map(ImportacaoLoteDTO::getImportados).toList());
+      assertEquals(3, progresso.get(1).getImportadosAcumulados());
+
+      verify(ejbMock, times(2)).createAll(lotes.capture());
+      Beneficio segundo = lotes.getAllValues().get(0).get(1);
+      assertEquals("B, com vírgula", segundo.getNome());
+      assertEquals("Diz \"oi\"", segundo.getDescricao());
+      assertEquals(new BigDecimal("20.50"), segundo.getValor());
+      assertFalse(segundo.isAtivo());
+      assertNull(lotes.getAllValues().get(1).get(0).getDescricao());
+   }
+
+   @Test
+   void importar_ShouldSkipInvalidLines_WithLineNumberAndReason() throws Exception {
+      when(ejbMock.createAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+      String ndjson = "{\"nome\":\"A\",\"valor\":10}\n"
+               + "{\"nome\":\"\",\"valor\":10}\n"
+               + "\n"
+               + "{nao e json\n"
+               + "{\"nome\":\"B\",\"valor\":-1}\n";
+
+      ImportacaoResumoDTO resumo = importador.importar(new StringReader(ndjson), FormatoImportacao.NDJSON, progresso::add);
+
+      assertEquals(5, resumo.getLinhas());
+      assertEquals(1, resumo.getImportados());
+      assertEquals(3, resumo.getRejeitados());
+      List<Long> linhasComErro = progresso.stream()
+               .flatMap(lote -> lote.getErros().stream())
+               .map(erro -> erro.getLinha())
+               .toList();
+      assertEquals(List.of(2L, 4L, 5L), linhasComErro);
+      assertTrue(progresso.get(0).getErros().get(0).getMensagem().startsWith("nome:"));
+   }
+
+   @Test
+   void importar_ShouldRejectOnlyTheFailingChunk() throws Exception {
+      when(ejbMock.createAll(anyList()))
+               .thenThrow(new RuntimeException("violação de restrição"))
+               .thenAnswer(inv -> inv.getArgument(0));
+      String csv = "A,,1\nB,,2\nC,,3\n";
+
+      ImportacaoResumoDTO resumo = importador.importar(new StringReader(csv), FormatoImportacao.CSV, progresso::add);
+
+      assertEquals(1, resumo.getImportados());
+      assertEquals(2, resumo.getRejeitados());
+      assertEquals(0, progresso.get(0).getImportados());
+      assertTrue(progresso.get(0).getErros().get(0).getMensagem().contains("linhas 1 a 2"));
+      assertEquals(1, progresso.get(1).getImportados());
+   }
+
+   @Test
+   void dividirCsv_ShouldFailOnUnclosedQuotes() {
+      assertThrows(IllegalArgumentException.class, () -> ImportadorBeneficios.dividirCsv("\"A,,1"));
+   }
+}
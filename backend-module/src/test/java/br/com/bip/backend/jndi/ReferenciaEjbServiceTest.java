@@ -0,0 +1,91 @@
+package br.com.bip.backend.jndi;
+
+import br.com.bip.ejb.BeneficioEjbServiceLocal;
+import br.com.bip.ejb.entity.Beneficio;
+import br.com.bip.ejb.exception.TransferenciaException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.ejb.NoSuchEJBException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReferenciaEjbServiceTest {
+
+   @Mock
+   private BeneficioEjbServiceLocal antigo;
+
+   @Mock
+   private BeneficioEjbServiceLocal novo;
+
+   private final AtomicInteger lookups = new AtomicInteger();
+   private final Deque<BeneficioEjbServiceLocal> resolvidos = new ArrayDeque<>();
+   private SimpleMeterRegistry registry;
+   private ReferenciaEjbService referencia;
+
+   @BeforeEach
+   void setUp() {
+      registry = new SimpleMeterRegistry();
+      referencia = new ReferenciaEjbService(() -> {
+         lookups.incrementAndGet();
+         BeneficioEjbServiceLocal proximo = resolvidos.poll();
+         if (proximo == null) {
+            throw new IllegalStateException("EJB indisponível");
+         }
+         return proximo;
+      }, registry);
+   }
+
+   @Test
+   void chamadas_ShouldReuseTheReferenceResolvedOnce() {
+      resolvidos.addAll(List.of(antigo));
+      Beneficio beneficio = new Beneficio();
+      when(antigo.findById(1L)).thenReturn(beneficio);
+
+      assertSame(beneficio, referencia.findById(1L));
+      assertSame(beneficio, referencia.findById(1L));
+      referencia.tableVersion();
+
+      assertEquals(1, lookups.get());
+   }
+
+   @Test
+   void staleProxy_ShouldLookUpAgainAndRetryOnce_ButBusinessErrorsPassThrough() {
+      resolvidos.addAll(List.of(antigo, novo));
+      doThrow(new NoSuchEJBException("reimplantado")).when(antigo).transfer(1L, 2L, BigDecimal.ONE);
+
+      referencia.transfer(1L, 2L, BigDecimal.ONE);
+
+      verify(novo).transfer(1L, 2L, BigDecimal.ONE);
+      assertEquals(2, lookups.get());
+      assertEquals(1.0, registry.counter(ReferenciaEjbService.RECONEXOES).count());
+
+      doThrow(new TransferenciaException("Saldo insuficiente")).when(novo).transfer(2L, 1L, BigDecimal.TEN);
+      assertThrows(TransferenciaException.class, () -> referencia.transfer(2L, 1L, BigDecimal.TEN));
+      assertEquals(2, lookups.get(), "erro de negócio não refaz o lookup");
+   }
+
+   @Test
+   void verificar_ShouldDropTheReferenceWhenLookupFails() {
+      resolvidos.addAll(List.of(antigo));
+      referencia.findAll();
+
+      assertThrows(IllegalStateException.class, referencia::verificar);
+
+      resolvidos.add(novo);
+      referencia.findAll();
+      verify(novo).findAll();
+      assertEquals(3, lookups.get());
+   }
+}
@@ -0,0 +1,88 @@
+package br.com.bip.backend.limite;
+
+import br.com.bip.ejb.BeneficioEjbServiceLocal;
+import br.com.bip.ejb.entity.Beneficio;
+import br.com.bip.ejb.exception.TransferenciaException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LimitandoBeneficioEjbServiceTest {
+
+   @Mock
+   private BeneficioEjbServiceLocal ejbMock;
+
+   private SimpleMeterRegistry registry;
+   private LimitandoBeneficioEjbService limitado;
+
+   @BeforeEach
+   void setUp() {
+      registry = new SimpleMeterRegistry();
+      limitado = new LimitandoBeneficioEjbService(ejbMock, 1, 1, 1, Duration.ofMillis(50), registry);
+   }
+
+   private double disponiveis(String operacao) {
+      return registry.get(LimitandoBeneficioEjbService.DISPONIVEIS).tag("operacao", operacao).gauge().value();
+   }
+
+   private double recusas(String operacao) {
+      return registry.get(LimitandoBeneficioEjbService.RECUSAS).tag("operacao", operacao).counter().count();
+   }
+
+   @Test
+   void transfer_ShouldRejectWhenNoPermitFreesUpInTime_WithoutBlockingReads() throws Exception {
+      CountDownLatch dentro = new CountDownLatch(1);
+      CountDownLatch liberar = new CountDownLatch(1);
+      doAnswer(inv -> {
+         dentro.countDown();
+         liberar.await(5, TimeUnit.SECONDS);
+         return null;
+      }).when(ejbMock).transfer(1L, 2L, BigDecimal.ONE, null, null);
+      when(ejbMock.findById(1L)).thenReturn(new Beneficio());
+
+      CompletableFuture<Void> primeira = CompletableFuture.runAsync(() -> limitado.transfer(1L, 2L, BigDecimal.ONE, null, null));
+      assertTrue(dentro.await(5, TimeUnit.SECONDS));
+
+      assertThrows(CapacidadeEsgotadaException.class, () -> limitado.transfer(1L, 2L, BigDecimal.ONE, null, null));
+      assertEquals(1.0, recusas("transferencia"));
+      assertEquals(0.0, disponiveis("transferencia"));
+      // Leituras têm vagas próprias
+      assertNotNull(limitado.findById(1L));
+
+      liberar.countDown();
+      primeira.get(5, TimeUnit.SECONDS);
+      assertEquals(1.0, disponiveis("transferencia"));
+      verify(ejbMock, times(1)).transfer(1L, 2L, BigDecimal.ONE, null, null);
+   }
+
+   @Test
+   void transfer_ShouldReleasePermit_WhenEjbFails() {
+      doThrow(new TransferenciaException("Saldo insuficiente"))
+               .when(ejbMock).transfer(1L, 2L, BigDecimal.TEN, null, null);
+
+      assertThrows(TransferenciaException.class, () -> limitado.transfer(1L, 2L, BigDecimal.TEN, null, null));
+      assertThrows(TransferenciaException.class, () -> limitado.transfer(1L, 2L, BigDecimal.TEN, null, null));
+
+      assertEquals(1.0, disponiveis("transferencia"));
+      assertEquals(0.0, recusas("transferencia"));
+   }
+
+   @Test
+   void constructor_ShouldRejectNonPositiveLimit() {
+      assertThrows(IllegalArgumentException.class,
+               () -> new LimitandoBeneficioEjbService(ejbMock, 0, 1, 1, Duration.ofMillis(50), new SimpleMeterRegistry()));
+   }
+}
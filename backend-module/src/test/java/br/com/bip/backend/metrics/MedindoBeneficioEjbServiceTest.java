@@ -0,0 +1,65 @@
+package br.com.bip.backend.metrics;
+
+import br.com.bip.ejb.BeneficioEjbServiceLocal;
+import br.com.bip.ejb.entity.Beneficio;
+import br.com.bip.ejb.exception.TransferenciaException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MedindoBeneficioEjbServiceTest {
+
+   @Mock
+   private BeneficioEjbServiceLocal ejbMock;
+
+   private SimpleMeterRegistry registry;
+   private MedindoBeneficioEjbService medido;
+
+   @BeforeEach
+   void setUp() {
+      registry = new SimpleMeterRegistry();
+      medido = new MedindoBeneficioEjbService(ejbMock, registry);
+   }
+
+   private Timer timer(String operacao) {
+      return registry.get(MedindoBeneficioEjbService.TIMER).tag("operacao", operacao).timer();
+   }
+
+   @Test
+   void findById_ShouldRecordGetTimer_AndTrackInFlightCall() {
+      AtomicReference<Double> duranteChamada = new AtomicReference<>();
+      when(ejbMock.findById(1L)).thenAnswer(inv -> {
+         duranteChamada.set(registry.get(MedindoBeneficioEjbService.EM_ANDAMENTO).gauge().value());
+         return new Beneficio();
+      });
+
+      assertNotNull(medido.findById(1L));
+
+      assertEquals(1, timer("get").count());
+      assertEquals(0, timer("transfer").count());
+      assertEquals(1.0, duranteChamada.get());
+      assertEquals(0.0, registry.get(MedindoBeneficioEjbService.EM_ANDAMENTO).gauge().value());
+   }
+
+   @Test
+   void transfer_ShouldRecordTimer_EvenWhenEjbRefuses() {
+      doThrow(new TransferenciaException("Saldo insuficiente"))
+               .when(ejbMock).transfer(1L, 2L, BigDecimal.TEN, null, "k");
+
+      assertThrows(TransferenciaException.class, () -> medido.transfer(1L, 2L, BigDecimal.TEN, null, "k"));
+
+      assertEquals(1, timer("transfer").count());
+      assertEquals(0.0, registry.get(MedindoBeneficioEjbService.EM_ANDAMENTO).gauge().value());
+   }
+}
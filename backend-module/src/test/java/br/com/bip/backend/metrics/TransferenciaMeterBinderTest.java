@@ -0,0 +1,62 @@
+package br.com.bip.backend.metrics;
+
+import br.com.bip.ejb.BeneficioEjbServiceLocal;
+import br.com.bip.ejb.model.ModoConcorrencia;
+import br.com.bip.ejb.model.MotivoRecusa;
+import br.com.bip.ejb.model.TransferenciaEstatistica;
+import br.com.bip.ejb.model.TransferenciaTelemetria;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferenciaMeterBinderTest {
+
+   @Mock
+   private BeneficioEjbServiceLocal ejbMock;
+
+   private SimpleMeterRegistry registry;
+
+   @BeforeEach
+   void setUp() {
+      registry = new SimpleMeterRegistry();
+      new TransferenciaMeterBinder(ejbMock).bindTo(registry);
+   }
+
+   @Test
+   void bindTo_ShouldExposeEjbCounters_WithOneEjbCallPerScrape() {
+      when(ejbMock.transferStatistics()).thenReturn(List.of(new TransferenciaEstatistica(ModoConcorrencia.OTIMISTA, 10, 3, 1)));
+      when(ejbMock.transferTelemetry()).thenReturn(new TransferenciaTelemetria(
+               Map.of(MotivoRecusa.SALDO_INSUFICIENTE, 7L), 4, TimeUnit.MILLISECONDS.toNanos(20), TimeUnit.MILLISECONDS.toNanos(9)));
+
+      assertEquals(10.0, registry.get("bip.transferencia.execucoes").tag("modo", "OTIMISTA").functionCounter().count());
+      assertEquals(3.0, registry.get("bip.transferencia.retentativas").tag("modo", "OTIMISTA").functionCounter().count());
+      assertEquals(0.0, registry.get("bip.transferencia.execucoes").tag("modo", "PESSIMISTA").functionCounter().count());
+      assertEquals(7.0, registry.get("bip.transferencia.recusas").tag("motivo", "SALDO_INSUFICIENTE").functionCounter().count());
+      assertEquals(4.0, registry.get("bip.transferencia.lock.espera").functionTimer().count());
+      assertEquals(20.0, registry.get("bip.transferencia.lock.espera").functionTimer().totalTime(TimeUnit.MILLISECONDS));
+      assertEquals(0.009, registry.get("bip.transferencia.lock.espera.max").gauge().value(), 1e-9);
+
+      verify(ejbMock, times(1)).transferTelemetry();
+   }
+
+   @Test
+   void bindTo_ShouldKeepZeroes_WhenEjbIsUnavailable() {
+      when(ejbMock.transferStatistics()).thenThrow(new IllegalStateException("JNDI indisponível"));
+
+      assertEquals(0.0, registry.get("bip.transferencia.recusas").tag("motivo", "MESMA_CONTA").functionCounter().count());
+      assertEquals(0.0, registry.get("bip.transferencia.execucoes").tag("modo", "PESSIMISTA").functionCounter().count());
+
+      verify(ejbMock, times(1)).transferStatistics();
+   }
+}
@@ -0,0 +1,121 @@
+package br.com.bip.backend.sequenciamento;
+
+import br.com.bip.backend.limite.CapacidadeEsgotadaException;
+import br.com.bip.ejb.BeneficioEjbServiceLocal;
+import br.com.bip.ejb.model.ModoConcorrencia;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SequenciandoBeneficioEjbServiceTest {
+
+   @Mock
+   private BeneficioEjbServiceLocal ejbMock;
+
+   private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+   @Test
+   void transfer_ShouldSerializeConflictingTransfers_AndNeverDeadlockOnOppositePairs() throws Exception {
+      SequenciandoBeneficioEjbService sequenciado = new SequenciandoBeneficioEjbService(ejbMock, 8, Duration.ofSeconds(10), registry);
+      AtomicInteger naConta1 = new AtomicInteger();
+      AtomicInteger maxNaConta1 = new AtomicInteger();
+      doAnswer(inv -> {
+         maxNaConta1.accumulateAndGet(naConta1.incrementAndGet(), Math::max);
+         Thread.onSpinWait();
+         naConta1.decrementAndGet();
+         return null;
+      }).when(ejbMock).transfer(any(), any(), any(), any(), any());
+
+      ExecutorService pool = Executors.newFixedThreadPool(8);
+      try {
+         List<Future<?>> tarefas = new ArrayList<>();
+         for (int i = 0; i < 2000; i++) {
+            // Todas tocam a conta 1, metade em cada sentido, com contrapartes em faixas variadas
+            long outra = 2 + (i % 7);
+            boolean ida = i % 2 == 0;
+            tarefas.add(pool.submit(() -> sequenciado.transfer(ida ? 1L : outra, ida ? outra : 1L, BigDecimal.ONE, null, null)));
+         }
+         for (Future<?> tarefa : tarefas) {
+            tarefa.get(10, TimeUnit.SECONDS);
+         }
+      } finally {
+         pool.shutdownNow();
+      }
+
+      assertEquals(1, maxNaConta1.get());
+      verify(ejbMock, times(2000)).transfer(any(), any(), any(), any(), any());
+   }
+
+   @Test
+   void transfer_ShouldRejectAfterMaxWait_WhenAccountLaneIsBusy() throws Exception {
+      SequenciandoBeneficioEjbService sequenciado = new SequenciandoBeneficioEjbService(ejbMock, 4, Duration.ofMillis(50), registry);
+      CountDownLatch dentro = new CountDownLatch(1);
+      CountDownLatch liberar = new CountDownLatch(1);
+      doAnswer(inv -> {
+         dentro.countDown();
+         liberar.await(5, TimeUnit.SECONDS);
+         return null;
+      }).when(ejbMock).transfer(1L, 2L, BigDecimal.ONE, null, null);
+
+      CompletableFuture<Void> primeira = CompletableFuture.runAsync(() -> sequenciado.transfer(1L, 2L, BigDecimal.ONE, null, null));
+      assertTrue(dentro.await(5, TimeUnit.SECONDS));
+
+      assertThrows(CapacidadeEsgotadaException.class, () -> sequenciado.transfer(2L, 1L, BigDecimal.ONE, null, null));
+      assertEquals(1.0, registry.get(SequenciandoBeneficioEjbService.RECUSAS).counter().count());
+
+      liberar.countDown();
+      primeira.get(5, TimeUnit.SECONDS);
+      verify(ejbMock, never()).transfer(2L, 1L, BigDecimal.ONE, null, null);
+   }
+
+   @Test
+   void transfer_ShouldOnlyHoldOriginLane_InAsyncMode() throws Exception {
+      SequenciandoBeneficioEjbService sequenciado = new SequenciandoBeneficioEjbService(ejbMock, 4, Duration.ofMillis(50), registry);
+      long destino = 2L;
+      long origemNaMesmaFaixa = 3L;
+      while (sequenciado.faixa(origemNaMesmaFaixa) != sequenciado.faixa(destino)) {
+         origemNaMesmaFaixa++;
+      }
+      CountDownLatch dentro = new CountDownLatch(1);
+      CountDownLatch liberar = new CountDownLatch(1);
+      doAnswer(inv -> {
+         dentro.countDown();
+         liberar.await(5, TimeUnit.SECONDS);
+         return null;
+      }).when(ejbMock).transfer(origemNaMesmaFaixa, 1L, BigDecimal.ONE, null, null);
+
+      long origemOcupada = origemNaMesmaFaixa;
+      CompletableFuture<Void> ocupando = CompletableFuture.runAsync(() -> sequenciado.transfer(origemOcupada, 1L, BigDecimal.ONE, null, null));
+      assertTrue(dentro.await(5, TimeUnit.SECONDS));
+
+      // O destino está na faixa ocupada, mas no modo assíncrono só a origem é sequenciada
+      long origemLivre = 1000L;
+      while (sequenciado.faixa(origemLivre) == sequenciado.faixa(destino) || sequenciado.faixa(origemLivre) == sequenciado.faixa(1L)) {
+         origemLivre++;
+      }
+      sequenciado.transfer(origemLivre, destino, BigDecimal.ONE, ModoConcorrencia.ASSINCRONO, null);
+      verify(ejbMock).transfer(origemLivre, destino, BigDecimal.ONE, ModoConcorrencia.ASSINCRONO, null);
+
+      liberar.countDown();
+      ocupando.get(5, TimeUnit.SECONDS);
+   }
+}
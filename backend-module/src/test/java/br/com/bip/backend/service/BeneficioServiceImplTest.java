@@ -1,24 +1,50 @@
 package br.com.bip.backend.service;
 
+import br.com.bip.backend.agrupamento.AgrupadorTransferencias;
+import br.com.bip.backend.busca.IndiceBusca;
+import br.com.bip.backend.dto.BeneficioBuscaDTO;
+import br.com.bip.backend.dto.BeneficioEstatisticasDTO;
+import br.com.bip.backend.dto.BeneficioLoteRequestDTO;
+import br.com.bip.backend.dto.BeneficioPageDTO;
 import br.com.bip.backend.dto.BeneficioRequestDTO;
 import br.com.bip.backend.dto.BeneficioResponseDTO;
+import br.com.bip.backend.dto.TransferEstatisticaDTO;
+import br.com.bip.backend.dto.TransferLoteRequestDTO;
+import br.com.bip.backend.dto.TransferLoteResponseDTO;
 import br.com.bip.backend.dto.TransferRequestDTO;
+import br.com.bip.backend.idempotencia.DeduplicadorTransferencias;
+import br.com.bip.backend.limite.CapacidadeEsgotadaException;
 import br.com.bip.ejb.BeneficioEjbServiceLocal;
 import br.com.bip.ejb.entity.Beneficio;
 import br.com.bip.ejb.exception.TransferenciaException;
+import br.com.bip.ejb.exception.VersaoDivergenteException;
+import br.com.bip.ejb.model.BeneficioEstatisticas;
+import br.com.bip.ejb.model.BeneficioProjecao;
+import br.com.bip.ejb.model.ModoConcorrencia;
+import br.com.bip.ejb.model.TransferenciaEstatistica;
+import br.com.bip.ejb.model.TransferenciaItem;
+import br.com.bip.ejb.model.TransferenciaResultado;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +53,19 @@ class BeneficioServiceImplTest {
    @Mock
    private BeneficioEjbServiceLocal beneficioEjbServiceMock;
 
+   /** Leitor abaixo do cache, usado só para conferir If-Match. */
+   @Mock
+   private BeneficioEjbServiceLocal leitorMock;
+
+   @Mock
+   private AgrupadorTransferencias agrupadorMock;
+
+   @Mock
+   private IndiceBusca indiceBuscaMock;
+
+   @Captor
+   private ArgumentCaptor<List<TransferenciaItem>> itensCaptor;
+
    private BeneficioService beneficioService;
 
    private Beneficio beneficio;
@@ -34,7 +73,8 @@ class BeneficioServiceImplTest {
 
    @BeforeEach
    void setUp() {
-      beneficioService = new BeneficioServiceImpl(beneficioEjbServiceMock);
+      beneficioService = new BeneficioServiceImpl(beneficioEjbServiceMock, leitorMock,
+               new DeduplicadorTransferencias(100, Duration.ofMinutes(1)), agrupadorMock, indiceBuscaMock);
 
       beneficio = new Beneficio();
       beneficio.setId(1L);
@@ -53,14 +93,119 @@ class BeneficioServiceImplTest {
 
    @Test
    void findAll_ShouldReturnDTOList() {
-      when(beneficioEjbServiceMock.findAll()).thenReturn(List.of(beneficio));
+      when(beneficioEjbServiceMock.findPageProjected(null, 500, null, null, null)).thenReturn(List.of(projecao(beneficio)));
 
       List<BeneficioResponseDTO> result = beneficioService.findAll();
 
       assertNotNull(result);
       assertEquals(1, result.size());
       assertEquals("Vale Refeição", result.get(0).getNome());
-      verify(beneficioEjbServiceMock).findAll();
+      verify(beneficioEjbServiceMock).findPageProjected(null, 500, null, null, null);
+      verify(beneficioEjbServiceMock, never()).findAll();
+   }
+
+   @Test
+   void findAll_ShouldStopAtHardCap() {
+      when(beneficioEjbServiceMock.findPageProjected(null, 500, null, null, null)).thenReturn(criarBeneficios(1, 500));
+      when(beneficioEjbServiceMock.findPageProjected(500L, 500, null, null, null)).thenReturn(criarBeneficios(501, 500));
+
+      List<BeneficioResponseDTO> result = beneficioService.findAll();
+
+      assertEquals(BeneficioServiceImpl.LIST_HARD_CAP, result.size());
+      assertEquals(1000L, result.get(999).getId());
+      verify(beneficioEjbServiceMock, times(2)).findPageProjected(any(), anyInt(), any(), any(), any());
+   }
+
+   @Test
+   void findPage_ShouldReturnCursor_WhenThereAreMoreRows() {
+      when(beneficioEjbServiceMock.findPageProjected(10L, 3, true, "vale", null)).thenReturn(criarBeneficios(11, 3));
+
+      BeneficioPageDTO pagina = beneficioService.findPage(10L, 2, true, "vale", null);
+
+      assertEquals(2, pagina.getItens().size());
+      assertEquals(12L, pagina.getProximoAfterId());
+   }
+
+   @Test
+   void findPage_ShouldReturnNullCursor_OnLastPage() {
+      when(beneficioEjbServiceMock.findPageProjected(null, BeneficioServiceImpl.DEFAULT_PAGE_SIZE + 1, null, null, null))
+               .thenReturn(List.of(projecao(beneficio)));
+
+      BeneficioPageDTO pagina = beneficioService.findPage(null, null, null, null, null);
+
+      assertEquals(1, pagina.getItens().size());
+      assertNull(pagina.getProximoAfterId());
+   }
+
+   @Test
+   void findPage_ShouldWalkPastFullPagesOfMaxSize() {
+      // Como o EJB: até MAX_PAGE_SIZE + 1 linhas depois do cursor, sobre 1100 contas
+      List<BeneficioProjecao> tabela = criarBeneficios(1, 1100);
+      when(beneficioEjbServiceMock.findPageProjected(any(), anyInt(), isNull(), isNull(), isNull())).thenAnswer(chamada -> {
+         Long afterId = chamada.getArgument(0);
+         int limit = Math.min(chamada.<Integer>getArgument(1), BeneficioEjbServiceLocal.MAX_PAGE_SIZE + 1);
+         return tabela.stream().filter(p -> afterId == null || p.getId() > afterId).limit(limit).toList();
+      });
+
+      List<Integer> paginas = new ArrayList<>();
+      Long afterId = null;
+      do {
+         BeneficioPageDTO pagina = beneficioService.findPage(afterId, 500, null, null, null);
+         paginas.add(pagina.getItens().size());
+         afterId = pagina.getProximoAfterId();
+      } while (afterId != null);
+
+      assertEquals(List.of(500, 500, 100), paginas);
+      verify(beneficioEjbServiceMock, times(3)).findPageProjected(any(), eq(BeneficioEjbServiceLocal.MAX_PAGE_SIZE + 1), isNull(), isNull(), isNull());
+   }
+
+   @Test
+   void findPage_ShouldRejectNonPositiveLimit() {
+      assertThrows(IllegalArgumentException.class, () -> beneficioService.findPage(null, 0, null, null, null));
+      verifyNoInteractions(beneficioEjbServiceMock);
+   }
+
+   @Test
+   void findPage_ShouldAlwaysSelectId_WhenFieldsAreGiven() {
+      when(beneficioEjbServiceMock.findPageProjected(null, 3, null, null, Set.of("id", "nome")))
+               .thenReturn(criarBeneficios(1, 2));
+
+      BeneficioPageDTO pagina = beneficioService.findPage(null, 2, null, null, Set.of("nome"));
+
+      assertEquals(2, pagina.getItens().size());
+      verify(beneficioEjbServiceMock, never()).findPage(any(), anyInt(), any(), any());
+   }
+
+   @Test
+   void findPage_ShouldRejectUnknownFields() {
+      assertThrows(IllegalArgumentException.class,
+               () -> beneficioService.findPage(null, 10, null, null, Set.of("nome", "senha")));
+      verifyNoInteractions(beneficioEjbServiceMock);
+   }
+
+   @Test
+   void streamAll_ShouldWalkPagesWithKeysetCursor() {
+      when(beneficioEjbServiceMock.findPageProjected(null, 500, false, null, null)).thenReturn(criarBeneficios(1, 500));
+      when(beneficioEjbServiceMock.findPageProjected(500L, 500, false, null, null)).thenReturn(criarBeneficios(501, 3));
+
+      List<Long> ids = new ArrayList<>();
+      beneficioService.streamAll(false, null, null, dto -> ids.add(dto.getId()));
+
+      assertEquals(503, ids.size());
+      assertEquals(503L, ids.get(502));
+   }
+
+   private List<BeneficioProjecao> criarBeneficios(long primeiroId, int quantidade) {
+      List<BeneficioProjecao> beneficios = new ArrayList<>();
+      for (long id = primeiroId; id < primeiroId + quantidade; id++) {
+         beneficios.add(new BeneficioProjecao(id, "Beneficio " + id, null, BigDecimal.TEN, true, 0L, 0));
+      }
+      return beneficios;
+   }
+
+   private static BeneficioProjecao projecao(Beneficio b) {
+      return new BeneficioProjecao(b.getId(), b.getNome(), b.getDescricao(), b.getValor(), b.isAtivo(), b.getVersion(),
+               b.getParticoes());
    }
 
    @Test
@@ -87,6 +232,42 @@ class BeneficioServiceImplTest {
       verify(beneficioEjbServiceMock).findById(99L);
    }
 
+   @Test
+   void buscar_ShouldResolveIndexIds_SkippingDeleted_AndComputeNextOffset() {
+      when(indiceBuscaMock.buscar("vale", 10, 2)).thenReturn(new IndiceBusca.Resultado(List.of(1L, 7L), 15));
+      when(beneficioEjbServiceMock.findById(1L)).thenReturn(beneficio);
+      when(beneficioEjbServiceMock.findById(7L)).thenReturn(null);
+
+      BeneficioBuscaDTO resultado = beneficioService.buscar("vale", 10, 2);
+
+      assertEquals(1, resultado.getItens().size());
+      assertEquals("Vale Refeição", resultado.getItens().get(0).getNome());
+      assertEquals(15, resultado.getTotal());
+      assertEquals(12, resultado.getProximoOffset());
+      assertThrows(IllegalArgumentException.class, () -> beneficioService.buscar("vale", -1, 2));
+   }
+
+   @Test
+   void criarLote_ShouldCreateAllInOneEjbCall_AndMapResponses() {
+      BeneficioRequestDTO outro = new BeneficioRequestDTO();
+      outro.setNome("Vale Transporte");
+      outro.setValor(new BigDecimal("80.00"));
+      when(beneficioEjbServiceMock.createAll(anyList())).thenAnswer(inv -> {
+         List<Beneficio> entidades = inv.getArgument(0);
+         for (int i = 0; i < entidades.size(); i++) {
+            entidades.get(i).setId(101L + i);
+         }
+         return entidades;
+      });
+
+      List<BeneficioResponseDTO> result = beneficioService.criarLote(new BeneficioLoteRequestDTO(List.of(requestDTO, outro)));
+
+      assertEquals(2, result.size());
+      assertEquals(102L, result.get(1).getId());
+      assertEquals("Vale Transporte", result.get(1).getNome());
+      verify(beneficioEjbServiceMock, times(1)).createAll(anyList());
+   }
+
    @Test
    void create_ShouldReturnNewDTO() {
       ArgumentCaptor<Beneficio> beneficioCaptor = ArgumentCaptor.forClass(Beneficio.class);
@@ -107,9 +288,7 @@ class BeneficioServiceImplTest {
    }
 
    @Test
-   void update_ShouldReturnUpdatedDTO_WhenIdExists() {
-      when(beneficioEjbServiceMock.findById(1L)).thenReturn(beneficio);
-
+   void update_ShouldReturnUpdatedDTO_WithoutReadingFirst_WhenNoIfMatch() {
       Beneficio beneficioAtualizado = new Beneficio();
       beneficioAtualizado.setId(1L);
       beneficioAtualizado.setNome(requestDTO.getNome());
@@ -119,7 +298,7 @@ class BeneficioServiceImplTest {
       ArgumentCaptor<Beneficio> beneficioCaptor = ArgumentCaptor.forClass(Beneficio.class);
       when(beneficioEjbServiceMock.update(beneficioCaptor.capture())).thenReturn(beneficioAtualizado);
 
-      BeneficioResponseDTO result = beneficioService.update(1L, requestDTO);
+      BeneficioResponseDTO result = beneficioService.update(1L, requestDTO, null);
 
       assertNotNull(result);
       assertEquals(1L, result.getId());
@@ -128,23 +307,64 @@ class BeneficioServiceImplTest {
       Beneficio capturado = beneficioCaptor.getValue();
       assertEquals(1L, capturado.getId());
       assertEquals("Vale Refeição Novo", capturado.getNome());
-      assertEquals(0L, capturado.getVersion());
+      // Sem If-Match a última escrita vence: nenhuma versão, possivelmente velha, vai como condição
+      assertNull(capturado.getVersion());
 
-      verify(beneficioEjbServiceMock).findById(1L);
+      verify(beneficioEjbServiceMock, never()).findById(anyLong());
       verify(beneficioEjbServiceMock).update(any(Beneficio.class));
    }
 
    @Test
    void update_ShouldThrowEntityNotFound_WhenIdDoesNotExist() {
-      when(beneficioEjbServiceMock.findById(99L)).thenReturn(null);
+      when(beneficioEjbServiceMock.update(any(Beneficio.class))).thenThrow(new VersaoDivergenteException(99L, null, null));
 
       EntityNotFoundException ex = assertThrows(EntityNotFoundException.class, () -> {
-         beneficioService.update(99L, requestDTO);
+         beneficioService.update(99L, requestDTO, null);
       });
 
       assertEquals("Benefício não encontrado com ID: 99", ex.getMessage());
-      verify(beneficioEjbServiceMock).findById(99L);
+      verify(beneficioEjbServiceMock, never()).findById(anyLong());
+   }
+
+   @Test
+   void update_ShouldThrowEntityNotFound_WhenIfMatchVersionTargetsMissingId() {
+      when(beneficioEjbServiceMock.update(any(Beneficio.class))).thenThrow(new VersaoDivergenteException(99L, 7L, null));
+
+      assertThrows(EntityNotFoundException.class, () -> beneficioService.update(99L, requestDTO, "\"7\""));
+   }
+
+   @Test
+   void update_ShouldSkipRead_WhenIfMatchCarriesVersion() {
+      when(beneficioEjbServiceMock.update(any(Beneficio.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+      BeneficioResponseDTO result = beneficioService.update(1L, requestDTO, "\"7\"");
+
+      assertEquals(7L, result.getVersion());
+      verify(beneficioEjbServiceMock, never()).findById(anyLong());
+   }
+
+   @Test
+   void update_ShouldRejectStaleEtag_OfPartitionedBeneficio() {
+      beneficio.setParticoes(2);
+      beneficio.setSaldoParticoes(new BigDecimal("30.00"));
+      when(leitorMock.findById(1L)).thenReturn(beneficio);
+
+      // Mesma versão da linha principal, mas as partições receberam créditos depois do GET
+      assertThrows(VersaoDivergenteException.class,
+               () -> beneficioService.update(1L, requestDTO, "\"0-500.00\""));
       verify(beneficioEjbServiceMock, never()).update(any());
+
+      when(beneficioEjbServiceMock.update(any(Beneficio.class))).thenAnswer(invocation -> invocation.getArgument(0));
+      assertEquals(0L, beneficioService.update(1L, requestDTO, "\"0-530.00\"").getVersion());
+      // O cache pode estar até um TTL atrás do banco: não serve de pré-condição
+      verify(beneficioEjbServiceMock, never()).findById(anyLong());
+   }
+
+   @Test
+   void etagColecao_ShouldWrapTableVersion() {
+      when(beneficioEjbServiceMock.tableVersion()).thenReturn("42");
+
+      assertEquals("\"t42\"", beneficioService.etagColecao());
    }
 
    @Test
@@ -175,11 +395,94 @@ class BeneficioServiceImplTest {
    void transferir_ShouldCallEjbTransfer() {
       TransferRequestDTO transferDTO = new TransferRequestDTO(1L, 2L, new BigDecimal("100.00"));
 
-      doNothing().when(beneficioEjbServiceMock).transfer(1L, 2L, new BigDecimal("100.00"));
+      doNothing().when(beneficioEjbServiceMock).transfer(1L, 2L, new BigDecimal("100.00"), null, null);
+
+      beneficioService.transferir(transferDTO);
+
+      verify(beneficioEjbServiceMock).transfer(1L, 2L, new BigDecimal("100.00"), null, null);
+   }
+
+   @Test
+   void configurarParticoes_ShouldReturnTotalBalance() {
+      Beneficio beneficio = new Beneficio();
+      beneficio.setId(1L);
+      beneficio.setValor(new BigDecimal("100.00"));
+      beneficio.setParticoes(8);
+      beneficio.setSaldoParticoes(new BigDecimal("20.00"));
+      when(beneficioEjbServiceMock.configureStriping(1L, 8)).thenReturn(beneficio);
+
+      BeneficioResponseDTO result = beneficioService.configurarParticoes(1L, 8);
+
+      assertEquals(8, result.getParticoes());
+      assertEquals(new BigDecimal("120.00"), result.getValor());
+   }
+
+   @Test
+   void configurarParticoes_ShouldRejectOutOfRange_AndThrowWhenNotFound() {
+      assertThrows(IllegalArgumentException.class, () -> beneficioService.configurarParticoes(1L, -1));
+      assertThrows(EntityNotFoundException.class, () -> beneficioService.configurarParticoes(99L, 4));
+      verify(beneficioEjbServiceMock, never()).configureStriping(1L, -1);
+   }
+
+   @Test
+   void transferir_ShouldPassRequestedConcurrencyMode() {
+      TransferRequestDTO transferDTO = new TransferRequestDTO(1L, 2L, new BigDecimal("100.00"));
+      transferDTO.setModo(ModoConcorrencia.OTIMISTA);
+
+      beneficioService.transferir(transferDTO);
+
+      verify(beneficioEjbServiceMock).transfer(1L, 2L, new BigDecimal("100.00"), ModoConcorrencia.OTIMISTA, null);
+   }
 
+   @Test
+   void transferir_ShouldForwardIdempotencyKey_AndSkipEjbOnLocalReplay() {
+      TransferRequestDTO transferDTO = new TransferRequestDTO(1L, 2L, new BigDecimal("100.00"));
+      transferDTO.setChaveIdempotencia("pedido-1");
+
+      beneficioService.transferir(transferDTO);
       beneficioService.transferir(transferDTO);
 
-      verify(beneficioEjbServiceMock).transfer(1L, 2L, new BigDecimal("100.00"));
+      verify(beneficioEjbServiceMock, times(1)).transfer(1L, 2L, new BigDecimal("100.00"), null, "pedido-1");
+   }
+
+   @Test
+   void transferir_ShouldRejectIdempotencyKeyReusedWithOtherParameters() {
+      TransferRequestDTO primeira = new TransferRequestDTO(1L, 2L, new BigDecimal("100.00"));
+      primeira.setChaveIdempotencia("pedido-1");
+      TransferRequestDTO outra = new TransferRequestDTO(1L, 2L, new BigDecimal("250.00"));
+      outra.setChaveIdempotencia("pedido-1");
+
+      beneficioService.transferir(primeira);
+
+      assertThrows(TransferenciaException.class, () -> beneficioService.transferir(outra));
+      verify(beneficioEjbServiceMock, never()).transfer(1L, 2L, new BigDecimal("250.00"), null, "pedido-1");
+   }
+
+   @Test
+   void estatisticas_ShouldMapDatabaseAggregates() {
+      when(beneficioEjbServiceMock.statistics(false)).thenReturn(new BeneficioEstatisticas(4, 3, 1,
+               new BigDecimal("1000.00"), new BigDecimal("100.00"), new BigDecimal("350.00"),
+               new BigDecimal("275.00"), new BigDecimal("350.00"), new BigDecimal("350.00"), false));
+
+      BeneficioEstatisticasDTO result = beneficioService.estatisticas(false);
+
+      assertEquals(4, result.getQuantidade());
+      assertEquals(1, result.getInativos());
+      assertEquals(new BigDecimal("1000.00"), result.getSoma());
+      assertEquals(new BigDecimal("275.00"), result.getPercentil50());
+      assertFalse(result.isResumo());
+   }
+
+   @Test
+   void estatisticasTransferencia_ShouldMapRetryRate() {
+      when(beneficioEjbServiceMock.transferStatistics()).thenReturn(List.of(
+               new TransferenciaEstatistica(ModoConcorrencia.OTIMISTA, 10, 5, 1)));
+
+      List<TransferEstatisticaDTO> result = beneficioService.estatisticasTransferencia();
+
+      assertEquals(ModoConcorrencia.OTIMISTA, result.get(0).getModo());
+      assertEquals(0.5, result.get(0).getTaxaRetentativa());
+      assertEquals(1, result.get(0).getDesistencias());
    }
 
    @Test
@@ -187,14 +490,14 @@ class BeneficioServiceImplTest {
       TransferRequestDTO transferDTO = new TransferRequestDTO(1L, 2L, new BigDecimal("100.00"));
       String errorMsg = "Saldo insuficiente";
 
-      doThrow(new TransferenciaException(errorMsg)).when(beneficioEjbServiceMock).transfer(1L, 2L, new BigDecimal("100.00"));
+      doThrow(new TransferenciaException(errorMsg)).when(beneficioEjbServiceMock).transfer(1L, 2L, new BigDecimal("100.00"), null, null);
 
       TransferenciaException ex = assertThrows(TransferenciaException.class, () -> {
          beneficioService.transferir(transferDTO);
       });
 
       assertEquals(errorMsg, ex.getMessage());
-      verify(beneficioEjbServiceMock).transfer(1L, 2L, new BigDecimal("100.00"));
+      verify(beneficioEjbServiceMock).transfer(1L, 2L, new BigDecimal("100.00"), null, null);
    }
 
    @Test
@@ -202,13 +505,66 @@ class BeneficioServiceImplTest {
       TransferRequestDTO transferDTO = new TransferRequestDTO(1L, 2L, new BigDecimal("100.00"));
       String errorMsg = "Erro genérico do EJB";
 
-      doThrow(new RuntimeException(errorMsg)).when(beneficioEjbServiceMock).transfer(1L, 2L, new BigDecimal("100.00"));
+      doThrow(new RuntimeException(errorMsg)).when(beneficioEjbServiceMock).transfer(1L, 2L, new BigDecimal("100.00"), null, null);
 
       TransferenciaException ex = assertThrows(TransferenciaException.class, () -> {
          beneficioService.transferir(transferDTO);
       });
 
       assertEquals(errorMsg, ex.getMessage());
-      verify(beneficioEjbServiceMock).transfer(1L, 2L, new BigDecimal("100.00"));
+      verify(beneficioEjbServiceMock).transfer(1L, 2L, new BigDecimal("100.00"), null, null);
+   }
+
+   @Test
+   void transferir_ShouldGoThroughGroupCommit_WhenEligible() {
+      TransferRequestDTO transferDTO = new TransferRequestDTO(1L, 2L, new BigDecimal("100.00"));
+      when(agrupadorMock.agrupavel(null, null)).thenReturn(true);
+
+      beneficioService.transferir(transferDTO);
+
+      verify(agrupadorMock).transferir(1L, 2L, new BigDecimal("100.00"), null);
+      verifyNoInteractions(beneficioEjbServiceMock);
+   }
+
+   @Test
+   void transferir_ShouldNotWrapOverload_SoItMapsTo503() {
+      TransferRequestDTO transferDTO = new TransferRequestDTO(1L, 2L, new BigDecimal("100.00"));
+      doThrow(new CapacidadeEsgotadaException("Capacidade de transferencia esgotada"))
+               .when(beneficioEjbServiceMock).transfer(1L, 2L, new BigDecimal("100.00"), null, null);
+
+      assertThrows(CapacidadeEsgotadaException.class, () -> beneficioService.transferir(transferDTO));
+   }
+
+   @Test
+   void transferirLote_ShouldMapLegsAndSummarizeResults() {
+      TransferLoteRequestDTO loteDTO = new TransferLoteRequestDTO(List.of(
+               new TransferRequestDTO(1L, 2L, new BigDecimal("10.00")),
+               new TransferRequestDTO(2L, 3L, new BigDecimal("20.00"))), false);
+
+      when(beneficioEjbServiceMock.transferBatch(itensCaptor.capture(), eq(false))).thenReturn(List.of(
+               TransferenciaResultado.ok(0),
+               TransferenciaResultado.falha(1, "Saldo insuficiente na conta de origem (ID: 2).")));
+
+      TransferLoteResponseDTO result = beneficioService.transferirLote(loteDTO);
+
+      assertEquals(2, result.getTotal());
+      assertEquals(1, result.getSucessos());
+      assertEquals(1, result.getFalhas());
+      assertEquals("Saldo insuficiente na conta de origem (ID: 2).", result.getResultados().get(1).getMensagem());
+      assertEquals(3L, itensCaptor.getValue().get(1).getToId());
+   }
+
+   @Test
+   void transferirLote_ShouldDefaultToAllOrNothing_AndWrapFailures() {
+      TransferLoteRequestDTO loteDTO = new TransferLoteRequestDTO(List.of(
+               new TransferRequestDTO(1L, 2L, new BigDecimal("10.00"))), null);
+      when(beneficioEjbServiceMock.transferBatch(anyList(), eq(true)))
+               .thenThrow(new RuntimeException("Transferência 0 do lote: Conta de destino não encontrada (ID: 2)."));
+
+      TransferenciaException ex = assertThrows(TransferenciaException.class, () -> {
+         beneficioService.transferirLote(loteDTO);
+      });
+
+      assertEquals("Transferência 0 do lote: Conta de destino não encontrada (ID: 2).", ex.getMessage());
    }
 }
@@ -0,0 +1,118 @@
+package br.com.bip.benchmarks;
+
+import br.com.bip.ejb.BeneficioEjbService;
+import br.com.bip.ejb.config.PerfilPersistencia;
+import br.com.bip.ejb.metrics.TransferenciaMetricas;
+import br.com.bip.ejb.migracao.MigracoesSchema;
+import br.com.bip.ejb.validation.TransferenciaValidator;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import org.eclipse.persistence.jpa.PersistenceProvider;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Sobe a unidade {@code bip-pu} do ejb-module sobre um H2 em memória, trocando JTA por
+ * RESOURCE_LOCAL (provedor EclipseLink, como no TomEE). Cada operação recebe um EntityManager novo em uma transação própria,
+ * como o container faria com CMT + REQUIRED.
+ */
+final class BancoEmbarcado {
+
+   private static final TransferenciaMetricas METRICAS = new TransferenciaMetricas();
+
+   private BancoEmbarcado() {
+   }
+
+   /** O schema vem das migrações do ejb-module, como na subida do container (sem o seed). */
+   static EntityManagerFactory criarEmf(String nomeBanco) {
+      return criarEmf(nomeBanco, Map.of("eclipselink.logging.level", "SEVERE"));
+   }
+
+   /**
+    * Unidade com os ajustes do perfil. O log do perfil DEV vai para um arquivo temporário, como
+    * iria para o log do servidor, em vez de inundar a saída do JMH.
+    */
+   static EntityManagerFactory criarEmf(String nomeBanco, PerfilPersistencia perfil) {
+      Map<String, String> propriedades = new HashMap<>(perfil.propriedades());
+      if (perfil == PerfilPersistencia.DEV) {
+         try {
+            Path log = Files.createTempFile("bip-eclipselink-", ".log");
+            log.toFile().deleteOnExit();
+            propriedades.put("eclipselink.logging.file", log.toString());
+         } catch (IOException e) {
+            throw new UncheckedIOException(e);
+         }
+      }
+      return criarEmf(nomeBanco, propriedades);
+   }
+
+   private static EntityManagerFactory criarEmf(String nomeBanco, Map<String, String> ajustes) {
+      String url = "jdbc:h2:mem:" + nomeBanco + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+      try (Connection conexao = DriverManager.getConnection(url, "sa", "")) {
+         MigracoesSchema.aplicar(conexao);
+      } catch (SQLException e) {
+         throw new IllegalStateException(e);
+      }
+      Map<String, String> propriedades = new HashMap<>(Map.of(
+               "jakarta.persistence.transactionType", "RESOURCE_LOCAL",
+               "jakarta.persistence.jtaDataSource", "",
+               "jakarta.persistence.jdbc.driver", "org.h2.Driver",
+               "jakarta.persistence.jdbc.url", url,
+               "jakarta.persistence.jdbc.user", "sa",
+               "jakarta.persistence.jdbc.password", "",
+               "eclipselink.weaving", "false"));
+      propriedades.putAll(ajustes);
+      return new PersistenceProvider().createEntityManagerFactory("bip-pu", propriedades);
+   }
+
+   static <T> T emTransacao(EntityManagerFactory emf, Function<EntityManager, T> trabalho) {
+      EntityManager em = emf.createEntityManager();
+      EntityTransaction tx = em.getTransaction();
+      try {
+         tx.begin();
+         T resultado = trabalho.apply(em);
+         tx.commit();
+         return resultado;
+      } catch (RuntimeException e) {
+         if (tx.isActive()) {
+            tx.rollback();
+         }
+         throw e;
+      } finally {
+         em.close();
+      }
+   }
+
+   static <T> T comServico(EntityManagerFactory emf, Function<BeneficioEjbService, T> operacao) {
+      return emTransacao(emf, em -> operacao.apply(novoServico(em)));
+   }
+
+   private static BeneficioEjbService novoServico(EntityManager em) {
+      BeneficioEjbService servico = new BeneficioEjbService();
+      injetar(servico, "em", em);
+      injetar(servico, "validator", new TransferenciaValidator());
+      injetar(servico, "metricas", METRICAS);
+      return servico;
+   }
+
+   private static void injetar(Object alvo, String campo, Object valor) {
+      try {
+         Field field = alvo.getClass().getDeclaredField(campo);
+         field.setAccessible(true);
+         field.set(alvo, valor);
+      } catch (ReflectiveOperationException e) {
+         throw new IllegalStateException("Falha ao injetar " + campo, e);
+      }
+   }
+}
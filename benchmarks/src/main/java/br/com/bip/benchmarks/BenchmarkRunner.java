@@ -0,0 +1,42 @@
+package br.com.bip.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Ponto de entrada do jar de benchmarks. Aceita as mesmas opções do JMH e, se nenhum arquivo
+ * de resultado for informado ({@code -rff}), grava JSON em {@code jmh-resultados/<rótulo>.json}.
+ * O rótulo vem de {@code -Dbench.rotulo} (ex: o hash do commit) ou do horário da execução,
+ * permitindo comparar execuções de commits diferentes.
+ */
+public final class BenchmarkRunner {
+
+   private BenchmarkRunner() {
+   }
+
+   public static void main(String[] args) throws Exception {
+      CommandLineOptions linhaDeComando = new CommandLineOptions(args);
+      ChainedOptionsBuilder opcoes = new OptionsBuilder().parent(linhaDeComando);
+
+      if (!linhaDeComando.getResult().hasValue()) {
+         String rotulo = System.getProperty("bench.rotulo",
+                  LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+         Path arquivo = Path.of("jmh-resultados", rotulo + ".json");
+         Files.createDirectories(arquivo.getParent());
+         opcoes.result(arquivo.toString());
+         if (!linhaDeComando.getResultFormat().hasValue()) {
+            opcoes.resultFormat(ResultFormatType.JSON);
+         }
+      }
+
+      new Runner(opcoes.build()).run();
+   }
+}
@@ -0,0 +1,73 @@
+package br.com.bip.benchmarks;
+
+import br.com.bip.backend.busca.IndiceBusca;
+import br.com.bip.ejb.entity.Beneficio;
+import br.com.bip.ejb.model.BeneficioProjecao;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busca por nome: {@link IndiceBusca} (prefixos sem acento, nome e descrição, com ranking) contra
+ * o filtro {@code LIKE} da listagem paginada, que varre a tabela no H2 embarcado a cada consulta.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BuscaBenchmark {
+
+   private static final String[] NOMES = {"Auxílio Educação", "Vale Refeição", "Vale Transporte", "Plano de Saúde",
+            "Auxílio Creche", "Seguro de Vida"};
+   private static final Set<String> CAMPOS_LISTAGEM = Set.of("id", "nome", "valor");
+
+   @Param({"5000", "50000"})
+   public int contas;
+
+   private EntityManagerFactory emf;
+   private IndiceBusca indice;
+
+   @Setup(Level.Trial)
+   public void criarBanco() {
+      emf = BancoEmbarcado.criarEmf("busca-" + contas);
+      BancoEmbarcado.emTransacao(emf, em -> {
+         for (int i = 0; i < contas; i++) {
+            Beneficio beneficio = new Beneficio();
+            beneficio.setNome(NOMES[i % NOMES.length] + " " + i);
+            beneficio.setDescricao("Concedido à unidade " + (i % 97));
+            beneficio.setValor(new BigDecimal(i * 10L).setScale(2));
+            beneficio.setAtivo(true);
+            em.persist(beneficio);
+         }
+         return null;
+      });
+      indice = BancoEmbarcado.comServico(emf, servico -> {
+         IndiceBusca construido = new IndiceBusca(servico, Duration.ofHours(1));
+         construido.reconstruir();
+         return construido;
+      });
+   }
+
+   @TearDown(Level.Trial)
+   public void fecharBanco() {
+      indice.encerrar();
+      emf.close();
+   }
+
+   @Benchmark
+   public IndiceBusca.Resultado indice() {
+      return indice.buscar("auxilio edu", 0, 50);
+   }
+
+   @Benchmark
+   public List<BeneficioProjecao> like() {
+      return BancoEmbarcado.comServico(emf, s -> s.findPageProjected(null, 50, null, "Educação", CAMPOS_LISTAGEM));
+   }
+}
@@ -0,0 +1,168 @@
+package br.com.bip.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Teste de carga em malha fechada contra o backend já em execução, para comparar a vazão máxima
+ * com threads de plataforma e com threads virtuais ({@code spring.threads.virtual.enabled}).
+ * Cada degrau mantém {@code N} clientes simultâneos durante {@code carga.duracao} segundos; a
+ * vazão máxima é a do maior degrau com p99 até {@code carga.p99-max-ms} e no máximo 1% de erros
+ * (503 do limitador conta como erro).
+ * <p>
+ * Uso: {@code java -cp benchmarks.jar br.com.bip.benchmarks.CargaHttp <url-base> listar|transferir}
+ * <ul>
+ *    <li>{@code -Dcarga.concorrencias=16,64,256,1024}: clientes simultâneos por degrau;</li>
+ *    <li>{@code -Dcarga.duracao=15}: segundos por degrau (os 2 primeiros são aquecimento);</li>
+ *    <li>{@code -Dcarga.p99-max-ms=500}: latência p99 aceitável;</li>
+ *    <li>{@code -Dcarga.contas=1,2}: IDs sorteados como origem/destino em {@code transferir}.</li>
+ * </ul>
+ */
+public final class CargaHttp {
+
+   private static final int AQUECIMENTO_SEGUNDOS = 2;
+   private static final int MAX_LATENCIA_MS = 10_000;
+
+   private CargaHttp() {
+   }
+
+   public static void main(String[] args) throws Exception {
+      if (args.length != 2 || !(args[1].equals("listar") || args[1].equals("transferir"))) {
+         System.err.println("Uso: CargaHttp <url-base, ex: http://localhost:8080/api/v1/beneficios> listar|transferir");
+         System.exit(2);
+      }
+      String base = args[0].endsWith("/") ? args[0].substring(0, args[0].length() - 1) : args[0];
+      boolean transferir = args[1].equals("transferir");
+      int[] concorrencias = inteiros(System.getProperty("carga.concorrencias", "16,64,256,1024"));
+      int duracao = Integer.getInteger("carga.duracao", 15);
+      long p99Max = Long.getLong("carga.p99-max-ms", 500L);
+      long[] contas = Arrays.stream(inteiros(System.getProperty("carga.contas", "1,2"))).asLongStream().toArray();
+      if (transferir && contas.length < 2) {
+         throw new IllegalArgumentException("carga.contas precisa de ao menos duas contas.");
+      }
+
+      HttpClient client = HttpClient.newBuilder()
+               .version(HttpClient.Version.HTTP_1_1)
+               .connectTimeout(Duration.ofSeconds(5))
+               .build();
+
+      System.out.printf("%-10s %10s %10s %10s %10s%n", "clientes", "req/s", "p50 ms", "p99 ms", "erros %");
+      double maxVazao = 0;
+      int maxClientes = 0;
+      for (int clientes : concorrencias) {
+         Degrau degrau = new Degrau(client, base, transferir, contas, clientes, duracao);
+         degrau.executar();
+         System.out.printf("%-10d %10.0f %10d %10d %10.2f%n", clientes, degrau.vazao(),
+                  degrau.percentil(0.50), degrau.percentil(0.99), degrau.taxaErro() * 100);
+         if (degrau.percentil(0.99) <= p99Max && degrau.taxaErro() <= 0.01 && degrau.vazao() > maxVazao) {
+            maxVazao = degrau.vazao();
+            maxClientes = clientes;
+         }
+      }
+      System.out.printf("Vazão máxima de %s: %.0f req/s com %d clientes (p99 <= %d ms, erros <= 1%%)%n",
+               args[1], maxVazao, maxClientes, p99Max);
+   }
+
+   private static int[] inteiros(String lista) {
+      return Arrays.stream(lista.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+   }
+
+   /** Um degrau de carga: {@code clientes} laços assíncronos de requisição → resposta → nova requisição. */
+   private static final class Degrau {
+      private final HttpClient client;
+      private final String base;
+      private final boolean transferir;
+      private final long[] contas;
+      private final int clientes;
+      private final long inicioMedicao;
+      private final long fim;
+      private final CountDownLatch encerrados;
+      private final AtomicLongArray histogramaMs = new AtomicLongArray(MAX_LATENCIA_MS + 1);
+      private final LongAdder total = new LongAdder();
+      private final LongAdder erros = new LongAdder();
+
+      private Degrau(HttpClient client, String base, boolean transferir, long[] contas, int clientes, int duracaoSegundos) {
+         this.client = client;
+         this.base = base;
+         this.transferir = transferir;
+         this.contas = contas;
+         this.clientes = clientes;
+         long agora = System.nanoTime();
+         this.inicioMedicao = agora + Duration.ofSeconds(AQUECIMENTO_SEGUNDOS).toNanos();
+         this.fim = agora + Duration.ofSeconds(duracaoSegundos).toNanos();
+         this.encerrados = new CountDownLatch(clientes);
+      }
+
+      void executar() throws InterruptedException {
+         for (int i = 0; i < clientes; i++) {
+            proxima();
+         }
+         encerrados.await();
+      }
+
+      private void proxima() {
+         long inicio = System.nanoTime();
+         if (inicio >= fim) {
+            encerrados.countDown();
+            return;
+         }
+         client.sendAsync(requisicao(), HttpResponse.BodyHandlers.discarding())
+                  .whenComplete((resposta, erro) -> {
+                     if (inicio >= inicioMedicao) {
+                        long ms = Math.min((System.nanoTime() - inicio) / 1_000_000, MAX_LATENCIA_MS);
+                        histogramaMs.incrementAndGet((int) ms);
+                        total.increment();
+                        if (erro != null || resposta.statusCode() >= 300) {
+                           erros.increment();
+                        }
+                     }
+                     proxima();
+                  });
+      }
+
+      private HttpRequest requisicao() {
+         if (!transferir) {
+            return HttpRequest.newBuilder(URI.create(base)).timeout(Duration.ofSeconds(30)).GET().build();
+         }
+         ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+         int origem = aleatorio.nextInt(contas.length);
+         int destino = (origem + 1 + aleatorio.nextInt(contas.length - 1)) % contas.length;
+         String corpo = "{\"idBeneficioOrigem\":" + contas[origem] + ",\"idBeneficioDestino\":" + contas[destino]
+                  + ",\"valor\":0.01}";
+         return HttpRequest.newBuilder(URI.create(base + "/transferir"))
+                  .timeout(Duration.ofSeconds(30))
+                  .header("Content-Type", "application/json")
+                  .POST(HttpRequest.BodyPublishers.ofString(corpo))
+                  .build();
+      }
+
+      double vazao() {
+         return total.sum() / ((fim - inicioMedicao) / 1e9);
+      }
+
+      double taxaErro() {
+         long n = total.sum();
+         return n == 0 ? 0 : (double) erros.sum() / n;
+      }
+
+      long percentil(double p) {
+         long alvo = (long) Math.ceil(total.sum() * p);
+         long acumulado = 0;
+         for (int ms = 0; ms <= MAX_LATENCIA_MS; ms++) {
+            acumulado += histogramaMs.get(ms);
+            if (acumulado >= alvo && acumulado > 0) {
+               return ms;
+            }
+         }
+         return MAX_LATENCIA_MS;
+      }
+   }
+}
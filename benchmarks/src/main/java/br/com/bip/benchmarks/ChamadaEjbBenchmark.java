@@ -0,0 +1,67 @@
+package br.com.bip.benchmarks;
+
+import br.com.bip.backend.jndi.ReferenciaEjbService;
+import br.com.bip.ejb.BeneficioEjbServiceLocal;
+import br.com.bip.ejb.entity.Beneficio;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jndi.JndiObjectFactoryBean;
+import org.springframework.jndi.JndiTemplate;
+
+import javax.naming.NamingException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo por chamada do caminho Spring → EJB com 8 threads, sobre um EJB em memória (o trabalho
+ * do EJB é desprezível, sobra só o encaminhamento): o proxy de {@link JndiObjectFactoryBean} com
+ * resolução tardia, usado antes, contra a {@link ReferenciaEjbService} e a chamada direta ao bean
+ * embarcado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class ChamadaEjbBenchmark {
+
+   private BeneficioEjbServiceLocal proxyJndi;
+   private BeneficioEjbServiceLocal referencia;
+   private BeneficioEjbServiceLocal direto;
+
+   @Setup
+   public void preparar() throws NamingException {
+      EjbEmMemoria ejb = new EjbEmMemoria(MapeamentoBenchmark.Amostras.entidades(1));
+      direto = ejb;
+      referencia = new ReferenciaEjbService(() -> ejb, new SimpleMeterRegistry());
+
+      JndiObjectFactoryBean fabrica = new JndiObjectFactoryBean();
+      fabrica.setJndiTemplate(new JndiTemplate() {
+         @Override
+         public Object lookup(String name) {
+            return ejb;
+         }
+      });
+      fabrica.setJndiName("java:global/beneficio");
+      fabrica.setProxyInterface(BeneficioEjbServiceLocal.class);
+      fabrica.setLookupOnStartup(false);
+      fabrica.afterPropertiesSet();
+      proxyJndi = (BeneficioEjbServiceLocal) fabrica.getObject();
+   }
+
+   @Benchmark
+   public Beneficio proxyJndi() {
+      return proxyJndi.findById(1L);
+   }
+
+   @Benchmark
+   public Beneficio referencia() {
+      return referencia.findById(1L);
+   }
+
+   @Benchmark
+   public Beneficio direto() {
+      return direto.findById(1L);
+   }
+}
@@ -0,0 +1,137 @@
+package br.com.bip.benchmarks;
+
+import br.com.bip.ejb.BeneficioEjbServiceLocal;
+import br.com.bip.ejb.entity.Beneficio;
+import br.com.bip.ejb.model.BeneficioEstatisticas;
+import br.com.bip.ejb.model.BeneficioProjecao;
+import br.com.bip.ejb.model.ConciliacaoFaixa;
+import br.com.bip.ejb.model.ConciliacaoTotais;
+import br.com.bip.ejb.model.ModoConcorrencia;
+import br.com.bip.ejb.model.TransferenciaEstatistica;
+import br.com.bip.ejb.model.TransferenciaItem;
+import br.com.bip.ejb.model.TransferenciaResultado;
+import br.com.bip.ejb.model.TransferenciaTelemetria;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * EJB de mentira com dados fixos em memória, para medir apenas o trabalho do lado Spring
+ * (mapeamento entidade↔DTO) sem custo de banco ou de proxy.
+ */
+class EjbEmMemoria implements BeneficioEjbServiceLocal {
+
+   private final List<Beneficio> beneficios;
+
+   EjbEmMemoria(List<Beneficio> beneficios) {
+      this.beneficios = beneficios;
+   }
+
+   @Override
+   public List<Beneficio> findAll() {
+      return beneficios;
+   }
+
+   @Override
+   public List<Beneficio> findPage(Long afterId, int limit, Boolean ativo, String nome) {
+      return beneficios.subList(0, Math.min(limit, beneficios.size()));
+   }
+
+   @Override
+   public List<BeneficioProjecao> findPageProjected(Long afterId, int limit, Boolean ativo, String nome,
+            Set<String> campos) {
+      return findPage(afterId, limit, ativo, nome).stream()
+               .map(b -> new BeneficioProjecao(b.getId(), b.getNome(), b.getDescricao(), b.getValor(), b.isAtivo(),
+                        b.getVersion(), b.getParticoes()))
+               .collect(Collectors.toList());
+   }
+
+   @Override
+   public Beneficio findById(Long id) {
+      return beneficios.get(0);
+   }
+
+   @Override
+   public Beneficio create(Beneficio beneficio) {
+      return beneficio;
+   }
+
+   @Override
+   public List<Beneficio> createAll(List<Beneficio> beneficios) {
+      return beneficios;
+   }
+
+   @Override
+   public Beneficio update(Beneficio beneficio) {
+      return beneficio;
+   }
+
+   @Override
+   public void deleteById(Long id) {
+   }
+
+   @Override
+   public void transfer(Long fromId, Long toId, BigDecimal amount) {
+   }
+
+   @Override
+   public void transfer(Long fromId, Long toId, BigDecimal amount, ModoConcorrencia modo) {
+   }
+
+   @Override
+   public void transfer(Long fromId, Long toId, BigDecimal amount, ModoConcorrencia modo, String chaveIdempotencia) {
+   }
+
+   @Override
+   public List<TransferenciaResultado> transferBatch(List<TransferenciaItem> itens, boolean tudoOuNada) {
+      throw new UnsupportedOperationException();
+   }
+
+   @Override
+   public int projectLedger(int limite) {
+      return 0;
+   }
+
+   @Override
+   public Beneficio configureStriping(Long id, int particoes) {
+      throw new UnsupportedOperationException();
+   }
+
+   @Override
+   public int purgeIdempotencyKeys() {
+      return 0;
+   }
+
+   @Override
+   public String tableVersion() {
+      throw new UnsupportedOperationException();
+   }
+
+   @Override
+   public BeneficioEstatisticas statistics(boolean resumo) {
+      throw new UnsupportedOperationException();
+   }
+
+   @Override
+   public List<TransferenciaEstatistica> transferStatistics() {
+      return List.of();
+   }
+
+   @Override
+   public TransferenciaTelemetria transferTelemetry() {
+      return new TransferenciaTelemetria(Map.of(), 0, 0, 0);
+   }
+
+   @Override
+   public ConciliacaoFaixa reconcileRange(long fromId, long toId) {
+      throw new UnsupportedOperationException();
+   }
+
+   @Override
+   public ConciliacaoTotais reconciliationTotals(boolean apurar) {
+      throw new UnsupportedOperationException();
+   }
+}
@@ -0,0 +1,77 @@
+package br.com.bip.benchmarks;
+
+import br.com.bip.backend.cbor.FormatoCbor;
+import br.com.bip.backend.dto.BeneficioResponseDTO;
+import br.com.bip.backend.dto.TransferLoteRequestDTO;
+import br.com.bip.backend.dto.TransferRequestDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON contra CBOR (valores em centavos) com os mesmos ObjectMappers da API: lista de
+ * {@link BeneficioResponseDTO} (GET /beneficios) e lote de transferências
+ * (POST /transferir/lote), nos dois sentidos. O tamanho de cada payload é impresso no início
+ * de cada combinação de parâmetros.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatoBinarioBenchmark {
+
+   @Param({"10", "100", "1000"})
+   public int tamanho;
+
+   private ObjectMapper json;
+   private ObjectMapper cbor;
+   private List<BeneficioResponseDTO> dtos;
+   private TransferLoteRequestDTO lote;
+   private byte[] loteJson;
+   private byte[] loteCbor;
+
+   @Setup
+   public void preparar() throws IOException {
+      json = Jackson2ObjectMapperBuilder.json().build();
+      cbor = FormatoCbor.criarObjectMapper(Jackson2ObjectMapperBuilder.json());
+      dtos = MapeamentoBenchmark.Amostras.dtos(tamanho);
+      List<TransferRequestDTO> transferencias = new ArrayList<>(tamanho);
+      for (int i = 0; i < tamanho; i++) {
+         transferencias.add(new TransferRequestDTO((long) i + 1, (long) i + 2, BigDecimal.valueOf(100 + i, 2)));
+      }
+      lote = new TransferLoteRequestDTO(transferencias, true);
+      loteJson = json.writeValueAsBytes(lote);
+      loteCbor = cbor.writeValueAsBytes(lote);
+      System.out.printf("%n[tamanho=%d] lista: JSON %d bytes, CBOR %d bytes; lote: JSON %d bytes, CBOR %d bytes%n",
+               tamanho, json.writeValueAsBytes(dtos).length, cbor.writeValueAsBytes(dtos).length,
+               loteJson.length, loteCbor.length);
+   }
+
+   @Benchmark
+   public byte[] listaJson() throws IOException {
+      return json.writeValueAsBytes(dtos);
+   }
+
+   @Benchmark
+   public byte[] listaCbor() throws IOException {
+      return cbor.writeValueAsBytes(dtos);
+   }
+
+   @Benchmark
+   public TransferLoteRequestDTO loteJson() throws IOException {
+      return json.readValue(loteJson, TransferLoteRequestDTO.class);
+   }
+
+   @Benchmark
+   public TransferLoteRequestDTO loteCbor() throws IOException {
+      return cbor.readValue(loteCbor, TransferLoteRequestDTO.class);
+   }
+}
@@ -0,0 +1,55 @@
+package br.com.bip.benchmarks;
+
+import br.com.bip.backend.dto.BeneficioResponseDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização JSON de listas de {@link BeneficioResponseDTO} com o mesmo ObjectMapper padrão
+ * do Spring: array único (GET /beneficios) e NDJSON linha a linha (GET /beneficios/stream).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+   @Param({"10", "100", "1000"})
+   public int tamanho;
+
+   private ObjectMapper objectMapper;
+   private ObjectWriter writerItem;
+   private List<BeneficioResponseDTO> dtos;
+
+   @Setup
+   public void preparar() {
+      objectMapper = Jackson2ObjectMapperBuilder.json().build();
+      writerItem = objectMapper.writerFor(BeneficioResponseDTO.class);
+      dtos = MapeamentoBenchmark.Amostras.dtos(tamanho);
+   }
+
+   @Benchmark
+   public byte[] listaComoArray() throws JsonProcessingException {
+      return objectMapper.writeValueAsBytes(dtos);
+   }
+
+   @Benchmark
+   public byte[] listaComoNdjson() throws IOException {
+      ByteArrayOutputStream saida = new ByteArrayOutputStream(tamanho * 128);
+      for (BeneficioResponseDTO dto : dtos) {
+         saida.write(writerItem.writeValueAsBytes(dto));
+         saida.write('\n');
+      }
+      return saida.toByteArray();
+   }
+}
@@ -0,0 +1,97 @@
+package br.com.bip.benchmarks;
+
+import br.com.bip.backend.agrupamento.AgrupadorTransferencias;
+import br.com.bip.backend.busca.IndiceBusca;
+import br.com.bip.backend.dto.BeneficioPageDTO;
+import br.com.bip.backend.dto.BeneficioRequestDTO;
+import br.com.bip.backend.dto.BeneficioResponseDTO;
+import br.com.bip.backend.idempotencia.DeduplicadorTransferencias;
+import br.com.bip.backend.service.BeneficioServiceImpl;
+import br.com.bip.ejb.entity.Beneficio;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo do mapeamento entidade↔DTO do {@link BeneficioServiceImpl}, isolado do banco:
+ * uma página de {@code tamanho} entidades para DTOs e um DTO de requisição ida e volta.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapeamentoBenchmark {
+
+   @Param({"50", "500"})
+   public int tamanho;
+
+   private BeneficioServiceImpl servico;
+   private BeneficioRequestDTO requisicao;
+
+   @Setup
+   public void preparar() {
+      EjbEmMemoria ejb = new EjbEmMemoria(Amostras.entidades(tamanho + 1));
+      servico = new BeneficioServiceImpl(ejb, ejb, new DeduplicadorTransferencias(1, Duration.ofMinutes(1)),
+               new AgrupadorTransferencias(ejb, false, Duration.ZERO, 1, 1, new SimpleMeterRegistry()),
+               new IndiceBusca(ejb, Duration.ofMinutes(10)));
+
+      requisicao = new BeneficioRequestDTO();
+      requisicao.setNome("Vale Alimentação");
+      requisicao.setDescricao("Benefício mensal");
+      requisicao.setValor(new BigDecimal("650.00"));
+      requisicao.setAtivo(true);
+   }
+
+   @Benchmark
+   public BeneficioPageDTO paginaParaDto() {
+      return servico.findPage(null, tamanho, null, null, null);
+   }
+
+   @Benchmark
+   public BeneficioResponseDTO requisicaoParaEntidadeEResposta() {
+      return servico.create(requisicao);
+   }
+
+   /** Dados sintéticos compartilhados pelos benchmarks do lado Spring. */
+   static final class Amostras {
+
+      private Amostras() {
+      }
+
+      static List<Beneficio> entidades(int quantidade) {
+         List<Beneficio> lista = new ArrayList<>(quantidade);
+         for (int i = 1; i <= quantidade; i++) {
+            Beneficio beneficio = new Beneficio();
+            beneficio.setId((long) i);
+            beneficio.setNome("Benefício " + i);
+            beneficio.setDescricao("Descrição do benefício número " + i);
+            beneficio.setValor(new BigDecimal(i * 10L).setScale(2));
+            beneficio.setAtivo(i % 5 != 0);
+            beneficio.setVersion(0L);
+            lista.add(beneficio);
+         }
+         return lista;
+      }
+
+      static List<BeneficioResponseDTO> dtos(int quantidade) {
+         List<BeneficioResponseDTO> lista = new ArrayList<>(quantidade);
+         for (Beneficio beneficio : entidades(quantidade)) {
+            BeneficioResponseDTO dto = new BeneficioResponseDTO();
+            dto.setId(beneficio.getId());
+            dto.setNome(beneficio.getNome());
+            dto.setDescricao(beneficio.getDescricao());
+            dto.setValor(beneficio.getValor());
+            dto.setAtivo(beneficio.isAtivo());
+            lista.add(dto);
+         }
+         return lista;
+      }
+   }
+}
@@ -0,0 +1,71 @@
+package br.com.bip.benchmarks;
+
+import br.com.bip.ejb.config.PerfilPersistencia;
+import br.com.bip.ejb.entity.Beneficio;
+import br.com.bip.ejb.model.ModoConcorrencia;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de uma {@code transfer} (pessimista, contas aleatórias, sem contenção relevante) com os
+ * ajustes de cada {@link PerfilPersistencia}: DEV formata e grava o SQL e os parâmetros de cada
+ * comando; PROD não loga e reaproveita os PreparedStatements. A diferença entre os dois é o
+ * overhead que o perfil de produção tira de cada transferência.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PerfilPersistenciaBenchmark {
+
+   private static final BigDecimal VALOR = new BigDecimal("0.01");
+
+   @Param({"DEV", "PROD"})
+   public PerfilPersistencia perfil;
+
+   @Param("1000")
+   public int contas;
+
+   private EntityManagerFactory emf;
+   private Long[] ids;
+
+   @Setup(Level.Trial)
+   public void criarBanco() {
+      emf = BancoEmbarcado.criarEmf("perfil-" + perfil, perfil);
+      ids = BancoEmbarcado.emTransacao(emf, em -> {
+         Long[] criados = new Long[contas];
+         for (int i = 0; i < contas; i++) {
+            Beneficio beneficio = new Beneficio();
+            beneficio.setNome("Benchmark " + i);
+            beneficio.setValor(new BigDecimal("1000000000.00"));
+            em.persist(beneficio);
+            em.flush();
+            criados[i] = beneficio.getId();
+         }
+         return criados;
+      });
+   }
+
+   @TearDown(Level.Trial)
+   public void fecharBanco() {
+      emf.close();
+   }
+
+   @Benchmark
+   public void transferir() {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      int origem = random.nextInt(ids.length);
+      Long from = ids[origem];
+      Long to = ids[(origem + 1 + random.nextInt(ids.length - 1)) % ids.length];
+      BancoEmbarcado.comServico(emf, servico -> {
+         servico.transfer(from, to, VALOR, ModoConcorrencia.PESSIMISTA);
+         return null;
+      });
+   }
+}
@@ -0,0 +1,72 @@
+package br.com.bip.benchmarks;
+
+import br.com.bip.ejb.entity.Beneficio;
+import br.com.bip.ejb.model.BeneficioProjecao;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leitura de uma página de listagem sobre H2 embarcado: entidades gerenciadas
+ * ({@code findPage}) contra projeções somente leitura ({@code findPageProjected}), com todas
+ * as colunas ou só {@code id,nome,valor}. Rode com {@code -prof gc} para comparar a taxa de
+ * alocação por operação ({@code gc.alloc.rate.norm}) além da latência.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjecaoBenchmark {
+
+   private static final Set<String> CAMPOS_LISTAGEM = Set.of("id", "nome", "valor");
+
+   @Param({"50", "500"})
+   public int tamanho;
+
+   @Param("5000")
+   public int contas;
+
+   private EntityManagerFactory emf;
+
+   @Setup(Level.Trial)
+   public void criarBanco() {
+      emf = BancoEmbarcado.criarEmf("projecao-" + tamanho);
+      BancoEmbarcado.emTransacao(emf, em -> {
+         for (int i = 0; i < contas; i++) {
+            Beneficio beneficio = new Beneficio();
+            beneficio.setNome("Benefício " + i);
+            beneficio.setDescricao("Descrição do benefício número " + i);
+            beneficio.setValor(new BigDecimal(i * 10L).setScale(2));
+            beneficio.setAtivo(i % 5 != 0);
+            em.persist(beneficio);
+         }
+         return null;
+      });
+   }
+
+   @TearDown(Level.Trial)
+   public void fecharBanco() {
+      emf.close();
+   }
+
+   @Benchmark
+   public List<Beneficio> entidades() {
+      return BancoEmbarcado.comServico(emf, s -> s.findPage(null, tamanho, null, null));
+   }
+
+   @Benchmark
+   public List<BeneficioProjecao> projecao() {
+      return BancoEmbarcado.comServico(emf, s -> s.findPageProjected(null, tamanho, null, null, null));
+   }
+
+   @Benchmark
+   public List<BeneficioProjecao> projecaoCamposListagem() {
+      return BancoEmbarcado.comServico(emf, s -> s.findPageProjected(null, tamanho, null, null, CAMPOS_LISTAGEM));
+   }
+}
@@ -0,0 +1,111 @@
+package br.com.bip.benchmarks;
+
+import br.com.bip.ejb.entity.Beneficio;
+import br.com.bip.ejb.exception.TransferenciaException;
+import br.com.bip.ejb.model.ModoConcorrencia;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vazão de {@code BeneficioEjbService.transfer} sobre H2 embarcado, por estratégia de concorrência
+ * e padrão de contenção:
+ * <ul>
+ *    <li>UNIFORME: origem e destino aleatórios entre todas as contas;</li>
+ *    <li>CONTA_QUENTE: todas as threads creditam a mesma conta;</li>
+ *    <li>PARES_OPOSTOS: A→B e B→A sobre o mesmo par (pior caso de deadlock).</li>
+ * </ul>
+ * Transferências recusadas (ex: conflito otimista) aparecem no contador auxiliar {@code recusadas}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class TransferenciaBenchmark {
+
+   public enum Cenario { UNIFORME, CONTA_QUENTE, PARES_OPOSTOS }
+
+   private static final BigDecimal VALOR = new BigDecimal("0.01");
+
+   @Param({"UNIFORME", "CONTA_QUENTE", "PARES_OPOSTOS"})
+   public Cenario cenario;
+
+   @Param({"PESSIMISTA", "OTIMISTA", "ASSINCRONO"})
+   public ModoConcorrencia modo;
+
+   @Param("64")
+   public int contas;
+
+   private EntityManagerFactory emf;
+   private Long[] ids;
+
+   @State(Scope.Thread)
+   @AuxCounters(AuxCounters.Type.EVENTS)
+   public static class Contadores {
+      public long recusadas;
+
+      @Setup(Level.Iteration)
+      public void zerar() {
+         recusadas = 0;
+      }
+   }
+
+   @Setup(Level.Trial)
+   public void criarBanco() {
+      emf = BancoEmbarcado.criarEmf("transferencia-" + cenario + "-" + modo);
+      ids = BancoEmbarcado.emTransacao(emf, em -> {
+         Long[] criados = new Long[contas];
+         for (int i = 0; i < contas; i++) {
+            Beneficio beneficio = new Beneficio();
+            beneficio.setNome("Benchmark " + i);
+            beneficio.setValor(new BigDecimal("1000000000.00"));
+            em.persist(beneficio);
+            em.flush();
+            criados[i] = beneficio.getId();
+         }
+         return criados;
+      });
+   }
+
+   @TearDown(Level.Trial)
+   public void fecharBanco() {
+      emf.close();
+   }
+
+   @Benchmark
+   public void transferir(Contadores contadores) {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      Long from;
+      Long to;
+      switch (cenario) {
+         case CONTA_QUENTE:
+            from = ids[1 + random.nextInt(ids.length - 1)];
+            to = ids[0];
+            break;
+         case PARES_OPOSTOS:
+            boolean ida = random.nextBoolean();
+            from = ids[ida ? 0 : 1];
+            to = ids[ida ? 1 : 0];
+            break;
+         default:
+            int origem = random.nextInt(ids.length);
+            from = ids[origem];
+            to = ids[(origem + 1 + random.nextInt(ids.length - 1)) % ids.length];
+      }
+
+      try {
+         BancoEmbarcado.comServico(emf, servico -> {
+            servico.transfer(from, to, VALOR, modo);
+            return null;
+         });
+      } catch (TransferenciaException e) {
+         contadores.recusadas++;
+      }
+   }
+}
@@ -0,0 +1,6 @@
+-- Listagem filtrada por ATIVO: o keyset (ORDER BY ATIVO, ID) lê a faixa já ordenada e para no limite da página
+CREATE INDEX IDX_BENEFICIO_ATIVO_ID ON BENEFICIO (ATIVO, ID);
+
+-- Livro-razão em blocos de 50, como BENEFICIO: o lote de transferências deixa de ir à sequência a cada lançamento.
+-- O próximo valor é o fim do primeiro bloco, acima dos IDs já gravados.
+ALTER SEQUENCE TRANSFERENCIA_ID_SEQ RESTART WITH (SELECT COALESCE(MAX(ID), 0) + 50 FROM TRANSFERENCIA) INCREMENT BY 50;
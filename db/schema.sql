@@ -1,8 +0,0 @@
-CREATE TABLE BENEFICIO (
-  ID BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
-  NOME VARCHAR(100) NOT NULL,
-  DESCRICAO VARCHAR(255),
-  VALOR DECIMAL(15,2) NOT NULL,
-  ATIVO BOOLEAN DEFAULT TRUE,
-  VERSION BIGINT DEFAULT 0
-);
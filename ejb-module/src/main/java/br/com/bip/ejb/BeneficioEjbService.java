@@ -1,7 +1,26 @@
 package br.com.bip.ejb;
 
+import br.com.bip.ejb.config.BipConfig;
 import br.com.bip.ejb.entity.Beneficio;
+import br.com.bip.ejb.entity.BeneficioParticao;
+import br.com.bip.ejb.entity.BeneficioResumo;
+import br.com.bip.ejb.entity.ChaveIdempotencia;
+import br.com.bip.ejb.entity.ProjecaoCheckpoint;
+import br.com.bip.ejb.entity.Transferencia;
+import br.com.bip.ejb.estatisticas.ResumoBeneficios;
 import br.com.bip.ejb.exception.TransferenciaException;
+import br.com.bip.ejb.exception.VersaoDivergenteException;
+import br.com.bip.ejb.metrics.TransferenciaMetricas;
+import br.com.bip.ejb.model.BeneficioEstatisticas;
+import br.com.bip.ejb.model.BeneficioProjecao;
+import br.com.bip.ejb.model.ConciliacaoFaixa;
+import br.com.bip.ejb.model.ConciliacaoTotais;
+import br.com.bip.ejb.model.ModoConcorrencia;
+import br.com.bip.ejb.model.MotivoRecusa;
+import br.com.bip.ejb.model.TransferenciaEstatistica;
+import br.com.bip.ejb.model.TransferenciaItem;
+import br.com.bip.ejb.model.TransferenciaResultado;
+import br.com.bip.ejb.model.TransferenciaTelemetria;
 import br.com.bip.ejb.validation.TransferenciaValidator;
 import jakarta.ejb.EJB;
 import jakarta.ejb.Stateless;
@@ -9,76 +28,938 @@ import jakarta.ejb.TransactionAttribute;
 import jakarta.ejb.TransactionAttributeType;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.LockTimeoutException;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
 
 @Stateless
 public class BeneficioEjbService implements BeneficioEjbServiceLocal{
 
+    private static final String LOCK_QUERY = "SELECT b FROM Beneficio b WHERE b.id IN :ids ORDER BY b.id";
+
+    private static final String LOCK_TIMEOUT_HINT = "jakarta.persistence.lock.timeout";
+
+    private static final String DEBITO_CONDICIONAL = "UPDATE Beneficio b SET b.valor = b.valor - :valor,"
+             + " b.version = b.version + 1 WHERE b.id = :id AND b.version = :version AND b.valor >= :valor";
+
+    private static final String DEBITO_COM_SALDO = "UPDATE Beneficio b SET b.valor = b.valor - :valor,"
+             + " b.version = b.version + 1 WHERE b.id = :id AND b.valor >= :valor";
+
+    /** Reserva de uma chave expirada: só afeta a linha se ela ainda estiver expirada. */
+    private static final String REUSO_CHAVE = "UPDATE ChaveIdempotencia c SET c.origemId = :origem,"
+             + " c.destinoId = :destino, c.valor = :valor, c.criadaEm = :agora, c.expiraEm = :expiraEm,"
+             + " c.version = c.version + 1 WHERE c.chave = :chave AND c.expiraEm <= :agora";
+
+    /** Ordem (APLICADA, ID) igual à do índice IDX_TRANSFERENCIA_PENDENTE: o lote é lido na ordem, sem ordenar os pendentes. */
+    static final String PENDENTES_QUERY = "SELECT t FROM Transferencia t WHERE t.aplicada = false ORDER BY t.aplicada, t.id";
+
+    private static final String CREDITO = "UPDATE Beneficio b SET b.valor = b.valor + :valor,"
+             + " b.version = b.version + 1 WHERE b.id = :id";
+
+    private static final String CREDITO_PARTICAO = "UPDATE BeneficioParticao p SET p.valor = p.valor + :valor,"
+             + " p.version = p.version + 1 WHERE p.beneficioId = :id AND p.particao = :particao";
+
+    private static final String LOCK_PARTICOES_QUERY = "SELECT p FROM BeneficioParticao p"
+             + " WHERE p.beneficioId IN :ids ORDER BY p.beneficioId, p.particao";
+
+    private static final String SOMA_PARTICOES_QUERY = "SELECT p.beneficioId, SUM(p.valor) FROM BeneficioParticao p"
+             + " WHERE p.beneficioId IN :ids GROUP BY p.beneficioId";
+
+    /**
+     * Agregados sobre o saldo total de cada conta (linha principal + partições + créditos pendentes
+     * do livro-razão), em uma passada. A soma é a mesma {@link ResumoBeneficios#SOMA_SALDOS} do
+     * resumo incremental, que também conta créditos pendentes para contas já excluídas.
+     */
+    private static final String ESTATISTICAS_QUERY = "SELECT COUNT(*),"
+             + " SUM(CASE WHEN S.ATIVO = TRUE THEN 1 ELSE 0 END),"
+             + " " + ResumoBeneficios.SOMA_SALDOS + ", MIN(S.SALDO), MAX(S.SALDO),"
+             + " PERCENTILE_CONT(0.5) WITHIN GROUP (ORDER BY S.SALDO),"
+             + " PERCENTILE_CONT(0.9) WITHIN GROUP (ORDER BY S.SALDO),"
+             + " PERCENTILE_CONT(0.99) WITHIN GROUP (ORDER BY S.SALDO)"
+             + " FROM (SELECT B.ATIVO, B.VALOR + COALESCE(P.SOMA, 0) + COALESCE(T.SOMA, 0) AS SALDO FROM BENEFICIO B"
+             + " LEFT JOIN (SELECT BENEFICIO_ID, SUM(VALOR) AS SOMA FROM BENEFICIO_PARTICAO GROUP BY BENEFICIO_ID) P"
+             + " ON P.BENEFICIO_ID = B.ID"
+             + " LEFT JOIN (SELECT DESTINO_ID, SUM(VALOR) AS SOMA FROM TRANSFERENCIA WHERE APLICADA = FALSE"
+             + " GROUP BY DESTINO_ID) T ON T.DESTINO_ID = B.ID) S";
+
+    /**
+     * Só leituras de PK: quantidade e maior ID de BENEFICIO, último lançamento do livro-razão e
+     * checkpoint da projeção. Não vê UPDATEs que não criam lançamento (PUT, particionamento).
+     */
+    private static final String VERSAO_TABELA_QUERY = "SELECT (SELECT COUNT(*) FROM BENEFICIO),"
+             + " (SELECT COALESCE(MAX(ID), 0) FROM BENEFICIO), (SELECT COALESCE(MAX(ID), 0) FROM TRANSFERENCIA),"
+             + " (SELECT COALESCE(MAX(ULTIMO_ID), 0) FROM TRANSFERENCIA_CHECKPOINT)";
+
+    /** Gravação sem leitura prévia; a variante condicional é a checagem do If-Match. */
+    private static final String ATUALIZACAO = "UPDATE Beneficio b SET b.nome = :nome, b.descricao = :descricao,"
+             + " b.valor = :valor, b.ativo = :ativo, b.version = b.version + 1 WHERE b.id = :id";
+
+    private static final String ATUALIZACAO_CONDICIONAL = ATUALIZACAO + " AND b.version = :version";
+
+    /** Devolve a quantidade de partições da conta (uma linha por partição). */
+    private static final String ZERA_PARTICOES = "UPDATE BeneficioParticao p SET p.valor = 0,"
+             + " p.version = p.version + 1 WHERE p.beneficioId = :id";
+
+    private static final String VERSAO_CONTA_QUERY = "SELECT b.version FROM Beneficio b WHERE b.id = :id";
+
+    private static final String AJUSTE_RESUMO = "UPDATE BeneficioResumo r SET r.quantidade = r.quantidade + :quantidade,"
+             + " r.ativos = r.ativos + :ativos, r.soma = r.soma + :soma, r.atualizadoEm = :agora WHERE r.id = :id";
+
+    /** Uma linha por conta da faixa, com as partições agregadas; só leitura, sem lock. */
+    private static final String FAIXA_CONTAS_QUERY = "SELECT B.ID, COALESCE(B.VERSION, 0), B.VALOR, B.PARTICOES,"
+             + " COUNT(P.PARTICAO), COALESCE(SUM(P.VALOR), 0), COALESCE(SUM(P.VERSION), 0)"
+             + " FROM BENEFICIO B LEFT JOIN BENEFICIO_PARTICAO P ON P.BENEFICIO_ID = B.ID"
+             + " WHERE B.ID BETWEEN ?1 AND ?2 GROUP BY B.ID, B.VERSION, B.VALOR, B.PARTICOES";
+
+    /** Créditos pendentes pelo destino, exista ou não a conta (a exclusão não os remove). */
+    private static final String FAIXA_PENDENTES_QUERY = "SELECT COALESCE(SUM(VALOR), 0) FROM TRANSFERENCIA"
+             + " WHERE APLICADA = FALSE AND DESTINO_ID BETWEEN ?1 AND ?2";
+
+    private static final String CONTROLE_QUERY = "SELECT R.SOMA, (SELECT MIN(ID) FROM BENEFICIO), (SELECT MAX(ID) FROM BENEFICIO),"
+             + " (SELECT MIN(DESTINO_ID) FROM TRANSFERENCIA WHERE APLICADA = FALSE),"
+             + " (SELECT MAX(DESTINO_ID) FROM TRANSFERENCIA WHERE APLICADA = FALSE)";
+
+    /** Contas inconsistentes reportadas por faixa; o restante só entra na contagem da faixa. */
+    private static final int MAX_INCONSISTENTES_FAIXA = 100;
+
+    private static final String PROJECAO_QUERY = "SELECT NEW br.com.bip.ejb.model.BeneficioProjecao("
+             + "b.id, b.nome, b.descricao, b.valor, b.ativo, b.version, b.particoes) FROM Beneficio b";
+
+    /** Resultado somente leitura: o EclipseLink não registra nem rastreia o que foi lido. */
+    private static final String READ_ONLY_HINT = "eclipselink.read-only";
+
+    /** Máximo de IDs por cláusula IN (alguns bancos limitam a 1000). */
+    private static final int LOCK_CHUNK_SIZE = 1000;
+
     @PersistenceContext(unitName = "bip-pu")
     private EntityManager em;
 
     @EJB
     private TransferenciaValidator validator;
 
+    @EJB
+    private TransferenciaMetricas metricas;
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.REQUIRED)
+    public void transfer(Long fromId, Long toId, BigDecimal amount) {
+        transfer(fromId, toId, amount, null);
+    }
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.REQUIRED)
+    public void transfer(Long fromId, Long toId, BigDecimal amount, ModoConcorrencia modo) {
+        transfer(fromId, toId, amount, modo, null);
+    }
+
     /**
      * Corrigido bug de transferência aplicando:
      * 1. Validações de Negócio (valor positivo, saldo suficiente, contas diferentes).
-     * 2. Locking Pessimista (PESSIMISTIC_WRITE) para garantir consistência
+     * 2. Controle de concorrência pessimista (padrão), otimista ou assíncrono, conforme {@link ModoConcorrencia}.
      * 3. Tratamento de exceção customizada para garantir o rollback.
+     * 4. Deduplicação opcional por chave de idempotência, antes de qualquer lock.
      */
+    @Override
     @TransactionAttribute(TransactionAttributeType.REQUIRED)
-    public void transfer(Long fromId, Long toId, BigDecimal amount) {
+    public void transfer(Long fromId, Long toId, BigDecimal amount, ModoConcorrencia modo, String chaveIdempotencia) {
+        ModoConcorrencia modoEfetivo = modo != null ? modo : BipConfig.modoConcorrencia();
 
         try {
-            // --- 1. Aquisição com Lock Pessimista ---
-            Beneficio from = em.find(Beneficio.class, fromId, LockModeType.PESSIMISTIC_WRITE);
-            Beneficio to = em.find(Beneficio.class, toId, LockModeType.PESSIMISTIC_WRITE);
+            if (chaveIdempotencia != null && !reservarChave(chaveIdempotencia, fromId, toId, amount)) {
+                return; // repetição de uma transferência já confirmada
+            }
+            if (modoEfetivo == ModoConcorrencia.ASSINCRONO) {
+                transferAsync(fromId, toId, amount);
+            } else {
+                if (modoEfetivo == ModoConcorrencia.OTIMISTA) {
+                    transferOptimistic(fromId, toId, amount);
+                } else {
+                    transferPessimistic(fromId, toId, amount);
+                }
+                // Histórico: o lançamento nasce aplicado, pois os saldos já foram alterados
+                em.persist(new Transferencia(fromId, toId, amount, modoEfetivo, true));
+            }
+            metricas.registrarExecucao(modoEfetivo);
+
+        } catch (Exception e) {
+            if (e instanceof TransferenciaException) {
+                registrarRecusa((TransferenciaException) e);
+                throw e;
+            }
+            // Encapsula outras exceções de persistência
+            throw new TransferenciaException("Erro inesperado durante a transferência: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Consulta a chave sem lock: se já existe e está válida, é uma repetição ({@code false}).
+     * Caso contrário grava a reserva antes de qualquer lock de conta. Uma chave nova é inserida
+     * com flush imediato, e uma requisição concorrente com a mesma chave fica presa no índice
+     * único. Uma chave expirada é reservada por um UPDATE condicional à expiração: a requisição
+     * concorrente espera o lock da linha, já não a encontra expirada e não afeta nenhuma linha.
+     * Nos dois casos a perdedora falha sem executar a transferência. A reserva é confirmada ou
+     * revertida junto com a transferência.
+     */
+    private boolean reservarChave(String chave, Long fromId, Long toId, BigDecimal amount) {
+        if (chave.isBlank() || chave.length() > MAX_CHAVE_IDEMPOTENCIA) {
+            throw new TransferenciaException("A chave de idempotência deve ter entre 1 e " + MAX_CHAVE_IDEMPOTENCIA + " caracteres.");
+        }
+        LocalDateTime agora = LocalDateTime.now();
+        ChaveIdempotencia registro = em.find(ChaveIdempotencia.class, chave);
+        if (registro != null && registro.isValida(agora)) {
+            if (!registro.corresponde(fromId, toId, amount)) {
+                throw new TransferenciaException("A chave de idempotência '" + chave + "' já foi usada em outra transferência.");
+            }
+            return false;
+        }
+
+        LocalDateTime expiraEm = agora.plusHours(BipConfig.idempotenciaTtlHoras());
+        if (registro != null) {
+            int linhas = em.createQuery(REUSO_CHAVE)
+                     .setParameter("origem", fromId)
+                     .setParameter("destino", toId)
+                     .setParameter("valor", amount)
+                     .setParameter("agora", agora)
+                     .setParameter("expiraEm", expiraEm)
+                     .setParameter("chave", chave)
+                     .executeUpdate();
+            if (linhas != 1) {
+                throw chaveEmProcessamento(chave, null);
+            }
+            return true;
+        }
+
+        try {
+            registro = new ChaveIdempotencia(chave);
+            registro.registrar(fromId, toId, amount, agora, expiraEm);
+            em.persist(registro);
+            em.flush();
+        } catch (PersistenceException e) {
+            throw chaveEmProcessamento(chave, e);
+        }
+        return true;
+    }
+
+    private static TransferenciaException chaveEmProcessamento(String chave, Exception causa) {
+        return new TransferenciaException("Transferência com a chave de idempotência '" + chave
+                 + "' já está em processamento.", causa);
+    }
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.REQUIRED)
+    public int purgeIdempotencyKeys() {
+        return em.createQuery("DELETE FROM ChaveIdempotencia c WHERE c.expiraEm < :agora")
+                 .setParameter("agora", LocalDateTime.now())
+                 .executeUpdate();
+    }
+
+    /**
+     * Locking Pessimista (PESSIMISTIC_WRITE) das duas contas em uma única consulta,
+     * sempre em ordem crescente de ID, evitando deadlock entre A→B e B→A.
+     * Se o destino é particionado, o crédito vai para uma partição e a linha principal
+     * do destino não é bloqueada.
+     */
+    private void transferPessimistic(Long fromId, Long toId, BigDecimal amount) {
+        Beneficio destinoParticionado = findStriped(toId);
+
+        // --- 1. Aquisição com Lock Pessimista (ordem determinística) ---
+        Map<Long, Beneficio> bloqueados = lockInIdOrder(destinoParticionado != null
+                 ? Arrays.asList(fromId)
+                 : Arrays.asList(fromId, toId));
+        Beneficio from = bloqueados.get(fromId);
+        Beneficio to = destinoParticionado != null ? destinoParticionado : bloqueados.get(toId);
+        consolidateStripes(bloqueados.values());
+
+        // --- 2. Validação ---
+        validator.validar(fromId, toId, amount, from, to);
+
+        // --- 3. Execução da Lógica de Negócio ---
+        from.setValor(from.getValor().subtract(amount));
+        em.merge(from);
+
+        if (destinoParticionado != null) {
+            creditStripe(to, amount);
+        } else {
+            to.setValor(to.getValor().add(amount));
+            em.merge(to);
+        }
+    }
+
+    /**
+     * Lê as contas sem lock e debita com um UPDATE condicional
+     * ({@code WHERE ID = ? AND VERSION = ? AND VALOR >= ?}). Se outra transação alterou a origem
+     * entre a leitura e a escrita, nenhuma linha é afetada e a tentativa é repetida com backoff
+     * exponencial com jitter. As escritas seguem a ordem de ID das contas para não criar deadlock
+     * com transferências opostas; o crédito não depende da versão, pois soma é comutativa.
+     */
+    private void transferOptimistic(Long fromId, Long toId, BigDecimal amount) {
+        boolean creditado = false;
+        int maxTentativas = BipConfig.otimistaMaxTentativas();
+
+        for (int tentativa = 1; ; tentativa++) {
+            // --- 1. Leitura sem lock (recarregada a cada nova tentativa) ---
+            Beneficio from = em.find(Beneficio.class, fromId);
+            Beneficio to = em.find(Beneficio.class, toId);
+            if (tentativa > 1 && from != null) {
+                em.refresh(from);
+            }
+
+            // Débito de conta particionada precisa consolidar as partições sob lock
+            if (tentativa == 1 && from != null && from.getParticoes() > 0) {
+                transferPessimistic(fromId, toId, amount);
+                return;
+            }
 
             // --- 2. Validação ---
             validator.validar(fromId, toId, amount, from, to);
 
-            // --- 3. Execução da Lógica de Negócio ---
-            from.setValor(from.getValor().subtract(amount));
-            to.setValor(to.getValor().add(amount));
+            // --- 3. Escrita condicional, em ordem de ID (partições sempre por último) ---
+            if (!creditado && toId < fromId && to.getParticoes() == 0) {
+                creditar(to, amount);
+                creditado = true;
+            }
+            if (debitarSeVersaoInalterada(from, amount)) {
+                break;
+            }
 
-            em.merge(from);
-            em.merge(to);
+            if (tentativa >= maxTentativas) {
+                metricas.registrarDesistencia(ModoConcorrencia.OTIMISTA);
+                throw new TransferenciaException("Conflito de concorrência na conta de origem (ID: " + fromId
+                         + ") após " + maxTentativas + " tentativas.");
+            }
+            metricas.registrarRetentativa(ModoConcorrencia.OTIMISTA);
+            aguardar(jitter(BipConfig.otimistaBackoffMs(), tentativa));
+        }
+
+        if (!creditado) {
+            creditar(em.find(Beneficio.class, toId), amount);
+        }
+    }
+
+    private boolean debitarSeVersaoInalterada(Beneficio from, BigDecimal amount) {
+        int linhas = em.createQuery(DEBITO_CONDICIONAL)
+                 .setParameter("valor", amount)
+                 .setParameter("id", from.getId())
+                 .setParameter("version", from.getVersion())
+                 .executeUpdate();
+        return linhas == 1;
+    }
+
+    private void creditar(Beneficio to, BigDecimal amount) {
+        if (to.getParticoes() > 0) {
+            creditStripe(to, amount);
+            return;
+        }
+        int linhas = em.createQuery(CREDITO)
+                 .setParameter("valor", amount)
+                 .setParameter("id", to.getId())
+                 .executeUpdate();
+        if (linhas != 1) {
+            throw new TransferenciaException("Conta de destino não encontrada (ID: " + to.getId() + ").");
+        }
+    }
+
+    /**
+     * Caminho síncrono mínimo: o débito é um único UPDATE condicional ao saldo
+     * ({@code WHERE ID = ? AND VALOR >= ?}) e o crédito é apenas um INSERT no livro-razão.
+     * O destino não é lido sob lock nem alterado; o {@link br.com.bip.ejb.ledger.TransferenciaProjetor}
+     * aplica os créditos pendentes depois, em lotes.
+     */
+    private void transferAsync(Long fromId, Long toId, BigDecimal amount) {
+        Beneficio from = em.find(Beneficio.class, fromId);
+        Beneficio to = em.find(Beneficio.class, toId);
+
+        // Partições da origem precisam ser consolidadas sob lock antes do débito condicional
+        if (from != null && from.getParticoes() > 0) {
+            consolidateStripes(lockInIdOrder(List.of(fromId)).values());
+            em.flush();
+        }
+
+        // Pré-validação (entrada, existência); o saldo é garantido pelo UPDATE condicional
+        validator.validar(fromId, toId, amount, from, to);
+
+        int linhas = em.createQuery(DEBITO_COM_SALDO)
+                 .setParameter("valor", amount)
+                 .setParameter("id", fromId)
+                 .executeUpdate();
+        if (linhas != 1) {
+            throw new TransferenciaException(MotivoRecusa.SALDO_INSUFICIENTE, "Saldo insuficiente na conta de origem (ID: " + fromId + ").");
+        }
+        em.persist(new Transferencia(fromId, toId, amount, ModoConcorrencia.ASSINCRONO, false));
+    }
+
+    /**
+     * Materializa até {@code limite} lançamentos pendentes, em ordem de ID, no saldo dos destinos.
+     * O checkpoint é bloqueado primeiro (um projetor por vez) e os destinos em seguida, em ordem
+     * de ID, com um único UPDATE por conta no lote. Créditos para contas excluídas são descartados,
+     * como o próprio saldo da conta na exclusão.
+     */
+    @Override
+    @TransactionAttribute(TransactionAttributeType.REQUIRED)
+    public int projectLedger(int limite) {
+        ProjecaoCheckpoint checkpoint = em.find(ProjecaoCheckpoint.class, ProjecaoCheckpoint.LEDGER,
+                 LockModeType.PESSIMISTIC_WRITE);
+        if (checkpoint == null) {
+            checkpoint = new ProjecaoCheckpoint();
+            checkpoint.setId(ProjecaoCheckpoint.LEDGER);
+            em.persist(checkpoint);
+        }
+
+        List<Transferencia> pendentes = em.createQuery(PENDENTES_QUERY, Transferencia.class)
+                 .setMaxResults(Math.max(1, limite))
+                 .getResultList();
+        if (pendentes.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, BigDecimal> creditos = new HashMap<>();
+        long ultimoId = 0;
+        for (Transferencia lancamento : pendentes) {
+            creditos.merge(lancamento.getDestinoId(), lancamento.getValor(), BigDecimal::add);
+            lancamento.setAplicada(true);
+            ultimoId = Math.max(ultimoId, lancamento.getId());
+        }
+
+        Map<Long, Beneficio> destinos = lockInIdOrder(creditos.keySet());
+        BigDecimal descartado = BigDecimal.ZERO;
+        for (Map.Entry<Long, BigDecimal> credito : creditos.entrySet()) {
+            Beneficio destino = destinos.get(credito.getKey());
+            if (destino != null) {
+                destino.setValor(destino.getValor().add(credito.getValue()));
+            } else {
+                descartado = descartado.add(credito.getValue());
+            }
+        }
+        // O resumo contava o crédito pendente; sem a conta ele sai do total
+        ajustarResumo(0, 0, descartado.negate());
+
+        checkpoint.avancar(ultimoId, pendentes.size());
+        em.flush();
+        return pendentes.size();
+    }
+
+    /** Espera aleatória em [0, base * 2^(tentativa-1)], limitada a 1s. */
+    private static long jitter(long baseMs, int tentativa) {
+        long janela = Math.min(1000L, baseMs << Math.min(tentativa - 1, 10));
+        return janela <= 0 ? 0 : ThreadLocalRandom.current().nextLong(janela + 1);
+    }
+
+    /**
+     * Executa um lote de transferências em uma única transação:
+     * 1. Bloqueia todas as contas envolvidas uma única vez, em ordem de ID.
+     * 2. Valida cada perna com o {@link TransferenciaValidator} sobre os saldos já compensados
+     *    em memória pelas pernas anteriores.
+     * 3. Cada conta alterada gera um único UPDATE no flush, agrupado em batch JDBC
+     *    ({@code eclipselink.jdbc.batch-writing}).
+     * Com {@code tudoOuNada} a primeira perna inválida reverte o lote inteiro; caso contrário
+     * as pernas inválidas são ignoradas e reportadas no resultado.
+     */
+    @Override
+    @TransactionAttribute(TransactionAttributeType.REQUIRED)
+    public List<TransferenciaResultado> transferBatch(List<TransferenciaItem> itens, boolean tudoOuNada) {
+        if (itens == null || itens.isEmpty()) {
+            throw new TransferenciaException("O lote de transferências não pode ser vazio.");
+        }
+        int maxItens = BipConfig.loteMaxItens();
+        if (itens.size() > maxItens) {
+            throw new TransferenciaException("O lote excede o limite de " + maxItens + " transferências.");
+        }
+
+        try {
+            // --- 1. Aquisição com Lock Pessimista (uma vez por conta, ordem determinística) ---
+            Set<Long> ids = new HashSet<>();
+            for (TransferenciaItem item : itens) {
+                ids.add(item.getFromId());
+                ids.add(item.getToId());
+            }
+            Map<Long, Beneficio> bloqueados = lockInIdOrder(ids);
+            consolidateStripes(bloqueados.values());
+
+            // --- 2. Validação e compensação em memória ---
+            List<TransferenciaResultado> resultados = new ArrayList<>(itens.size());
+            for (int i = 0; i < itens.size(); i++) {
+                TransferenciaItem item = itens.get(i);
+                Beneficio from = bloqueados.get(item.getFromId());
+                Beneficio to = bloqueados.get(item.getToId());
+                try {
+                    validator.validar(item.getFromId(), item.getToId(), item.getAmount(), from, to);
+                } catch (TransferenciaException e) {
+                    registrarRecusa(e);
+                    if (tudoOuNada) {
+                        throw new TransferenciaException("Transferência " + i + " do lote: " + e.getMessage(), e);
+                    }
+                    resultados.add(TransferenciaResultado.falha(i, e.getMessage()));
+                    continue;
+                }
+                from.setValor(from.getValor().subtract(item.getAmount()));
+                to.setValor(to.getValor().add(item.getAmount()));
+                em.persist(new Transferencia(item.getFromId(), item.getToId(), item.getAmount(),
+                         ModoConcorrencia.PESSIMISTA, true));
+                resultados.add(TransferenciaResultado.ok(i));
+            }
+
+            // --- 3. Escrita em batch ---
+            em.flush();
+            // Uma execução por perna aplicada, como no caminho direto; só após o flush, que ainda pode reverter o lote
+            for (TransferenciaResultado resultado : resultados) {
+                if (resultado.isSucesso()) {
+                    metricas.registrarExecucao(ModoConcorrencia.PESSIMISTA);
+                }
+            }
+            return resultados;
 
         } catch (Exception e) {
             if (e instanceof TransferenciaException) {
                 throw e;
             }
-            // Encapsula outras exceções de persistência
-            throw new TransferenciaException("Erro inesperado durante a transferência: " + e.getMessage(), e);
+            throw new TransferenciaException("Erro inesperado durante o lote de transferências: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Bloqueia as linhas informadas com {@code SELECT ... WHERE ID IN (...) ORDER BY ID FOR UPDATE}.
+     * Como toda transação adquire os locks na mesma ordem, não há espera circular.
+     * Timeouts de lock são repetidos com backoff linear até {@link BipConfig#lockMaxTentativas()}.
+     */
+    private Map<Long, Beneficio> lockInIdOrder(Collection<Long> ids) {
+        List<Long> ordenados = ids.stream()
+                 .filter(Objects::nonNull)
+                 .distinct()
+                 .sorted()
+                 .collect(Collectors.toList());
+
+        // Lotes grandes são bloqueados em blocos consecutivos, preservando a ordem global
+        Map<Long, Beneficio> porId = new HashMap<>();
+        for (int inicio = 0; inicio < ordenados.size(); inicio += LOCK_CHUNK_SIZE) {
+            List<Long> bloco = ordenados.subList(inicio, Math.min(inicio + LOCK_CHUNK_SIZE, ordenados.size()));
+            for (Beneficio beneficio : lockChunk(bloco)) {
+                porId.put(beneficio.getId(), beneficio);
+            }
+        }
+        return porId;
+    }
+
+    private List<Beneficio> lockChunk(List<Long> ids) {
+        int maxTentativas = BipConfig.lockMaxTentativas();
+        for (int tentativa = 1; ; tentativa++) {
+            long inicio = System.nanoTime();
+            try {
+                return em.createQuery(LOCK_QUERY, Beneficio.class)
+                         .setParameter("ids", ids)
+                         .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                         .setHint(LOCK_TIMEOUT_HINT, BipConfig.lockTimeoutMs())
+                         .getResultList();
+            } catch (LockTimeoutException e) {
+                // LockTimeoutException reverte apenas o comando, a transação continua válida
+                if (tentativa >= maxTentativas) {
+                    metricas.registrarDesistencia(ModoConcorrencia.PESSIMISTA);
+                    throw new TransferenciaException("Não foi possível obter o lock dos benefícios " + ids
+                             + " após " + maxTentativas + " tentativas.", e);
+                }
+                metricas.registrarRetentativa(ModoConcorrencia.PESSIMISTA);
+                aguardar(BipConfig.lockBackoffMs() * tentativa);
+            } finally {
+                metricas.registrarEsperaLock(System.nanoTime() - inicio);
+            }
+        }
+    }
+
+    /**
+     * Particiona o saldo da conta em {@code particoes} sub-saldos (0 desativa). O saldo atual,
+     * incluindo partições anteriores, é consolidado na linha principal antes da mudança.
+     */
+    @Override
+    @TransactionAttribute(TransactionAttributeType.REQUIRED)
+    public Beneficio configureStriping(Long id, int particoes) {
+        if (particoes < 0 || particoes > MAX_PARTICOES) {
+            throw new IllegalArgumentException("A quantidade de partições deve estar entre 0 e " + MAX_PARTICOES + ".");
+        }
+        Beneficio beneficio = lockInIdOrder(List.of(id)).get(id);
+        if (beneficio == null) {
+            return null;
+        }
+        consolidateStripes(List.of(beneficio));
+        em.flush();
+        em.createQuery("DELETE FROM BeneficioParticao p WHERE p.beneficioId = :id")
+                 .setParameter("id", id)
+                 .executeUpdate();
+
+        for (int particao = 0; particao < particoes; particao++) {
+            em.persist(new BeneficioParticao(id, particao));
+        }
+        beneficio.setParticoes(particoes);
+        return beneficio;
+    }
+
+    /** Lê o destino sem lock apenas para saber se ele é particionado. */
+    private Beneficio findStriped(Long id) {
+        if (id == null) {
+            return null;
+        }
+        Beneficio beneficio = em.find(Beneficio.class, id);
+        return beneficio != null && beneficio.getParticoes() > 0 ? beneficio : null;
+    }
+
+    /**
+     * Credita uma partição aleatória: só aquela linha de BENEFICIO_PARTICAO é bloqueada,
+     * então créditos simultâneos na mesma conta se distribuem entre as partições.
+     */
+    private void creditStripe(Beneficio to, BigDecimal amount) {
+        int particao = ThreadLocalRandom.current().nextInt(to.getParticoes());
+        int linhas = em.createQuery(CREDITO_PARTICAO)
+                 .setParameter("valor", amount)
+                 .setParameter("id", to.getId())
+                 .setParameter("particao", particao)
+                 .executeUpdate();
+        if (linhas != 1) {
+            throw new TransferenciaException("Partição " + particao + " da conta de destino não encontrada (ID: " + to.getId() + ").");
+        }
+    }
+
+    /**
+     * Move o saldo das partições para a linha principal das contas já bloqueadas.
+     * As partições são bloqueadas depois das linhas de BENEFICIO, em ordem de (ID, PARTICAO),
+     * mantendo uma ordem global única de aquisição de locks.
+     */
+    private void consolidateStripes(Collection<Beneficio> bloqueados) {
+        Map<Long, Beneficio> particionados = new HashMap<>();
+        for (Beneficio beneficio : bloqueados) {
+            if (beneficio.getParticoes() > 0) {
+                particionados.put(beneficio.getId(), beneficio);
+            }
+        }
+        if (particionados.isEmpty()) {
+            return;
+        }
+
+        List<BeneficioParticao> particoes = em.createQuery(LOCK_PARTICOES_QUERY, BeneficioParticao.class)
+                 .setParameter("ids", new ArrayList<>(particionados.keySet()))
+                 .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                 .setHint(LOCK_TIMEOUT_HINT, BipConfig.lockTimeoutMs())
+                 .getResultList();
+        for (BeneficioParticao particao : particoes) {
+            Beneficio beneficio = particionados.get(particao.getBeneficioId());
+            beneficio.setValor(beneficio.getValor().add(particao.getValor()));
+            particao.setValor(BigDecimal.ZERO);
+        }
+        for (Beneficio beneficio : particionados.values()) {
+            beneficio.setSaldoParticoes(BigDecimal.ZERO);
+        }
+    }
+
+    /** Preenche o saldo das partições nas contas particionadas (leituras sem lock). */
+    private <T extends Collection<Beneficio>> T loadStripeBalances(T beneficios) {
+        List<Long> ids = new ArrayList<>();
+        for (Beneficio beneficio : beneficios) {
+            if (beneficio != null && beneficio.getParticoes() > 0) {
+                ids.add(beneficio.getId());
+            }
+        }
+        if (ids.isEmpty()) {
+            return beneficios;
+        }
+
+        Map<Long, BigDecimal> somas = new HashMap<>();
+        List<Object[]> linhas = em.createQuery(SOMA_PARTICOES_QUERY, Object[].class)
+                 .setParameter("ids", ids)
+                 .getResultList();
+        for (Object[] linha : linhas) {
+            somas.put((Long) linha[0], (BigDecimal) linha[1]);
+        }
+        for (Beneficio beneficio : beneficios) {
+            if (beneficio != null && beneficio.getParticoes() > 0) {
+                beneficio.setSaldoParticoes(somas.getOrDefault(beneficio.getId(), BigDecimal.ZERO));
+            }
+        }
+        return beneficios;
+    }
+
+    private static void aguardar(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransferenciaException("Transferência interrompida aguardando lock.", e);
+        }
+    }
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public List<TransferenciaEstatistica> transferStatistics() {
+        return metricas.estatisticas();
+    }
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public TransferenciaTelemetria transferTelemetry() {
+        return metricas.telemetria();
+    }
+
+    /** Conta recusas de regra de negócio; falhas técnicas não têm motivo e ficam de fora. */
+    private void registrarRecusa(TransferenciaException e) {
+        if (e.getMotivo() != null) {
+            metricas.registrarRecusa(e.getMotivo());
         }
     }
 
     @Override
     @TransactionAttribute(TransactionAttributeType.SUPPORTS)
     public List<Beneficio> findAll() {
-        return em.createQuery("SELECT b FROM Beneficio b", Beneficio.class)
-                 .getResultList();
+        return loadStripeBalances(em.createQuery("SELECT b FROM Beneficio b", Beneficio.class)
+                 .getResultList());
+    }
+
+    /**
+     * Paginação por keyset ({@code WHERE ID > :afterId ORDER BY ID}): o custo de cada página
+     * não depende da posição na tabela, ao contrário de OFFSET.
+     */
+    @Override
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public List<Beneficio> findPage(Long afterId, int limit, Boolean ativo, String nome) {
+        int tamanho = tamanhoPagina(limit);
+        String jpql = "SELECT b FROM Beneficio b" + filtroPagina(afterId, ativo, nome);
+        TypedQuery<Beneficio> query = em.createQuery(jpql, Beneficio.class);
+        parametrosPagina(query, afterId, ativo, nome);
+        return loadStripeBalances(query.setMaxResults(tamanho).getResultList());
+    }
+
+    /**
+     * Mesma página de {@link #findPage}, lida direto para projeções imutáveis: sem entidades
+     * gerenciadas, sem registro no contexto de persistência nem no cache. Com {@code campos},
+     * só essas colunas são selecionadas (além de ID e PARTICOES, usados no cursor e no saldo).
+     */
+    @Override
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public List<BeneficioProjecao> findPageProjected(Long afterId, int limit, Boolean ativo, String nome, Set<String> campos) {
+        if (campos != null && !BeneficioProjecao.CAMPOS.containsAll(campos)) {
+            throw new IllegalArgumentException("Campos aceitos: " + String.join(", ", BeneficioProjecao.CAMPOS) + ".");
+        }
+        int tamanho = tamanhoPagina(limit);
+        List<String> selecionados = BeneficioProjecao.CAMPOS.stream()
+                 .filter(c -> campos == null || campos.contains(c))
+                 .collect(Collectors.toList());
+
+        String filtro = filtroPagina(afterId, ativo, nome);
+        List<BeneficioProjecao> pagina;
+        if (campos == null) {
+            TypedQuery<BeneficioProjecao> query = em.createQuery(PROJECAO_QUERY + filtro, BeneficioProjecao.class);
+            parametrosPagina(query, afterId, ativo, nome);
+            pagina = query.setHint(READ_ONLY_HINT, true).setMaxResults(tamanho).getResultList();
+        } else {
+            // ID e PARTICOES sempre vêm primeiro; as demais colunas seguem a ordem de CAMPOS
+            List<String> extras = selecionados.stream()
+                     .filter(c -> !c.equals("id") && !c.equals("particoes"))
+                     .collect(Collectors.toList());
+            StringBuilder jpql = new StringBuilder("SELECT b.id, b.particoes");
+            extras.forEach(c -> jpql.append(", b.").append(c));
+            TypedQuery<Object[]> query = em.createQuery(jpql + " FROM Beneficio b" + filtro, Object[].class);
+            parametrosPagina(query, afterId, ativo, nome);
+            List<Object[]> linhas = query.setHint(READ_ONLY_HINT, true).setMaxResults(tamanho).getResultList();
+            int nomeIdx = extras.indexOf("nome");
+            int descricaoIdx = extras.indexOf("descricao");
+            int valorIdx = extras.indexOf("valor");
+            int ativoIdx = extras.indexOf("ativo");
+            int versionIdx = extras.indexOf("version");
+            pagina = new ArrayList<>(linhas.size());
+            for (Object[] linha : linhas) {
+                pagina.add(new BeneficioProjecao((Long) linha[0],
+                         (String) coluna(linha, nomeIdx), (String) coluna(linha, descricaoIdx),
+                         (BigDecimal) coluna(linha, valorIdx), Boolean.TRUE.equals(coluna(linha, ativoIdx)),
+                         (Long) coluna(linha, versionIdx), ((Number) linha[1]).intValue()));
+            }
+        }
+        return selecionados.contains("valor") ? somarParticoes(pagina) : pagina;
+    }
+
+    /** Até MAX_PAGE_SIZE linhas, mais a linha de sonda com que o chamador descobre se há próxima página. */
+    private static int tamanhoPagina(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE + 1));
+    }
+
+    /** Coluna extra da linha (após ID e PARTICOES), ou {@code null} se não foi selecionada. */
+    private static Object coluna(Object[] linha, int extraIdx) {
+        return extraIdx < 0 ? null : linha[extraIdx + 2];
+    }
+
+    /** Cláusulas WHERE/ORDER BY da paginação por keyset, com os filtros informados. */
+    static String filtroPagina(Long afterId, Boolean ativo, String nome) {
+        StringBuilder jpql = new StringBuilder(" WHERE 1 = 1");
+        if (afterId != null) {
+            jpql.append(" AND b.id > :afterId");
+        }
+        if (ativo != null) {
+            jpql.append(" AND b.ativo = :ativo");
+        }
+        if (nome != null && !nome.isBlank()) {
+            jpql.append(" AND LOWER(b.nome) LIKE :nome ESCAPE '\\'");
+        }
+        // Com ATIVO fixo a ordem é a mesma; assim o índice (ATIVO, ID) entrega a faixa já ordenada
+        return jpql.append(ativo != null ? " ORDER BY b.ativo, b.id" : " ORDER BY b.id").toString();
+    }
+
+    private static void parametrosPagina(TypedQuery<?> query, Long afterId, Boolean ativo, String nome) {
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+        }
+        if (ativo != null) {
+            query.setParameter("ativo", ativo);
+        }
+        if (nome != null && !nome.isBlank()) {
+            query.setParameter("nome", "%" + escaparLike(nome.trim().toLowerCase()) + "%");
+        }
+    }
+
+    /** {@code %} e {@code _} digitados pelo usuário são literais, não curingas que casam com tudo. */
+    static String escaparLike(String texto) {
+        return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /** Soma as partições ao valor das projeções de contas particionadas (uma consulta por página). */
+    private List<BeneficioProjecao> somarParticoes(List<BeneficioProjecao> pagina) {
+        List<Long> particionados = pagina.stream()
+                 .filter(p -> p.getParticoes() > 0)
+                 .map(BeneficioProjecao::getId)
+                 .collect(Collectors.toList());
+        if (particionados.isEmpty()) {
+            return pagina;
+        }
+        Map<Long, BigDecimal> somas = new HashMap<>();
+        for (Object[] linha : em.createQuery(SOMA_PARTICOES_QUERY, Object[].class)
+                 .setParameter("ids", particionados)
+                 .getResultList()) {
+            somas.put((Long) linha[0], (BigDecimal) linha[1]);
+        }
+        List<BeneficioProjecao> resultado = new ArrayList<>(pagina.size());
+        for (BeneficioProjecao projecao : pagina) {
+            BigDecimal soma = somas.get(projecao.getId());
+            resultado.add(soma == null ? projecao : projecao.comSaldoParticoes(soma));
+        }
+        return resultado;
     }
 
     @Override
     @TransactionAttribute(TransactionAttributeType.SUPPORTS)
     public Beneficio findById(Long id) {
-        return em.find(Beneficio.class, id);
+        Beneficio beneficio = em.find(Beneficio.class, id);
+        if (beneficio != null) {
+            loadStripeBalances(List.of(beneficio));
+        }
+        return beneficio;
     }
 
     @Override
     @TransactionAttribute(TransactionAttributeType.REQUIRED)
     public Beneficio create(Beneficio beneficio) {
         em.persist(beneficio);
+        ajustarResumo(1, beneficio.isAtivo() ? 1 : 0, beneficio.getValor());
         return beneficio;
     }
 
+    /**
+     * O tamanho do batch JDBC vem de {@code eclipselink.jdbc.batch-writing.size} (persistence.xml);
+     * o tamanho da transação é o do lote recebido.
+     */
+    @Override
+    @TransactionAttribute(TransactionAttributeType.REQUIRED)
+    public List<Beneficio> createAll(List<Beneficio> beneficios) {
+        if (beneficios == null || beneficios.isEmpty()) {
+            return List.of();
+        }
+        if (beneficios.size() > MAX_LOTE_CRIACAO) {
+            throw new IllegalArgumentException("O lote excede o limite de " + MAX_LOTE_CRIACAO + " benefícios.");
+        }
+        long ativos = 0;
+        BigDecimal soma = BigDecimal.ZERO;
+        for (Beneficio beneficio : beneficios) {
+            em.persist(beneficio);
+            ativos += beneficio.isAtivo() ? 1 : 0;
+            soma = soma.add(naoNulo(beneficio.getValor()));
+        }
+        ajustarResumo(beneficios.size(), ativos, soma);
+        em.flush();
+        return beneficios;
+    }
+
+    /**
+     * Um UPDATE pela PK, sem ler a conta antes; com a versão esperada, {@code AND VERSION = ?}.
+     * Nenhuma linha afetada é conflito de versão ou conta inexistente, e só nesse caminho de
+     * falha a versão atual é lida. O valor informado é o saldo total: partições existentes são
+     * zeradas e preservadas. Com o resumo incremental a conta é bloqueada e lida antes, pois o
+     * delta depende do saldo anterior.
+     */
     @Override
     @TransactionAttribute(TransactionAttributeType.REQUIRED)
     public Beneficio update(Beneficio beneficio) {
-        return em.merge(beneficio);
+        Long id = beneficio.getId();
+        if (id == null) {
+            return create(beneficio);
+        }
+        if (BipConfig.estatisticasResumo()) {
+            return updateComResumo(beneficio);
+        }
+
+        Long esperada = beneficio.getVersion();
+        Query atualizacao = em.createQuery(esperada != null ? ATUALIZACAO_CONDICIONAL : ATUALIZACAO)
+                 .setParameter("nome", beneficio.getNome())
+                 .setParameter("descricao", beneficio.getDescricao())
+                 .setParameter("valor", beneficio.getValor())
+                 .setParameter("ativo", beneficio.isAtivo())
+                 .setParameter("id", id);
+        if (esperada != null) {
+            atualizacao.setParameter("version", esperada);
+        }
+        if (atualizacao.executeUpdate() != 1) {
+            throw new VersaoDivergenteException(id, esperada, versaoAtual(id));
+        }
+        beneficio.setParticoes(em.createQuery(ZERA_PARTICOES).setParameter("id", id).executeUpdate());
+        beneficio.setSaldoParticoes(BigDecimal.ZERO);
+        // Sem versão esperada, a nova só é conhecida relendo a linha, já bloqueada por este UPDATE
+        beneficio.setVersion(esperada != null ? Long.valueOf(esperada + 1) : versaoAtual(id));
+        return beneficio;
+    }
+
+    private Beneficio updateComResumo(Beneficio beneficio) {
+        Long id = beneficio.getId();
+        Beneficio atual = lockInIdOrder(List.of(id)).get(id);
+        if (atual == null || (beneficio.getVersion() != null && !beneficio.getVersion().equals(atual.getVersion()))) {
+            throw new VersaoDivergenteException(id, beneficio.getVersion(), atual == null ? null : atual.getVersion());
+        }
+        loadStripeBalances(List.of(atual));
+        ajustarResumo(0, (beneficio.isAtivo() ? 1 : 0) - (atual.isAtivo() ? 1 : 0),
+                 naoNulo(beneficio.getValor()).subtract(naoNulo(atual.getSaldoTotal())));
+        if (atual.getParticoes() > 0) {
+            em.createQuery(ZERA_PARTICOES).setParameter("id", id).executeUpdate();
+            atual.setSaldoParticoes(BigDecimal.ZERO);
+        }
+        atual.setNome(beneficio.getNome());
+        atual.setDescricao(beneficio.getDescricao());
+        atual.setValor(beneficio.getValor());
+        atual.setAtivo(beneficio.isAtivo());
+        em.flush();
+        return atual;
+    }
+
+    private Long versaoAtual(Long id) {
+        List<Long> versoes = em.createQuery(VERSAO_CONTA_QUERY, Long.class)
+                 .setParameter("id", id)
+                 .getResultList();
+        return versoes.isEmpty() ? null : versoes.get(0);
     }
 
     @Override
@@ -86,7 +967,149 @@ public class BeneficioEjbService implements BeneficioEjbServiceLocal{
     public void deleteById(Long id) {
         Beneficio beneficio = findById(id);
         if (beneficio != null) {
+            if (beneficio.getParticoes() > 0) {
+                em.createQuery("DELETE FROM BeneficioParticao p WHERE p.beneficioId = :id")
+                         .setParameter("id", id)
+                         .executeUpdate();
+            }
             em.remove(beneficio);
+            ajustarResumo(-1, beneficio.isAtivo() ? -1 : 0, naoNulo(beneficio.getSaldoTotal()).negate());
+        }
+    }
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public String tableVersion() {
+        Object[] linha = (Object[]) em.createNativeQuery(VERSAO_TABELA_QUERY).getSingleResult();
+        return inteiro(linha[0]) + "-" + inteiro(linha[1]) + "-" + inteiro(linha[2]) + "-" + inteiro(linha[3]);
+    }
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public BeneficioEstatisticas statistics(boolean resumo) {
+        if (resumo && BipConfig.estatisticasResumo()) {
+            BeneficioResumo linha = em.find(BeneficioResumo.class, BeneficioResumo.UNICO);
+            if (linha != null) {
+                return new BeneficioEstatisticas(linha.getQuantidade(), linha.getAtivos(),
+                         linha.getQuantidade() - linha.getAtivos(), linha.getSoma(),
+                         null, null, null, null, null, true);
+            }
+        }
+        Object[] linha = (Object[]) em.createNativeQuery(ESTATISTICAS_QUERY).getSingleResult();
+        long quantidade = inteiro(linha[0]);
+        long ativos = inteiro(linha[1]);
+        BigDecimal soma = decimal(linha[2]);
+        return new BeneficioEstatisticas(quantidade, ativos, quantidade - ativos,
+                 soma != null ? soma : BigDecimal.ZERO.setScale(2),
+                 decimal(linha[3]), decimal(linha[4]), decimal(linha[5]), decimal(linha[6]), decimal(linha[7]), false);
+    }
+
+    /**
+     * Dois comandos curtos sem lock: as contas da faixa (pela PK) e os créditos pendentes para
+     * elas. Uma transferência confirmada entre os dois aparece como diferença transitória, que a
+     * conciliação confirma com {@link #reconciliationTotals(boolean)} antes de reportar.
+     */
+    @Override
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public ConciliacaoFaixa reconcileRange(long fromId, long toId) {
+        if (toId < fromId || toId - fromId >= MAX_FAIXA_CONCILIACAO) {
+            throw new IllegalArgumentException("A faixa deve ter entre 1 e " + MAX_FAIXA_CONCILIACAO + " IDs.");
+        }
+        @SuppressWarnings("unchecked")
+        List<Object[]> linhas = em.createNativeQuery(FAIXA_CONTAS_QUERY)
+                 .setParameter(1, fromId)
+                 .setParameter(2, toId)
+                 .getResultList();
+        BigDecimal saldo = decimal(em.createNativeQuery(FAIXA_PENDENTES_QUERY)
+                 .setParameter(1, fromId)
+                 .setParameter(2, toId)
+                 .getSingleResult());
+
+        long somaIds = 0;
+        long somaVersoes = 0;
+        long checksum = 0;
+        List<Long> inconsistentes = new ArrayList<>();
+        for (Object[] linha : linhas) {
+            long id = inteiro(linha[0]);
+            BigDecimal saldoConta = decimal(linha[2]).add(decimal(linha[5]));
+            saldo = saldo.add(saldoConta);
+            somaIds += id;
+            somaVersoes += inteiro(linha[1]) + inteiro(linha[6]);
+            checksum += checksumConta(id, saldoConta);
+            boolean negativo = saldoConta.signum() < 0;
+            if ((negativo || inteiro(linha[3]) != inteiro(linha[4])) && inconsistentes.size() < MAX_INCONSISTENTES_FAIXA) {
+                inconsistentes.add(id);
+            }
+        }
+        return new ConciliacaoFaixa(fromId, toId, linhas.size(), saldo, somaIds, somaVersoes, checksum, inconsistentes);
+    }
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public ConciliacaoTotais reconciliationTotals(boolean apurar) {
+        String sql = CONTROLE_QUERY + (apurar ? ", " + ResumoBeneficios.SOMA_SALDOS : "")
+                 + " FROM BENEFICIO_RESUMO R WHERE R.ID = " + BeneficioResumo.UNICO;
+        Object[] linha = (Object[]) em.createNativeQuery(sql).getSingleResult();
+        Long menorId = minimo(linha[1], linha[3]);
+        Long maiorId = maximo(linha[2], linha[4]);
+        return new ConciliacaoTotais(BipConfig.estatisticasResumo() ? decimal(linha[0]) : null,
+                 apurar ? decimal(linha[5]) : null, menorId, maiorId);
+    }
+
+    /** Hash de (ID, saldo em centavos) bem espalhado, para somar por faixa sem depender da ordem. */
+    static long checksumConta(long id, BigDecimal saldo) {
+        long h = id * 0x9E3779B97F4A7C15L ^ saldo.setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValue();
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    private static Long minimo(Object a, Object b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? null : inteiro(b)) : inteiro(a);
+        }
+        return Math.min(inteiro(a), inteiro(b));
+    }
+
+    private static Long maximo(Object a, Object b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? null : inteiro(b)) : inteiro(a);
+        }
+        return Math.max(inteiro(a), inteiro(b));
+    }
+
+    /**
+     * Aplica o delta no resumo incremental, na mesma transação da escrita. O UPDATE bloqueia a
+     * linha única até o commit, por isso o resumo é opcional.
+     */
+    private void ajustarResumo(long quantidade, long ativos, BigDecimal soma) {
+        BigDecimal delta = naoNulo(soma);
+        if (!BipConfig.estatisticasResumo() || (quantidade == 0 && ativos == 0 && delta.signum() == 0)) {
+            return;
+        }
+        em.createQuery(AJUSTE_RESUMO)
+                 .setParameter("quantidade", quantidade)
+                 .setParameter("ativos", ativos)
+                 .setParameter("soma", delta)
+                 .setParameter("agora", LocalDateTime.now())
+                 .setParameter("id", BeneficioResumo.UNICO)
+                 .executeUpdate();
+    }
+
+    private static BigDecimal naoNulo(BigDecimal valor) {
+        return valor != null ? valor : BigDecimal.ZERO;
+    }
+
+    private static long inteiro(Object valor) {
+        return valor == null ? 0 : ((Number) valor).longValue();
+    }
+
+    /** Os tipos devolvidos pelos agregados variam por banco (DECIMAL, DOUBLE, DECFLOAT). */
+    private static BigDecimal decimal(Object valor) {
+        if (valor == null) {
+            return null;
         }
+        BigDecimal decimal = valor instanceof BigDecimal b ? b : new BigDecimal(valor.toString());
+        return decimal.setScale(2, RoundingMode.HALF_EVEN);
     }
 }
@@ -1,20 +1,136 @@
 package br.com.bip.ejb;
 
 import br.com.bip.ejb.entity.Beneficio;
+import br.com.bip.ejb.model.BeneficioEstatisticas;
+import br.com.bip.ejb.model.BeneficioProjecao;
+import br.com.bip.ejb.model.ConciliacaoFaixa;
+import br.com.bip.ejb.model.ConciliacaoTotais;
+import br.com.bip.ejb.model.ModoConcorrencia;
+import br.com.bip.ejb.model.TransferenciaEstatistica;
+import br.com.bip.ejb.model.TransferenciaItem;
+import br.com.bip.ejb.model.TransferenciaResultado;
+import br.com.bip.ejb.model.TransferenciaTelemetria;
 import jakarta.ejb.Local;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Set;
 
 @Local
 public interface BeneficioEjbServiceLocal {
+
+   /** Limite máximo de linhas por página, independente do que o cliente solicitar. */
+   int MAX_PAGE_SIZE = 500;
+
+   /** Limite de partições de saldo por conta. */
+   int MAX_PARTICOES = 64;
+
+   /** Limite de benefícios gravados por {@link #createAll} (uma transação). */
+   int MAX_LOTE_CRIACAO = 5000;
+
+   /** Largura máxima, em IDs, de uma faixa lida por {@link #reconcileRange(long, long)}. */
+   int MAX_FAIXA_CONCILIACAO = 10_000;
+
+   /** Tamanho máximo de uma chave de idempotência. */
+   int MAX_CHAVE_IDEMPOTENCIA = 100;
+
    List<Beneficio> findAll();
 
+   /**
+    * Paginação por cursor (keyset): retorna até {@code limit} benefícios com ID maior que
+    * {@code afterId}, ordenados por ID. Filtros nulos são ignorados. {@code limit} vai até
+    * {@link #MAX_PAGE_SIZE} + 1: a linha a mais é a sonda de uma página cheia para saber se há próxima.
+    */
+   List<Beneficio> findPage(Long afterId, int limit, Boolean ativo, String nome);
+
+   /**
+    * Página de {@link #findPage} lida como projeções somente leitura, sem materializar entidades.
+    * {@code campos} restringe as colunas lidas ({@link BeneficioProjecao#CAMPOS}); {@code null} lê todas.
+    */
+   List<BeneficioProjecao> findPageProjected(Long afterId, int limit, Boolean ativo, String nome, Set<String> campos);
+
    Beneficio findById(Long id);
 
+   /**
+    * Versão da tabela lida só por chaves primárias, sem varrer BENEFICIO e sem escrita extra nas
+    * transações: muda com inclusões, exclusões, lançamentos do livro-razão e projeções, mas não com
+    * UPDATEs de contas existentes (quem chama soma as suas próprias escritas). Base do ETag das listagens.
+    */
+   String tableVersion();
+
+   /**
+    * Quantidade, ativos/inativos, soma, mínimo, máximo e percentis dos saldos, calculados por
+    * agregação no banco. Com {@code resumo} e {@code bip.estatisticas.resumo} ativo, lê apenas
+    * a linha de resumo incremental (contagens e soma, O(1)).
+    */
+   BeneficioEstatisticas statistics(boolean resumo);
+
    Beneficio create(Beneficio beneficio);
 
+   /**
+    * Grava os benefícios em uma única transação, com IDs reservados em blocos pela sequence e
+    * INSERTs agrupados em batch JDBC. Qualquer falha reverte o lote inteiro.
+    */
+   List<Beneficio> createAll(List<Beneficio> beneficios);
+
+   /**
+    * Com {@code version} preenchida, grava apenas se ela ainda for a versão da conta no banco;
+    * sem ela, a última escrita vence. Conflito de versão ou conta inexistente lançam
+    * {@link br.com.bip.ejb.exception.VersaoDivergenteException} (com {@code versaoAtual} nula
+    * quando a conta não existe).
+    */
    Beneficio update(Beneficio beneficio);
 
    void deleteById(Long id);
    void transfer(Long fromId, Long toId, BigDecimal amount);
-}
\ No newline at end of file
+
+   /**
+    * Transferência com estratégia de concorrência explícita; {@code null} usa o padrão do deployment
+    * ({@code bip.transferencia.modo}).
+    */
+   void transfer(Long fromId, Long toId, BigDecimal amount, ModoConcorrencia modo);
+
+   /**
+    * Transferência idempotente: se {@code chaveIdempotencia} já foi confirmada (e não expirou) com os
+    * mesmos parâmetros, retorna sem executar nada nem bloquear linhas. {@code null} desativa a deduplicação.
+    */
+   void transfer(Long fromId, Long toId, BigDecimal amount, ModoConcorrencia modo, String chaveIdempotencia);
+
+   /**
+    * Executa várias transferências em uma única transação. Com {@code tudoOuNada} qualquer
+    * falha reverte o lote; caso contrário cada perna é reportada individualmente.
+    */
+   List<TransferenciaResultado> transferBatch(List<TransferenciaItem> itens, boolean tudoOuNada);
+
+   /**
+    * Aplica até {@code limite} lançamentos pendentes do livro-razão (modo ASSINCRONO) no saldo
+    * dos destinos e avança o checkpoint. Retorna a quantidade aplicada.
+    */
+   int projectLedger(int limite);
+
+   /**
+    * Ativa (particoes &gt; 0) ou desativa (0) o particionamento do saldo de uma conta com
+    * muitos créditos. Retorna {@code null} se a conta não existe.
+    */
+   Beneficio configureStriping(Long id, int particoes);
+
+   /** Remove as chaves de idempotência expiradas; retorna a quantidade removida. */
+   int purgeIdempotencyKeys();
+
+   /** Execuções, retentativas e desistências por estratégia de concorrência. */
+   List<TransferenciaEstatistica> transferStatistics();
+
+   /** Recusas por motivo e espera pelos locks de linha, acumuladas desde a subida. */
+   TransferenciaTelemetria transferTelemetry();
+
+   /**
+    * Saldos e somas de controle das contas com ID em [fromId, toId], lidos sem lock; os créditos
+    * pendentes do livro-razão contam na faixa do destino. Base da conciliação em faixas.
+    */
+   ConciliacaoFaixa reconcileRange(long fromId, long toId);
+
+   /**
+    * Total esperado (resumo incremental) e faixa de IDs a conciliar; com {@code apurar}, também a
+    * soma real dos saldos, lida no mesmo comando que o esperado.
+    */
+   ConciliacaoTotais reconciliationTotals(boolean apurar);
+}
@@ -0,0 +1,97 @@
+package br.com.bip.ejb.config;
+
+import br.com.bip.ejb.model.ModoConcorrencia;
+
+/**
+ * Parâmetros de execução do módulo EJB, lidos de propriedades de sistema do container
+ * (ex: {@code conf/system.properties} do TomEE) com valores padrão seguros.
+ */
+public final class BipConfig {
+
+   public static final String LOCK_TIMEOUT_MS = "bip.transferencia.lock-timeout-ms";
+   public static final String LOCK_MAX_TENTATIVAS = "bip.transferencia.lock-max-tentativas";
+   public static final String LOCK_BACKOFF_MS = "bip.transferencia.lock-backoff-ms";
+   public static final String LOTE_MAX_ITENS = "bip.transferencia.lote-max-itens";
+   public static final String MODO = "bip.transferencia.modo";
+   public static final String OTIMISTA_MAX_TENTATIVAS = "bip.transferencia.otimista-max-tentativas";
+   public static final String OTIMISTA_BACKOFF_MS = "bip.transferencia.otimista-backoff-ms";
+   public static final String PROJECAO_LOTE = "bip.transferencia.projecao-lote";
+   public static final String IDEMPOTENCIA_TTL_HORAS = "bip.transferencia.idempotencia-ttl-horas";
+   public static final String ESTATISTICAS_RESUMO = "bip.estatisticas.resumo";
+
+   private BipConfig() {
+   }
+
+   /** Tempo máximo de espera por um lock de linha, em milissegundos. */
+   public static int lockTimeoutMs() {
+      return intProperty(LOCK_TIMEOUT_MS, 2000);
+   }
+
+   /** Quantidade de tentativas de aquisição de lock antes de desistir da transferência. */
+   public static int lockMaxTentativas() {
+      return Math.max(1, intProperty(LOCK_MAX_TENTATIVAS, 3));
+   }
+
+   /** Espera base entre tentativas de lock; cresce linearmente a cada nova tentativa. */
+   public static long lockBackoffMs() {
+      return Math.max(0, intProperty(LOCK_BACKOFF_MS, 50));
+   }
+
+   /**
+    * Mantém BENEFICIO_RESUMO a cada create/update/delete. Desligado por padrão: a linha única
+    * passa a ser disputada por todas as escritas de benefícios.
+    */
+   public static boolean estatisticasResumo() {
+      return Boolean.getBoolean(ESTATISTICAS_RESUMO);
+   }
+
+   /** Quantidade máxima de pernas aceitas em um único lote de transferências. */
+   public static int loteMaxItens() {
+      return Math.max(1, intProperty(LOTE_MAX_ITENS, 5000));
+   }
+
+   /** Estratégia de concorrência padrão do deployment, usada quando a requisição não escolhe uma. */
+   public static ModoConcorrencia modoConcorrencia() {
+      String valor = System.getProperty(MODO);
+      if (valor == null || valor.isBlank()) {
+         return ModoConcorrencia.PESSIMISTA;
+      }
+      try {
+         return ModoConcorrencia.valueOf(valor.trim().toUpperCase());
+      } catch (IllegalArgumentException e) {
+         return ModoConcorrencia.PESSIMISTA;
+      }
+   }
+
+   /** Tentativas do UPDATE condicional no modo otimista antes de desistir. */
+   public static int otimistaMaxTentativas() {
+      return Math.max(1, intProperty(OTIMISTA_MAX_TENTATIVAS, 5));
+   }
+
+   /** Janela base do backoff com jitter no modo otimista; dobra a cada conflito. */
+   public static long otimistaBackoffMs() {
+      return Math.max(0, intProperty(OTIMISTA_BACKOFF_MS, 5));
+   }
+
+   /** Lançamentos pendentes projetados por transação. */
+   public static int projecaoLote() {
+      return Math.max(1, intProperty(PROJECAO_LOTE, 500));
+   }
+
+   /** Tempo durante o qual uma chave de idempotência responde repetições com o resultado original. */
+   public static long idempotenciaTtlHoras() {
+      return Math.max(1, intProperty(IDEMPOTENCIA_TTL_HORAS, 24));
+   }
+
+   static int intProperty(String nome, int padrao) {
+      String valor = System.getProperty(nome);
+      if (valor == null || valor.isBlank()) {
+         return padrao;
+      }
+      try {
+         return Integer.parseInt(valor.trim());
+      } catch (NumberFormatException e) {
+         return padrao;
+      }
+   }
+}
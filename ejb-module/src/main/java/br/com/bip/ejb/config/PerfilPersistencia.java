@@ -0,0 +1,40 @@
+package br.com.bip.ejb.config;
+
+import java.util.Map;
+
+/**
+ * Ajustes da unidade {@code bip-pu} por ambiente, sobre o que o {@code persistence.xml} já
+ * traz (batch JDBC ligado, log em WARNING sem parâmetros). No TomEE cada propriedade é
+ * sobrescrita por propriedade de sistema com o nome da unidade na frente (ex:
+ * {@code bip-pu.eclipselink.logging.level=FINE} em {@code conf/system.properties}); fora do
+ * container (benchmarks, ferramentas) o mapa é passado na criação do EntityManagerFactory.
+ */
+public enum PerfilPersistencia {
+
+   /**
+    * SQL e valores dos parâmetros (saldos) no log. Cada transferência formata e escreve várias
+    * linhas: só para diagnóstico local.
+    */
+   DEV(Map.of(
+            "eclipselink.logging.level", "FINE",
+            "eclipselink.logging.parameters", "true")),
+
+   /**
+    * Padrão do {@code persistence.xml} mais o cache de PreparedStatement por conexão. O cache só
+    * vale para o pool interno do EclipseLink; com o DataSource do container ele é configurado no
+    * pool (ver README).
+    */
+   PROD(Map.of(
+            "eclipselink.jdbc.cache-statements", "true",
+            "eclipselink.jdbc.cache-statements.size", "100"));
+
+   private final Map<String, String> propriedades;
+
+   PerfilPersistencia(Map<String, String> propriedades) {
+      this.propriedades = propriedades;
+   }
+
+   public Map<String, String> propriedades() {
+      return propriedades;
+   }
+}
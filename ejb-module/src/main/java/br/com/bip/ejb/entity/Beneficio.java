@@ -14,7 +14,8 @@ import java.util.Objects;
 @NoArgsConstructor
 @Entity
 @Table(name = "BENEFICIO")
-@SequenceGenerator(name = "beneficio_seq", sequenceName = "BENEFICIO_ID_SEQ", allocationSize = 1)
+// IDs reservados em blocos de 50 (a sequence incrementa de 50): um acesso à sequence a cada 50 inserts
+@SequenceGenerator(name = "beneficio_seq", sequenceName = "BENEFICIO_ID_SEQ", allocationSize = 50)
 public class Beneficio implements Serializable {
 
    private static final long serialVersionUID = 1L;
@@ -40,6 +41,22 @@ public class Beneficio implements Serializable {
    @Column(name = "VERSION")
    private Long version;
 
+   /** Quantidade de sub-saldos em BENEFICIO_PARTICAO; 0 para contas sem particionamento. */
+   @Column(name = "PARTICOES")
+   private int particoes;
+
+   /** Soma das partições, carregada nas leituras de contas particionadas. */
+   @Transient
+   private BigDecimal saldoParticoes = BigDecimal.ZERO;
+
+   /** Saldo efetivo da conta: valor da linha principal mais a soma das partições. */
+   public BigDecimal getSaldoTotal() {
+      if (valor == null || saldoParticoes == null) {
+         return valor;
+      }
+      return valor.add(saldoParticoes);
+   }
+
    @Override
    public boolean equals(Object o) {
       if (this == o) return true;
@@ -62,6 +79,7 @@ public class Beneficio implements Serializable {
                ", valor=" + valor +
                ", ativo=" + ativo +
                ", version=" + version +
+               ", particoes=" + particoes +
                '}';
    }
 }
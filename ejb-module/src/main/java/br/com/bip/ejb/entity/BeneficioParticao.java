@@ -0,0 +1,69 @@
+package br.com.bip.ejb.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Sub-saldo (partição) de um benefício com alto volume de créditos. O saldo da conta é
+ * {@code BENEFICIO.VALOR} mais a soma das suas partições.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "BENEFICIO_PARTICAO")
+@IdClass(BeneficioParticao.Chave.class)
+public class BeneficioParticao implements Serializable {
+
+   private static final long serialVersionUID = 1L;
+
+   @Id
+   @Column(name = "BENEFICIO_ID")
+   private Long beneficioId;
+
+   @Id
+   @Column(name = "PARTICAO")
+   private Integer particao;
+
+   @Column(name = "VALOR", precision = 15, scale = 2, nullable = false)
+   private BigDecimal valor = BigDecimal.ZERO;
+
+   @Version
+   @Column(name = "VERSION")
+   private Long version;
+
+   public BeneficioParticao(Long beneficioId, Integer particao) {
+      this.beneficioId = beneficioId;
+      this.particao = particao;
+   }
+
+   @Getter
+   @Setter
+   @NoArgsConstructor
+   public static class Chave implements Serializable {
+
+      private static final long serialVersionUID = 1L;
+
+      private Long beneficioId;
+      private Integer particao;
+
+      @Override
+      public boolean equals(Object o) {
+         if (this == o) return true;
+         if (o == null || getClass() != o.getClass()) return false;
+         Chave chave = (Chave) o;
+         return Objects.equals(beneficioId, chave.beneficioId) && Objects.equals(particao, chave.particao);
+      }
+
+      @Override
+      public int hashCode() {
+         return Objects.hash(beneficioId, particao);
+      }
+   }
+}
@@ -0,0 +1,46 @@
+package br.com.bip.ejb.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Resumo mantido incrementalmente por create/update/delete (quando
+ * {@code bip.estatisticas.resumo} está ativo), para ler contagens e soma em O(1). Fora do cache
+ * compartilhado: é alterado por UPDATEs em massa e pela recomposição nativa.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Cacheable(false)
+@Table(name = "BENEFICIO_RESUMO")
+public class BeneficioResumo implements Serializable {
+
+   private static final long serialVersionUID = 1L;
+
+   /** ID da única linha de resumo. */
+   public static final Long UNICO = 1L;
+
+   @Id
+   @Column(name = "ID")
+   private Long id;
+
+   @Column(name = "QUANTIDADE", nullable = false)
+   private Long quantidade = 0L;
+
+   @Column(name = "ATIVOS", nullable = false)
+   private Long ativos = 0L;
+
+   /** Soma dos saldos, incluindo créditos do livro-razão ainda não projetados. */
+   @Column(name = "SOMA", precision = 19, scale = 2, nullable = false)
+   private BigDecimal soma = BigDecimal.ZERO;
+
+   @Column(name = "ATUALIZADO_EM")
+   private LocalDateTime atualizadoEm;
+}
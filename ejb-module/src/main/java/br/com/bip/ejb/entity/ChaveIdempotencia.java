@@ -0,0 +1,73 @@
+package br.com.bip.ejb.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Registro de uma transferência já confirmada para uma chave {@code Idempotency-Key}.
+ * Uma repetição da mesma chave até {@code expiraEm} é respondida a partir deste registro,
+ * sem executar (nem bloquear) a transferência novamente.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "TRANSFERENCIA_IDEMPOTENCIA")
+public class ChaveIdempotencia implements Serializable {
+
+   private static final long serialVersionUID = 1L;
+
+   @Id
+   @Column(name = "CHAVE", length = 100)
+   private String chave;
+
+   @Column(name = "ORIGEM_ID", nullable = false)
+   private Long origemId;
+
+   @Column(name = "DESTINO_ID", nullable = false)
+   private Long destinoId;
+
+   @Column(name = "VALOR", precision = 15, scale = 2, nullable = false)
+   private BigDecimal valor;
+
+   @Column(name = "CRIADA_EM", nullable = false)
+   private LocalDateTime criadaEm;
+
+   @Column(name = "EXPIRA_EM", nullable = false)
+   private LocalDateTime expiraEm;
+
+   @Version
+   @Column(name = "VERSION")
+   private Long version;
+
+   public ChaveIdempotencia(String chave) {
+      this.chave = chave;
+   }
+
+   /** Reaproveita o registro (novo ou expirado) para uma nova transferência. */
+   public void registrar(Long origemId, Long destinoId, BigDecimal valor, LocalDateTime agora, LocalDateTime expiraEm) {
+      this.origemId = origemId;
+      this.destinoId = destinoId;
+      this.valor = valor;
+      this.criadaEm = agora;
+      this.expiraEm = expiraEm;
+   }
+
+   public boolean isValida(LocalDateTime agora) {
+      return expiraEm != null && expiraEm.isAfter(agora);
+   }
+
+   /** Indica se a repetição descreve a mesma transferência registrada para a chave. */
+   public boolean corresponde(Long origemId, Long destinoId, BigDecimal valor) {
+      return Objects.equals(this.origemId, origemId)
+               && Objects.equals(this.destinoId, destinoId)
+               && this.valor != null && valor != null && this.valor.compareTo(valor) == 0;
+   }
+}
@@ -0,0 +1,46 @@
+package br.com.bip.ejb.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Progresso do projetor do livro-razão. A linha única também serializa projetores
+ * concorrentes (ex: mais de um nó), que a bloqueiam antes de cada lote.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "TRANSFERENCIA_CHECKPOINT")
+public class ProjecaoCheckpoint implements Serializable {
+
+   private static final long serialVersionUID = 1L;
+
+   /** ID da única linha de checkpoint. */
+   public static final Long LEDGER = 1L;
+
+   @Id
+   @Column(name = "ID")
+   private Long id;
+
+   /** Maior ID de lançamento já projetado. */
+   @Column(name = "ULTIMO_ID", nullable = false)
+   private Long ultimoId = 0L;
+
+   @Column(name = "TOTAL_APLICADAS", nullable = false)
+   private Long totalAplicadas = 0L;
+
+   @Column(name = "ATUALIZADO_EM")
+   private LocalDateTime atualizadoEm;
+
+   public void avancar(Long ultimoIdLote, int aplicadas) {
+      this.ultimoId = Math.max(ultimoId, ultimoIdLote);
+      this.totalAplicadas += aplicadas;
+      this.atualizadoEm = LocalDateTime.now();
+   }
+}
@@ -0,0 +1,74 @@
+package br.com.bip.ejb.entity;
+
+import br.com.bip.ejb.model.ModoConcorrencia;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Lançamento do livro-razão de transferências (append-only). Lançamentos com
+ * {@code aplicada = false} têm o crédito pendente de projeção no saldo do destino.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "TRANSFERENCIA")
+@SequenceGenerator(name = "transferencia_seq", sequenceName = "TRANSFERENCIA_ID_SEQ", allocationSize = 50)
+public class Transferencia implements Serializable {
+
+   private static final long serialVersionUID = 1L;
+
+   @Id
+   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transferencia_seq")
+   @Column(name = "ID")
+   private Long id;
+
+   @Column(name = "ORIGEM_ID", nullable = false)
+   private Long origemId;
+
+   @Column(name = "DESTINO_ID", nullable = false)
+   private Long destinoId;
+
+   @Column(name = "VALOR", precision = 15, scale = 2, nullable = false)
+   private BigDecimal valor;
+
+   @Enumerated(EnumType.STRING)
+   @Column(name = "MODO", length = 20, nullable = false)
+   private ModoConcorrencia modo;
+
+   @Column(name = "CRIADA_EM", nullable = false)
+   private LocalDateTime criadaEm;
+
+   /** Indica se o crédito já está refletido em {@code BENEFICIO.VALOR} do destino. */
+   @Column(name = "APLICADA", nullable = false)
+   private boolean aplicada;
+
+   public Transferencia(Long origemId, Long destinoId, BigDecimal valor, ModoConcorrencia modo, boolean aplicada) {
+      this.origemId = origemId;
+      this.destinoId = destinoId;
+      this.valor = valor;
+      this.modo = modo;
+      this.aplicada = aplicada;
+      this.criadaEm = LocalDateTime.now();
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Transferencia that = (Transferencia) o;
+      return id != null && Objects.equals(id, that.id);
+   }
+
+   @Override
+   public int hashCode() {
+      return getClass().hashCode();
+   }
+}
@@ -0,0 +1,48 @@
+package br.com.bip.ejb.estatisticas;
+
+import br.com.bip.ejb.config.BipConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.ejb.DependsOn;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Recompõe BENEFICIO_RESUMO a partir das tabelas na subida e a cada hora, quando o resumo
+ * incremental está ativo. Corrige o que os incrementos não veem (carga por script, SQL manual,
+ * resumo ativado depois de já haver dados).
+ */
+@Singleton
+@Startup
+@DependsOn("MigracaoSchema")
+public class ResumoBeneficios {
+
+   /** Saldos = linhas principais + partições + créditos pendentes do livro-razão. */
+   public static final String SOMA_SALDOS = "(SELECT COALESCE(SUM(VALOR), 0) FROM BENEFICIO)"
+            + " + (SELECT COALESCE(SUM(VALOR), 0) FROM BENEFICIO_PARTICAO)"
+            + " + (SELECT COALESCE(SUM(VALOR), 0) FROM TRANSFERENCIA WHERE APLICADA = FALSE)";
+
+   public static final String RECOMPOR = "UPDATE BENEFICIO_RESUMO SET"
+            + " QUANTIDADE = (SELECT COUNT(*) FROM BENEFICIO),"
+            + " ATIVOS = (SELECT COUNT(*) FROM BENEFICIO WHERE ATIVO = TRUE),"
+            + " SOMA = " + SOMA_SALDOS + ","
+            + " ATUALIZADO_EM = CURRENT_TIMESTAMP"
+            + " WHERE ID = 1";
+
+   @PersistenceContext(unitName = "bip-pu")
+   private EntityManager em;
+
+   @PostConstruct
+   public void aoSubir() {
+      recompor();
+   }
+
+   @Schedule(hour = "*", minute = "7", persistent = false)
+   public void recompor() {
+      if (BipConfig.estatisticasResumo()) {
+         em.createNativeQuery(RECOMPOR).executeUpdate();
+      }
+   }
+}
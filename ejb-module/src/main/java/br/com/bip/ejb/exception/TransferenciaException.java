@@ -1,15 +1,29 @@
 package br.com.bip.ejb.exception;
 
+import br.com.bip.ejb.model.MotivoRecusa;
 import jakarta.ejb.ApplicationException;
 
 @ApplicationException(rollback = true)
 public class TransferenciaException extends RuntimeException {
 
+   /** Regra de negócio violada; {@code null} para falhas técnicas (lock, conflito, persistência). */
+   private final MotivoRecusa motivo;
+
    public TransferenciaException(String message) {
+      this(null, message);
+   }
+
+   public TransferenciaException(MotivoRecusa motivo, String message) {
       super(message);
+      this.motivo = motivo;
    }
 
    public TransferenciaException(String message, Throwable cause) {
       super(message, cause);
+      this.motivo = null;
+   }
+
+   public MotivoRecusa getMotivo() {
+      return motivo;
    }
 }
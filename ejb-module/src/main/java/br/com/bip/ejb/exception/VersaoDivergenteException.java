@@ -0,0 +1,25 @@
+package br.com.bip.ejb.exception;
+
+import jakarta.ejb.ApplicationException;
+
+/**
+ * A versão esperada pelo cliente (ex: header {@code If-Match}) não é a versão atual da conta,
+ * ou a conta não existe mais. Nada é gravado.
+ */
+@ApplicationException(rollback = true)
+public class VersaoDivergenteException extends RuntimeException {
+
+   private final Long versaoAtual;
+
+   public VersaoDivergenteException(Long id, Long versaoEsperada, Long versaoAtual) {
+      super(versaoAtual == null ? "Benefício não encontrado com ID: " + id
+               : versaoEsperada == null ? "Benefício " + id + " foi alterado: versão atual " + versaoAtual + "."
+               : "Benefício " + id + " foi alterado: versão esperada " + versaoEsperada + ", atual " + versaoAtual + ".");
+      this.versaoAtual = versaoAtual;
+   }
+
+   /** Versão atual da conta; {@code null} se ela não existe. */
+   public Long getVersaoAtual() {
+      return versaoAtual;
+   }
+}
@@ -0,0 +1,21 @@
+package br.com.bip.ejb.idempotencia;
+
+import br.com.bip.ejb.BeneficioEjbServiceLocal;
+import jakarta.ejb.EJB;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+
+/**
+ * Remove periodicamente as chaves de idempotência expiradas de TRANSFERENCIA_IDEMPOTENCIA.
+ */
+@Singleton
+public class ExpurgoIdempotencia {
+
+   @EJB
+   private BeneficioEjbServiceLocal beneficioService;
+
+   @Schedule(hour = "*", minute = "*/15", persistent = false)
+   public void expurgar() {
+      beneficioService.purgeIdempotencyKeys();
+   }
+}
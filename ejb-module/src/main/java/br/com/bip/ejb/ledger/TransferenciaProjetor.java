@@ -0,0 +1,30 @@
+package br.com.bip.ejb.ledger;
+
+import br.com.bip.ejb.BeneficioEjbServiceLocal;
+import br.com.bip.ejb.config.BipConfig;
+import jakarta.ejb.EJB;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+
+/**
+ * Materializa a cada segundo os créditos pendentes do livro-razão (transferências ASSINCRONO)
+ * em {@code BENEFICIO.VALOR}. O tamanho do lote vem de {@link BipConfig#projecaoLote()}.
+ */
+@Singleton
+public class TransferenciaProjetor {
+
+   @EJB
+   private BeneficioEjbServiceLocal beneficioService;
+
+   /** Projeta lotes até esvaziar a fila; cada lote é confirmado na sua própria transação. */
+   @Schedule(hour = "*", minute = "*", second = "*", persistent = false)
+   @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+   public void projetar() {
+      int lote = BipConfig.projecaoLote();
+      while (beneficioService.projectLedger(lote) == lote) {
+         // continua enquanto houver lotes cheios pendentes
+      }
+   }
+}
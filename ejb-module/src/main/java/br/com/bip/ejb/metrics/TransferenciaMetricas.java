@@ -0,0 +1,89 @@
+package br.com.bip.ejb.metrics;
+
+import br.com.bip.ejb.model.ModoConcorrencia;
+import br.com.bip.ejb.model.MotivoRecusa;
+import br.com.bip.ejb.model.TransferenciaEstatistica;
+import br.com.bip.ejb.model.TransferenciaTelemetria;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de transferências por estratégia de concorrência, recusas por motivo e espera
+ * pelos locks de linha. Os {@link LongAdder} evitam
+ * contenção entre as threads que registram, por isso o lock do container é desabilitado.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class TransferenciaMetricas {
+
+   private final Map<ModoConcorrencia, LongAdder> execucoes = criarContadores();
+   private final Map<ModoConcorrencia, LongAdder> retentativas = criarContadores();
+   private final Map<ModoConcorrencia, LongAdder> desistencias = criarContadores();
+   private final Map<MotivoRecusa, LongAdder> recusas = criarContadoresRecusa();
+   private final LongAdder esperasLock = new LongAdder();
+   private final LongAdder esperaLockTotalNanos = new LongAdder();
+   private final LongAccumulator esperaLockMaxNanos = new LongAccumulator(Math::max, 0);
+
+   public void registrarExecucao(ModoConcorrencia modo) {
+      execucoes.get(modo).increment();
+   }
+
+   public void registrarRetentativa(ModoConcorrencia modo) {
+      retentativas.get(modo).increment();
+   }
+
+   public void registrarDesistencia(ModoConcorrencia modo) {
+      desistencias.get(modo).increment();
+   }
+
+   public void registrarRecusa(MotivoRecusa motivo) {
+      recusas.get(motivo).increment();
+   }
+
+   public void registrarEsperaLock(long nanos) {
+      esperasLock.increment();
+      esperaLockTotalNanos.add(nanos);
+      esperaLockMaxNanos.accumulate(nanos);
+   }
+
+   public List<TransferenciaEstatistica> estatisticas() {
+      List<TransferenciaEstatistica> resultado = new ArrayList<>();
+      for (ModoConcorrencia modo : ModoConcorrencia.values()) {
+         resultado.add(new TransferenciaEstatistica(modo,
+                  execucoes.get(modo).sum(),
+                  retentativas.get(modo).sum(),
+                  desistencias.get(modo).sum()));
+      }
+      return resultado;
+   }
+
+   public TransferenciaTelemetria telemetria() {
+      Map<MotivoRecusa, Long> porMotivo = new EnumMap<>(MotivoRecusa.class);
+      recusas.forEach((motivo, contador) -> porMotivo.put(motivo, contador.sum()));
+      return new TransferenciaTelemetria(porMotivo, esperasLock.sum(), esperaLockTotalNanos.sum(), esperaLockMaxNanos.get());
+   }
+
+   private static Map<MotivoRecusa, LongAdder> criarContadoresRecusa() {
+      Map<MotivoRecusa, LongAdder> contadores = new EnumMap<>(MotivoRecusa.class);
+      for (MotivoRecusa motivo : MotivoRecusa.values()) {
+         contadores.put(motivo, new LongAdder());
+      }
+      return contadores;
+   }
+
+   private static Map<ModoConcorrencia, LongAdder> criarContadores() {
+      Map<ModoConcorrencia, LongAdder> contadores = new EnumMap<>(ModoConcorrencia.class);
+      for (ModoConcorrencia modo : ModoConcorrencia.values()) {
+         contadores.put(modo, new LongAdder());
+      }
+      return contadores;
+   }
+}
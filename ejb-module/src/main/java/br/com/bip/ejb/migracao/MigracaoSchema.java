@@ -0,0 +1,40 @@
+package br.com.bip.ejb.migracao;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.TransactionManagement;
+import jakarta.ejb.TransactionManagementType;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Aplica as migrações pendentes ({@link MigracoesSchema}) na subida, antes dos demais beans que
+ * leem o banco ao iniciar ({@code @DependsOn("MigracaoSchema")}). Em um banco vazio, carrega
+ * também o seed de demonstração. Transações gerenciadas pelo bean: os commits são feitos na
+ * própria conexão, script a script.
+ */
+@Singleton
+@Startup
+@TransactionManagement(TransactionManagementType.BEAN)
+public class MigracaoSchema {
+
+   @Resource(lookup = "java:openejb/Resource/jdbc/MeuDataSource")
+   private DataSource dataSource;
+
+   @PostConstruct
+   public void aoSubir() {
+      try (Connection conexao = dataSource.getConnection()) {
+         List<String> aplicadas = MigracoesSchema.aplicar(conexao);
+         if (aplicadas.contains(MigracoesSchema.SCRIPTS.get(0))) {
+            MigracoesSchema.executarRecurso(conexao, MigracoesSchema.SEED);
+         }
+      } catch (SQLException e) {
+         throw new IllegalStateException("Falha ao migrar o schema do banco.", e);
+      }
+   }
+}
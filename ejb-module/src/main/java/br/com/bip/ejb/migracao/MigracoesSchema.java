@@ -0,0 +1,179 @@
+package br.com.bip.ejb.migracao;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Migrações versionadas do schema ({@code META-INF/sql/migracoes}, espelhadas em {@code db/migracoes}).
+ * Cada script roda uma única vez, em ordem, e fica registrado em SCHEMA_VERSAO com o checksum do
+ * conteúdo; um script já aplicado que mudou de conteúdo interrompe a subida em vez de divergir em
+ * silêncio. Mudanças de schema entram como um novo {@code V<n>__descricao.sql} no fim de
+ * {@link #SCRIPTS}, nunca editando um já publicado.
+ * <p>
+ * O H2 faz commit implícito a cada DDL: um script que falha no meio fica parcialmente aplicado
+ * e sem registro, e precisa de correção manual antes da próxima subida.
+ */
+public final class MigracoesSchema {
+
+   public static final String PASTA = "META-INF/sql/migracoes/";
+
+   public static final List<String> SCRIPTS = List.of(
+            "V1__schema_inicial.sql",
+            "V2__indice_ativo_e_sequencia_transferencia.sql");
+
+   /** Dados de demonstração, carregados só quando o schema é criado do zero. */
+   public static final String SEED = "META-INF/sql/seed.sql";
+
+   private static final String CRIAR_TABELA_VERSAO = "CREATE TABLE IF NOT EXISTS SCHEMA_VERSAO ("
+            + "SCRIPT VARCHAR(200) NOT NULL PRIMARY KEY, CHECKSUM BIGINT NOT NULL, APLICADA_EM TIMESTAMP NOT NULL)";
+
+   private MigracoesSchema() {
+   }
+
+   /**
+    * Aplica as migrações pendentes e devolve os scripts aplicados agora (vazio se o schema já
+    * estava atualizado).
+    */
+   public static List<String> aplicar(Connection conexao) throws SQLException {
+      return aplicar(conexao, SCRIPTS);
+   }
+
+   /** Aplica só os {@code scripts} informados (prefixo de {@link #SCRIPTS}), para testes de evolução. */
+   static List<String> aplicar(Connection conexao, List<String> scripts) throws SQLException {
+      boolean autoCommit = conexao.getAutoCommit();
+      conexao.setAutoCommit(false);
+      try {
+         try (Statement st = conexao.createStatement()) {
+            st.execute(CRIAR_TABELA_VERSAO);
+         }
+         conexao.commit();
+
+         Map<String, Long> aplicadas = aplicadas(conexao);
+         List<String> novas = new ArrayList<>();
+         for (String script : scripts) {
+            String conteudo = ler(PASTA + script);
+            long checksum = checksum(conteudo);
+            Long registrado = aplicadas.get(script);
+            if (registrado != null) {
+               if (registrado != checksum) {
+                  throw new IllegalStateException("Migração " + script + " foi alterada depois de aplicada.");
+               }
+               continue;
+            }
+            executar(conexao, conteudo);
+            registrar(conexao, script, checksum);
+            conexao.commit();
+            novas.add(script);
+         }
+         return novas;
+      } catch (SQLException | RuntimeException e) {
+         conexao.rollback();
+         throw e;
+      } finally {
+         conexao.setAutoCommit(autoCommit);
+      }
+   }
+
+   /** Executa um script de recurso do classpath (ex: {@link #SEED}) em uma transação. */
+   public static void executarRecurso(Connection conexao, String recurso) throws SQLException {
+      boolean autoCommit = conexao.getAutoCommit();
+      conexao.setAutoCommit(false);
+      try {
+         executar(conexao, ler(recurso));
+         conexao.commit();
+      } catch (SQLException | RuntimeException e) {
+         conexao.rollback();
+         throw e;
+      } finally {
+         conexao.setAutoCommit(autoCommit);
+      }
+   }
+
+   /** Comandos do script: separados por {@code ;} no fim da linha, ignorando linhas de comentário. */
+   static List<String> comandos(String conteudo) {
+      List<String> comandos = new ArrayList<>();
+      StringBuilder atual = new StringBuilder();
+      for (String linha : conteudo.split("\\R")) {
+         String aparada = linha.strip();
+         if (aparada.isEmpty() || aparada.startsWith("--")) {
+            continue;
+         }
+         if (atual.length() > 0) {
+            atual.append('\n');
+         }
+         atual.append(aparada);
+         if (aparada.endsWith(";")) {
+            atual.setLength(atual.length() - 1);
+            comandos.add(atual.toString());
+            atual.setLength(0);
+         }
+      }
+      if (atual.length() > 0) {
+         comandos.add(atual.toString());
+      }
+      return comandos;
+   }
+
+   private static void executar(Connection conexao, String conteudo) throws SQLException {
+      try (Statement st = conexao.createStatement()) {
+         for (String comando : comandos(conteudo)) {
+            st.execute(comando);
+         }
+      }
+   }
+
+   private static Map<String, Long> aplicadas(Connection conexao) throws SQLException {
+      Map<String, Long> aplicadas = new HashMap<>();
+      try (Statement st = conexao.createStatement();
+           ResultSet rs = st.executeQuery("SELECT SCRIPT, CHECKSUM FROM SCHEMA_VERSAO")) {
+         while (rs.next()) {
+            aplicadas.put(rs.getString(1), rs.getLong(2));
+         }
+      }
+      return aplicadas;
+   }
+
+   private static void registrar(Connection conexao, String script, long checksum) throws SQLException {
+      try (PreparedStatement ps = conexao.prepareStatement(
+               "INSERT INTO SCHEMA_VERSAO (SCRIPT, CHECKSUM, APLICADA_EM) VALUES (?, ?, ?)")) {
+         ps.setString(1, script);
+         ps.setLong(2, checksum);
+         ps.setTimestamp(3, Timestamp.from(Instant.now()));
+         ps.executeUpdate();
+      }
+   }
+
+   /** CRC32 dos comandos (sem comentários nem espaços das pontas), para tolerar só mudanças cosméticas. */
+   private static long checksum(String conteudo) {
+      CRC32 crc = new CRC32();
+      for (String comando : comandos(conteudo)) {
+         crc.update(comando.getBytes(StandardCharsets.UTF_8));
+      }
+      return crc.getValue();
+   }
+
+   private static String ler(String recurso) {
+      try (InputStream in = MigracoesSchema.class.getClassLoader().getResourceAsStream(recurso)) {
+         if (in == null) {
+            throw new IllegalStateException("Script não encontrado no classpath: " + recurso);
+         }
+         return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+}
@@ -0,0 +1,31 @@
+package br.com.bip.ejb.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Agregados dos saldos dos benefícios (linha principal + partições + créditos pendentes do
+ * livro-razão), calculados no banco. A soma é definida igual com ou sem o resumo incremental.
+ * Quando vêm do resumo incremental ({@code resumo = true}), só quantidade, ativos, inativos e
+ * soma são preenchidos; mínimo, máximo e percentis exigem o cálculo completo.
+ */
+@Getter
+@AllArgsConstructor
+public class BeneficioEstatisticas implements Serializable {
+
+   private static final long serialVersionUID = 1L;
+
+   private final long quantidade;
+   private final long ativos;
+   private final long inativos;
+   private final BigDecimal soma;
+   private final BigDecimal minimo;
+   private final BigDecimal maximo;
+   private final BigDecimal percentil50;
+   private final BigDecimal percentil90;
+   private final BigDecimal percentil99;
+   private final boolean resumo;
+}
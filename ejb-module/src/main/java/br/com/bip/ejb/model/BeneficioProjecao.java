@@ -0,0 +1,37 @@
+package br.com.bip.ejb.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Linha de listagem lida por expressão construtora (JPQL {@code SELECT NEW}), sem passar por
+ * entidade gerenciada. {@code valor} é o saldo total (linha principal + partições). Nas leituras
+ * com seleção de campos, os não selecionados ficam nulos (ou {@code false}).
+ */
+@Getter
+@AllArgsConstructor
+public class BeneficioProjecao implements Serializable {
+
+   private static final long serialVersionUID = 1L;
+
+   /** Campos selecionáveis, na ordem das colunas. */
+   public static final List<String> CAMPOS = List.of("id", "nome", "descricao", "valor", "ativo", "version", "particoes");
+
+   private final Long id;
+   private final String nome;
+   private final String descricao;
+   private final BigDecimal valor;
+   private final boolean ativo;
+   private final Long version;
+   private final int particoes;
+
+   /** Cópia com a soma das partições acrescida ao valor da linha principal. */
+   public BeneficioProjecao comSaldoParticoes(BigDecimal saldoParticoes) {
+      return new BeneficioProjecao(id, nome, descricao, valor == null ? null : valor.add(saldoParticoes), ativo, version,
+               particoes);
+   }
+}
@@ -0,0 +1,32 @@
+package br.com.bip.ejb.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Saldos de uma faixa de IDs lidos sem lock para a conciliação: soma (linha principal +
+ * partições + créditos pendentes para as contas da faixa) e somas de controle. {@code checksum}
+ * soma o hash de (ID, saldo) de cada conta; {@code somaIds} e {@code somaVersoes} (incluindo as
+ * partições) identificam o estado lido, então a mesma identidade com outro checksum indica saldo
+ * alterado sem passar pelo EJB. {@code inconsistentes} lista contas com saldo negativo ou com
+ * partições diferentes de PARTICOES.
+ */
+@Getter
+@AllArgsConstructor
+public class ConciliacaoFaixa implements Serializable {
+
+   private static final long serialVersionUID = 1L;
+
+   private final long primeiroId;
+   private final long ultimoId;
+   private final long contas;
+   private final BigDecimal saldo;
+   private final long somaIds;
+   private final long somaVersoes;
+   private final long checksum;
+   private final List<Long> inconsistentes;
+}
@@ -0,0 +1,25 @@
+package br.com.bip.ejb.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Linha de controle da conciliação, lida em um único comando. {@code esperado} é a soma mantida
+ * em BENEFICIO_RESUMO ({@code null} sem o resumo incremental); {@code apurado} é a soma real dos
+ * saldos, quando pedida. {@code menorId}/{@code maiorId} cobrem contas e destinos de créditos
+ * pendentes ({@code null} se não há nenhum).
+ */
+@Getter
+@AllArgsConstructor
+public class ConciliacaoTotais implements Serializable {
+
+   private static final long serialVersionUID = 1L;
+
+   private final BigDecimal esperado;
+   private final BigDecimal apurado;
+   private final Long menorId;
+   private final Long maiorId;
+}
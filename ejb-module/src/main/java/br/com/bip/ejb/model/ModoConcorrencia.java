@@ -0,0 +1,19 @@
+package br.com.bip.ejb.model;
+
+/**
+ * Estratégia de controle de concorrência usada pela transferência.
+ */
+public enum ModoConcorrencia {
+
+   /** Bloqueia as linhas ({@code SELECT ... FOR UPDATE}) antes de validar e alterar. */
+   PESSIMISTA,
+
+   /** Lê sem lock e aplica um UPDATE condicional pela coluna VERSION, repetindo em caso de conflito. */
+   OTIMISTA,
+
+   /**
+    * Debita a origem com um UPDATE condicional ao saldo e grava o crédito no livro-razão;
+    * o saldo do destino é materializado depois pelo projetor, em lotes.
+    */
+   ASSINCRONO
+}
@@ -0,0 +1,20 @@
+package br.com.bip.ejb.model;
+
+/**
+ * Regra de negócio que recusou uma transferência; usado para contar as recusas por motivo
+ * sem depender do texto da mensagem.
+ */
+public enum MotivoRecusa {
+
+   VALOR_INVALIDO,
+
+   CONTA_NULA,
+
+   MESMA_CONTA,
+
+   ORIGEM_INEXISTENTE,
+
+   DESTINO_INEXISTENTE,
+
+   SALDO_INSUFICIENTE
+}
@@ -0,0 +1,26 @@
+package br.com.bip.ejb.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Serializable;
+
+/**
+ * Contadores acumulados de uma estratégia de concorrência desde a subida da aplicação.
+ */
+@Getter
+@AllArgsConstructor
+public class TransferenciaEstatistica implements Serializable {
+
+   private static final long serialVersionUID = 1L;
+
+   private final ModoConcorrencia modo;
+   private final long execucoes;
+   private final long retentativas;
+   private final long desistencias;
+
+   /** Retentativas por transferência concluída; base para comparar as estratégias. */
+   public double getTaxaRetentativa() {
+      return execucoes == 0 ? 0.0 : (double) retentativas / execucoes;
+   }
+}
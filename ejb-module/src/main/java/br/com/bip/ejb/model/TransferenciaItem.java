@@ -0,0 +1,21 @@
+package br.com.bip.ejb.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Uma perna de um lote de transferências.
+ */
+@Getter
+@AllArgsConstructor
+public class TransferenciaItem implements Serializable {
+
+   private static final long serialVersionUID = 1L;
+
+   private final Long fromId;
+   private final Long toId;
+   private final BigDecimal amount;
+}
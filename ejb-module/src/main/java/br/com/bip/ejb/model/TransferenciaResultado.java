@@ -0,0 +1,28 @@
+package br.com.bip.ejb.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Serializable;
+
+/**
+ * Resultado de uma perna do lote, na mesma posição em que foi enviada.
+ */
+@Getter
+@AllArgsConstructor
+public class TransferenciaResultado implements Serializable {
+
+   private static final long serialVersionUID = 1L;
+
+   private final int indice;
+   private final boolean sucesso;
+   private final String mensagem;
+
+   public static TransferenciaResultado ok(int indice) {
+      return new TransferenciaResultado(indice, true, null);
+   }
+
+   public static TransferenciaResultado falha(int indice, String mensagem) {
+      return new TransferenciaResultado(indice, false, mensagem);
+   }
+}
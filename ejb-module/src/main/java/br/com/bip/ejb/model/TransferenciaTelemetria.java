@@ -0,0 +1,25 @@
+package br.com.bip.ejb.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * Contadores acumulados desde a subida da aplicação que complementam {@link TransferenciaEstatistica}:
+ * recusas por regra de negócio e tempo de espera pelos locks de linha.
+ */
+@Getter
+@AllArgsConstructor
+public class TransferenciaTelemetria implements Serializable {
+
+   private static final long serialVersionUID = 1L;
+
+   private final Map<MotivoRecusa, Long> recusas;
+
+   /** Aquisições de lock pessimista ({@code SELECT ... FOR UPDATE}), incluindo retentativas. */
+   private final long esperasLock;
+   private final long esperaLockTotalNanos;
+   private final long esperaLockMaxNanos;
+}
@@ -2,6 +2,7 @@ package br.com.bip.ejb.validation;
 
 import br.com.bip.ejb.entity.Beneficio;
 import br.com.bip.ejb.exception.TransferenciaException;
+import br.com.bip.ejb.model.MotivoRecusa;
 import jakarta.ejb.Stateless;
 
 import java.math.BigDecimal;
@@ -14,26 +15,26 @@ public class TransferenciaValidator {
 
       // --- 1. Validação de Entrada ---
       if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
-         throw new TransferenciaException("O valor da transferência deve ser positivo.");
+         throw new TransferenciaException(MotivoRecusa.VALOR_INVALIDO, "O valor da transferência deve ser positivo.");
       }
       if (fromId == null || toId == null) {
-         throw new TransferenciaException("IDs de origem e destino não podem ser nulos.");
+         throw new TransferenciaException(MotivoRecusa.CONTA_NULA, "IDs de origem e destino não podem ser nulos.");
       }
       if (fromId.equals(toId)) {
-         throw new TransferenciaException("A conta de origem e destino não podem ser as mesmas.");
+         throw new TransferenciaException(MotivoRecusa.MESMA_CONTA, "A conta de origem e destino não podem ser as mesmas.");
       }
 
       // --- 2. Validação de Existência ---
       if (from == null) {
-         throw new TransferenciaException("Conta de origem não encontrada (ID: " + fromId + ").");
+         throw new TransferenciaException(MotivoRecusa.ORIGEM_INEXISTENTE, "Conta de origem não encontrada (ID: " + fromId + ").");
       }
       if (to == null) {
-         throw new TransferenciaException("Conta de destino não encontrada (ID: " + toId + ").");
+         throw new TransferenciaException(MotivoRecusa.DESTINO_INEXISTENTE, "Conta de destino não encontrada (ID: " + toId + ").");
       }
 
       // --- 3. Validação da Regra de Negócio (Saldo) ---
       if (from.getValor().compareTo(amount) < 0) {
-         throw new TransferenciaException("Saldo insuficiente na conta de origem (ID: " + fromId + ").");
+         throw new TransferenciaException(MotivoRecusa.SALDO_INSUFICIENTE, "Saldo insuficiente na conta de origem (ID: " + fromId + ").");
       }
    }
 }
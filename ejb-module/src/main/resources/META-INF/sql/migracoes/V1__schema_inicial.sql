@@ -0,0 +1,71 @@
+-- IDs de BENEFICIO em blocos de 50 (allocationSize do @SequenceGenerator): uma ida à sequência a cada 50 inserts
+CREATE SEQUENCE BENEFICIO_ID_SEQ START WITH 100 INCREMENT BY 50;
+
+CREATE TABLE BENEFICIO (
+  ID BIGINT NOT NULL PRIMARY KEY,
+  NOME VARCHAR(100) NOT NULL,
+  DESCRICAO VARCHAR(255),
+  VALOR DECIMAL(15, 2) NOT NULL,
+  ATIVO BOOLEAN DEFAULT TRUE,
+  VERSION BIGINT DEFAULT 0,
+  PARTICOES INT DEFAULT 0 NOT NULL
+);
+
+-- Sub-saldos de contas com alto volume de créditos (opt-in por conta)
+CREATE TABLE BENEFICIO_PARTICAO (
+  BENEFICIO_ID BIGINT NOT NULL,
+  PARTICAO INT NOT NULL,
+  VALOR DECIMAL(15, 2) DEFAULT 0 NOT NULL,
+  VERSION BIGINT DEFAULT 0,
+  PRIMARY KEY (BENEFICIO_ID, PARTICAO),
+  FOREIGN KEY (BENEFICIO_ID) REFERENCES BENEFICIO (ID)
+);
+
+-- Livro-razão de transferências (append-only); APLICADA = FALSE indica crédito pendente de projeção
+CREATE SEQUENCE TRANSFERENCIA_ID_SEQ START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE TRANSFERENCIA (
+  ID BIGINT NOT NULL PRIMARY KEY,
+  ORIGEM_ID BIGINT NOT NULL,
+  DESTINO_ID BIGINT NOT NULL,
+  VALOR DECIMAL(15, 2) NOT NULL,
+  MODO VARCHAR(20) NOT NULL,
+  CRIADA_EM TIMESTAMP NOT NULL,
+  APLICADA BOOLEAN DEFAULT FALSE NOT NULL
+);
+
+CREATE INDEX IDX_TRANSFERENCIA_PENDENTE ON TRANSFERENCIA (APLICADA, ID);
+
+-- Progresso do projetor (linha única)
+CREATE TABLE TRANSFERENCIA_CHECKPOINT (
+  ID BIGINT NOT NULL PRIMARY KEY,
+  ULTIMO_ID BIGINT DEFAULT 0 NOT NULL,
+  TOTAL_APLICADAS BIGINT DEFAULT 0 NOT NULL,
+  ATUALIZADO_EM TIMESTAMP
+);
+
+INSERT INTO TRANSFERENCIA_CHECKPOINT (ID, ULTIMO_ID, TOTAL_APLICADAS) VALUES (1, 0, 0);
+
+-- Chaves de idempotência de transferências confirmadas (expurgadas após EXPIRA_EM)
+CREATE TABLE TRANSFERENCIA_IDEMPOTENCIA (
+  CHAVE VARCHAR(100) NOT NULL PRIMARY KEY,
+  ORIGEM_ID BIGINT NOT NULL,
+  DESTINO_ID BIGINT NOT NULL,
+  VALOR DECIMAL(15, 2) NOT NULL,
+  CRIADA_EM TIMESTAMP NOT NULL,
+  EXPIRA_EM TIMESTAMP NOT NULL,
+  VERSION BIGINT DEFAULT 0
+);
+
+CREATE INDEX IDX_IDEMPOTENCIA_EXPIRA ON TRANSFERENCIA_IDEMPOTENCIA (EXPIRA_EM);
+
+-- Resumo incremental das estatísticas (linha única; ver bip.estatisticas.resumo)
+CREATE TABLE BENEFICIO_RESUMO (
+  ID BIGINT NOT NULL PRIMARY KEY,
+  QUANTIDADE BIGINT DEFAULT 0 NOT NULL,
+  ATIVOS BIGINT DEFAULT 0 NOT NULL,
+  SOMA DECIMAL(19, 2) DEFAULT 0 NOT NULL,
+  ATUALIZADO_EM TIMESTAMP
+);
+
+INSERT INTO BENEFICIO_RESUMO (ID, QUANTIDADE, ATIVOS, SOMA) VALUES (1, 0, 0, 0);
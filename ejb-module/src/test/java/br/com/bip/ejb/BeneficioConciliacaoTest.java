@@ -0,0 +1,118 @@
+package br.com.bip.ejb;
+
+import br.com.bip.ejb.config.BipConfig;
+import br.com.bip.ejb.entity.Beneficio;
+import br.com.bip.ejb.model.ConciliacaoFaixa;
+import br.com.bip.ejb.model.ConciliacaoTotais;
+import br.com.bip.ejb.model.ModoConcorrencia;
+import br.com.bip.ejb.support.JpaTestSupport;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BeneficioConciliacaoTest {
+
+   private EntityManagerFactory emf;
+
+   @BeforeEach
+   void setUp(TestInfo teste) {
+      System.setProperty(BipConfig.ESTATISTICAS_RESUMO, "true");
+      emf = JpaTestSupport.criarEmf("conciliacao_" + teste.getTestMethod().orElseThrow().getName());
+   }
+
+   @AfterEach
+   void tearDown() {
+      System.clearProperty(BipConfig.ESTATISTICAS_RESUMO);
+      emf.close();
+   }
+
+   private Long criar(String nome, String valor) {
+      Beneficio beneficio = JpaTestSupport.novoBeneficio(nome, valor);
+      return JpaTestSupport.comServico(emf, s -> s.create(beneficio).getId());
+   }
+
+   @Test
+   void reconcileRange_ShouldSumMainRowsStripesAndPendingCredits_AndSplitAdditively() {
+      Long a = criar("A", "100.00");
+      Long b = criar("B", "200.00");
+      Long c = criar("C", "300.00");
+      JpaTestSupport.comServico(emf, s -> s.configureStriping(b, 2));
+      JpaTestSupport.comServico(emf, s -> {
+         s.transfer(c, b, new BigDecimal("50.00"), ModoConcorrencia.PESSIMISTA);
+         s.transfer(a, c, new BigDecimal("30.00"), ModoConcorrencia.ASSINCRONO);
+         return null;
+      });
+
+      ConciliacaoTotais totais = JpaTestSupport.comServico(emf, s -> s.reconciliationTotals(true));
+      ConciliacaoFaixa inteira = JpaTestSupport.comServico(emf, s -> s.reconcileRange(totais.getMenorId(), totais.getMaiorId()));
+      ConciliacaoFaixa inicio = JpaTestSupport.comServico(emf, s -> s.reconcileRange(a, b));
+      ConciliacaoFaixa fim = JpaTestSupport.comServico(emf, s -> s.reconcileRange(b + 1, c));
+
+      assertEquals(0, new BigDecimal("600.00").compareTo(totais.getEsperado()));
+      assertEquals(0, totais.getEsperado().compareTo(totais.getApurado()));
+      assertEquals(3, inteira.getContas());
+      assertEquals(0, totais.getApurado().compareTo(inteira.getSaldo()), "o crédito pendente conta no destino");
+      assertEquals(inteira.getSaldo(), inicio.getSaldo().add(fim.getSaldo()));
+      assertEquals(inteira.getChecksum(), inicio.getChecksum() + fim.getChecksum());
+      assertEquals(inteira.getSomaVersoes(), inicio.getSomaVersoes() + fim.getSomaVersoes());
+      assertTrue(inteira.getInconsistentes().isEmpty());
+   }
+
+   @Test
+   void reconcile_ShouldExposeSilentBalanceChanges_AndInconsistentAccounts() {
+      Long a = criar("A", "100.00");
+      Long b = criar("B", "200.00");
+      ConciliacaoFaixa antes = JpaTestSupport.comServico(emf, s -> s.reconcileRange(a, b));
+
+      // Escrita por fora do EJB: nem VERSION nem o resumo acompanham
+      JpaTestSupport.executarEmTransacao(emf, em -> em.createNativeQuery(
+               "UPDATE BENEFICIO SET VALOR = -5 WHERE ID = " + a).executeUpdate());
+
+      ConciliacaoFaixa depois = JpaTestSupport.comServico(emf, s -> s.reconcileRange(a, b));
+      ConciliacaoTotais totais = JpaTestSupport.comServico(emf, s -> s.reconciliationTotals(true));
+
+      assertEquals(antes.getSomaIds(), depois.getSomaIds());
+      assertEquals(antes.getSomaVersoes(), depois.getSomaVersoes());
+      assertNotEquals(antes.getChecksum(), depois.getChecksum());
+      assertEquals(List.of(a), depois.getInconsistentes());
+      assertEquals(0, new BigDecimal("105.00").compareTo(totais.getEsperado().subtract(totais.getApurado())));
+   }
+
+   @Test
+   void projectLedger_ShouldRemoveCreditsForDeletedAccountsFromTheSummary() {
+      Long a = criar("A", "100.00");
+      Long b = criar("B", "200.00");
+      JpaTestSupport.comServico(emf, s -> {
+         s.transfer(a, b, new BigDecimal("30.00"), ModoConcorrencia.ASSINCRONO);
+         s.deleteById(b);
+         return null;
+      });
+      JpaTestSupport.comServico(emf, s -> s.projectLedger(100));
+
+      ConciliacaoTotais totais = JpaTestSupport.comServico(emf, s -> s.reconciliationTotals(true));
+
+      assertEquals(0, new BigDecimal("70.00").compareTo(totais.getApurado()));
+      assertEquals(0, totais.getEsperado().compareTo(totais.getApurado()));
+   }
+
+   @Test
+   void reconciliationTotals_ShouldHaveNoExpectedTotal_WhenSummaryIsDisabled() {
+      System.clearProperty(BipConfig.ESTATISTICAS_RESUMO);
+      criar("A", "100.00");
+
+      ConciliacaoTotais totais = JpaTestSupport.comServico(emf, s -> s.reconciliationTotals(false));
+
+      assertNull(totais.getEsperado());
+      assertNull(totais.getApurado());
+      assertNotNull(totais.getMenorId());
+      assertThrows(IllegalArgumentException.class, () -> JpaTestSupport.comServico(emf,
+               s -> s.reconcileRange(1, 1 + BeneficioEjbServiceLocal.MAX_FAIXA_CONCILIACAO)));
+   }
+}
@@ -0,0 +1,407 @@
+package br.com.bip.ejb;
+
+import br.com.bip.ejb.entity.Beneficio;
+import br.com.bip.ejb.exception.TransferenciaException;
+import br.com.bip.ejb.model.ModoConcorrencia;
+import br.com.bip.ejb.model.TransferenciaItem;
+import br.com.bip.ejb.support.JpaTestSupport;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BeneficioEjbServiceConcurrencyTest {
+
+   private static final int THREADS = 16;
+   private static final int TRANSFERENCIAS = 4000;
+
+   private static EntityManagerFactory emf;
+
+   @BeforeAll
+   static void setUp() {
+      emf = JpaTestSupport.criarEmf("concorrencia");
+   }
+
+   @AfterAll
+   static void tearDown() {
+      emf.close();
+   }
+
+   @Test
+   void transfer_ShouldNotDeadlock_WhenOpposingTransfersRunConcurrently() throws Exception {
+      List<Long> ids = new ArrayList<>();
+      JpaTestSupport.executarEmTransacao(emf, em -> {
+         for (int i = 0; i < 2; i++) {
+            Beneficio beneficio = JpaTestSupport.novoBeneficio("Conta " + i, "100000.00");
+            em.persist(beneficio);
+            em.flush();
+            ids.add(beneficio.getId());
+         }
+      });
+      BigDecimal totalAntes = JpaTestSupport.saldoTotal(emf);
+
+      ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+      CountDownLatch largada = new CountDownLatch(1);
+      ConcurrentLinkedQueue<Throwable> falhas = new ConcurrentLinkedQueue<>();
+
+      for (int i = 0; i < TRANSFERENCIAS; i++) {
+         // Transferências opostas (A→B / B→A) intercaladas sobre o mesmo par de contas
+         Long from = ids.get(i % 2);
+         Long to = ids.get((i + 1) % 2);
+         executor.submit(() -> {
+            try {
+               largada.await();
+               JpaTestSupport.comServico(emf, servico -> {
+                  servico.transfer(from, to, new BigDecimal("1.00"));
+                  return null;
+               });
+            } catch (Throwable t) {
+               falhas.add(t);
+            }
+         });
+      }
+
+      largada.countDown();
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES), "Transferências não terminaram (possível deadlock)");
+
+      assertTrue(falhas.isEmpty(), () -> "Falhas durante as transferências: " + falhas.peek());
+      assertEquals(0, totalAntes.compareTo(JpaTestSupport.saldoTotal(emf)));
+   }
+
+   @Test
+   void transfer_Optimistic_ShouldConserveBalance_WhenOpposingTransfersRunConcurrently() throws Exception {
+      List<Long> ids = new ArrayList<>();
+      JpaTestSupport.executarEmTransacao(emf, em -> {
+         for (int i = 0; i < 2; i++) {
+            Beneficio beneficio = JpaTestSupport.novoBeneficio("Otimista " + i, "100000.00");
+            em.persist(beneficio);
+            em.flush();
+            ids.add(beneficio.getId());
+         }
+      });
+      BigDecimal totalAntes = JpaTestSupport.saldoTotal(emf);
+
+      ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+      CountDownLatch largada = new CountDownLatch(1);
+      ConcurrentLinkedQueue<Throwable> falhas = new ConcurrentLinkedQueue<>();
+      AtomicInteger concluidas = new AtomicInteger();
+
+      for (int i = 0; i < TRANSFERENCIAS / 4; i++) {
+         Long from = ids.get(i % 2);
+         Long to = ids.get((i + 1) % 2);
+         executor.submit(() -> {
+            try {
+               largada.await();
+               JpaTestSupport.comServico(emf, servico -> {
+                  servico.transfer(from, to, new BigDecimal("1.00"), ModoConcorrencia.OTIMISTA);
+                  return null;
+               });
+               concluidas.incrementAndGet();
+            } catch (TransferenciaException e) {
+               // Desistência após conflitos é um resultado válido do modo otimista
+               if (!e.getMessage().startsWith("Conflito de concorrência")) {
+                  falhas.add(e);
+               }
+            } catch (Throwable t) {
+               falhas.add(t);
+            }
+         });
+      }
+
+      largada.countDown();
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES), "Transferências não terminaram (possível deadlock)");
+
+      assertTrue(falhas.isEmpty(), () -> "Falhas durante as transferências: " + falhas.peek());
+      assertTrue(concluidas.get() > 0);
+      assertEquals(0, totalAntes.compareTo(JpaTestSupport.saldoTotal(emf)));
+   }
+
+   @Test
+   void transferBatch_ShouldNotDeadlock_WhenOpposingBatchesRunConcurrently() throws Exception {
+      List<Long> ids = new ArrayList<>();
+      JpaTestSupport.executarEmTransacao(emf, em -> {
+         for (int i = 0; i < 6; i++) {
+            Beneficio beneficio = JpaTestSupport.novoBeneficio("Lote " + i, "50000.00");
+            em.persist(beneficio);
+            em.flush();
+            ids.add(beneficio.getId());
+         }
+      });
+      BigDecimal totalAntes = JpaTestSupport.saldoTotal(emf);
+
+      ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+      CountDownLatch largada = new CountDownLatch(1);
+      ConcurrentLinkedQueue<Throwable> falhas = new ConcurrentLinkedQueue<>();
+
+      for (int i = 0; i < 400; i++) {
+         // Cada lote percorre as contas em um sentido; lotes alternados percorrem no sentido oposto
+         List<TransferenciaItem> itens = new ArrayList<>();
+         for (int j = 0; j < ids.size(); j++) {
+            int origem = i % 2 == 0 ? j : ids.size() - 1 - j;
+            int destino = (origem + 1) % ids.size();
+            itens.add(new TransferenciaItem(ids.get(origem), ids.get(destino), new BigDecimal("2.50")));
+         }
+         executor.submit(() -> {
+            try {
+               largada.await();
+               JpaTestSupport.comServico(emf, servico -> servico.transferBatch(itens, true));
+            } catch (Throwable t) {
+               falhas.add(t);
+            }
+         });
+      }
+
+      largada.countDown();
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES), "Lotes não terminaram (possível deadlock)");
+
+      assertTrue(falhas.isEmpty(), () -> "Falhas durante os lotes: " + falhas.peek());
+      assertEquals(0, totalAntes.compareTo(JpaTestSupport.saldoTotal(emf)));
+   }
+
+   @Test
+   void transfer_ShouldConserveBalance_WhenStripedHotAccountIsCreditedAndDebitedConcurrently() throws Exception {
+      List<Long> ids = new ArrayList<>();
+      JpaTestSupport.executarEmTransacao(emf, em -> {
+         for (int i = 0; i < 9; i++) {
+            Beneficio beneficio = JpaTestSupport.novoBeneficio("Particionada " + i, "100000.00");
+            em.persist(beneficio);
+            em.flush();
+            ids.add(beneficio.getId());
+         }
+      });
+      Long quente = ids.get(0);
+      JpaTestSupport.comServico(emf, servico -> servico.configureStriping(quente, 8));
+      BigDecimal totalAntes = JpaTestSupport.saldoTotal(emf);
+
+      ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+      CountDownLatch largada = new CountDownLatch(1);
+      ConcurrentLinkedQueue<Throwable> falhas = new ConcurrentLinkedQueue<>();
+
+      for (int i = 0; i < TRANSFERENCIAS; i++) {
+         // Maioria de créditos na conta quente; a cada 10 operações, um débito que consolida as partições
+         Long outra = ids.get(1 + i % 8);
+         boolean debito = i % 10 == 0;
+         ModoConcorrencia modo = i % 2 == 0 ? ModoConcorrencia.PESSIMISTA : ModoConcorrencia.OTIMISTA;
+         executor.submit(() -> {
+            try {
+               largada.await();
+               JpaTestSupport.comServico(emf, servico -> {
+                  servico.transfer(debito ? quente : outra, debito ? outra : quente, new BigDecimal("1.00"), modo);
+                  return null;
+               });
+            } catch (TransferenciaException e) {
+               if (!e.getMessage().startsWith("Conflito de concorrência")) {
+                  falhas.add(e);
+               }
+            } catch (Throwable t) {
+               falhas.add(t);
+            }
+         });
+      }
+
+      largada.countDown();
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES), "Transferências não terminaram (possível deadlock)");
+
+      assertTrue(falhas.isEmpty(), () -> "Falhas durante as transferências: " + falhas.peek());
+      assertEquals(0, totalAntes.compareTo(JpaTestSupport.saldoTotal(emf)));
+
+      // Desativar o particionamento consolida tudo na linha principal
+      BigDecimal saldoQuente = JpaTestSupport.comServico(emf, servico -> servico.findById(quente).getSaldoTotal());
+      Beneficio consolidada = JpaTestSupport.comServico(emf, servico -> servico.configureStriping(quente, 0));
+      assertEquals(0, saldoQuente.compareTo(consolidada.getValor()));
+      assertEquals(0, totalAntes.compareTo(JpaTestSupport.saldoTotal(emf)));
+   }
+
+   @Test
+   void transfer_Async_ShouldConserveBalance_WhenHotDestinationIsCreditedConcurrently() throws Exception {
+      List<Long> ids = new ArrayList<>();
+      JpaTestSupport.executarEmTransacao(emf, em -> {
+         for (int i = 0; i < 9; i++) {
+            Beneficio beneficio = JpaTestSupport.novoBeneficio("Livro-razão " + i, "1000.00");
+            em.persist(beneficio);
+            em.flush();
+            ids.add(beneficio.getId());
+         }
+      });
+      Long quente = ids.get(0);
+      BigDecimal saldoQuenteAntes = JpaTestSupport.comServico(emf, servico -> servico.findById(quente).getValor());
+      BigDecimal totalAntes = JpaTestSupport.saldoTotal(emf);
+
+      ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+      CountDownLatch largada = new CountDownLatch(1);
+      ConcurrentLinkedQueue<Throwable> falhas = new ConcurrentLinkedQueue<>();
+      AtomicInteger recusadas = new AtomicInteger();
+
+      // 8 origens × 1000.00 de saldo; 8 × 130 créditos de 10.00 forçam recusas por saldo insuficiente
+      for (int i = 0; i < 8 * 130; i++) {
+         Long origem = ids.get(1 + i % 8);
+         boolean projetar = i % 50 == 0;
+         executor.submit(() -> {
+            try {
+               largada.await();
+               JpaTestSupport.comServico(emf, servico -> {
+                  servico.transfer(origem, quente, new BigDecimal("10.00"), ModoConcorrencia.ASSINCRONO);
+                  return null;
+               });
+               if (projetar) {
+                  JpaTestSupport.comServico(emf, servico -> servico.projectLedger(100));
+               }
+            } catch (TransferenciaException e) {
+               if (e.getMessage().startsWith("Saldo insuficiente")) {
+                  recusadas.incrementAndGet();
+               } else {
+                  falhas.add(e);
+               }
+            } catch (Throwable t) {
+               falhas.add(t);
+            }
+         });
+      }
+
+      largada.countDown();
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES), "Transferências não terminaram (possível deadlock)");
+      assertTrue(falhas.isEmpty(), () -> "Falhas durante as transferências: " + falhas.peek());
+      assertEquals(8 * 30, recusadas.get());
+      assertEquals(0, totalAntes.compareTo(JpaTestSupport.saldoTotal(emf)));
+
+      // Drena o livro-razão: todo o saldo das origens chega ao destino
+      while (JpaTestSupport.comServico(emf, servico -> servico.projectLedger(100)) > 0) {
+         // lotes até não haver pendências
+      }
+      BigDecimal saldoQuente = JpaTestSupport.comServico(emf, servico -> servico.findById(quente).getValor());
+      assertEquals(0, saldoQuenteAntes.add(new BigDecimal("8000.00")).compareTo(saldoQuente));
+      assertEquals(0, totalAntes.compareTo(JpaTestSupport.saldoTotal(emf)));
+   }
+
+   private List<Long> criarContasIdempotencia() {
+      List<Long> ids = new ArrayList<>();
+      JpaTestSupport.executarEmTransacao(emf, em -> {
+         for (int i = 0; i < 2; i++) {
+            Beneficio beneficio = JpaTestSupport.novoBeneficio("Idempotência " + i, "1000.00");
+            em.persist(beneficio);
+            em.flush();
+            ids.add(beneficio.getId());
+         }
+      });
+      return ids;
+   }
+
+   /** Cada cliente repete a mesma requisição até obter resposta de sucesso (primeira execução ou repetição). */
+   private void repetirConcorrentemente(Long origem, Long destino, String chave) throws InterruptedException {
+      ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+      CountDownLatch largada = new CountDownLatch(1);
+      ConcurrentLinkedQueue<Throwable> falhas = new ConcurrentLinkedQueue<>();
+
+      for (int i = 0; i < THREADS * 4; i++) {
+         executor.submit(() -> {
+            try {
+               largada.await();
+               while (true) {
+                  try {
+                     JpaTestSupport.comServico(emf, servico -> {
+                        servico.transfer(origem, destino, new BigDecimal("25.00"), ModoConcorrencia.PESSIMISTA, chave);
+                        return null;
+                     });
+                     return;
+                  } catch (TransferenciaException e) {
+                     if (!e.getMessage().endsWith("já está em processamento.")) {
+                        throw e;
+                     }
+                  }
+               }
+            } catch (Throwable t) {
+               falhas.add(t);
+            }
+         });
+      }
+
+      largada.countDown();
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES), "Transferências não terminaram (possível deadlock)");
+      assertTrue(falhas.isEmpty(), () -> "Falhas durante as transferências: " + falhas.peek());
+   }
+
+   @Test
+   void transfer_ShouldApplyOnce_WhenSameIdempotencyKeyIsRetriedConcurrently() throws Exception {
+      List<Long> ids = criarContasIdempotencia();
+      Long origem = ids.get(0);
+      Long destino = ids.get(1);
+      BigDecimal totalAntes = JpaTestSupport.saldoTotal(emf);
+
+      repetirConcorrentemente(origem, destino, "pedido-h2");
+
+      BigDecimal saldoOrigem = JpaTestSupport.comServico(emf, servico -> servico.findById(origem).getValor());
+      assertEquals(0, new BigDecimal("975.00").compareTo(saldoOrigem));
+      assertEquals(0, totalAntes.compareTo(JpaTestSupport.saldoTotal(emf)));
+   }
+
+   @Test
+   void transfer_ShouldApplyOnce_WhenExpiredIdempotencyKeyIsRetriedConcurrently() throws Exception {
+      List<Long> ids = criarContasIdempotencia();
+      Long origem = ids.get(0);
+      Long destino = ids.get(1);
+      repetirConcorrentemente(origem, destino, "pedido-expirado");
+      JpaTestSupport.executarEmTransacao(emf, em -> em
+               .createQuery("UPDATE ChaveIdempotencia c SET c.expiraEm = :passado WHERE c.chave = :chave")
+               .setParameter("passado", LocalDateTime.now().minusMinutes(1))
+               .setParameter("chave", "pedido-expirado")
+               .executeUpdate());
+
+      // Todas as retentativas veem a chave expirada; só uma pode reservá-la
+      repetirConcorrentemente(origem, destino, "pedido-expirado");
+
+      BigDecimal saldoOrigem = JpaTestSupport.comServico(emf, servico -> servico.findById(origem).getValor());
+      assertEquals(0, new BigDecimal("950.00").compareTo(saldoOrigem));
+   }
+
+   @Test
+   void createAll_ShouldAllocateUniquePooledIds_WhenBatchesRunConcurrently() throws Exception {
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      CountDownLatch largada = new CountDownLatch(1);
+      ConcurrentLinkedQueue<Throwable> falhas = new ConcurrentLinkedQueue<>();
+      ConcurrentLinkedQueue<Long> ids = new ConcurrentLinkedQueue<>();
+
+      for (int lote = 0; lote < 8; lote++) {
+         int numeroLote = lote;
+         executor.submit(() -> {
+            try {
+               largada.await();
+               List<Beneficio> beneficios = new ArrayList<>();
+               for (int i = 0; i < 120; i++) {
+                  beneficios.add(JpaTestSupport.novoBeneficio("Importado " + numeroLote + "-" + i, "10.00"));
+               }
+               JpaTestSupport.comServico(emf, servico -> servico.createAll(beneficios))
+                        .forEach(beneficio -> ids.add(beneficio.getId()));
+            } catch (Throwable t) {
+               falhas.add(t);
+            }
+         });
+      }
+
+      largada.countDown();
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES), "Importações não terminaram");
+      assertTrue(falhas.isEmpty(), () -> "Falhas durante as importações: " + falhas.peek());
+      assertEquals(8 * 120, ids.size());
+      assertEquals(8 * 120, ids.stream().distinct().count());
+      assertTrue(ids.stream().allMatch(id -> id > 0));
+   }
+}
@@ -1,23 +1,44 @@
 package br.com.bip.ejb;
 
+import br.com.bip.ejb.config.BipConfig;
 import br.com.bip.ejb.entity.Beneficio;
+import br.com.bip.ejb.entity.BeneficioParticao;
+import br.com.bip.ejb.entity.ChaveIdempotencia;
+import br.com.bip.ejb.entity.ProjecaoCheckpoint;
+import br.com.bip.ejb.entity.Transferencia;
 import br.com.bip.ejb.exception.TransferenciaException;
+import br.com.bip.ejb.metrics.TransferenciaMetricas;
+import br.com.bip.ejb.model.ModoConcorrencia;
+import br.com.bip.ejb.model.MotivoRecusa;
+import br.com.bip.ejb.model.TransferenciaEstatistica;
+import br.com.bip.ejb.model.TransferenciaItem;
+import br.com.bip.ejb.model.TransferenciaResultado;
+import br.com.bip.ejb.model.TransferenciaTelemetria;
 import br.com.bip.ejb.validation.TransferenciaValidator;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.LockTimeoutException;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.Query;
 import jakarta.persistence.TypedQuery;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +53,23 @@ class BeneficioEjbServiceTest {
    @Mock
    private TypedQuery<Beneficio> typedQueryMock;
 
+   @Mock
+   private TypedQuery<BeneficioParticao> particaoQueryMock;
+
+   @Mock
+   private TypedQuery<Object[]> somaParticoesQueryMock;
+
+   @Mock
+   private TypedQuery<Transferencia> ledgerQueryMock;
+
+   @Mock
+   private Query debitoQueryMock;
+
+   @Mock
+   private Query creditoQueryMock;
+
+   private final TransferenciaMetricas metricas = new TransferenciaMetricas();
+
    private BeneficioEjbService beneficioEjbService;
 
    private Beneficio beneficioOrigem;
@@ -50,6 +88,10 @@ class BeneficioEjbServiceTest {
          var validatorField = BeneficioEjbService.class.getDeclaredField("validator");
          validatorField.setAccessible(true);
          validatorField.set(beneficioEjbService, validator);
+
+         var metricasField = BeneficioEjbService.class.getDeclaredField("metricas");
+         metricasField.setAccessible(true);
+         metricasField.set(beneficioEjbService, metricas);
       } catch (Exception e) {
          fail("Falha ao injetar mocks via reflection", e);
       }
@@ -65,11 +107,21 @@ class BeneficioEjbServiceTest {
       beneficioDestino.setValor(new BigDecimal("500.00"));
    }
 
+   private static final String LOCK_QUERY = "SELECT b FROM Beneficio b WHERE b.id IN :ids ORDER BY b.id";
+
+   private void stubLockQuery(Beneficio... bloqueados) {
+      when(em.createQuery(LOCK_QUERY, Beneficio.class))
+               .thenReturn(typedQueryMock);
+      when(typedQueryMock.setParameter(eq("ids"), any())).thenReturn(typedQueryMock);
+      when(typedQueryMock.setLockMode(LockModeType.PESSIMISTIC_WRITE)).thenReturn(typedQueryMock);
+      when(typedQueryMock.setHint(eq("jakarta.persistence.lock.timeout"), any())).thenReturn(typedQueryMock);
+      when(typedQueryMock.getResultList()).thenReturn(List.of(bloqueados));
+   }
+
    // --- Testes de Transferência ---
    @Test
    void transfer_ShouldSucceed_WhenValid() {
-      when(em.find(Beneficio.class, 1L, LockModeType.PESSIMISTIC_WRITE)).thenReturn(beneficioOrigem);
-      when(em.find(Beneficio.class, 2L, LockModeType.PESSIMISTIC_WRITE)).thenReturn(beneficioDestino);
+      stubLockQuery(beneficioOrigem, beneficioDestino);
 
       BigDecimal valor = new BigDecimal("100.00");
 
@@ -84,10 +136,56 @@ class BeneficioEjbServiceTest {
       verify(em).merge(beneficioDestino);
    }
 
+   @Test
+   void transfer_ShouldCountRefusalByReason_AndLockWait() {
+      stubLockQuery(beneficioOrigem, beneficioDestino);
+      BigDecimal valor = new BigDecimal("2000.00");
+      doThrow(new TransferenciaException(MotivoRecusa.SALDO_INSUFICIENTE, "Saldo insuficiente na conta de origem (ID: 1)."))
+               .when(validator).validar(1L, 2L, valor, beneficioOrigem, beneficioDestino);
+
+      assertThrows(TransferenciaException.class, () -> beneficioEjbService.transfer(1L, 2L, valor));
+
+      TransferenciaTelemetria telemetria = beneficioEjbService.transferTelemetry();
+      assertEquals(1L, telemetria.getRecusas().get(MotivoRecusa.SALDO_INSUFICIENTE));
+      assertEquals(0L, telemetria.getRecusas().get(MotivoRecusa.MESMA_CONTA));
+      assertEquals(1L, telemetria.getEsperasLock());
+      assertTrue(telemetria.getEsperaLockTotalNanos() >= 0);
+   }
+
+   @Test
+   void transfer_ShouldLockBothRowsInAscendingIdOrder_RegardlessOfDirection() {
+      stubLockQuery(beneficioOrigem, beneficioDestino);
+
+      beneficioEjbService.transfer(2L, 1L, new BigDecimal("50.00"));
+
+      verify(typedQueryMock).setParameter("ids", List.of(1L, 2L));
+      verify(em, never()).find(eq(Beneficio.class), any(), any(LockModeType.class));
+      assertEquals(new BigDecimal("1050.00"), beneficioOrigem.getValor());
+      assertEquals(new BigDecimal("450.00"), beneficioDestino.getValor());
+   }
+
+   @Test
+   void transfer_ShouldRetryLockTimeout_AndFailAfterMaxAttempts() {
+      System.setProperty(BipConfig.LOCK_BACKOFF_MS, "0");
+      try {
+         stubLockQuery();
+         when(typedQueryMock.getResultList()).thenThrow(new LockTimeoutException("timeout"));
+
+         TransferenciaException ex = assertThrows(TransferenciaException.class, () -> {
+            beneficioEjbService.transfer(1L, 2L, new BigDecimal("10.00"));
+         });
+
+         assertTrue(ex.getMessage().contains("após 3 tentativas"));
+         verify(typedQueryMock, times(3)).getResultList();
+         verify(validator, never()).validar(any(), any(), any(), any(), any());
+      } finally {
+         System.clearProperty(BipConfig.LOCK_BACKOFF_MS);
+      }
+   }
+
    @Test
    void transfer_ShouldThrowTransferenciaException_WhenValidatorFails() {
-      when(em.find(Beneficio.class, 1L, LockModeType.PESSIMISTIC_WRITE)).thenReturn(beneficioOrigem);
-      when(em.find(Beneficio.class, 2L, LockModeType.PESSIMISTIC_WRITE)).thenReturn(beneficioDestino);
+      stubLockQuery(beneficioOrigem, beneficioDestino);
 
       BigDecimal valor = new BigDecimal("2000.00"); // Saldo insuficiente
       String errorMsg = "Saldo insuficiente na conta de origem (ID: 1).";
@@ -106,8 +204,7 @@ class BeneficioEjbServiceTest {
 
    @Test
    void transfer_ShouldThrowTransferenciaException_WhenAccountNotFound() {
-      when(em.find(Beneficio.class, 1L, LockModeType.PESSIMISTIC_WRITE)).thenReturn(null); // Origem não existe
-      when(em.find(Beneficio.class, 2L, LockModeType.PESSIMISTIC_WRITE)).thenReturn(beneficioDestino);
+      stubLockQuery(beneficioDestino); // Origem não existe
 
       BigDecimal valor = new BigDecimal("100.00");
       String errorMsg = "Conta de origem não encontrada (ID: 1).";
@@ -125,8 +222,7 @@ class BeneficioEjbServiceTest {
 
    @Test
    void transfer_ShouldWrapGenericException_WhenMergeFails() {
-      when(em.find(Beneficio.class, 1L, LockModeType.PESSIMISTIC_WRITE)).thenReturn(beneficioOrigem);
-      when(em.find(Beneficio.class, 2L, LockModeType.PESSIMISTIC_WRITE)).thenReturn(beneficioDestino);
+      stubLockQuery(beneficioOrigem, beneficioDestino);
 
       BigDecimal valor = new BigDecimal("100.00");
       String errorMsg = "Erro de persistência";
@@ -141,6 +237,417 @@ class BeneficioEjbServiceTest {
       assertEquals(new BigDecimal("900.00"), beneficioOrigem.getValor());
    }
 
+   // --- Testes do Modo Otimista ---
+
+   private void stubOptimisticQueries() {
+      beneficioOrigem.setVersion(3L);
+      beneficioDestino.setVersion(7L);
+      when(em.find(Beneficio.class, 1L)).thenReturn(beneficioOrigem);
+      when(em.find(Beneficio.class, 2L)).thenReturn(beneficioDestino);
+      when(em.createQuery(startsWith("UPDATE Beneficio b SET b.valor = b.valor - :valor"))).thenReturn(debitoQueryMock);
+      when(debitoQueryMock.setParameter(anyString(), any())).thenReturn(debitoQueryMock);
+      lenient().when(em.createQuery(startsWith("UPDATE Beneficio b SET b.valor = b.valor + :valor"))).thenReturn(creditoQueryMock);
+      lenient().when(creditoQueryMock.setParameter(anyString(), any())).thenReturn(creditoQueryMock);
+      lenient().when(creditoQueryMock.executeUpdate()).thenReturn(1);
+   }
+
+   private TransferenciaEstatistica estatistica(ModoConcorrencia modo) {
+      return metricas.estatisticas().stream().filter(e -> e.getModo() == modo).findFirst().orElseThrow();
+   }
+
+   @Test
+   void transfer_Optimistic_ShouldDebitWithVersionCheck_WithoutRowLocks() {
+      stubOptimisticQueries();
+      when(debitoQueryMock.executeUpdate()).thenReturn(1);
+      BigDecimal valor = new BigDecimal("100.00");
+
+      beneficioEjbService.transfer(1L, 2L, valor, ModoConcorrencia.OTIMISTA);
+
+      InOrder ordem = inOrder(debitoQueryMock, creditoQueryMock);
+      ordem.verify(debitoQueryMock).executeUpdate();
+      ordem.verify(creditoQueryMock).executeUpdate();
+      verify(debitoQueryMock).setParameter("version", 3L);
+      verify(debitoQueryMock).setParameter("valor", valor);
+      verify(creditoQueryMock).setParameter("id", 2L);
+      verify(em, never()).find(eq(Beneficio.class), any(), any(LockModeType.class));
+      verify(em, never()).createQuery(anyString(), eq(Beneficio.class));
+      assertEquals(1, estatistica(ModoConcorrencia.OTIMISTA).getExecucoes());
+   }
+
+   @Test
+   void transfer_Optimistic_ShouldWriteInIdOrder_WhenCreditingLowerId() {
+      stubOptimisticQueries();
+      when(debitoQueryMock.executeUpdate()).thenReturn(1);
+
+      beneficioEjbService.transfer(2L, 1L, new BigDecimal("10.00"), ModoConcorrencia.OTIMISTA);
+
+      InOrder ordem = inOrder(creditoQueryMock, debitoQueryMock);
+      ordem.verify(creditoQueryMock).executeUpdate();
+      ordem.verify(debitoQueryMock).executeUpdate();
+   }
+
+   @Test
+   void transfer_Optimistic_ShouldRetryWithRefresh_WhenVersionChanged() {
+      System.setProperty(BipConfig.OTIMISTA_BACKOFF_MS, "0");
+      try {
+         stubOptimisticQueries();
+         when(debitoQueryMock.executeUpdate()).thenReturn(0, 1);
+
+         beneficioEjbService.transfer(1L, 2L, new BigDecimal("10.00"), ModoConcorrencia.OTIMISTA);
+
+         verify(em).refresh(beneficioOrigem);
+         verify(debitoQueryMock, times(2)).executeUpdate();
+         verify(creditoQueryMock, times(1)).executeUpdate();
+         TransferenciaEstatistica otimista = estatistica(ModoConcorrencia.OTIMISTA);
+         assertEquals(1, otimista.getExecucoes());
+         assertEquals(1, otimista.getRetentativas());
+         assertEquals(1.0, otimista.getTaxaRetentativa());
+      } finally {
+         System.clearProperty(BipConfig.OTIMISTA_BACKOFF_MS);
+      }
+   }
+
+   @Test
+   void transfer_Optimistic_ShouldGiveUp_AfterMaxAttempts() {
+      System.setProperty(BipConfig.OTIMISTA_BACKOFF_MS, "0");
+      try {
+         stubOptimisticQueries();
+         when(debitoQueryMock.executeUpdate()).thenReturn(0);
+
+         TransferenciaException ex = assertThrows(TransferenciaException.class, () -> {
+            beneficioEjbService.transfer(1L, 2L, new BigDecimal("10.00"), ModoConcorrencia.OTIMISTA);
+         });
+
+         assertEquals("Conflito de concorrência na conta de origem (ID: 1) após 5 tentativas.", ex.getMessage());
+         verify(creditoQueryMock, never()).executeUpdate();
+         assertEquals(1, estatistica(ModoConcorrencia.OTIMISTA).getDesistencias());
+         assertEquals(0, estatistica(ModoConcorrencia.OTIMISTA).getExecucoes());
+      } finally {
+         System.clearProperty(BipConfig.OTIMISTA_BACKOFF_MS);
+      }
+   }
+
+   @Test
+   void transfer_ShouldUseDeploymentMode_WhenRequestDoesNotChoose() {
+      System.setProperty(BipConfig.MODO, "otimista");
+      try {
+         stubOptimisticQueries();
+         when(debitoQueryMock.executeUpdate()).thenReturn(1);
+
+         beneficioEjbService.transfer(1L, 2L, new BigDecimal("10.00"));
+
+         verify(debitoQueryMock).executeUpdate();
+         assertEquals(0, estatistica(ModoConcorrencia.PESSIMISTA).getExecucoes());
+      } finally {
+         System.clearProperty(BipConfig.MODO);
+      }
+   }
+
+   // --- Testes de Lote ---
+
+   @Test
+   void transferBatch_ShouldNetLegsPerAccount_WithSingleLockAndFlush() {
+      stubLockQuery(beneficioOrigem, beneficioDestino);
+      List<TransferenciaItem> itens = List.of(
+               new TransferenciaItem(1L, 2L, new BigDecimal("100.00")),
+               new TransferenciaItem(2L, 1L, new BigDecimal("30.00")),
+               new TransferenciaItem(1L, 2L, new BigDecimal("20.00")));
+
+      List<TransferenciaResultado> resultados = beneficioEjbService.transferBatch(itens, true);
+
+      assertEquals(3, resultados.size());
+      assertTrue(resultados.stream().allMatch(TransferenciaResultado::isSucesso));
+      assertEquals(new BigDecimal("910.00"), beneficioOrigem.getValor());
+      assertEquals(new BigDecimal("590.00"), beneficioDestino.getValor());
+      verify(typedQueryMock).setParameter("ids", List.of(1L, 2L));
+      verify(typedQueryMock, times(1)).getResultList();
+      verify(em).flush();
+   }
+
+   @Test
+   void transferBatch_ShouldFailWholeBatch_WhenAllOrNothingAndLegIsInvalid() {
+      stubLockQuery(beneficioOrigem, beneficioDestino);
+      BigDecimal valorInvalido = new BigDecimal("5000.00");
+      lenient().doThrow(new TransferenciaException("Saldo insuficiente na conta de origem (ID: 2)."))
+               .when(validator).validar(2L, 1L, valorInvalido, beneficioDestino, beneficioOrigem);
+
+      List<TransferenciaItem> itens = List.of(
+               new TransferenciaItem(1L, 2L, new BigDecimal("100.00")),
+               new TransferenciaItem(2L, 1L, valorInvalido));
+
+      TransferenciaException ex = assertThrows(TransferenciaException.class, () -> {
+         beneficioEjbService.transferBatch(itens, true);
+      });
+
+      assertEquals("Transferência 1 do lote: Saldo insuficiente na conta de origem (ID: 2).", ex.getMessage());
+      verify(em, never()).flush();
+      assertEquals(0, estatistica(ModoConcorrencia.PESSIMISTA).getExecucoes(), "lote revertido não conta execuções");
+   }
+
+   @Test
+   void transferBatch_ShouldReportPerLegResults_WhenNotAllOrNothing() {
+      stubLockQuery(beneficioOrigem, beneficioDestino);
+      BigDecimal valorInvalido = new BigDecimal("5000.00");
+      lenient().doThrow(new TransferenciaException("Saldo insuficiente na conta de origem (ID: 2)."))
+               .when(validator).validar(2L, 1L, valorInvalido, beneficioDestino, beneficioOrigem);
+
+      List<TransferenciaItem> itens = List.of(
+               new TransferenciaItem(1L, 2L, new BigDecimal("100.00")),
+               new TransferenciaItem(2L, 1L, valorInvalido),
+               new TransferenciaItem(2L, 1L, new BigDecimal("10.00")));
+
+      List<TransferenciaResultado> resultados = beneficioEjbService.transferBatch(itens, false);
+
+      assertTrue(resultados.get(0).isSucesso());
+      assertFalse(resultados.get(1).isSucesso());
+      assertEquals("Saldo insuficiente na conta de origem (ID: 2).", resultados.get(1).getMensagem());
+      assertTrue(resultados.get(2).isSucesso());
+      assertEquals(new BigDecimal("910.00"), beneficioOrigem.getValor());
+      assertEquals(new BigDecimal("590.00"), beneficioDestino.getValor());
+      verify(em).flush();
+      assertEquals(2, estatistica(ModoConcorrencia.PESSIMISTA).getExecucoes());
+   }
+
+   @Test
+   void transferBatch_ShouldRejectEmptyBatch() {
+      TransferenciaException ex = assertThrows(TransferenciaException.class, () -> {
+         beneficioEjbService.transferBatch(List.of(), true);
+      });
+
+      assertEquals("O lote de transferências não pode ser vazio.", ex.getMessage());
+      verifyNoInteractions(em);
+   }
+
+   // --- Testes do Livro-Razão ---
+
+   @Test
+   void transfer_Async_ShouldDebitWithBalanceCheck_AndAppendPendingEntry() {
+      when(em.find(Beneficio.class, 1L)).thenReturn(beneficioOrigem);
+      when(em.find(Beneficio.class, 2L)).thenReturn(beneficioDestino);
+      when(em.createQuery(startsWith("UPDATE Beneficio b SET b.valor = b.valor - :valor"))).thenReturn(debitoQueryMock);
+      when(debitoQueryMock.setParameter(anyString(), any())).thenReturn(debitoQueryMock);
+      when(debitoQueryMock.executeUpdate()).thenReturn(1);
+
+      beneficioEjbService.transfer(1L, 2L, new BigDecimal("100.00"), ModoConcorrencia.ASSINCRONO);
+
+      ArgumentCaptor<Transferencia> lancamento = ArgumentCaptor.forClass(Transferencia.class);
+      verify(em).persist(lancamento.capture());
+      assertFalse(lancamento.getValue().isAplicada());
+      assertEquals(2L, lancamento.getValue().getDestinoId());
+      assertEquals(new BigDecimal("500.00"), beneficioDestino.getValor());
+      verify(em, never()).merge(any());
+      verify(em, never()).createQuery(LOCK_QUERY, Beneficio.class);
+   }
+
+   @Test
+   void transfer_Async_ShouldFail_WhenConditionalDebitAffectsNoRow() {
+      when(em.find(Beneficio.class, 1L)).thenReturn(beneficioOrigem);
+      when(em.find(Beneficio.class, 2L)).thenReturn(beneficioDestino);
+      when(em.createQuery(startsWith("UPDATE Beneficio b SET b.valor = b.valor - :valor"))).thenReturn(debitoQueryMock);
+      when(debitoQueryMock.setParameter(anyString(), any())).thenReturn(debitoQueryMock);
+      when(debitoQueryMock.executeUpdate()).thenReturn(0);
+
+      TransferenciaException ex = assertThrows(TransferenciaException.class, () -> {
+         beneficioEjbService.transfer(1L, 2L, new BigDecimal("100.00"), ModoConcorrencia.ASSINCRONO);
+      });
+
+      assertEquals("Saldo insuficiente na conta de origem (ID: 1).", ex.getMessage());
+      verify(em, never()).persist(any());
+   }
+
+   @Test
+   void transfer_ShouldAppendAppliedLedgerEntry_WhenSynchronous() {
+      stubLockQuery(beneficioOrigem, beneficioDestino);
+
+      beneficioEjbService.transfer(1L, 2L, new BigDecimal("100.00"));
+
+      ArgumentCaptor<Transferencia> lancamento = ArgumentCaptor.forClass(Transferencia.class);
+      verify(em).persist(lancamento.capture());
+      assertTrue(lancamento.getValue().isAplicada());
+      assertEquals(ModoConcorrencia.PESSIMISTA, lancamento.getValue().getModo());
+   }
+
+   @Test
+   void projectLedger_ShouldCreditDestinationsOncePerAccount_AndAdvanceCheckpoint() {
+      ProjecaoCheckpoint checkpoint = new ProjecaoCheckpoint();
+      when(em.find(ProjecaoCheckpoint.class, ProjecaoCheckpoint.LEDGER, LockModeType.PESSIMISTIC_WRITE)).thenReturn(checkpoint);
+      Transferencia t1 = new Transferencia(1L, 2L, new BigDecimal("10.00"), ModoConcorrencia.ASSINCRONO, false);
+      t1.setId(7L);
+      Transferencia t2 = new Transferencia(1L, 2L, new BigDecimal("15.00"), ModoConcorrencia.ASSINCRONO, false);
+      t2.setId(9L);
+      when(em.createQuery(startsWith("SELECT t FROM Transferencia t"), eq(Transferencia.class))).thenReturn(ledgerQueryMock);
+      when(ledgerQueryMock.setMaxResults(100)).thenReturn(ledgerQueryMock);
+      when(ledgerQueryMock.getResultList()).thenReturn(List.of(t1, t2));
+      stubLockQuery(beneficioDestino);
+
+      int aplicadas = beneficioEjbService.projectLedger(100);
+
+      assertEquals(2, aplicadas);
+      verify(typedQueryMock).setParameter("ids", List.of(2L));
+      assertEquals(new BigDecimal("525.00"), beneficioDestino.getValor());
+      assertTrue(t1.isAplicada() && t2.isAplicada());
+      assertEquals(9L, checkpoint.getUltimoId());
+      assertEquals(2L, checkpoint.getTotalAplicadas());
+   }
+
+   // --- Testes de Idempotência ---
+
+   private ChaveIdempotencia chaveConfirmada(String valor) {
+      ChaveIdempotencia chave = new ChaveIdempotencia("pedido-1");
+      LocalDateTime agora = LocalDateTime.now();
+      chave.registrar(1L, 2L, new BigDecimal(valor), agora, agora.plusHours(1));
+      return chave;
+   }
+
+   @Test
+   void transfer_ShouldReturnWithoutLocking_WhenIdempotencyKeyWasConfirmed() {
+      when(em.find(ChaveIdempotencia.class, "pedido-1")).thenReturn(chaveConfirmada("100.0"));
+
+      beneficioEjbService.transfer(1L, 2L, new BigDecimal("100.00"), null, "pedido-1");
+
+      verify(em, never()).createQuery(anyString(), eq(Beneficio.class));
+      verify(em, never()).persist(any());
+      assertEquals(new BigDecimal("1000.00"), beneficioOrigem.getValor());
+   }
+
+   @Test
+   void transfer_ShouldReject_WhenIdempotencyKeyWasUsedWithOtherParameters() {
+      when(em.find(ChaveIdempotencia.class, "pedido-1")).thenReturn(chaveConfirmada("100.00"));
+
+      TransferenciaException ex = assertThrows(TransferenciaException.class, () -> {
+         beneficioEjbService.transfer(1L, 2L, new BigDecimal("250.00"), null, "pedido-1");
+      });
+
+      assertEquals("A chave de idempotência 'pedido-1' já foi usada em outra transferência.", ex.getMessage());
+      verify(em, never()).createQuery(anyString(), eq(Beneficio.class));
+   }
+
+   @Test
+   void transfer_ShouldReserveNewIdempotencyKey_BeforeLockingAccounts() {
+      stubLockQuery(beneficioOrigem, beneficioDestino);
+
+      beneficioEjbService.transfer(1L, 2L, new BigDecimal("100.00"), null, "pedido-1");
+
+      InOrder ordem = inOrder(em);
+      ArgumentCaptor<ChaveIdempotencia> chave = ArgumentCaptor.forClass(ChaveIdempotencia.class);
+      ordem.verify(em).persist(chave.capture());
+      ordem.verify(em).flush();
+      ordem.verify(em).createQuery(LOCK_QUERY, Beneficio.class);
+      assertEquals("pedido-1", chave.getValue().getChave());
+      assertEquals(new BigDecimal("900.00"), beneficioOrigem.getValor());
+   }
+
+   @Test
+   void transfer_ShouldReportInProgress_WhenConcurrentRequestHoldsTheKey() {
+      doThrow(new PersistenceException("unique constraint")).when(em).flush();
+
+      TransferenciaException ex = assertThrows(TransferenciaException.class, () -> {
+         beneficioEjbService.transfer(1L, 2L, new BigDecimal("100.00"), null, "pedido-1");
+      });
+
+      assertEquals("Transferência com a chave de idempotência 'pedido-1' já está em processamento.", ex.getMessage());
+      verify(em, never()).createQuery(anyString(), eq(Beneficio.class));
+   }
+
+   private ChaveIdempotencia chaveExpirada() {
+      ChaveIdempotencia chave = new ChaveIdempotencia("pedido-1");
+      LocalDateTime agora = LocalDateTime.now();
+      chave.registrar(1L, 2L, new BigDecimal("100.00"), agora.minusHours(2), agora.minusHours(1));
+      return chave;
+   }
+
+   private void stubReusoChave(int linhas) {
+      when(em.find(ChaveIdempotencia.class, "pedido-1")).thenReturn(chaveExpirada());
+      when(em.createQuery(startsWith("UPDATE ChaveIdempotencia"))).thenReturn(debitoQueryMock);
+      when(debitoQueryMock.setParameter(anyString(), any())).thenReturn(debitoQueryMock);
+      when(debitoQueryMock.executeUpdate()).thenReturn(linhas);
+   }
+
+   @Test
+   void transfer_ShouldReserveExpiredKey_WithUpdateConditionalOnExpiry() {
+      stubReusoChave(1);
+      stubLockQuery(beneficioOrigem, beneficioDestino);
+
+      beneficioEjbService.transfer(1L, 2L, new BigDecimal("100.00"), null, "pedido-1");
+
+      verify(em).createQuery(endsWith("WHERE c.chave = :chave AND c.expiraEm <= :agora"));
+      verify(em, never()).persist(any(ChaveIdempotencia.class));
+      assertEquals(new BigDecimal("900.00"), beneficioOrigem.getValor());
+   }
+
+   @Test
+   void transfer_ShouldReportInProgress_WhenExpiredKeyWasReservedConcurrently() {
+      stubReusoChave(0);
+
+      TransferenciaException ex = assertThrows(TransferenciaException.class, () -> {
+         beneficioEjbService.transfer(1L, 2L, new BigDecimal("100.00"), null, "pedido-1");
+      });
+
+      assertEquals("Transferência com a chave de idempotência 'pedido-1' já está em processamento.", ex.getMessage());
+      verify(em, never()).createQuery(anyString(), eq(Beneficio.class));
+   }
+
+   // --- Testes de Particionamento ---
+
+   private BeneficioParticao particao(Long beneficioId, int indice, String valor) {
+      BeneficioParticao particao = new BeneficioParticao(beneficioId, indice);
+      particao.setValor(new BigDecimal(valor));
+      return particao;
+   }
+
+   @Test
+   void transfer_ShouldCreditStripe_WithoutLockingStripedDestination() {
+      beneficioDestino.setParticoes(4);
+      when(em.find(Beneficio.class, 2L)).thenReturn(beneficioDestino);
+      stubLockQuery(beneficioOrigem);
+      when(em.createQuery(startsWith("UPDATE BeneficioParticao p SET p.valor = p.valor + :valor"))).thenReturn(creditoQueryMock);
+      when(creditoQueryMock.setParameter(anyString(), any())).thenReturn(creditoQueryMock);
+      when(creditoQueryMock.executeUpdate()).thenReturn(1);
+
+      beneficioEjbService.transfer(1L, 2L, new BigDecimal("100.00"));
+
+      verify(typedQueryMock).setParameter("ids", List.of(1L));
+      verify(creditoQueryMock).setParameter("id", 2L);
+      assertEquals(new BigDecimal("900.00"), beneficioOrigem.getValor());
+      assertEquals(new BigDecimal("500.00"), beneficioDestino.getValor());
+      verify(em, never()).merge(beneficioDestino);
+   }
+
+   @Test
+   void transfer_ShouldFoldStripesIntoSource_BeforeDebit() {
+      beneficioOrigem.setParticoes(2);
+      beneficioOrigem.setValor(BigDecimal.ZERO);
+      BeneficioParticao p0 = particao(1L, 0, "60.00");
+      BeneficioParticao p1 = particao(1L, 1, "50.00");
+      stubLockQuery(beneficioOrigem, beneficioDestino);
+      when(em.createQuery(startsWith("SELECT p FROM BeneficioParticao p"), eq(BeneficioParticao.class))).thenReturn(particaoQueryMock);
+      when(particaoQueryMock.setParameter(eq("ids"), any())).thenReturn(particaoQueryMock);
+      when(particaoQueryMock.setLockMode(LockModeType.PESSIMISTIC_WRITE)).thenReturn(particaoQueryMock);
+      when(particaoQueryMock.setHint(eq("jakarta.persistence.lock.timeout"), any())).thenReturn(particaoQueryMock);
+      when(particaoQueryMock.getResultList()).thenReturn(List.of(p0, p1));
+
+      beneficioEjbService.transfer(1L, 2L, new BigDecimal("100.00"));
+
+      assertEquals(new BigDecimal("10.00"), beneficioOrigem.getValor());
+      assertEquals(0, p0.getValor().signum());
+      assertEquals(0, p1.getValor().signum());
+      assertEquals(new BigDecimal("600.00"), beneficioDestino.getValor());
+   }
+
+   @Test
+   void findById_ShouldAddStripeBalances_WhenStriped() {
+      beneficioDestino.setParticoes(4);
+      when(em.find(Beneficio.class, 2L)).thenReturn(beneficioDestino);
+      when(em.createQuery(startsWith("SELECT p.beneficioId, SUM(p.valor)"), eq(Object[].class))).thenReturn(somaParticoesQueryMock);
+      when(somaParticoesQueryMock.setParameter(eq("ids"), any())).thenReturn(somaParticoesQueryMock);
+      when(somaParticoesQueryMock.getResultList()).thenReturn(List.<Object[]>of(new Object[]{2L, new BigDecimal("25.00")}));
+
+      Beneficio result = beneficioEjbService.findById(2L);
+
+      assertEquals(new BigDecimal("500.00"), result.getValor());
+      assertEquals(new BigDecimal("525.00"), result.getSaldoTotal());
+   }
+
    // --- Testes CRUD ---
 
    @Test
@@ -155,6 +662,35 @@ class BeneficioEjbServiceTest {
       verify(em).createQuery("SELECT b FROM Beneficio b", Beneficio.class);
    }
 
+   @Test
+   void findPage_ShouldApplyKeysetAndFilters() {
+      String jpql = "SELECT b FROM Beneficio b WHERE 1 = 1 AND b.id > :afterId AND b.ativo = :ativo"
+               + " AND LOWER(b.nome) LIKE :nome ESCAPE '\\' ORDER BY b.ativo, b.id";
+      when(em.createQuery(jpql, Beneficio.class)).thenReturn(typedQueryMock);
+      when(typedQueryMock.setMaxResults(20)).thenReturn(typedQueryMock);
+      when(typedQueryMock.getResultList()).thenReturn(List.of(beneficioDestino));
+
+      List<Beneficio> result = beneficioEjbService.findPage(1L, 20, true, " Dest ");
+
+      assertEquals(1, result.size());
+      verify(typedQueryMock).setParameter("afterId", 1L);
+      verify(typedQueryMock).setParameter("ativo", true);
+      verify(typedQueryMock).setParameter("nome", "%dest%");
+   }
+
+   @Test
+   void findPage_ShouldCapLimit_WhenNoFilters() {
+      when(em.createQuery("SELECT b FROM Beneficio b WHERE 1 = 1 ORDER BY b.id", Beneficio.class))
+               .thenReturn(typedQueryMock);
+      when(typedQueryMock.setMaxResults(BeneficioEjbService.MAX_PAGE_SIZE + 1)).thenReturn(typedQueryMock);
+      when(typedQueryMock.getResultList()).thenReturn(List.of(beneficioOrigem, beneficioDestino));
+
+      List<Beneficio> result = beneficioEjbService.findPage(null, 100_000, null, null);
+
+      assertEquals(2, result.size());
+      verify(typedQueryMock, never()).setParameter(anyString(), any());
+   }
+
    @Test
    void findById_ShouldReturnBeneficio_WhenExists() {
       when(em.find(Beneficio.class, 1L)).thenReturn(beneficioOrigem);
@@ -190,12 +726,46 @@ class BeneficioEjbServiceTest {
    }
 
    @Test
-   void update_ShouldMergeEntity() {
-      when(em.merge(beneficioOrigem)).thenReturn(beneficioOrigem);
+   void createAll_ShouldPersistEveryEntity_AndFlushOnce() {
+      Beneficio a = new Beneficio();
+      Beneficio b = new Beneficio();
 
-      beneficioEjbService.update(beneficioOrigem);
+      List<Beneficio> criados = beneficioEjbService.createAll(List.of(a, b));
 
-      verify(em).merge(beneficioOrigem);
+      assertEquals(List.of(a, b), criados);
+      InOrder ordem = inOrder(em);
+      ordem.verify(em).persist(a);
+      ordem.verify(em).persist(b);
+      ordem.verify(em).flush();
+   }
+
+   @Test
+   void createAll_ShouldRejectBatchAboveLimit() {
+      List<Beneficio> grande = new java.util.ArrayList<>();
+      for (int i = 0; i <= BeneficioEjbServiceLocal.MAX_LOTE_CRIACAO; i++) {
+         grande.add(new Beneficio());
+      }
+
+      assertThrows(IllegalArgumentException.class, () -> beneficioEjbService.createAll(grande));
+      verify(em, never()).persist(any());
+   }
+
+   @Test
+   void update_ShouldCheckVersionInTheUpdateItself_WithoutReadingTheRow() {
+      beneficioOrigem.setVersion(3L);
+      when(em.createQuery(startsWith("UPDATE Beneficio b SET b.nome"))).thenReturn(debitoQueryMock);
+      when(debitoQueryMock.setParameter(anyString(), any())).thenReturn(debitoQueryMock);
+      when(debitoQueryMock.executeUpdate()).thenReturn(1);
+      when(em.createQuery(startsWith("UPDATE BeneficioParticao p SET p.valor = 0"))).thenReturn(creditoQueryMock);
+      when(creditoQueryMock.setParameter(anyString(), any())).thenReturn(creditoQueryMock);
+
+      Beneficio atualizado = beneficioEjbService.update(beneficioOrigem);
+
+      assertEquals(4L, atualizado.getVersion());
+      verify(em).createQuery(endsWith("WHERE b.id = :id AND b.version = :version"));
+      verify(debitoQueryMock).setParameter("version", 3L);
+      verify(em, never()).find(any(), any());
+      verify(em, never()).merge(any());
    }
 
    @Test
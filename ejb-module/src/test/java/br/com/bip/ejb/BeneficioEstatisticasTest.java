@@ -0,0 +1,147 @@
+package br.com.bip.ejb;
+
+import br.com.bip.ejb.config.BipConfig;
+import br.com.bip.ejb.entity.Beneficio;
+import br.com.bip.ejb.estatisticas.ResumoBeneficios;
+import br.com.bip.ejb.model.BeneficioEstatisticas;
+import br.com.bip.ejb.model.ModoConcorrencia;
+import br.com.bip.ejb.support.JpaTestSupport;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BeneficioEstatisticasTest {
+
+   private EntityManagerFactory emf;
+
+   @BeforeEach
+   void setUp(TestInfo teste) {
+      emf = JpaTestSupport.criarEmf("estatisticas_" + teste.getTestMethod().orElseThrow().getName());
+   }
+
+   @AfterEach
+   void tearDown() {
+      System.clearProperty(BipConfig.ESTATISTICAS_RESUMO);
+      emf.close();
+   }
+
+   private Long criar(String nome, String valor, boolean ativo) {
+      Beneficio beneficio = JpaTestSupport.novoBeneficio(nome, valor);
+      beneficio.setAtivo(ativo);
+      return JpaTestSupport.comServico(emf, s -> s.create(beneficio).getId());
+   }
+
+   @Test
+   void statistics_ShouldAggregateTotalBalances_IncludingStripes() {
+      criar("A", "100.00", true);
+      criar("B", "200.00", false);
+      Long c = criar("C", "300.00", true);
+      Long d = criar("D", "400.00", true);
+      // C passa a receber créditos em partições: saldo 350 = 300 na linha + 50 na partição
+      JpaTestSupport.comServico(emf, s -> s.configureStriping(c, 2));
+      JpaTestSupport.comServico(emf, s -> {
+         s.transfer(d, c, new BigDecimal("50.00"), ModoConcorrencia.PESSIMISTA);
+         return null;
+      });
+
+      BeneficioEstatisticas estatisticas = JpaTestSupport.comServico(emf, s -> s.statistics(false));
+
+      assertFalse(estatisticas.isResumo());
+      assertEquals(4, estatisticas.getQuantidade());
+      assertEquals(3, estatisticas.getAtivos());
+      assertEquals(1, estatisticas.getInativos());
+      assertEquals(new BigDecimal("1000.00"), estatisticas.getSoma());
+      assertEquals(new BigDecimal("100.00"), estatisticas.getMinimo());
+      assertEquals(new BigDecimal("350.00"), estatisticas.getMaximo());
+      assertEquals(new BigDecimal("275.00"), estatisticas.getPercentil50());
+      assertEquals(new BigDecimal("350.00"), estatisticas.getPercentil99());
+   }
+
+   @Test
+   void statistics_ShouldReturnZeroCountsAndNullExtremes_WhenTableIsEmpty() {
+      BeneficioEstatisticas estatisticas = JpaTestSupport.comServico(emf, s -> s.statistics(false));
+
+      assertEquals(0, estatisticas.getQuantidade());
+      assertEquals(0, estatisticas.getSoma().signum());
+      assertNull(estatisticas.getMinimo());
+      assertNull(estatisticas.getPercentil50());
+   }
+
+   @Test
+   void statistics_Summary_ShouldTrackCreateUpdateDelete_AndMatchFullAggregates() {
+      System.setProperty(BipConfig.ESTATISTICAS_RESUMO, "true");
+      // Linha criada antes do resumo ser recomposto (ex: carga por script)
+      JpaTestSupport.executarEmTransacao(emf, em -> em.persist(JpaTestSupport.novoBeneficio("Legado", "10.00")));
+      JpaTestSupport.executarEmTransacao(emf, em -> em.createNativeQuery(ResumoBeneficios.RECOMPOR).executeUpdate());
+
+      Long a = criar("A", "100.00", true);
+      Long b = criar("B", "200.00", true);
+      JpaTestSupport.comServico(emf, s -> s.createAll(List.of(
+               JpaTestSupport.novoBeneficio("C", "30.00"), JpaTestSupport.novoBeneficio("D", "40.00"))));
+      JpaTestSupport.comServico(emf, s -> {
+         Beneficio alterado = s.findById(a);
+         Beneficio novo = JpaTestSupport.novoBeneficio("A", "150.00");
+         novo.setId(a);
+         novo.setVersion(alterado.getVersion());
+         novo.setAtivo(false);
+         return s.update(novo);
+      });
+      JpaTestSupport.comServico(emf, s -> {
+         s.deleteById(b);
+         return null;
+      });
+
+      BeneficioEstatisticas resumo = JpaTestSupport.comServico(emf, s -> s.statistics(true));
+      BeneficioEstatisticas completo = JpaTestSupport.comServico(emf, s -> s.statistics(false));
+
+      assertTrue(resumo.isResumo());
+      assertNull(resumo.getMaximo());
+      assertEquals(4, resumo.getQuantidade());
+      assertEquals(3, resumo.getAtivos());
+      assertEquals(completo.getQuantidade(), resumo.getQuantidade());
+      assertEquals(completo.getAtivos(), resumo.getAtivos());
+      assertEquals(0, completo.getSoma().compareTo(resumo.getSoma()));
+      assertEquals(0, new BigDecimal("230.00").compareTo(resumo.getSoma()));
+   }
+
+   @Test
+   void statistics_ShouldFallBackToAggregates_WhenSummaryIsDisabled() {
+      criar("A", "100.00", true);
+
+      BeneficioEstatisticas estatisticas = JpaTestSupport.comServico(emf, s -> s.statistics(true));
+
+      assertFalse(estatisticas.isResumo());
+      assertEquals(1, estatisticas.getQuantidade());
+      assertEquals(new BigDecimal("100.00"), estatisticas.getMaximo());
+   }
+
+   @Test
+   void statistics_ShouldCountPendingLedgerCredits_TheSameWayWithAndWithoutSummary() {
+      Long a = criar("A", "100.00", true);
+      Long b = criar("B", "50.00", true);
+      // A é debitada na hora; o crédito de 30 em B fica pendente até a projeção
+      JpaTestSupport.comServico(emf, s -> {
+         s.transfer(a, b, new BigDecimal("30.00"), ModoConcorrencia.ASSINCRONO);
+         return null;
+      });
+
+      BeneficioEstatisticas completo = JpaTestSupport.comServico(emf, s -> s.statistics(false));
+      System.setProperty(BipConfig.ESTATISTICAS_RESUMO, "true");
+      JpaTestSupport.executarEmTransacao(emf, em -> em.createNativeQuery(ResumoBeneficios.RECOMPOR).executeUpdate());
+      BeneficioEstatisticas resumo = JpaTestSupport.comServico(emf, s -> s.statistics(true));
+
+      assertFalse(completo.isResumo());
+      assertTrue(resumo.isResumo());
+      assertEquals(0, new BigDecimal("150.00").compareTo(completo.getSoma()));
+      assertEquals(0, completo.getSoma().compareTo(resumo.getSoma()));
+      assertEquals(0, new BigDecimal("80.00").compareTo(completo.getMaximo()));
+      assertEquals(0, new BigDecimal("70.00").compareTo(completo.getMinimo()));
+   }
+}
@@ -0,0 +1,146 @@
+package br.com.bip.ejb;
+
+import br.com.bip.ejb.entity.Beneficio;
+import br.com.bip.ejb.model.BeneficioProjecao;
+import br.com.bip.ejb.model.ModoConcorrencia;
+import br.com.bip.ejb.support.JpaTestSupport;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BeneficioProjecaoTest {
+
+   private static EntityManagerFactory emf;
+   private static final List<Long> ids = new ArrayList<>();
+
+   @BeforeAll
+   static void setUp() {
+      emf = JpaTestSupport.criarEmf("projecao");
+      for (int i = 0; i < 5; i++) {
+         Beneficio beneficio = JpaTestSupport.novoBeneficio("Conta " + i, "100.00");
+         beneficio.setDescricao("Descrição " + i);
+         beneficio.setAtivo(i != 3);
+         ids.add(JpaTestSupport.comServico(emf, s -> s.create(beneficio).getId()));
+      }
+      // Conta 1 particionada com 25.00 creditados em uma partição
+      JpaTestSupport.comServico(emf, s -> s.configureStriping(ids.get(1), 2));
+      JpaTestSupport.comServico(emf, s -> {
+         s.transfer(ids.get(0), ids.get(1), new BigDecimal("25.00"), ModoConcorrencia.PESSIMISTA);
+         return null;
+      });
+   }
+
+   @AfterAll
+   static void tearDown() {
+      emf.close();
+   }
+
+   @Test
+   void findPageProjected_ShouldMatchEntityPage_IncludingStripedBalances() {
+      List<Beneficio> entidades = JpaTestSupport.comServico(emf, s -> s.findPage(ids.get(0), 3, null, "conta"));
+      List<BeneficioProjecao> projecoes = JpaTestSupport.comServico(emf, s -> s.findPageProjected(ids.get(0), 3, null, "conta", null));
+
+      assertEquals(entidades.size(), projecoes.size());
+      for (int i = 0; i < entidades.size(); i++) {
+         Beneficio entidade = entidades.get(i);
+         BeneficioProjecao projecao = projecoes.get(i);
+         assertEquals(entidade.getId(), projecao.getId());
+         assertEquals(entidade.getNome(), projecao.getNome());
+         assertEquals(entidade.getDescricao(), projecao.getDescricao());
+         assertEquals(0, entidade.getSaldoTotal().compareTo(projecao.getValor()));
+         assertEquals(entidade.isAtivo(), projecao.isAtivo());
+      }
+      assertEquals(ids.get(1), projecoes.get(0).getId());
+      assertEquals(0, new BigDecimal("125.00").compareTo(projecoes.get(0).getValor()));
+      assertFalse(projecoes.get(2).isAtivo());
+   }
+
+   @Test
+   void findPageProjected_ShouldReadOnlySelectedColumns() {
+      List<BeneficioProjecao> projecoes = JpaTestSupport.comServico(emf,
+               s -> s.findPageProjected(null, 2, null, null, Set.of("nome", "valor")));
+
+      assertEquals(2, projecoes.size());
+      BeneficioProjecao segunda = projecoes.get(1);
+      assertEquals(ids.get(1), segunda.getId());
+      assertEquals("Conta 1", segunda.getNome());
+      assertEquals(0, new BigDecimal("125.00").compareTo(segunda.getValor()));
+      assertNull(segunda.getDescricao());
+   }
+
+   @Test
+   void findPageProjected_ShouldHonorTheProbeRow_SoFullPagesKeepPaging() {
+      // Mesmo protocolo do BeneficioServiceImpl com limit=500: pede 501 e usa a 501ª só como sonda
+      EntityManagerFactory grande = JpaTestSupport.criarEmf("projecao_paginas");
+      try {
+         List<Beneficio> contas = new ArrayList<>();
+         for (int i = 0; i < 1100; i++) {
+            contas.add(JpaTestSupport.novoBeneficio("Conta " + i, "1.00"));
+         }
+         JpaTestSupport.comServico(grande, s -> s.createAll(contas));
+
+         int limite = BeneficioEjbServiceLocal.MAX_PAGE_SIZE;
+         List<Long> lidos = new ArrayList<>();
+         List<Integer> paginas = new ArrayList<>();
+         Long afterId = null;
+         boolean temMais;
+         do {
+            Long cursor = afterId;
+            List<BeneficioProjecao> pagina = JpaTestSupport.comServico(grande,
+                     s -> s.findPageProjected(cursor, limite + 1, null, null, null));
+            temMais = pagina.size() > limite;
+            List<BeneficioProjecao> itens = pagina.subList(0, Math.min(limite, pagina.size()));
+            itens.forEach(p -> lidos.add(p.getId()));
+            paginas.add(itens.size());
+            afterId = itens.get(itens.size() - 1).getId();
+         } while (temMais);
+
+         assertEquals(List.of(500, 500, 100), paginas);
+         assertEquals(1100, lidos.stream().distinct().count());
+         assertEquals(limite + 1, JpaTestSupport.comServico(grande, s -> s.findPage(null, limite + 1, null, null)).size());
+         assertEquals(limite + 1, JpaTestSupport.comServico(grande,
+                  s -> s.findPageProjected(null, 100_000, null, null, Set.of("nome"))).size());
+      } finally {
+         grande.close();
+      }
+   }
+
+   @Test
+   void findPage_ShouldTreatLikeWildcardsInTheNameFilterAsLiterals() {
+      EntityManagerFactory curingas = JpaTestSupport.criarEmf("projecao_curingas");
+      try {
+         JpaTestSupport.comServico(curingas, s -> s.createAll(List.of(
+                  JpaTestSupport.novoBeneficio("Meta 100%", "1.00"),
+                  JpaTestSupport.novoBeneficio("conta_corrente", "1.00"),
+                  JpaTestSupport.novoBeneficio("Barra \\ ok", "1.00"),
+                  JpaTestSupport.novoBeneficio("Conta comum", "1.00"))));
+
+         assertEquals(List.of("Meta 100%"), nomes(curingas, "%"));
+         assertEquals(List.of("conta_corrente"), nomes(curingas, "_"));
+         assertEquals(List.of("Barra \\ ok"), nomes(curingas, "\\"));
+         assertEquals(List.of("conta_corrente", "Conta comum"), nomes(curingas, "conta"));
+      } finally {
+         curingas.close();
+      }
+   }
+
+   private static List<String> nomes(EntityManagerFactory fabrica, String filtro) {
+      return JpaTestSupport.comServico(fabrica, s -> s.findPage(null, 10, null, filtro)).stream()
+               .map(Beneficio::getNome)
+               .toList();
+   }
+
+   @Test
+   void findPageProjected_ShouldRejectUnknownFields() {
+      assertThrows(IllegalArgumentException.class, () -> JpaTestSupport.comServico(emf,
+               s -> s.findPageProjected(null, 10, null, null, Set.of("id", "senha"))));
+   }
+}
@@ -0,0 +1,153 @@
+package br.com.bip.ejb;
+
+import br.com.bip.ejb.entity.Beneficio;
+import br.com.bip.ejb.exception.VersaoDivergenteException;
+import br.com.bip.ejb.model.BeneficioProjecao;
+import br.com.bip.ejb.model.ModoConcorrencia;
+import br.com.bip.ejb.support.JpaTestSupport;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BeneficioVersaoTest {
+
+   private EntityManagerFactory emf;
+
+   @BeforeEach
+   void setUp(TestInfo teste) {
+      emf = JpaTestSupport.criarEmf("versao_" + teste.getTestMethod().orElseThrow().getName());
+   }
+
+   @AfterEach
+   void tearDown() {
+      emf.close();
+   }
+
+   private Long criar(String nome, String valor) {
+      Beneficio beneficio = JpaTestSupport.novoBeneficio(nome, valor);
+      return JpaTestSupport.comServico(emf, s -> s.create(beneficio).getId());
+   }
+
+   private Beneficio alteracao(Long id, String nome, Long versaoEsperada) {
+      Beneficio beneficio = JpaTestSupport.novoBeneficio(nome, "100.00");
+      beneficio.setId(id);
+      beneficio.setVersion(versaoEsperada);
+      return beneficio;
+   }
+
+   @Test
+   void update_ShouldApplyExpectedVersion_AndRejectStaleOne() {
+      Long id = criar("Original", "100.00");
+      Long versaoInicial = JpaTestSupport.comServico(emf, s -> s.findById(id).getVersion());
+
+      Beneficio atualizado = JpaTestSupport.comServico(emf, s -> s.update(alteracao(id, "Primeira", versaoInicial)));
+      assertEquals(versaoInicial + 1, atualizado.getVersion());
+
+      VersaoDivergenteException ex = assertThrows(VersaoDivergenteException.class,
+               () -> JpaTestSupport.comServico(emf, s -> s.update(alteracao(id, "Segunda", versaoInicial))));
+      assertEquals(versaoInicial + 1, ex.getVersaoAtual());
+      assertEquals("Primeira", JpaTestSupport.comServico(emf, s -> s.findById(id).getNome()));
+   }
+
+   @Test
+   void update_ShouldNotCreate_WhenExpectedVersionTargetsMissingBeneficio() {
+      VersaoDivergenteException ex = assertThrows(VersaoDivergenteException.class,
+               () -> JpaTestSupport.comServico(emf, s -> s.update(alteracao(999L, "Fantasma", 0L))));
+
+      assertNull(ex.getVersaoAtual());
+      assertTrue(JpaTestSupport.comServico(emf, s -> s.findAll()).isEmpty());
+   }
+
+   @Test
+   void update_ShouldLetLastWriteWin_WhenNoVersionIsExpected() {
+      Long id = criar("Original", "100.00");
+      Long versaoInicial = JpaTestSupport.comServico(emf, s -> s.findById(id).getVersion());
+      JpaTestSupport.comServico(emf, s -> s.update(alteracao(id, "Concorrente", versaoInicial)));
+
+      Beneficio atualizado = JpaTestSupport.comServico(emf, s -> s.update(alteracao(id, "Ultima", null)));
+
+      assertEquals(versaoInicial + 2, atualizado.getVersion());
+      assertEquals("Ultima", JpaTestSupport.comServico(emf, s -> s.findById(id).getNome()));
+   }
+
+   @Test
+   void update_ShouldKeepStripesZeroed_AndReportThem() {
+      Long id = criar("Particionada", "100.00");
+      JpaTestSupport.comServico(emf, s -> s.configureStriping(id, 4));
+      JpaTestSupport.comServico(emf, s -> {
+         s.transfer(criar("Origem", "50.00"), id, new BigDecimal("20.00"), ModoConcorrencia.PESSIMISTA);
+         return null;
+      });
+
+      Beneficio atualizado = JpaTestSupport.comServico(emf, s -> s.update(alteracao(id, "Nova", null)));
+
+      assertEquals(4, atualizado.getParticoes());
+      Beneficio lido = JpaTestSupport.comServico(emf, s -> s.findById(id));
+      assertEquals(new BigDecimal("100.00"), lido.getSaldoTotal());
+      assertEquals(4, lido.getParticoes());
+   }
+
+   @Test
+   void update_ShouldReportMissingBeneficio_WithoutCreatingIt_WhenNoVersionIsExpected() {
+      VersaoDivergenteException ex = assertThrows(VersaoDivergenteException.class,
+               () -> JpaTestSupport.comServico(emf, s -> s.update(alteracao(999L, "Fantasma", null))));
+
+      assertNull(ex.getVersaoAtual());
+      assertTrue(JpaTestSupport.comServico(emf, s -> s.findAll()).isEmpty());
+   }
+
+   @Test
+   void tableVersion_ShouldChangeOnInsertsDeletesLedgerEntriesAndProjection() {
+      Set<String> versoes = new HashSet<>();
+      versoes.add(JpaTestSupport.comServico(emf, BeneficioEjbService::tableVersion));
+
+      Long a = criar("A", "100.00");
+      Long b = criar("B", "100.00");
+      versoes.add(JpaTestSupport.comServico(emf, BeneficioEjbService::tableVersion));
+
+      JpaTestSupport.comServico(emf, s -> {
+         s.transfer(a, b, new BigDecimal("10.00"), ModoConcorrencia.PESSIMISTA);
+         return null;
+      });
+      versoes.add(JpaTestSupport.comServico(emf, BeneficioEjbService::tableVersion));
+
+      JpaTestSupport.comServico(emf, s -> {
+         s.transfer(a, b, new BigDecimal("10.00"), ModoConcorrencia.ASSINCRONO);
+         return null;
+      });
+      versoes.add(JpaTestSupport.comServico(emf, BeneficioEjbService::tableVersion));
+
+      JpaTestSupport.comServico(emf, s -> s.projectLedger(10));
+      versoes.add(JpaTestSupport.comServico(emf, BeneficioEjbService::tableVersion));
+
+      JpaTestSupport.comServico(emf, s -> {
+         s.deleteById(a);
+         return null;
+      });
+      String aposExclusao = JpaTestSupport.comServico(emf, BeneficioEjbService::tableVersion);
+      versoes.add(aposExclusao);
+
+      assertEquals(6, versoes.size());
+      assertEquals(aposExclusao, JpaTestSupport.comServico(emf, BeneficioEjbService::tableVersion));
+   }
+
+   @Test
+   void findPageProjected_ShouldCarryVersion() {
+      Long id = criar("A", "100.00");
+
+      Long versao = JpaTestSupport.comServico(emf, s -> s.findById(id).getVersion());
+      List<BeneficioProjecao> pagina = JpaTestSupport.comServico(emf, s -> s.findPageProjected(null, 10, null, null, null));
+
+      assertEquals(1, pagina.size());
+      assertEquals(versao, pagina.get(0).getVersion());
+   }
+}
@@ -0,0 +1,102 @@
+package br.com.bip.ejb;
+
+import br.com.bip.ejb.support.JpaTestSupport;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.eclipse.persistence.sessions.DatabaseRecord;
+import org.eclipse.persistence.jpa.JpaEntityManager;
+import org.eclipse.persistence.jpa.JpaQuery;
+import org.eclipse.persistence.queries.DatabaseQuery;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Planos de execução do H2 para o SQL que o EclipseLink gera a partir das consultas do serviço:
+ * falha se um índice das migrações deixar de ser usado ou se a listagem voltar a ordenar em memória.
+ */
+class PlanoConsultaTest {
+
+   private static final String URL = "jdbc:h2:mem:plano;DB_CLOSE_DELAY=-1";
+
+   private static EntityManagerFactory emf;
+
+   @BeforeAll
+   static void setUp() throws SQLException {
+      emf = JpaTestSupport.criarEmf("plano");
+      try (Connection conexao = DriverManager.getConnection(URL, "sa", ""); Statement st = conexao.createStatement()) {
+         st.execute("INSERT INTO BENEFICIO (ID, NOME, VALOR, ATIVO) SELECT X, 'Conta ' || X, 10.00, MOD(X, 5) <> 0"
+                  + " FROM SYSTEM_RANGE(1, 2000)");
+         st.execute("INSERT INTO TRANSFERENCIA SELECT X, 1, 2, 1.00, 'ASSINCRONO', CURRENT_TIMESTAMP, X > 1990"
+                  + " FROM SYSTEM_RANGE(1, 2000)");
+         st.execute("ANALYZE");
+      }
+   }
+
+   @AfterAll
+   static void tearDown() {
+      emf.close();
+   }
+
+   private static String plano(String jpql, Object... parametros) throws SQLException {
+      String sql;
+      EntityManager em = emf.createEntityManager();
+      try {
+         DatabaseQuery consulta = em.createQuery(jpql).unwrap(JpaQuery.class).getDatabaseQuery();
+         consulta.prepareCall(em.unwrap(JpaEntityManager.class).getActiveSession(), new DatabaseRecord());
+         sql = consulta.getSQLString();
+      } finally {
+         em.close();
+      }
+      try (Connection conexao = DriverManager.getConnection(URL, "sa", "");
+           PreparedStatement ps = conexao.prepareStatement("EXPLAIN " + sql)) {
+         for (int i = 0; i < parametros.length; i++) {
+            ps.setObject(i + 1, parametros[i]);
+         }
+         try (ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getString(1);
+         }
+      }
+   }
+
+   @Test
+   void paginaPorAtivo_ShouldSeekAtivoIdIndex_AlreadySorted() throws SQLException {
+      String plano = plano("SELECT b.id FROM Beneficio b" + BeneficioEjbService.filtroPagina(100L, false, null), 100L, false);
+
+      assertTrue(plano.contains("IDX_BENEFICIO_ATIVO_ID"), plano);
+      assertTrue(plano.contains("index sorted"), plano);
+   }
+
+   @Test
+   void pagina_ShouldSeekPrimaryKey_AlreadySorted() throws SQLException {
+      String plano = plano("SELECT b.id FROM Beneficio b" + BeneficioEjbService.filtroPagina(100L, null, null), 100L);
+
+      assertTrue(plano.contains("PRIMARY_KEY"), plano);
+      assertTrue(plano.contains("index sorted"), plano);
+   }
+
+   @Test
+   void pendentesDaProjecao_ShouldUsePendingIndex() throws SQLException {
+      String plano = plano(BeneficioEjbService.PENDENTES_QUERY);
+
+      assertTrue(plano.contains("IDX_TRANSFERENCIA_PENDENTE"), plano);
+      assertTrue(plano.contains("index sorted"), plano);
+   }
+
+   @Test
+   void expurgoIdempotencia_ShouldUseExpiryIndex() throws SQLException {
+      String plano = plano("DELETE FROM ChaveIdempotencia c WHERE c.expiraEm < :agora", new java.sql.Timestamp(0));
+
+      assertTrue(plano.contains("IDX_IDEMPOTENCIA_EXPIRA"), plano);
+   }
+}
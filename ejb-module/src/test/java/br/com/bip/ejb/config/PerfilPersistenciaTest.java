@@ -0,0 +1,48 @@
+package br.com.bip.ejb.config;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * O {@code persistence.xml} empacotado é o perfil de produção: nada de SQL nem de saldos no log
+ * por padrão, e o batch JDBC ligado. O que for só de desenvolvimento entra por {@link PerfilPersistencia#DEV}.
+ */
+class PerfilPersistenciaTest {
+
+   private static Map<String, String> propriedadesEmpacotadas() throws Exception {
+      Path xml = Path.of("src", "main", "resources", "META-INF", "persistence.xml");
+      NodeList nos = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(xml.toFile())
+               .getElementsByTagName("property");
+      Map<String, String> propriedades = new HashMap<>();
+      for (int i = 0; i < nos.getLength(); i++) {
+         Element no = (Element) nos.item(i);
+         propriedades.put(no.getAttribute("name"), no.getAttribute("value"));
+      }
+      return propriedades;
+   }
+
+   @Test
+   void persistenceXml_ShouldShipProductionLogging_AndBatchWriting() throws Exception {
+      Map<String, String> propriedades = propriedadesEmpacotadas();
+
+      assertEquals("WARNING", propriedades.get("eclipselink.logging.level"));
+      assertEquals("false", propriedades.get("eclipselink.logging.parameters"));
+      assertEquals("JDBC", propriedades.get("eclipselink.jdbc.batch-writing"));
+      assertEquals("none", propriedades.get("jakarta.persistence.schema-generation.database.action"));
+   }
+
+   @Test
+   void perfis_ShouldKeepSqlLoggingInDevOnly() {
+      assertEquals("FINE", PerfilPersistencia.DEV.propriedades().get("eclipselink.logging.level"));
+      assertFalse(PerfilPersistencia.PROD.propriedades().keySet().stream().anyMatch(p -> p.startsWith("eclipselink.logging")));
+      assertEquals("true", PerfilPersistencia.PROD.propriedades().get("eclipselink.jdbc.cache-statements"));
+   }
+}
@@ -0,0 +1,83 @@
+package br.com.bip.ejb.migracao;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MigracoesSchemaTest {
+
+   /** Raiz do repositório, a partir do diretório do módulo onde o Maven roda os testes. */
+   private static final Path DB = Path.of("..", "db");
+   private static final Path RECURSOS = Path.of("src", "main", "resources");
+
+   private static Connection conectar(String nome) throws SQLException {
+      return DriverManager.getConnection("jdbc:h2:mem:" + nome + ";DB_CLOSE_DELAY=-1", "sa", "");
+   }
+
+   private static long consultar(Connection conexao, String sql) throws SQLException {
+      try (Statement st = conexao.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+         rs.next();
+         return rs.getLong(1);
+      }
+   }
+
+   @Test
+   void scripts_ShouldBeIdenticalInDbFolderAndClasspath() throws IOException {
+      List<String> emDb;
+      try (Stream<Path> arquivos = Files.list(DB.resolve("migracoes"))) {
+         emDb = arquivos.map(p -> p.getFileName().toString()).sorted().toList();
+      }
+      assertEquals(MigracoesSchema.SCRIPTS.stream().sorted().toList(), emDb);
+      for (String script : MigracoesSchema.SCRIPTS) {
+         assertEquals(Files.readString(RECURSOS.resolve(MigracoesSchema.PASTA + script)),
+                  Files.readString(DB.resolve("migracoes").resolve(script)), script);
+      }
+      assertEquals(Files.readString(RECURSOS.resolve(MigracoesSchema.SEED)), Files.readString(DB.resolve("seed.sql")));
+   }
+
+   @Test
+   void aplicar_ShouldRunEachScriptOnce_AndRejectEditedScripts() throws SQLException {
+      try (Connection conexao = conectar("migracoes-idempotentes")) {
+         assertEquals(MigracoesSchema.SCRIPTS, MigracoesSchema.aplicar(conexao));
+         assertEquals(List.of(), MigracoesSchema.aplicar(conexao));
+         assertEquals(MigracoesSchema.SCRIPTS.size(), consultar(conexao, "SELECT COUNT(*) FROM SCHEMA_VERSAO"));
+
+         try (Statement st = conexao.createStatement()) {
+            st.executeUpdate("UPDATE SCHEMA_VERSAO SET CHECKSUM = CHECKSUM + 1 WHERE SCRIPT = 'V1__schema_inicial.sql'");
+         }
+         IllegalStateException ex = assertThrows(IllegalStateException.class, () -> MigracoesSchema.aplicar(conexao));
+         assertTrue(ex.getMessage().contains("V1__schema_inicial.sql"));
+      }
+   }
+
+   @Test
+   void v2_ShouldRestartTransferSequenceInBlocksAboveExistingIds() throws SQLException {
+      try (Connection conexao = conectar("migracoes-sequencia")) {
+         // Banco na versão 1, com lançamentos gravados pela alocação de um em um
+         MigracoesSchema.aplicar(conexao, MigracoesSchema.SCRIPTS.subList(0, 1));
+         try (Statement st = conexao.createStatement()) {
+            for (int i = 0; i < 3; i++) {
+               st.execute("INSERT INTO TRANSFERENCIA VALUES (NEXT VALUE FOR TRANSFERENCIA_ID_SEQ, 1, 2, 1.00,"
+                        + " 'PESSIMISTA', CURRENT_TIMESTAMP, TRUE)");
+            }
+         }
+
+         assertEquals(MigracoesSchema.SCRIPTS.subList(1, 2), MigracoesSchema.aplicar(conexao));
+
+         // allocationSize = 50: o EclipseLink usa [próximo - 49, próximo], que começa logo após o ID 3
+         assertEquals(53, consultar(conexao, "SELECT NEXT VALUE FOR TRANSFERENCIA_ID_SEQ"));
+         assertEquals(103, consultar(conexao, "SELECT NEXT VALUE FOR TRANSFERENCIA_ID_SEQ"));
+      }
+   }
+}
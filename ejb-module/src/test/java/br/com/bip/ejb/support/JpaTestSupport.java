@@ -0,0 +1,119 @@
+package br.com.bip.ejb.support;
+
+import br.com.bip.ejb.BeneficioEjbService;
+import br.com.bip.ejb.entity.Beneficio;
+import br.com.bip.ejb.metrics.TransferenciaMetricas;
+import br.com.bip.ejb.migracao.MigracoesSchema;
+import br.com.bip.ejb.validation.TransferenciaValidator;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Persistence;
+
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Simula o container EJB sobre um H2 em memória: cada chamada recebe um EntityManager
+ * novo dentro de uma transação RESOURCE_LOCAL, como aconteceria com CMT + REQUIRED.
+ */
+public final class JpaTestSupport {
+
+   /** Equivalente ao @Singleton do container: compartilhado entre todas as instâncias do serviço. */
+   public static final TransferenciaMetricas METRICAS = new TransferenciaMetricas();
+
+   private JpaTestSupport() {
+   }
+
+   /** Banco recriado do zero a cada chamada, pelas mesmas migrações aplicadas na subida do container. */
+   public static EntityManagerFactory criarEmf(String nomeBanco) {
+      String url = "jdbc:h2:mem:" + nomeBanco + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+      try (Connection conexao = DriverManager.getConnection(url, "sa", "")) {
+         try (Statement st = conexao.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+         }
+         MigracoesSchema.aplicar(conexao);
+      } catch (SQLException e) {
+         throw new IllegalStateException(e);
+      }
+      return Persistence.createEntityManagerFactory("bip-test-pu", Map.of("jakarta.persistence.jdbc.url", url));
+   }
+
+   public static <T> T emTransacao(EntityManagerFactory emf, Function<EntityManager, T> trabalho) {
+      EntityManager em = emf.createEntityManager();
+      EntityTransaction tx = em.getTransaction();
+      try {
+         tx.begin();
+         T resultado = trabalho.apply(em);
+         tx.commit();
+         return resultado;
+      } catch (RuntimeException e) {
+         if (tx.isActive()) {
+            tx.rollback();
+         }
+         throw e;
+      } finally {
+         em.close();
+      }
+   }
+
+   public static void executarEmTransacao(EntityManagerFactory emf, Consumer<EntityManager> trabalho) {
+      emTransacao(emf, em -> {
+         trabalho.accept(em);
+         return null;
+      });
+   }
+
+   /** Executa uma operação do EJB com o EntityManager da transação corrente injetado. */
+   public static <T> T comServico(EntityManagerFactory emf, Function<BeneficioEjbService, T> operacao) {
+      return emTransacao(emf, em -> operacao.apply(novoServico(em)));
+   }
+
+   public static BeneficioEjbService novoServico(EntityManager em) {
+      BeneficioEjbService servico = new BeneficioEjbService();
+      injetar(servico, "em", em);
+      injetar(servico, "validator", new TransferenciaValidator());
+      injetar(servico, "metricas", METRICAS);
+      return servico;
+   }
+
+   public static Beneficio novoBeneficio(String nome, String valor) {
+      Beneficio beneficio = new Beneficio();
+      beneficio.setNome(nome);
+      beneficio.setValor(new BigDecimal(valor));
+      beneficio.setAtivo(true);
+      return beneficio;
+   }
+
+   public static BigDecimal saldoTotal(EntityManagerFactory emf) {
+      return emTransacao(emf, em -> {
+         BigDecimal principal = em.createQuery("SELECT SUM(b.valor) FROM Beneficio b", BigDecimal.class)
+                  .getSingleResult();
+         BigDecimal particoes = em.createQuery("SELECT SUM(p.valor) FROM BeneficioParticao p", BigDecimal.class)
+                  .getSingleResult();
+         // Créditos do livro-razão ainda não projetados já saíram da origem
+         BigDecimal pendentes = em.createQuery("SELECT SUM(t.valor) FROM Transferencia t WHERE t.aplicada = false", BigDecimal.class)
+                  .getSingleResult();
+         return principal
+                  .add(particoes != null ? particoes : BigDecimal.ZERO)
+                  .add(pendentes != null ? pendentes : BigDecimal.ZERO);
+      });
+   }
+
+   private static void injetar(Object alvo, String campo, Object valor) {
+      try {
+         Field field = alvo.getClass().getDeclaredField(campo);
+         field.setAccessible(true);
+         field.set(alvo, valor);
+      } catch (ReflectiveOperationException e) {
+         throw new IllegalStateException("Falha ao injetar " + campo + " via reflection", e);
+      }
+   }
+}
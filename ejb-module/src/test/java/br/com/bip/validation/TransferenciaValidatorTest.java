@@ -2,6 +2,7 @@ package br.com.bip.validation;
 
 import br.com.bip.ejb.entity.Beneficio;
 import br.com.bip.ejb.exception.TransferenciaException;
+import br.com.bip.ejb.model.MotivoRecusa;
 import br.com.bip.ejb.validation.TransferenciaValidator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -113,6 +114,7 @@ class TransferenciaValidatorTest {
 
       // Mensagem de erro atualizada para usar a variável
       assertEquals("Saldo insuficiente na conta de origem (ID: " + idBeneficioOrigem + ").", ex.getMessage());
+      assertEquals(MotivoRecusa.SALDO_INSUFICIENTE, ex.getMotivo());
    }
 }
 
@@ -18,7 +18,8 @@ export class BeneficioListComponent implements OnInit {
   private beneficioService = inject(BeneficioService);
   private notificationService = inject(NotificationService);
 
-  public beneficios = signal<Beneficio[]>([]);
+  // Store do serviço: o feed de alterações mantém a lista sem recarregá-la
+  public beneficios = this.beneficioService.beneficios;
   public showForm = signal(false);
   public beneficioSelecionado = signal<Beneficio | null>(null);
 
@@ -39,12 +40,12 @@ export class BeneficioListComponent implements OnInit {
   });
   
   ngOnInit(): void {
+    this.beneficioService.conectarEventos();
     this.loadBeneficios();
   }
 
   loadBeneficios(): void {
-    this.beneficioService.getBeneficios().subscribe({
-      next: (data: any) => this.beneficios.set(data),
+    this.beneficioService.carregarBeneficios().subscribe({
       error: (err: any) => this.handleError('Erro ao carregar benefícios.', err)
     });
   }
@@ -112,7 +113,6 @@ export class BeneficioListComponent implements OnInit {
 
     operacao.subscribe({
       next: () => {
-        this.loadBeneficios();
         this.closeForm();
         this.notificationService.showSuccess(successMsg);
       },
@@ -124,7 +124,6 @@ export class BeneficioListComponent implements OnInit {
     if (confirm('Tem certeza que deseja excluir este benefício?')) {
       this.beneficioService.deleteBeneficio(id).subscribe({
         next: () => {
-          this.loadBeneficios();
           this.notificationService.showSuccess('Benefício excluído com sucesso!');
         },
         error: (err: any) => this.handleError('Erro ao excluir benefício.', err)
@@ -170,11 +169,15 @@ onTransfer(): void {
       valor: valorNum
     };
 
+    // O servidor aceita a transferência na fila: o modal fecha sem esperar o commit
+    this.closeTransferModal();
     this.beneficioService.transferir(payload).subscribe({
-      next: () => {
-        this.notificationService.showSuccess('Transferência realizada com sucesso!');
-        this.loadBeneficios();
-        this.closeTransferModal();
+      next: (status) => {
+        if (status.situacao === 'CONCLUIDA') {
+          this.notificationService.showSuccess('Transferência realizada com sucesso!');
+        } else {
+          this.notificationService.showError('Transferência recusada.', status.mensagem ?? undefined);
+        }
       },
       error: (err: any) => this.handleError('Erro ao realizar transferência.', err)
     });
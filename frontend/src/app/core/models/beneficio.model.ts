@@ -4,6 +4,52 @@ export interface Beneficio {
   descricao: string;
   valor: number;
   ativo: boolean;
+  /** Versão da conta; ordena os deltas do feed de alterações. */
+  version?: number;
 }
 
-export type BeneficioCreateDTO = Omit<Beneficio, 'id'>;
+export type BeneficioCreateDTO = Omit<Beneficio, 'id' | 'version'>;
+
+/**
+ * Delta do feed GET /eventos. Transferências trazem só valor, ativo e
+ * version; criações e edições trazem também nome e descrição.
+ */
+export interface BeneficioAlteracao {
+  id: number;
+  valor?: number;
+  ativo?: boolean;
+  version?: number;
+  nome?: string;
+  descricao?: string;
+  removido?: boolean;
+}
+
+/**
+ * Agregados calculados no servidor (GET /estatisticas), sem baixar a lista.
+ * Com resumo=true, mínimo, máximo e percentis vêm nulos.
+ */
+export interface BeneficioEstatisticas {
+  quantidade: number;
+  ativos: number;
+  inativos: number;
+  soma: number;
+  minimo: number | null;
+  maximo: number | null;
+  percentil50: number | null;
+  percentil90: number | null;
+  percentil99: number | null;
+  resumo: boolean;
+}
+
+/**
+ * Estado de uma transferência submetida com Prefer: respond-async
+ * (POST /transferir retorna 202; GET /transferir/{id} consulta).
+ */
+export interface TransferenciaStatus {
+  id: string;
+  situacao: 'PENDENTE' | 'CONCLUIDA' | 'RECUSADA';
+  idBeneficioOrigem: number;
+  idBeneficioDestino: number;
+  valor: number;
+  mensagem: string | null;
+}
@@ -1,8 +1,14 @@
-import { Injectable, inject } from '@angular/core';
+import { Injectable, OnDestroy, inject, signal } from '@angular/core';
 import { HttpClient, HttpErrorResponse } from '@angular/common/http';
-import { Observable, throwError } from 'rxjs';
-import { catchError } from 'rxjs/operators';
-import { Beneficio, BeneficioCreateDTO } from '../models/beneficio.model';
+import { Observable, of, throwError, timer } from 'rxjs';
+import { catchError, exhaustMap, filter, switchMap, take, tap } from 'rxjs/operators';
+import {
+  Beneficio,
+  BeneficioAlteracao,
+  BeneficioCreateDTO,
+  BeneficioEstatisticas,
+  TransferenciaStatus,
+} from '../models/beneficio.model';
 
 export interface BeneficioTransferDTO {
   idBeneficioOrigem: number;
@@ -12,25 +18,85 @@ export interface BeneficioTransferDTO {
 
 /**
  * Serviço responsável por toda a comunicação HTTP
- * com a API de Benefícios
+ * com a API de Benefícios. Mantém a lista em um signal, atualizada
+ * pelo feed de alterações (GET /eventos) sem baixar a tabela de novo.
  */
 @Injectable({
   providedIn: 'root',
 })
-export class BeneficioService {
+export class BeneficioService implements OnDestroy {
   private http = inject(HttpClient);
   private apiUrl = '/api/v1/beneficios';
 
+  private store = signal<Beneficio[]>([]);
+  readonly beneficios = this.store.asReadonly();
+
+  private eventos: EventSource | null = null;
+  private carregando = false;
+  // Deltas que chegam durante a carga da lista, reaplicados sobre ela
+  private deltasDuranteCarga: BeneficioAlteracao[] = [];
+
   getBeneficios(): Observable<Beneficio[]> {
     return this.http
       .get<Beneficio[]>(this.apiUrl)
       .pipe(catchError(this.handleError));
   }
 
+  /** Carrega a lista completa no store; o feed de alterações a mantém em dia. */
+  carregarBeneficios(): Observable<Beneficio[]> {
+    this.carregando = true;
+    this.deltasDuranteCarga = [];
+    return this.getBeneficios().pipe(
+      tap({
+        next: (lista) => {
+          this.carregando = false;
+          this.store.set(lista);
+          this.deltasDuranteCarga.forEach((delta) => this.aplicar(delta));
+          this.deltasDuranteCarga = [];
+        },
+        error: () => (this.carregando = false),
+      })
+    );
+  }
+
+  /**
+   * Assina o feed de alterações. O EventSource reconecta sozinho enviando
+   * Last-Event-ID; se o servidor não puder retomar, envia `reinicio` e a
+   * lista é recarregada.
+   */
+  conectarEventos(): void {
+    if (this.eventos) {
+      return;
+    }
+    this.eventos = new EventSource(`${this.apiUrl}/eventos`);
+    this.eventos.addEventListener('beneficio', (evento) =>
+      this.receber(JSON.parse((evento as MessageEvent).data))
+    );
+    this.eventos.addEventListener('reinicio', () =>
+      this.carregarBeneficios().subscribe()
+    );
+  }
+
+  ngOnDestroy(): void {
+    this.eventos?.close();
+    this.eventos = null;
+  }
+
+  getEstatisticas(resumo = false): Observable<BeneficioEstatisticas> {
+    return this.http
+      .get<BeneficioEstatisticas>(`${this.apiUrl}/estatisticas`, {
+        params: { resumo },
+      })
+      .pipe(catchError(this.handleError));
+  }
+
   createBeneficio(beneficio: BeneficioCreateDTO): Observable<Beneficio> {
     return this.http
       .post<Beneficio>(this.apiUrl, beneficio)
-      .pipe(catchError(this.handleError));
+      .pipe(
+        tap((criado) => this.aplicar(criado)),
+        catchError(this.handleError)
+      );
   }
 
   updateBeneficio(
@@ -39,19 +105,102 @@ export class BeneficioService {
   ): Observable<Beneficio> {
     return this.http
       .put<Beneficio>(`${this.apiUrl}/${id}`, beneficio)
-      .pipe(catchError(this.handleError));
+      .pipe(
+        tap((atualizado) => this.aplicar(atualizado)),
+        catchError(this.handleError)
+      );
   }
 
   deleteBeneficio(id: number): Observable<void> {
     return this.http
       .delete<void>(`${this.apiUrl}/${id}`)
-      .pipe(catchError(this.handleError));
+      .pipe(
+        tap(() => this.aplicar({ id, removido: true })),
+        catchError(this.handleError)
+      );
   }
 
-  transferir(payload: BeneficioTransferDTO): Observable<void> {
+  /**
+   * Submete a transferência sem segurar a requisição (202) e emite o
+   * resultado final (CONCLUIDA ou RECUSADA) quando a execução termina.
+   */
+  transferir(payload: BeneficioTransferDTO): Observable<TransferenciaStatus> {
     return this.http
-      .post<void>(`${this.apiUrl}/transferir`, payload)
-      .pipe(catchError(this.handleError));
+      .post<TransferenciaStatus>(`${this.apiUrl}/transferir`, payload, {
+        headers: { Prefer: 'respond-async' },
+      })
+      .pipe(
+        switchMap((status) =>
+          status.situacao === 'PENDENTE'
+            ? this.aguardarTransferencia(status.id)
+            : of(status)
+        ),
+        catchError(this.handleError)
+      );
+  }
+
+  /** Consulta GET /transferir/{id} até a transferência sair de PENDENTE. */
+  private aguardarTransferencia(id: string): Observable<TransferenciaStatus> {
+    return timer(100, 500).pipe(
+      exhaustMap(() =>
+        this.http.get<TransferenciaStatus>(`${this.apiUrl}/transferir/${id}`)
+      ),
+      filter((status) => status.situacao !== 'PENDENTE'),
+      take(1)
+    );
+  }
+
+  private receber(delta: BeneficioAlteracao): void {
+    if (this.carregando) {
+      this.deltasDuranteCarga.push(delta);
+    }
+    this.aplicar(delta);
+  }
+
+  /**
+   * Aplica um delta ao store. Versões mais antigas que a já exibida são
+   * ignoradas (a resposta de uma escrita pode chegar depois do evento).
+   * Conta desconhecida só entra se o delta trouxer o nome (criação).
+   */
+  private aplicar(delta: BeneficioAlteracao): void {
+    this.store.update((lista) => {
+      const indice = lista.findIndex((b) => b.id === delta.id);
+      if (delta.removido) {
+        return indice < 0 ? lista : lista.filter((b) => b.id !== delta.id);
+      }
+      if (indice < 0) {
+        if (delta.nome === undefined) {
+          return lista;
+        }
+        const novo: Beneficio = {
+          id: delta.id,
+          nome: delta.nome,
+          descricao: delta.descricao ?? '',
+          valor: delta.valor ?? 0,
+          ativo: delta.ativo ?? true,
+          version: delta.version,
+        };
+        return [...lista, novo].sort((a, b) => a.id - b.id);
+      }
+      const atual = lista[indice];
+      if (
+        atual.version !== undefined &&
+        delta.version !== undefined &&
+        delta.version < atual.version
+      ) {
+        return lista;
+      }
+      const copia = [...lista];
+      copia[indice] = {
+        ...atual,
+        valor: delta.valor ?? atual.valor,
+        ativo: delta.ativo ?? atual.ativo,
+        version: delta.version ?? atual.version,
+        nome: delta.nome ?? atual.nome,
+        descricao: delta.descricao ?? atual.descricao,
+      };
+      return copia;
+    });
   }
 
   private handleError(error: HttpErrorResponse) {